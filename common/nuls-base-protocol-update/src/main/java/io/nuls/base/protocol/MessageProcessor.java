@@ -1,5 +1,7 @@
 package io.nuls.base.protocol;
 
+import io.nuls.base.RPCUtil;
+
 public interface MessageProcessor {
 
     /**
@@ -17,4 +19,15 @@ public interface MessageProcessor {
      */
     void process(int chainId, String nodeId, String message);
 
+    /**
+     * 二进制帧连接中消息体为byte[]，默认转为hex字符串处理，高频消息的处理器可重写此方法直接解析
+     *
+     * @param chainId
+     * @param nodeId
+     * @param message
+     */
+    default void process(int chainId, String nodeId, byte[] message) {
+        process(chainId, nodeId, RPCUtil.encode(message));
+    }
+
 }
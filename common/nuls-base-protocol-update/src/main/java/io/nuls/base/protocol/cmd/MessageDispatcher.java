@@ -56,10 +56,15 @@ public final class MessageDispatcher extends BaseCmd {
         int chainId = Integer.parseInt(params.get(Constants.CHAIN_ID).toString());
         String nodeId = (String) params.get("nodeId");
         String cmd = (String) params.get("cmd");
-        String msgStr = (String) params.get("messageBody");
+        //二进制帧连接中消息体为byte[]，文本帧连接中为hex字符串
+        Object messageBody = params.get("messageBody");
         for (MessageProcessor processor : processors) {
             if (cmd.equals(processor.getCmd())) {
-                processor.process(chainId, nodeId, msgStr);
+                if (messageBody instanceof byte[]) {
+                    processor.process(chainId, nodeId, (byte[]) messageBody);
+                } else {
+                    processor.process(chainId, nodeId, (String) messageBody);
+                }
             }
         }
         return success();
@@ -74,16 +74,17 @@ public final class TransactionDispatcher extends BaseCmd {
         ObjectUtils.canNotEmpty(params.get(Constants.CHAIN_ID), CommonCodeConstanst.PARAMETER_ERROR.getMsg());
         ObjectUtils.canNotEmpty(params.get("txList"), CommonCodeConstanst.PARAMETER_ERROR.getMsg());
         int chainId = Integer.parseInt(params.get(Constants.CHAIN_ID).toString());
-        String blockHeaderStr = (String) params.get("blockHeader");
+        //二进制帧连接中交易与区块头为byte[]，文本帧连接中为hex字符串
+        Object blockHeaderData = params.get("blockHeader");
         BlockHeader blockHeader = null;
-        if (StringUtils.isNotBlank(blockHeaderStr)) {
-            blockHeader = RPCUtil.getInstanceRpcStr(blockHeaderStr, BlockHeader.class);
+        if (blockHeaderData instanceof byte[] || StringUtils.isNotBlank((String) blockHeaderData)) {
+            blockHeader = RPCUtil.getInstanceRpcData(blockHeaderData, BlockHeader.class);
         }
-        List<String> txList = (List<String>) params.get("txList");
+        List<Object> txList = (List<Object>) params.get("txList");
         List<Transaction> txs = new ArrayList<>();
         List<Transaction> finalInvalidTxs = new ArrayList<>();
-        for (String txStr : txList) {
-            Transaction tx = RPCUtil.getInstanceRpcStr(txStr, Transaction.class);
+        for (Object txData : txList) {
+            Transaction tx = RPCUtil.getInstanceRpcData(txData, Transaction.class);
             txs.add(tx);
         }
         Map<Integer, List<Transaction>> map = new HashMap<>();
@@ -131,12 +132,11 @@ public final class TransactionDispatcher extends BaseCmd {
         ObjectUtils.canNotEmpty(params.get("txList"), CommonCodeConstanst.PARAMETER_ERROR.getMsg());
         ObjectUtils.canNotEmpty(params.get("blockHeader"), CommonCodeConstanst.PARAMETER_ERROR.getMsg());
         int chainId = Integer.parseInt(params.get(Constants.CHAIN_ID).toString());
-        String blockHeaderStr = (String) params.get("blockHeader");
-        BlockHeader blockHeader = RPCUtil.getInstanceRpcStr(blockHeaderStr, BlockHeader.class);
-        List<String> txList = (List<String>) params.get("txList");
+        BlockHeader blockHeader = RPCUtil.getInstanceRpcData(params.get("blockHeader"), BlockHeader.class);
+        List<Object> txList = (List<Object>) params.get("txList");
         List<Transaction> txs = new ArrayList<>();
-        for (String txStr : txList) {
-            Transaction tx = RPCUtil.getInstanceRpcStr(txStr, Transaction.class);
+        for (Object txData : txList) {
+            Transaction tx = RPCUtil.getInstanceRpcData(txData, Transaction.class);
             txs.add(tx);
         }
         commitAdvice.begin(chainId, txs, blockHeader);
@@ -181,12 +181,11 @@ public final class TransactionDispatcher extends BaseCmd {
         ObjectUtils.canNotEmpty(params.get("txList"), CommonCodeConstanst.PARAMETER_ERROR.getMsg());
         ObjectUtils.canNotEmpty(params.get("blockHeader"), CommonCodeConstanst.PARAMETER_ERROR.getMsg());
         int chainId = Integer.parseInt(params.get(Constants.CHAIN_ID).toString());
-        String blockHeaderStr = (String) params.get("blockHeader");
-        BlockHeader blockHeader = RPCUtil.getInstanceRpcStr(blockHeaderStr, BlockHeader.class);
-        List<String> txList = (List<String>) params.get("txList");
+        BlockHeader blockHeader = RPCUtil.getInstanceRpcData(params.get("blockHeader"), BlockHeader.class);
+        List<Object> txList = (List<Object>) params.get("txList");
         List<Transaction> txs = new ArrayList<>();
-        for (String txStr : txList) {
-            Transaction tx = RPCUtil.getInstanceRpcStr(txStr, Transaction.class);
+        for (Object txData : txList) {
+            Transaction tx = RPCUtil.getInstanceRpcData(txData, Transaction.class);
             txs.add(tx);
         }
         rollbackAdvice.begin(chainId, txs, blockHeader);
@@ -40,6 +40,28 @@ public class RPCUtil {
         return (src == null) ? null : HexUtil.decode(src);
     }
 
+    /**
+     * 解析RPC参数中的字节数组，二进制帧中为byte[]，文本帧中为hex字符串
+     * Parse byte array from RPC parameter, byte[] in binary frame and hex string in text frame
+     */
+    public static byte[] decode(Object src) {
+        if (src instanceof byte[]) {
+            return (byte[]) src;
+        }
+        return decode((String) src);
+    }
+
+    /**
+     * 将RPC参数统一转换为hex字符串
+     * Convert RPC parameter to hex string
+     */
+    public static String toRpcStr(Object src) {
+        if (src instanceof byte[]) {
+            return encode((byte[]) src);
+        }
+        return (String) src;
+    }
+
     public static <T> T getInstance(byte[] bytes, Class<? extends BaseNulsData> clazz) {
         if (null == bytes || bytes.length == 0) {
             Log.error("error code-" + CommonCodeConstanst.DESERIALIZE_ERROR);
@@ -70,4 +92,20 @@ public class RPCUtil {
         }
         return getInstance(decode(data), clazz);
     }
+
+    /**
+     * RPCUtil 反序列化，参数可为二进制帧中的byte[]或文本帧中的hex字符串
+     * Deserialize RPC parameter, byte[] in binary frame or hex string in text frame
+     *
+     * @param data
+     * @param clazz
+     * @param <T>
+     * @return
+     */
+    public static <T> T getInstanceRpcData(Object data, Class<? extends BaseNulsData> clazz) {
+        if (data instanceof byte[]) {
+            return getInstance((byte[]) data, clazz);
+        }
+        return getInstanceRpcStr((String) data, clazz);
+    }
 }
@@ -0,0 +1,212 @@
+/*
+ * MIT License
+ *
+ * Copyright (c) 2017-2019 nuls.io
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ *
+ */
+package io.nuls.base.data;
+
+import io.nuls.base.basic.NulsByteBuffer;
+import io.nuls.base.basic.NulsOutputStreamBuffer;
+import io.nuls.core.crypto.Sha256Hash;
+import io.nuls.core.exception.NulsException;
+import io.nuls.core.parse.SerializeUtils;
+import org.bouncycastle.crypto.macs.SipHash;
+import org.bouncycastle.crypto.params.KeyParameter;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * 紧凑区块，用于新区块的广播，以加盐的6字节短交易ID代替32字节的交易hash
+ * 短交易ID = SipHash-2-4(key, 交易hash)的低48位，key取sha256(区块hash + nonce)的前16字节
+ * 预填交易列表包含发送方预计接收方没有的交易（系统交易、发送方自己也曾缺失的交易）
+ * Compact block, used for broadcasting new blocks, replaces the 32-byte transaction hash with a salted 6-byte short id.
+ * Short id = lower 48 bits of SipHash-2-4(key, tx hash), key is the first 16 bytes of sha256(block hash + nonce).
+ * The prefilled transaction list contains the transactions the sender predicts the receiver does not have.
+ */
+public class CompactBlock extends BaseNulsData {
+
+    /**
+     * 短交易ID的字节数
+     * byte length of short transaction id
+     */
+    public static final int SHORT_TX_ID_LENGTH = 6;
+
+    private static final long SHORT_TX_ID_MASK = 0xFFFFFFFFFFFFL;
+
+    /**
+     * 区块头
+     * block header
+     */
+    private BlockHeader header;
+
+    /**
+     * 计算短交易ID的盐
+     * salt of short transaction id
+     */
+    private long nonce;
+
+    /**
+     * 区块中全部交易的短交易ID，与区块中交易顺序一致
+     * short ids of all transactions in the block, in block order
+     */
+    private List<Long> shortTxIdList = new ArrayList<>();
+
+    /**
+     * 预填的完整交易
+     * prefilled transactions
+     */
+    private List<Transaction> prefilledTxList = new ArrayList<>();
+
+    private transient byte[] sipKey;
+
+    public CompactBlock() {
+    }
+
+    @Override
+    public int size() {
+        int size = header.size();
+        size += SerializeUtils.sizeOfInt64();
+        size += SerializeUtils.sizeOfVarInt(shortTxIdList.size());
+        size += shortTxIdList.size() * SHORT_TX_ID_LENGTH;
+        size += SerializeUtils.sizeOfVarInt(prefilledTxList.size());
+        for (Transaction tx : prefilledTxList) {
+            size += SerializeUtils.sizeOfNulsData(tx);
+        }
+        return size;
+    }
+
+    @Override
+    protected void serializeToStream(NulsOutputStreamBuffer stream) throws IOException {
+        stream.writeNulsData(header);
+        stream.writeInt64(nonce);
+        stream.writeVarInt(shortTxIdList.size());
+        for (long shortTxId : shortTxIdList) {
+            stream.writeUint48(shortTxId);
+        }
+        stream.writeVarInt(prefilledTxList.size());
+        for (Transaction tx : prefilledTxList) {
+            stream.writeNulsData(tx);
+        }
+    }
+
+    @Override
+    public void parse(NulsByteBuffer byteBuffer) throws NulsException {
+        this.header = byteBuffer.readNulsData(new BlockHeader());
+        this.nonce = byteBuffer.readInt64();
+
+        long shortTxIdSize = byteBuffer.readVarInt();
+        this.shortTxIdList = new ArrayList<>((int) Math.min(shortTxIdSize, header.getTxCount()));
+        for (int i = 0; i < shortTxIdSize; i++) {
+            //readUint48将全1读为-1, 按48位还原
+            this.shortTxIdList.add(byteBuffer.readUint48() & SHORT_TX_ID_MASK);
+        }
+
+        this.prefilledTxList = new ArrayList<>();
+        long prefilledTxSize = byteBuffer.readVarInt();
+        for (int i = 0; i < prefilledTxSize; i++) {
+            Transaction tx = byteBuffer.readTransaction();
+            tx.setBlockHeight(header.getHeight());
+            this.prefilledTxList.add(tx);
+        }
+    }
+
+    /**
+     * 计算短交易ID的SipHash key
+     * SipHash key of short transaction ids
+     *
+     * @return 16字节key
+     */
+    public byte[] getSipKey() {
+        if (sipKey == null) {
+            byte[] blockHash = header.getHash().getBytes();
+            byte[] data = new byte[blockHash.length + 8];
+            System.arraycopy(blockHash, 0, data, 0, blockHash.length);
+            SerializeUtils.uint64ToByteArrayLE(nonce, data, blockHash.length);
+            byte[] key = new byte[16];
+            System.arraycopy(Sha256Hash.hash(data), 0, key, 0, key.length);
+            sipKey = key;
+        }
+        return sipKey;
+    }
+
+    /**
+     * 计算交易的短ID
+     * Calculate short id of a transaction
+     *
+     * @param txHash 交易hash
+     * @return 48位短交易ID
+     */
+    public long shortTxId(NulsHash txHash) {
+        return shortTxId(getSipKey(), txHash.getBytes());
+    }
+
+    /**
+     * 使用指定key计算交易的短ID
+     * Calculate short id of a transaction with the given key
+     *
+     * @param sipKey 16字节key
+     * @param txHash 交易hash
+     * @return 48位短交易ID
+     */
+    public static long shortTxId(byte[] sipKey, byte[] txHash) {
+        SipHash sipHash = new SipHash();
+        sipHash.init(new KeyParameter(sipKey));
+        sipHash.update(txHash, 0, txHash.length);
+        return sipHash.doFinal() & SHORT_TX_ID_MASK;
+    }
+
+    public BlockHeader getHeader() {
+        return header;
+    }
+
+    public void setHeader(BlockHeader header) {
+        this.header = header;
+        this.sipKey = null;
+    }
+
+    public long getNonce() {
+        return nonce;
+    }
+
+    public void setNonce(long nonce) {
+        this.nonce = nonce;
+        this.sipKey = null;
+    }
+
+    public List<Long> getShortTxIdList() {
+        return shortTxIdList;
+    }
+
+    public void setShortTxIdList(List<Long> shortTxIdList) {
+        this.shortTxIdList = shortTxIdList;
+    }
+
+    public List<Transaction> getPrefilledTxList() {
+        return prefilledTxList;
+    }
+
+    public void setPrefilledTxList(List<Transaction> prefilledTxList) {
+        this.prefilledTxList = prefilledTxList;
+    }
+}
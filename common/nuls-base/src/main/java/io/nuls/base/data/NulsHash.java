@@ -47,12 +47,18 @@ public class NulsHash {
 
     private String hex;
 
+    /**
+     * 缓存的hashCode, 0表示尚未计算, 作为去重集合等的key时不必每次遍历32字节
+     */
+    private int hash;
+
     public NulsHash() {
     }
 
     public NulsHash(byte[] bytes) {
         this.bytes = bytes;
         this.hex = null;
+        this.hash = 0;
         if (bytes.length != HASH_LENGTH) {
             throw new RuntimeException("the length is not eq 32 byte");
         }
@@ -61,6 +67,7 @@ public class NulsHash {
     public void parse(NulsByteBuffer buffer) throws NulsException {
         this.bytes = buffer.readBytes(HASH_LENGTH);
         this.hex = null;
+        this.hash = 0;
     }
 
     public String toHex() {
@@ -133,7 +140,12 @@ public class NulsHash {
 
     @Override
     public int hashCode() {
-        return Arrays.hashCode(this.bytes);
+        int h = hash;
+        if (h == 0) {
+            h = Arrays.hashCode(this.bytes);
+            hash = h;
+        }
+        return h;
     }
 
     @Override
@@ -25,6 +25,8 @@
 package io.nuls.base.signture;
 
 
+import com.google.common.cache.Cache;
+import com.google.common.cache.CacheBuilder;
 import io.nuls.base.basic.AddressTool;
 import io.nuls.base.data.NulsHash;
 import io.nuls.base.data.NulsSignData;
@@ -38,11 +40,14 @@ import io.nuls.core.constant.TxType;
 import io.nuls.core.core.annotation.Component;
 import io.nuls.core.crypto.ECKey;
 import io.nuls.core.crypto.HexUtil;
+import io.nuls.core.crypto.Sha256Hash;
 import io.nuls.core.exception.NulsException;
 import io.nuls.core.log.Log;
+import io.nuls.core.model.ByteArrayWrapper;
 
 import java.io.IOException;
 import java.math.BigInteger;
+import java.security.MessageDigest;
 import java.util.*;
 
 /**
@@ -56,6 +61,14 @@ import java.util.*;
 public class SignatureUtil {
 
     private static final int MAIN_CHAIN_ID = 1;
+
+    /**
+     * 已验证通过的签名缓存, key为(交易hash, 公钥, 签名)各自加长度前缀后的摘要
+     * 交易在接收时已验证过签名, 随区块再次验证时直接跳过
+     * Verified signature cache keyed by the digest of the length-prefixed (tx hash, public key, signature),
+     * a transaction verified when received is not verified again when it arrives in a block
+     */
+    private static final Cache<ByteArrayWrapper, Boolean> VERIFIED_SIGNATURES = CacheBuilder.newBuilder().maximumSize(100000).build();
     /**
      * 验证交易中所有签名正确性
      *
@@ -82,7 +95,7 @@ public class SignatureUtil {
                 if (forked) {
                     //这里用硬分叉后的新逻辑
                     for (P2PHKSignature signature : transactionSignature.getP2PHKSignatures()) {
-                        if (!ECKey.verify(tx.getHash().getBytes(), signature.getSignData().getSignBytes(), signature.getPublicKey())) {
+                        if (!verifySignature(tx.getHash().getBytes(), signature)) {
                             throw new NulsException(new Exception("Transaction signature error !"));
                         }
                     }
@@ -90,7 +103,7 @@ public class SignatureUtil {
                     int signCount = tx.getCoinDataInstance().getFromAddressCount();
                     int passCount = 0;
                     for (P2PHKSignature signature : transactionSignature.getP2PHKSignatures()) {
-                        if (!ECKey.verify(tx.getHash().getBytes(), signature.getSignData().getSignBytes(), signature.getPublicKey())) {
+                        if (!verifySignature(tx.getHash().getBytes(), signature)) {
                             throw new NulsException(new Exception("Transaction signature error !"));
                         }
                         passCount++;
@@ -108,7 +121,7 @@ public class SignatureUtil {
                 List<P2PHKSignature> validSignatures = transactionSignature.getValidSignature();
                 int validCount = 0;
                 for (P2PHKSignature signature : validSignatures) {
-                    if (ECKey.verify(tx.getHash().getBytes(), signature.getSignData().getSignBytes(), signature.getPublicKey())) {
+                    if (verifySignature(tx.getHash().getBytes(), signature)) {
                         validCount++;
                     }
                     if (!forked && validCount >= transactionSignature.getM()) {
@@ -146,7 +159,7 @@ public class SignatureUtil {
         int passCount = 0;
         String signAddress;
         for (P2PHKSignature signature : transactionSignature.getP2PHKSignatures()) {
-            if (!ECKey.verify(tx.getHash().getBytes(), signature.getSignData().getSignBytes(), signature.getPublicKey())) {
+            if (!verifySignature(tx.getHash().getBytes(), signature)) {
                 throw new NulsException(new Exception("Transaction signature error !"));
             }
             signAddress = AddressTool.getStringAddressByBytes(AddressTool.getAddress(signature.getPublicKey(), chainId));
@@ -180,7 +193,7 @@ public class SignatureUtil {
         TransactionSignature transactionSignature = new TransactionSignature();
         transactionSignature.parse(tx.getTransactionSignature(), 0);
         for (P2PHKSignature signature : transactionSignature.getP2PHKSignatures()) {
-            if (!ECKey.verify(tx.getHash().getBytes(), signature.getSignData().getSignBytes(), signature.getPublicKey())) {
+            if (!verifySignature(tx.getHash().getBytes(), signature)) {
                 throw new NulsException(new Exception("Transaction signature error !"));
             }
         }
@@ -205,6 +218,39 @@ public class SignatureUtil {
         return false;
     }
 
+    /**
+     * 验证交易签名, 已验证通过的签名直接返回
+     * Verify transaction signature, signatures verified before return directly
+     *
+     * @param txHash    交易hash / transaction hash
+     * @param signature 签名 / signature
+     * @return boolean
+     */
+    private static boolean verifySignature(byte[] txHash, P2PHKSignature signature) {
+        byte[] signBytes = signature.getSignData().getSignBytes();
+        byte[] publicKey = signature.getPublicKey();
+        //各字段前加长度, 同一串字节的不同公钥/签名拆分得到不同的key
+        MessageDigest digest = Sha256Hash.newDigest();
+        updateWithLength(digest, txHash);
+        updateWithLength(digest, publicKey);
+        updateWithLength(digest, signBytes);
+        ByteArrayWrapper key = new ByteArrayWrapper(digest.digest());
+        if (VERIFIED_SIGNATURES.getIfPresent(key) != null) {
+            return true;
+        }
+        if (!ECKey.verify(txHash, signBytes, publicKey)) {
+            return false;
+        }
+        VERIFIED_SIGNATURES.put(key, Boolean.TRUE);
+        return true;
+    }
+
+    private static void updateWithLength(MessageDigest digest, byte[] bytes) {
+        int length = bytes.length;
+        digest.update(new byte[]{(byte) (length >>> 24), (byte) (length >>> 16), (byte) (length >>> 8), (byte) length});
+        digest.update(bytes);
+    }
+
     /**
      * 判断交易是否存在某地址
      *
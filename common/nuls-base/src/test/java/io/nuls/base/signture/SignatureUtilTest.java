@@ -0,0 +1,79 @@
+package io.nuls.base.signture;
+
+import io.nuls.base.data.NulsSignData;
+import io.nuls.base.data.Transaction;
+import io.nuls.core.constant.TxType;
+import io.nuls.core.crypto.ECKey;
+import io.nuls.core.exception.NulsException;
+import org.junit.Assert;
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * 交易签名验证及已验证签名缓存测试
+ */
+public class SignatureUtilTest {
+
+    @Test
+    public void verifiedSignatureTest() throws Exception {
+        ECKey ecKey = new ECKey();
+        Transaction tx = newTx(1);
+        byte[] signBytes = ecKey.sign(tx.getHash().getBytes());
+        tx.setTransactionSignature(signature(signBytes, ecKey.getPubKey()));
+        Assert.assertTrue(SignatureUtil.validateCtxSignture(tx));
+        //再次验证命中缓存
+        Assert.assertTrue(SignatureUtil.validateCtxSignture(tx));
+
+        //同一公钥对其他交易的签名不能通过缓存
+        Transaction other = newTx(2);
+        other.setTransactionSignature(signature(signBytes, ecKey.getPubKey()));
+        try {
+            SignatureUtil.validateCtxSignture(other);
+            Assert.fail();
+        } catch (NulsException e) {
+            //签名错误
+        }
+    }
+
+    @Test
+    public void splitSignatureTest() throws Exception {
+        ECKey ecKey = new ECKey();
+        Transaction tx = newTx(3);
+        byte[] signBytes = ecKey.sign(tx.getHash().getBytes());
+        byte[] pubKey = ecKey.getPubKey();
+        tx.setTransactionSignature(signature(signBytes, pubKey));
+        Assert.assertTrue(SignatureUtil.validateCtxSignture(tx));
+
+        //公钥与签名拼接后的字节相同, 但拆分位置不同, 不能命中缓存
+        byte[] splitPubKey = new byte[pubKey.length + 1];
+        System.arraycopy(pubKey, 0, splitPubKey, 0, pubKey.length);
+        splitPubKey[pubKey.length] = signBytes[0];
+        byte[] splitSignBytes = new byte[signBytes.length - 1];
+        System.arraycopy(signBytes, 1, splitSignBytes, 0, splitSignBytes.length);
+        Transaction split = newTx(3);
+        split.setTransactionSignature(signature(splitSignBytes, splitPubKey));
+        try {
+            Assert.assertFalse(SignatureUtil.validateCtxSignture(split));
+        } catch (Exception e) {
+            //签名错误
+        }
+    }
+
+    private static Transaction newTx(int time) {
+        Transaction tx = new Transaction(TxType.TRANSFER);
+        tx.setTime(time);
+        return tx;
+    }
+
+    private static byte[] signature(byte[] signBytes, byte[] pubKey) throws Exception {
+        List<P2PHKSignature> signatures = new ArrayList<>();
+        NulsSignData signData = new NulsSignData();
+        signData.setSignBytes(signBytes);
+        signatures.add(new P2PHKSignature(signData, pubKey));
+        TransactionSignature transactionSignature = new TransactionSignature();
+        transactionSignature.setP2PHKSignatures(signatures);
+        return transactionSignature.serialize();
+    }
+}
@@ -28,6 +28,7 @@ import org.rocksdb.*;
 import org.rocksdb.util.SizeUnit;
 
 import java.io.File;
+import java.nio.charset.StandardCharsets;
 import java.util.*;
 import java.util.concurrent.ConcurrentHashMap;
 import java.util.concurrent.locks.ReentrantLock;
@@ -42,16 +43,51 @@ import java.util.concurrent.locks.ReentrantLock;
  */
 public class RocksDBManager {
 
+    static {
+        RocksDB.loadLibrary();
+    }
+
+    /**
+     * 所有写操作共用的写参数, 避免每次写入都创建新的原生对象.
+     * Write options shared by every write, instead of allocating a native object per write
+     */
+    private static final WriteOptions WRITE_OPTIONS = new WriteOptions();
+
     /**
      * 数据库已打开的连接缓存.
      */
     private static final ConcurrentHashMap<String, RocksDB> TABLES = new ConcurrentHashMap<>();
 
+    /**
+     * 列族模式下数据表名与列族句柄的映射.
+     * Column family handles of the tables when running in column family mode
+     */
+    private static final ConcurrentHashMap<String, ColumnFamilyHandle> COLUMN_FAMILIES = new ConcurrentHashMap<>();
+
     /**
      * 数据表基础文件夹名.
      */
     private static final String BASE_DB_NAME = "rocksdb";
 
+    /**
+     * 列族模式下共享数据库的文件夹名.
+     */
+    private static final String COLUMN_FAMILY_DB_NAME = "cfdb";
+
+    /**
+     * 列族模式下所有数据表共享的数据库连接, 为null时表示每张表独立一个数据库.
+     * The shared database of column family mode, null means one database per table
+     */
+    private static RocksDB columnFamilyDB;
+
+    /**
+     * 列族模式下共享的数据库参数、列族参数、块缓存与写缓冲管理器.
+     */
+    private static DBOptions columnFamilyDBOptions;
+    private static ColumnFamilyOptions columnFamilyOptions;
+    private static Cache sharedBlockCache;
+    private static WriteBufferManager sharedWriteBufferManager;
+
     /**
      * 数据操作同步锁.
      */
@@ -109,6 +145,89 @@ public class RocksDBManager {
 
     }
 
+    /**
+     * 以列族模式打开数据库: 模块的所有数据表作为同一个数据库的列族, 共享WAL、有界LRU块缓存与写缓冲.
+     * Open the module database in column family mode, every table is a column family of one database
+     * sharing the WAL, a size-bounded LRU block cache and the write buffer memory.
+     *
+     * @param path            数据库地址
+     * @param blockCacheSize  共享块缓存大小(字节)
+     * @param writeBufferSize 所有列族memtable总大小上限(字节), 计入共享块缓存
+     * @throws Exception 数据库打开连接异常
+     */
+    public static void initColumnFamily(final String path, final long blockCacheSize, final long writeBufferSize) throws Exception {
+        synchronized (RocksDBManager.class) {
+            if (columnFamilyDB != null) {
+                return;
+            }
+            File dir = DBUtils.loadDataPath(path);
+            dataPath = dir.getPath();
+            Log.info("RocksDBManager column family dataPath is " + dataPath);
+            String dbPath = dataPath + File.separator + COLUMN_FAMILY_DB_NAME;
+            sharedBlockCache = new LRUCache(blockCacheSize);
+            sharedWriteBufferManager = new WriteBufferManager(writeBufferSize, sharedBlockCache);
+            columnFamilyDBOptions = getColumnFamilyDBOptions(sharedWriteBufferManager);
+            columnFamilyOptions = getColumnFamilyOptions(sharedBlockCache);
+
+            List<ColumnFamilyDescriptor> descriptors = new ArrayList<>();
+            descriptors.add(new ColumnFamilyDescriptor(RocksDB.DEFAULT_COLUMN_FAMILY, columnFamilyOptions));
+            File checkFile = new File(dbPath + File.separator + "CURRENT");
+            if (checkFile.exists()) {
+                try (Options options = new Options()) {
+                    for (byte[] name : RocksDB.listColumnFamilies(options, dbPath)) {
+                        if (!Arrays.equals(name, RocksDB.DEFAULT_COLUMN_FAMILY)) {
+                            descriptors.add(new ColumnFamilyDescriptor(name, columnFamilyOptions));
+                        }
+                    }
+                }
+            }
+            List<ColumnFamilyHandle> handles = new ArrayList<>();
+            try {
+                columnFamilyDB = RocksDB.open(columnFamilyDBOptions, dbPath, descriptors, handles);
+            } catch (Exception e) {
+                Log.warn("load column family db failed, dbPath: " + dbPath, e);
+                throw e;
+            }
+            // 第一个句柄是默认列族, 不作为数据表使用
+            for (int i = 1; i < handles.size(); i++) {
+                String tableName = new String(descriptors.get(i).getName(), StandardCharsets.UTF_8);
+                COLUMN_FAMILIES.put(tableName, handles.get(i));
+                TABLES.put(tableName, columnFamilyDB);
+            }
+            handles.get(0).close();
+        }
+    }
+
+    /**
+     * 获得共用的写参数.
+     * Get the shared write options
+     */
+    public static WriteOptions getWriteOptions() {
+        return WRITE_OPTIONS;
+    }
+
+    /**
+     * 是否运行在列族模式.
+     * Whether tables are hosted as column families of one shared database
+     */
+    public static boolean isColumnFamilyMode() {
+        return columnFamilyDB != null;
+    }
+
+    /**
+     * 根据名称获得数据表对应的列族句柄, 非列族模式下返回null.
+     * Get the column family handle of a table, null when not running in column family mode
+     *
+     * @param tableName 数据库表名称
+     * @return ColumnFamilyHandle
+     */
+    public static ColumnFamilyHandle getColumnFamily(final String tableName) {
+        if (tableName == null) {
+            return null;
+        }
+        return COLUMN_FAMILIES.get(tableName);
+    }
+
     private static RocksDB initOpenDB(final String dbPath, Options options) throws RocksDBException {
         File checkFile = new File(dbPath + File.separator + "CURRENT");
         if (!checkFile.exists()) {
@@ -163,6 +282,9 @@ public class RocksDBManager {
             if (StringUtils.isBlank(dataPath) || !DBUtils.checkPathLegal(tableName)) {
                 throw new Exception(DBErrorCode.DB_TABLE_CREATE_PATH_ERROR);
             }
+            if (columnFamilyDB != null) {
+                return createColumnFamily(tableName);
+            }
             try {
                 File dir = new File(dataPath + File.separator + tableName);
                 if (!dir.exists()) {
@@ -186,6 +308,23 @@ public class RocksDBManager {
         }
     }
 
+    private static boolean createColumnFamily(final String tableName) throws Exception {
+        try {
+            // 被关闭的数据表仍保留列族句柄, 重新打开时直接复用
+            ColumnFamilyHandle handle = COLUMN_FAMILIES.get(tableName);
+            if (handle == null) {
+                handle = columnFamilyDB.createColumnFamily(
+                        new ColumnFamilyDescriptor(tableName.getBytes(StandardCharsets.UTF_8), columnFamilyOptions));
+                COLUMN_FAMILIES.put(tableName, handle);
+            }
+            TABLES.put(tableName, columnFamilyDB);
+        } catch (Exception e) {
+            Log.error("error create column family: " + tableName, e);
+            throw new Exception(DBErrorCode.DB_TABLE_CREATE_ERROR);
+        }
+        return true;
+    }
+
     /**
      * 根据名称创建对应的数据库.
      * Create database based by name
@@ -222,6 +361,18 @@ public class RocksDBManager {
         if (StringUtils.isBlank(dataPath) || !DBUtils.checkPathLegal(tableName)) {
             throw new Exception(DBErrorCode.DB_TABLE_CREATE_PATH_ERROR);
         }
+        if (columnFamilyDB != null) {
+            try {
+                TABLES.remove(tableName);
+                ColumnFamilyHandle handle = COLUMN_FAMILIES.remove(tableName);
+                columnFamilyDB.dropColumnFamily(handle);
+                handle.close();
+            } catch (Exception e) {
+                Log.error("error destroy column family: " + tableName, e);
+                throw new Exception(DBErrorCode.DB_TABLE_DESTROY_ERROR);
+            }
+            return true;
+        }
         try {
             RocksDB db = TABLES.remove(tableName);
             db.close();
@@ -254,6 +405,10 @@ public class RocksDBManager {
      * close all table
      */
     public static void close() {
+        if (columnFamilyDB != null) {
+            closeColumnFamilyDB();
+            return;
+        }
         Set<Map.Entry<String, RocksDB>> entries = TABLES.entrySet();
         for (Map.Entry<String, RocksDB> entry : entries) {
             try {
@@ -265,6 +420,26 @@ public class RocksDBManager {
         }
     }
 
+    private static void closeColumnFamilyDB() {
+        synchronized (RocksDBManager.class) {
+            TABLES.clear();
+            for (ColumnFamilyHandle handle : COLUMN_FAMILIES.values()) {
+                handle.close();
+            }
+            COLUMN_FAMILIES.clear();
+            try {
+                columnFamilyDB.close();
+            } catch (Exception e) {
+                Log.warn("close rocksdb error", e);
+            }
+            columnFamilyDB = null;
+            columnFamilyOptions.close();
+            columnFamilyDBOptions.close();
+            sharedWriteBufferManager.close();
+            sharedBlockCache.close();
+        }
+    }
+
     /**
      * 关闭指定数据库连接.
      * close a table
@@ -274,7 +449,10 @@ public class RocksDBManager {
     public static void closeTable(final String tableName) {
         try {
             RocksDB db = TABLES.remove(tableName);
-            db.close();
+            // 列族模式下共享数据库不能关闭, 只将数据表移出缓存
+            if (columnFamilyDB == null) {
+                db.close();
+            }
         } catch (Exception e) {
             Log.warn("close rocksdb tableName error:" + tableName, e);
         }
@@ -333,7 +511,12 @@ public class RocksDBManager {
         }
         try {
             RocksDB db = TABLES.get(table);
-            db.put(key, value);
+            ColumnFamilyHandle cf = COLUMN_FAMILIES.get(table);
+            if (cf == null) {
+                db.put(key, value);
+            } else {
+                db.put(cf, key, value);
+            }
             return true;
         } catch (Exception e) {
             Log.error(e);
@@ -358,7 +541,12 @@ public class RocksDBManager {
         }
         try {
             RocksDB db = TABLES.get(table);
-            db.delete(key);
+            ColumnFamilyHandle cf = COLUMN_FAMILIES.get(table);
+            if (cf == null) {
+                db.delete(key);
+            } else {
+                db.delete(cf, key);
+            }
             return true;
         } catch (Exception e) {
             Log.error(e);
@@ -383,10 +571,15 @@ public class RocksDBManager {
         }
         try (WriteBatch writeBatch = new WriteBatch()) {
             RocksDB db = TABLES.get(table);
+            ColumnFamilyHandle cf = COLUMN_FAMILIES.get(table);
             for (Map.Entry<byte[], byte[]> entry : kvs.entrySet()) {
-                writeBatch.put(entry.getKey(), entry.getValue());
+                if (cf == null) {
+                    writeBatch.put(entry.getKey(), entry.getValue());
+                } else {
+                    writeBatch.put(cf, entry.getKey(), entry.getValue());
+                }
             }
-            db.write(new WriteOptions(), writeBatch);
+            db.write(WRITE_OPTIONS, writeBatch);
             return true;
         } catch (Exception ex) {
             Log.error(ex);
@@ -411,10 +604,15 @@ public class RocksDBManager {
         }
         try (WriteBatch writeBatch = new WriteBatch()) {
             RocksDB db = TABLES.get(table);
+            ColumnFamilyHandle cf = COLUMN_FAMILIES.get(table);
             for (byte[] key : keys) {
-                writeBatch.delete(key);
+                if (cf == null) {
+                    writeBatch.delete(key);
+                } else {
+                    writeBatch.delete(cf, key);
+                }
             }
-            db.write(new WriteOptions(), writeBatch);
+            db.write(WRITE_OPTIONS, writeBatch);
             return true;
         } catch (Exception ex) {
             Log.error(ex);
@@ -440,7 +638,8 @@ public class RocksDBManager {
         }
         try {
             RocksDB db = TABLES.get(table);
-            return db.get(key);
+            ColumnFamilyHandle cf = COLUMN_FAMILIES.get(table);
+            return cf == null ? db.get(key) : db.get(cf, key);
         } catch (Exception e) {
             Log.error("get table={}: error",table);
             Log.error(e);
@@ -465,8 +664,13 @@ public class RocksDBManager {
         }
         try {
             RocksDB db = TABLES.get(table);
-            boolean rs = db.keyMayExist(key, new StringBuilder());
-            return rs && (db.get(key) != null);
+            ColumnFamilyHandle cf = COLUMN_FAMILIES.get(table);
+            if (cf == null) {
+                boolean rs = db.keyMayExist(key, new StringBuilder());
+                return rs && (db.get(key) != null);
+            }
+            boolean rs = db.keyMayExist(cf, key, new StringBuilder());
+            return rs && (db.get(cf, key) != null);
         } catch (Exception e) {
             Log.error("keyMayExist table={}: error",table);
             Log.error(e);
@@ -491,8 +695,7 @@ public class RocksDBManager {
             return null;
         }
         try {
-            RocksDB db = TABLES.get(table);
-            return db.multiGet(keys);
+            return multiGetMap(table, keys);
         } catch (Exception ex) {
             Log.error("multiGet table={}: error",table);
             Log.error(ex);
@@ -500,6 +703,15 @@ public class RocksDBManager {
         }
     }
 
+    private static Map<byte[], byte[]> multiGetMap(final String table, final List<byte[]> keys) throws RocksDBException {
+        RocksDB db = TABLES.get(table);
+        ColumnFamilyHandle cf = COLUMN_FAMILIES.get(table);
+        if (cf == null) {
+            return db.multiGet(keys);
+        }
+        return db.multiGet(Collections.nCopies(keys.size(), cf), keys);
+    }
+
     /**
      * 批量查询交易
      * @param table
@@ -515,8 +727,9 @@ public class RocksDBManager {
         }
         try {
             RocksDB db = TABLES.get(table);
+            ColumnFamilyHandle cf = COLUMN_FAMILIES.get(table);
             //该方法获取的结果包含查不到的key, 将以null 值放入返回的list中,因此需要把空值去除.
-            List<byte[]> list = db.multiGetAsList(keys);
+            List<byte[]> list = cf == null ? db.multiGetAsList(keys) : db.multiGetAsList(Collections.nCopies(keys.size(), cf), keys);
             List<byte[]> rs = new ArrayList<>();
             for(byte[] tx : list){
                 if(null != tx){
@@ -547,8 +760,7 @@ public class RocksDBManager {
             return list;
         }
         try {
-            RocksDB db = TABLES.get(table);
-            Map<byte[], byte[]> map = db.multiGet(keys);
+            Map<byte[], byte[]> map = multiGetMap(table, keys);
             if (map != null && map.size() > 0) {
                 list.addAll(map.values());
             }
@@ -578,8 +790,7 @@ public class RocksDBManager {
             return list;
         }
         try {
-            RocksDB db = TABLES.get(table);
-            Map<byte[], byte[]> map = db.multiGet(keys);
+            Map<byte[], byte[]> map = multiGetMap(table, keys);
             if (map != null && map.size() > 0) {
                 list.addAll(map.keySet());
             }
@@ -605,8 +816,7 @@ public class RocksDBManager {
         }
         List<byte[]> list = new ArrayList<>();
         try {
-            RocksDB db = TABLES.get(table);
-            try (RocksIterator iterator = db.newIterator()) {
+            try (RocksIterator iterator = newIterator(table)) {
                 for (iterator.seekToFirst(); iterator.isValid(); iterator.next()) {
                     list.add(iterator.key());
                 }
@@ -633,8 +843,7 @@ public class RocksDBManager {
         }
         List<byte[]> list = new ArrayList<>();
         try {
-            RocksDB db = TABLES.get(table);
-            try (RocksIterator iterator = db.newIterator()) {
+            try (RocksIterator iterator = newIterator(table)) {
                 for (iterator.seekToFirst(); iterator.isValid(); iterator.next()) {
                     list.add(iterator.value());
                 }
@@ -661,8 +870,7 @@ public class RocksDBManager {
         }
         List<Entry<byte[], byte[]>> entryList = new ArrayList<>();
         try {
-            RocksDB db = TABLES.get(table);
-            try (RocksIterator iterator = db.newIterator()) {
+            try (RocksIterator iterator = newIterator(table)) {
                 for (iterator.seekToFirst(); iterator.isValid(); iterator.next()) {
                     entryList.add(new Entry(iterator.key(), iterator.value()));
                 }
@@ -675,6 +883,12 @@ public class RocksDBManager {
         }
     }
 
+    private static RocksIterator newIterator(final String table) {
+        RocksDB db = TABLES.get(table);
+        ColumnFamilyHandle cf = COLUMN_FAMILIES.get(table);
+        return cf == null ? db.newIterator() : db.newIterator(cf);
+    }
+
     /**
      * 获得公共的数据库连接属性.
      *
@@ -706,5 +920,41 @@ public class RocksDBManager {
         return options;
     }
 
+    /**
+     * 获得列族模式下共享数据库的连接属性.
+     *
+     * @param writeBufferManager 所有列族共享的写缓冲管理器
+     * @return 数据库连接属性
+     */
+    private static DBOptions getColumnFamilyDBOptions(WriteBufferManager writeBufferManager) {
+        DBOptions options = new DBOptions();
+        options.setCreateIfMissing(true);
+        options.setCreateMissingColumnFamilies(true);
+        options.setAllowMmapReads(true);
+        options.setMaxOpenFiles(-1);
+        options.setMaxBackgroundJobs(16);
+        options.setNewTableReaderForCompactionInputs(true);
+        options.setCompactionReadaheadSize(128 * SizeUnit.KB);
+        options.setWriteBufferManager(writeBufferManager);
+        return options;
+    }
 
+    /**
+     * 获得列族模式下各数据表的列族属性, 数据块、索引和布隆过滤器都放入共享的块缓存.
+     *
+     * @param blockCache 所有列族共享的LRU块缓存
+     * @return 列族属性
+     */
+    private static ColumnFamilyOptions getColumnFamilyOptions(Cache blockCache) {
+        ColumnFamilyOptions options = new ColumnFamilyOptions();
+        options.setCompressionType(CompressionType.NO_COMPRESSION);
+        BlockBasedTableConfig tableOption = new BlockBasedTableConfig();
+        tableOption.setBlockCache(blockCache);
+        tableOption.setCacheIndexAndFilterBlocks(true);
+        tableOption.setPinL0FilterAndIndexBlocksInCache(true);
+        tableOption.setBlockRestartInterval(4);
+        tableOption.setFilterPolicy(new BloomFilter(10, true));
+        options.setTableFormatConfig(tableOption);
+        return options;
+    }
 }
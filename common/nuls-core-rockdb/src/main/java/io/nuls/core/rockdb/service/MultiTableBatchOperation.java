@@ -0,0 +1,63 @@
+/**
+ * MIT License
+ * <p>
+ * Copyright (c) 2017-2019 nuls.io
+ * <p>
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ * <p>
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ * <p>
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package io.nuls.core.rockdb.service;
+
+public interface MultiTableBatchOperation extends AutoCloseable {
+
+    /**
+     * 增加或者更新指定表的数据
+     * Add or update an entry of the specified table.
+     *
+     * @param table
+     * @param key
+     * @param value
+     * @return
+     */
+    boolean put(String table, byte[] key, byte[] value) throws Exception;
+
+    /**
+     * 删除指定表的数据
+     * Delete an entry of the specified table
+     *
+     * @param table
+     * @param key
+     * @return
+     */
+    boolean delete(String table, byte[] key) throws Exception;
+
+    /**
+     * 执行批量操作, 非原子模式下按表第一次加入批次的顺序逐个数据库写入
+     * Perform batch operation, when not atomic the databases are written in the order their tables joined the batch
+     *
+     * @return
+     */
+    boolean executeBatch() throws Exception;
+
+    /**
+     * 释放批次占用的本地资源, 未执行的批次直接丢弃
+     * Release the native resources of the batch, a batch not yet executed is discarded
+     */
+    @Override
+    void close();
+}
@@ -22,20 +22,25 @@ package io.nuls.core.rockdb.service;
 import io.nuls.core.rockdb.constant.DBErrorCode;
 import io.nuls.core.rockdb.manager.RocksDBManager;
 import io.nuls.core.log.Log;
+import org.rocksdb.ColumnFamilyHandle;
 import org.rocksdb.RocksDB;
 import org.rocksdb.WriteBatch;
-import org.rocksdb.WriteOptions;
 
 public class RocksDBBatchOperation implements BatchOperation {
 
     private String table;
     private RocksDB db;
+    /**
+     * 列族模式下数据表对应的列族, 否则为null
+     */
+    private ColumnFamilyHandle columnFamily;
     private WriteBatch batch;
     private volatile boolean isClose = false;
 
     RocksDBBatchOperation(String table) {
         this.table = table;
         db = RocksDBManager.getTable(table);
+        columnFamily = RocksDBManager.getColumnFamily(table);
         if (db != null) {
             batch = new WriteBatch();
         }
@@ -56,7 +61,11 @@ public class RocksDBBatchOperation implements BatchOperation {
         if (key == null || value == null) {
             throw new Exception(DBErrorCode.NULL_PARAMETER);
         }
-        batch.put(key, value);
+        if (columnFamily == null) {
+            batch.put(key, value);
+        } else {
+            batch.put(columnFamily, key, value);
+        }
         return true;
     }
 
@@ -65,7 +74,11 @@ public class RocksDBBatchOperation implements BatchOperation {
         if (key == null) {
             throw new Exception(DBErrorCode.NULL_PARAMETER);
         }
-        batch.delete(key);
+        if (columnFamily == null) {
+            batch.delete(key);
+        } else {
+            batch.delete(columnFamily, key);
+        }
         return true;
     }
 
@@ -84,7 +97,7 @@ public class RocksDBBatchOperation implements BatchOperation {
             throw new Exception(DBErrorCode.DB_TABLE_FAILED_BATCH_CLOSE);
         }
         try {
-            db.write(new WriteOptions(), batch);
+            db.write(RocksDBManager.getWriteOptions(), batch);
         } catch (Exception e) {
             Log.error(e);
             throw new Exception(DBErrorCode.DB_UNKOWN_EXCEPTION);
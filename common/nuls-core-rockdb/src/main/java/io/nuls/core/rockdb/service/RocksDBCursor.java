@@ -0,0 +1,233 @@
+/**
+ * MIT License
+ * Copyright (c) 2017-2019 nuls.io
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package io.nuls.core.rockdb.service;
+
+import io.nuls.core.rockdb.constant.DBErrorCode;
+import io.nuls.core.rockdb.manager.RocksDBManager;
+import io.nuls.core.rockdb.model.Entry;
+import org.rocksdb.ColumnFamilyHandle;
+import org.rocksdb.ReadOptions;
+import org.rocksdb.RocksDB;
+import org.rocksdb.RocksIterator;
+import org.rocksdb.Snapshot;
+
+import java.io.Closeable;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.NoSuchElementException;
+
+/**
+ * 基于原生迭代器的数据表游标, 在创建时的快照上按键序(或逆序)遍历[from, to)范围内的数据,
+ * 不会一次性把整张表加载到内存中. 使用完毕后必须调用close释放原生资源.
+ * A cursor over a table backed by a native iterator. It walks the keys in [from, to) in order (or in reverse)
+ * on the snapshot taken at creation time, and must be closed to release the native resources.
+ */
+public class RocksDBCursor implements Closeable {
+
+    /**
+     * 顺序读取时的预读大小
+     */
+    private static final long READAHEAD_SIZE = 2 * 1024 * 1024;
+
+    private RocksDB db;
+    private Snapshot snapshot;
+    private ReadOptions readOptions;
+    private RocksIterator iterator;
+    /**
+     * 起始键(包含), 为null时从表头开始
+     */
+    private final byte[] from;
+    /**
+     * 结束键(不包含), 为null时遍历到表尾
+     */
+    private final byte[] to;
+    private final boolean reverse;
+    private volatile boolean isClose = false;
+
+    RocksDBCursor(String table, byte[] from, byte[] to, boolean reverse) {
+        this.from = from;
+        this.to = to;
+        this.reverse = reverse;
+        db = RocksDBManager.getTable(table);
+        if (db == null) {
+            return;
+        }
+        snapshot = db.getSnapshot();
+        readOptions = new ReadOptions();
+        readOptions.setSnapshot(snapshot);
+        readOptions.setReadaheadSize(READAHEAD_SIZE);
+        // 全表遍历的数据不放入块缓存, 避免挤占热点数据
+        readOptions.setFillCache(false);
+        ColumnFamilyHandle columnFamily = RocksDBManager.getColumnFamily(table);
+        iterator = columnFamily == null ? db.newIterator(readOptions) : db.newIterator(columnFamily, readOptions);
+        seek();
+    }
+
+    public boolean checkCursor() throws Exception {
+        if (db == null) {
+            throw new Exception(DBErrorCode.DB_TABLE_NOT_EXIST);
+        }
+        return true;
+    }
+
+    private void seek() {
+        if (!reverse) {
+            if (from == null) {
+                iterator.seekToFirst();
+            } else {
+                iterator.seek(from);
+            }
+            return;
+        }
+        if (to == null) {
+            iterator.seekToLast();
+            return;
+        }
+        iterator.seekForPrev(to);
+        // seekForPrev定位到小于等于to的最后一个键, 结束键本身不在范围内
+        if (iterator.isValid() && compare(iterator.key(), to) >= 0) {
+            iterator.prev();
+        }
+    }
+
+    /**
+     * 是否还有未遍历的数据
+     * Whether there are more entries in range
+     */
+    public boolean hasNext() {
+        if (isClose || iterator == null || !iterator.isValid()) {
+            return false;
+        }
+        if (reverse) {
+            return from == null || compare(iterator.key(), from) >= 0;
+        }
+        return to == null || compare(iterator.key(), to) < 0;
+    }
+
+    /**
+     * 读取下一个键值对
+     * Read the next entry
+     */
+    public Entry<byte[], byte[]> next() {
+        if (!hasNext()) {
+            throw new NoSuchElementException();
+        }
+        Entry<byte[], byte[]> entry = new Entry<>(iterator.key(), iterator.value());
+        move();
+        return entry;
+    }
+
+    /**
+     * 读取下一个键, 不复制值
+     * Read the next key without copying its value
+     */
+    public byte[] nextKey() {
+        if (!hasNext()) {
+            throw new NoSuchElementException();
+        }
+        byte[] key = iterator.key();
+        move();
+        return key;
+    }
+
+    /**
+     * 读取下一批键值对, 没有数据时返回空列表
+     * Read the next batch of at most batchSize entries, an empty list means the end of the range
+     *
+     * @param batchSize 批次大小
+     */
+    public List<Entry<byte[], byte[]>> next(int batchSize) {
+        List<Entry<byte[], byte[]>> list = new ArrayList<>(Math.min(batchSize, 1024));
+        while (list.size() < batchSize && hasNext()) {
+            list.add(next());
+        }
+        return list;
+    }
+
+    /**
+     * 读取下一批键, 没有数据时返回空列表
+     * Read the next batch of at most batchSize keys, an empty list means the end of the range
+     *
+     * @param batchSize 批次大小
+     */
+    public List<byte[]> nextKeys(int batchSize) {
+        List<byte[]> list = new ArrayList<>(Math.min(batchSize, 1024));
+        while (list.size() < batchSize && hasNext()) {
+            list.add(nextKey());
+        }
+        return list;
+    }
+
+    private void move() {
+        if (reverse) {
+            iterator.prev();
+        } else {
+            iterator.next();
+        }
+    }
+
+    @Override
+    public void close() {
+        if (isClose) {
+            return;
+        }
+        isClose = true;
+        if (iterator != null) {
+            iterator.close();
+        }
+        if (readOptions != null) {
+            readOptions.close();
+        }
+        if (snapshot != null) {
+            db.releaseSnapshot(snapshot);
+        }
+    }
+
+    /**
+     * 计算前缀的上界, 即所有以prefix开头的键都小于返回值, prefix全为0xff时返回null
+     * The smallest key greater than every key starting with prefix, null when prefix is all 0xff
+     */
+    static byte[] prefixUpperBound(byte[] prefix) {
+        for (int i = prefix.length - 1; i >= 0; i--) {
+            if (prefix[i] != (byte) 0xff) {
+                byte[] bound = new byte[i + 1];
+                System.arraycopy(prefix, 0, bound, 0, i + 1);
+                bound[i]++;
+                return bound;
+            }
+        }
+        return null;
+    }
+
+    /**
+     * 按无符号字节序比较, 与rocksdb默认的比较器一致
+     */
+    private static int compare(byte[] a, byte[] b) {
+        int length = Math.min(a.length, b.length);
+        for (int i = 0; i < length; i++) {
+            int x = a[i] & 0xff;
+            int y = b[i] & 0xff;
+            if (x != y) {
+                return x - y;
+            }
+        }
+        return a.length - b.length;
+    }
+}
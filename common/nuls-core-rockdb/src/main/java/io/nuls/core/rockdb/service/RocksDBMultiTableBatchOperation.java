@@ -0,0 +1,119 @@
+/**
+ * MIT License
+ * Copyright (c) 2017-2019 nuls.io
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package io.nuls.core.rockdb.service;
+
+import io.nuls.core.log.Log;
+import io.nuls.core.rockdb.constant.DBErrorCode;
+import io.nuls.core.rockdb.manager.RocksDBManager;
+import org.rocksdb.ColumnFamilyHandle;
+import org.rocksdb.RocksDB;
+import org.rocksdb.WriteBatch;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * 跨表的批量操作, 同一数据库中的表共用一个WriteBatch.
+ * 列族模式下所有表都在同一个数据库中, 整个批次以一次WAL写入原子提交.
+ * Batch operation spanning several tables. Tables of the same database share one WriteBatch, so in column family
+ * mode the whole batch commits as a single atomic WAL write.
+ */
+public class RocksDBMultiTableBatchOperation implements MultiTableBatchOperation {
+
+    /**
+     * 按加入顺序保存每个数据库的批次
+     */
+    private final Map<RocksDB, WriteBatch> batches = new LinkedHashMap<>();
+    private volatile boolean isClose = false;
+
+    RocksDBMultiTableBatchOperation() {
+    }
+
+    private WriteBatch getBatch(String table) throws Exception {
+        if (isClose) {
+            throw new Exception(DBErrorCode.DB_TABLE_FAILED_BATCH_CLOSE);
+        }
+        RocksDB db = RocksDBManager.getTable(table);
+        if (db == null) {
+            throw new Exception(DBErrorCode.DB_TABLE_NOT_EXIST);
+        }
+        return batches.computeIfAbsent(db, k -> new WriteBatch());
+    }
+
+    @Override
+    public boolean put(String table, byte[] key, byte[] value) throws Exception {
+        if (key == null || value == null) {
+            throw new Exception(DBErrorCode.NULL_PARAMETER);
+        }
+        WriteBatch batch = getBatch(table);
+        ColumnFamilyHandle columnFamily = RocksDBManager.getColumnFamily(table);
+        if (columnFamily == null) {
+            batch.put(key, value);
+        } else {
+            batch.put(columnFamily, key, value);
+        }
+        return true;
+    }
+
+    @Override
+    public boolean delete(String table, byte[] key) throws Exception {
+        if (key == null) {
+            throw new Exception(DBErrorCode.NULL_PARAMETER);
+        }
+        WriteBatch batch = getBatch(table);
+        ColumnFamilyHandle columnFamily = RocksDBManager.getColumnFamily(table);
+        if (columnFamily == null) {
+            batch.delete(key);
+        } else {
+            batch.delete(columnFamily, key);
+        }
+        return true;
+    }
+
+    @Override
+    public boolean executeBatch() throws Exception {
+        // 检查逻辑关闭
+        if (isClose) {
+            throw new Exception(DBErrorCode.DB_TABLE_FAILED_BATCH_CLOSE);
+        }
+        isClose = true;
+        try {
+            for (Map.Entry<RocksDB, WriteBatch> entry : batches.entrySet()) {
+                entry.getKey().write(RocksDBManager.getWriteOptions(), entry.getValue());
+            }
+        } catch (Exception e) {
+            Log.error(e);
+            throw new Exception(DBErrorCode.DB_UNKOWN_EXCEPTION);
+        } finally {
+            // 关闭批量操作对象释放资源
+            close();
+        }
+        return true;
+    }
+
+    @Override
+    public void close() {
+        isClose = true;
+        for (WriteBatch batch : batches.values()) {
+            batch.close();
+        }
+        batches.clear();
+    }
+}
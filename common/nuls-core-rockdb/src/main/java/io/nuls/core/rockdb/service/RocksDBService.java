@@ -38,6 +38,22 @@ public class RocksDBService {
         }
     }
 
+    /**
+     * 以列族模式初始化数据库, 模块的所有数据表共享一个数据库和有界的块缓存
+     * Init the module database in column family mode, all tables share one database and a bounded block cache
+     *
+     * @param path            数据库地址
+     * @param blockCacheSize  共享块缓存大小(字节)
+     * @param writeBufferSize 所有数据表memtable总大小上限(字节)
+     */
+    public static void initColumnFamily(String path, long blockCacheSize, long writeBufferSize) {
+        try {
+            RocksDBManager.initColumnFamily(path, blockCacheSize, writeBufferSize);
+        } catch (Exception e) {
+            Log.error(e.getMessage(),e);
+        }
+    }
+
     public static boolean createTable(String tableName) throws Exception {
         if (!RocksDBService.existTable(tableName)) {
             return RocksDBManager.createTable(tableName);
@@ -130,6 +146,76 @@ public class RocksDBService {
         return RocksDBManager.entryList(table);
     }
 
+    /**
+     * 创建遍历整张表的游标, 表不存在时返回null
+     * Create a cursor over the whole table, null if the table does not exist
+     */
+    public static RocksDBCursor cursor(String table) {
+        return rangeCursor(table, null, null, false);
+    }
+
+    /**
+     * 创建遍历以prefix开头的所有键的游标
+     * Create a cursor over every key starting with prefix
+     */
+    public static RocksDBCursor prefixCursor(String table, byte[] prefix, boolean reverse) {
+        if (prefix == null || prefix.length == 0) {
+            return rangeCursor(table, null, null, reverse);
+        }
+        return rangeCursor(table, prefix, RocksDBCursor.prefixUpperBound(prefix), reverse);
+    }
+
+    /**
+     * 创建遍历[from, to)范围内键的游标, from或to为null表示不限制
+     * Create a cursor over the keys in [from, to), a null bound means unbounded
+     */
+    public static RocksDBCursor rangeCursor(String table, byte[] from, byte[] to, boolean reverse) {
+        if (StringUtils.isBlank(table)) {
+            return null;
+        }
+        RocksDBCursor cursor = new RocksDBCursor(table, from, to, reverse);
+        boolean result = false;
+        try {
+            result = cursor.checkCursor();
+        } catch (Exception e) {
+            Log.error("DB cursor create error: " + e.getMessage());
+        }
+        if (!result) {
+            cursor.close();
+            return null;
+        }
+        return cursor;
+    }
+
+    /**
+     * 分批遍历以prefix开头的键值对, prefix为null时遍历整张表, handler返回false时提前终止
+     * Scan the entries starting with prefix in batches of batchSize, stop early when the handler returns false
+     *
+     * @return 表不存在时返回false
+     */
+    public static boolean scan(String table, byte[] prefix, int batchSize, ScanHandler handler) throws Exception {
+        try (RocksDBCursor cursor = prefixCursor(table, prefix, false)) {
+            if (cursor == null) {
+                return false;
+            }
+            List<Entry<byte[], byte[]>> entries;
+            while (!(entries = cursor.next(batchSize)).isEmpty()) {
+                if (!handler.handle(entries)) {
+                    break;
+                }
+            }
+            return true;
+        }
+    }
+
+    /**
+     * 创建跨表的批量操作, 列族模式下整个批次原子提交
+     * Create a batch operation spanning several tables, atomic in column family mode
+     */
+    public static MultiTableBatchOperation createMultiTableWriteBatch() {
+        return new RocksDBMultiTableBatchOperation();
+    }
+
     public static BatchOperation createWriteBatch(String table) {
         if (StringUtils.isBlank(table)) {
             return null;
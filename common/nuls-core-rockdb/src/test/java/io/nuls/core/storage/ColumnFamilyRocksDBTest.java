@@ -0,0 +1,114 @@
+package io.nuls.core.storage;
+
+import io.nuls.core.rockdb.constant.DBErrorCode;
+import io.nuls.core.rockdb.manager.RocksDBManager;
+import io.nuls.core.rockdb.service.BatchOperation;
+import io.nuls.core.rockdb.service.MultiTableBatchOperation;
+import io.nuls.core.rockdb.service.RocksDBService;
+import org.junit.After;
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.io.File;
+import java.nio.file.Files;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+import static java.nio.charset.StandardCharsets.UTF_8;
+
+/**
+ * 列族模式下数据表的增删改查测试
+ */
+public class ColumnFamilyRocksDBTest {
+
+    private static final long CACHE_SIZE = 8L * 1024 * 1024;
+
+    private String dataPath;
+
+    @Before
+    public void before() throws Exception {
+        dataPath = Files.createTempDirectory("cf-rocksdb").toFile().getAbsolutePath();
+        RocksDBService.initColumnFamily(dataPath, CACHE_SIZE, CACHE_SIZE);
+    }
+
+    @After
+    public void after() {
+        RocksDBManager.close();
+    }
+
+    @Test
+    public void crudTest() throws Exception {
+        Assert.assertTrue(RocksDBManager.isColumnFamilyMode());
+        RocksDBService.createTable("header");
+        RocksDBService.createTable("index");
+        byte[] key = "key".getBytes(UTF_8);
+        RocksDBService.put("header", key, "header-value".getBytes(UTF_8));
+        RocksDBService.put("index", key, "index-value".getBytes(UTF_8));
+        Assert.assertEquals("header-value", new String(RocksDBService.get("header", key), UTF_8));
+        Assert.assertEquals("index-value", new String(RocksDBService.get("index", key), UTF_8));
+
+        BatchOperation batch = RocksDBService.createWriteBatch("header");
+        List<byte[]> keys = new ArrayList<>();
+        for (int i = 0; i < 10; i++) {
+            byte[] k = ("k" + i).getBytes(UTF_8);
+            keys.add(k);
+            batch.put(k, k);
+        }
+        batch.delete(key);
+        batch.executeBatch();
+        Assert.assertNull(RocksDBService.get("header", key));
+        Assert.assertEquals(10, RocksDBService.keyList("header").size());
+        Assert.assertEquals(10, RocksDBService.multiGetAsList("header", keys).size());
+        Assert.assertEquals(1, RocksDBService.valueList("index").size());
+
+        RocksDBService.destroyTable("index");
+        Assert.assertFalse(RocksDBService.existTable("index"));
+    }
+
+    @Test
+    public void multiTableBatchTest() throws Exception {
+        RocksDBService.createTable("height");
+        RocksDBService.createTable("block");
+        MultiTableBatchOperation batch = RocksDBService.createMultiTableWriteBatch();
+        batch.put("height", "1".getBytes(UTF_8), "hash".getBytes(UTF_8));
+        batch.put("block", "hash".getBytes(UTF_8), "header".getBytes(UTF_8));
+        Assert.assertNull(RocksDBService.get("block", "hash".getBytes(UTF_8)));
+        batch.executeBatch();
+        Assert.assertEquals("hash", new String(RocksDBService.get("height", "1".getBytes(UTF_8)), UTF_8));
+        Assert.assertEquals("header", new String(RocksDBService.get("block", "hash".getBytes(UTF_8)), UTF_8));
+
+        //构建批次时出错, 批次关闭后未执行的写入被丢弃
+        try (MultiTableBatchOperation failed = RocksDBService.createMultiTableWriteBatch()) {
+            failed.delete("height", "1".getBytes(UTF_8));
+            failed.put("not-exist", "1".getBytes(UTF_8), "1".getBytes(UTF_8));
+            Assert.fail();
+        } catch (Exception e) {
+            Assert.assertEquals(DBErrorCode.DB_TABLE_NOT_EXIST, e.getMessage());
+        }
+        Assert.assertEquals("hash", new String(RocksDBService.get("height", "1".getBytes(UTF_8)), UTF_8));
+
+        batch = RocksDBService.createMultiTableWriteBatch();
+        batch.close();
+        try {
+            batch.executeBatch();
+            Assert.fail();
+        } catch (Exception e) {
+            Assert.assertEquals(DBErrorCode.DB_TABLE_FAILED_BATCH_CLOSE, e.getMessage());
+        }
+    }
+
+    @Test
+    public void reopenTest() throws Exception {
+        RocksDBService.createTable("account");
+        RocksDBService.put("account", "a".getBytes(UTF_8), "1".getBytes(UTF_8));
+        RocksDBManager.close();
+        Assert.assertFalse(RocksDBManager.isColumnFamilyMode());
+
+        RocksDBService.initColumnFamily(dataPath, CACHE_SIZE, CACHE_SIZE);
+        Assert.assertTrue(Arrays.asList(RocksDBService.listTable()).contains("account"));
+        Assert.assertEquals("1", new String(RocksDBService.get("account", "a".getBytes(UTF_8)), UTF_8));
+        Assert.assertTrue(new File(dataPath).listFiles().length == 1);
+    }
+}
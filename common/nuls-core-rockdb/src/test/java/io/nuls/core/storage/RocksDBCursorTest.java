@@ -0,0 +1,92 @@
+package io.nuls.core.storage;
+
+import io.nuls.core.rockdb.model.Entry;
+import io.nuls.core.rockdb.service.RocksDBCursor;
+import io.nuls.core.rockdb.service.RocksDBService;
+import org.junit.AfterClass;
+import org.junit.Assert;
+import org.junit.BeforeClass;
+import org.junit.Test;
+
+import java.nio.file.Files;
+import java.util.ArrayList;
+import java.util.List;
+
+import static java.nio.charset.StandardCharsets.UTF_8;
+
+/**
+ * 游标遍历测试
+ */
+public class RocksDBCursorTest {
+
+    private static final String TABLE = "cursor-table";
+
+    @BeforeClass
+    public static void before() throws Exception {
+        RocksDBService.init(Files.createTempDirectory("cursor-rocksdb").toFile().getAbsolutePath());
+        RocksDBService.createTable(TABLE);
+        for (String key : new String[]{"a1", "a2", "a3", "b1", "b2", "c1"}) {
+            RocksDBService.put(TABLE, key.getBytes(UTF_8), key.getBytes(UTF_8));
+        }
+        RocksDBService.put(TABLE, new byte[]{(byte) 0xff, 1}, new byte[]{1});
+    }
+
+    @AfterClass
+    public static void after() throws Exception {
+        RocksDBService.destroyTable(TABLE);
+    }
+
+    @Test
+    public void prefixTest() {
+        try (RocksDBCursor cursor = RocksDBService.prefixCursor(TABLE, "a".getBytes(UTF_8), false)) {
+            Assert.assertEquals(List.of("a1", "a2", "a3"), keys(cursor.nextKeys(10)));
+            Assert.assertFalse(cursor.hasNext());
+        }
+        try (RocksDBCursor cursor = RocksDBService.prefixCursor(TABLE, "b".getBytes(UTF_8), true)) {
+            Assert.assertEquals(List.of("b2", "b1"), keys(cursor.nextKeys(10)));
+        }
+        try (RocksDBCursor cursor = RocksDBService.prefixCursor(TABLE, new byte[]{(byte) 0xff}, false)) {
+            Assert.assertEquals(1, cursor.next(10).size());
+        }
+    }
+
+    @Test
+    public void rangeTest() {
+        try (RocksDBCursor cursor = RocksDBService.rangeCursor(TABLE, "a2".getBytes(UTF_8), "b2".getBytes(UTF_8), false)) {
+            Assert.assertEquals(List.of("a2", "a3"), keys(cursor.nextKeys(2)));
+            Assert.assertEquals(List.of("b1"), keys(cursor.nextKeys(2)));
+            Assert.assertTrue(cursor.nextKeys(2).isEmpty());
+        }
+        try (RocksDBCursor cursor = RocksDBService.rangeCursor(TABLE, "a2".getBytes(UTF_8), "b2".getBytes(UTF_8), true)) {
+            Assert.assertEquals(List.of("b1", "a3", "a2"), keys(cursor.nextKeys(10)));
+        }
+        Assert.assertNull(RocksDBService.cursor("not-exist-table"));
+    }
+
+    @Test
+    public void scanTest() throws Exception {
+        List<Integer> batches = new ArrayList<>();
+        RocksDBService.scan(TABLE, null, 3, entries -> {
+            batches.add(entries.size());
+            return batches.size() < 2;
+        });
+        Assert.assertEquals(List.of(3, 3), batches);
+
+        List<String> values = new ArrayList<>();
+        RocksDBService.scan(TABLE, "c".getBytes(UTF_8), 3, entries -> {
+            for (Entry<byte[], byte[]> entry : entries) {
+                values.add(new String(entry.getValue(), UTF_8));
+            }
+            return true;
+        });
+        Assert.assertEquals(List.of("c1"), values);
+    }
+
+    private static List<String> keys(List<byte[]> keys) {
+        List<String> list = new ArrayList<>();
+        for (byte[] key : keys) {
+            list.add(new String(key, UTF_8));
+        }
+        return list;
+    }
+}
@@ -26,6 +26,7 @@ package io.nuls.core.rpc.model.message;
 
 import io.nuls.core.rpc.netty.channel.manager.ConnectManager;
 import io.nuls.core.rpc.info.Constants;
+import io.nuls.core.rpc.util.MessageCodec;
 import io.nuls.core.rpc.util.NulsDateUtils;
 import io.nuls.core.constant.ErrorCode;
 import io.nuls.core.model.DateUtils;
@@ -69,7 +70,7 @@ public class MessageUtil {
     public static NegotiateConnection defaultNegotiateConnection() {
         NegotiateConnection negotiateConnection = new NegotiateConnection();
         negotiateConnection.setAbbreviation(ConnectManager.LOCAL.getAbbreviation());
-        negotiateConnection.setProtocolVersion("0.1");
+        negotiateConnection.setProtocolVersion(MessageCodec.BINARY_PROTOCOL_VERSION);
         negotiateConnection.setCompressionAlgorithm("zlib");
         negotiateConnection.setCompressionRate("0");
         return negotiateConnection;
@@ -51,6 +51,12 @@ public class NegotiateConnectionResponse {
     @JsonProperty
     private String NegotiationComment;
 
+    /**
+     * Protocol version supported by the server
+     */
+    @JsonProperty
+    private String ProtocolVersion;
+
     @JsonIgnore
     public String getRequestID() {
         return RequestID;
@@ -80,4 +86,14 @@ public class NegotiateConnectionResponse {
     public void setNegotiationComment(String NegotiationComment) {
         this.NegotiationComment = NegotiationComment;
     }
+
+    @JsonIgnore
+    public String getProtocolVersion() {
+        return ProtocolVersion;
+    }
+
+    @JsonIgnore
+    public void setProtocolVersion(String ProtocolVersion) {
+        this.ProtocolVersion = ProtocolVersion;
+    }
 }
@@ -91,6 +91,12 @@ public abstract class RpcModule implements InitializingBean {
                     dependencies.add(new Module(ds, ROLE));
                 });
             }
+            //部署在同一进程内的模块角色，调用这些角色的cmd时直接调用本地方法
+            String localRoles = configLoader.getValue(configDomain,"localRoles");
+            if(localRoles != null){
+                Arrays.stream(localRoles.split(",")).map(String::trim).filter(role -> !role.isEmpty()).forEach(ConnectManager::registerLocalRole);
+                Log.info("module local roles : {}",ConnectManager.LOCAL_ROLES);
+            }
             Log.info("module dependents:");
             dependencies.forEach(d->{
                 Log.info("{}:{}",d.name,d.version);
@@ -1,11 +1,13 @@
 package io.nuls.core.rpc.netty.channel.manager;
 
+import com.fasterxml.jackson.core.JsonProcessingException;
 import io.netty.buffer.ByteBuf;
 import io.netty.channel.Channel;
 import io.netty.channel.ChannelFuture;
 import io.netty.channel.ChannelFutureListener;
 import io.netty.channel.socket.SocketChannel;
 import io.netty.handler.codec.http.websocketx.TextWebSocketFrame;
+import io.netty.handler.codec.http.websocketx.WebSocketFrame;
 import io.nuls.core.core.ioc.ScanUtil;
 import io.nuls.core.core.ioc.SpringLiteContext;
 import io.nuls.core.log.Log;
@@ -24,8 +26,8 @@ import io.nuls.core.rpc.netty.thread.RequestByCountProcessor;
 import io.nuls.core.rpc.netty.thread.RequestByPeriodProcessor;
 import io.nuls.core.rpc.netty.thread.RequestOnlyProcessor;
 import io.nuls.core.rpc.netty.thread.ResponseAutoProcessor;
+import io.nuls.core.rpc.util.MessageCodec;
 import io.nuls.core.rpc.util.NulsDateUtils;
-import io.nuls.core.rpc.util.SerializeUtil;
 
 import java.lang.annotation.Annotation;
 import java.lang.reflect.Method;
@@ -125,6 +127,18 @@ public class ConnectManager {
      */
     public static final Map<Message, ConnectData> MESSAGE_TO_CHANNEL_MAP = new ConcurrentHashMap<>();
 
+    /**
+     * 握手时协商使用二进制帧通讯的连接
+     * Connections that negotiated binary frames during handshake
+     */
+    public static final Set<Channel> BINARY_CHANNELS = ConcurrentHashMap.newKeySet();
+
+    /**
+     * 部署在当前进程内的模块角色，发往这些角色的请求直接调用本地方法，不经过websocket
+     * Roles of modules deployed in current process, requests to these roles call local methods directly without websocket
+     */
+    public static final Set<String> LOCAL_ROLES = ConcurrentHashMap.newKeySet();
+
     /**
      * 接口被订阅次数(事件方式)
      * Number of changes in the return value of the subscribed interface
@@ -223,6 +237,27 @@ public class ConnectManager {
     }
 
 
+    /**
+     * 登记部署在当前进程内的模块角色
+     * Register the role of module deployed in current process
+     *
+     * @param role 角色 / Role
+     */
+    public static void registerLocalRole(String role) {
+        LOCAL_ROLES.add(role);
+    }
+
+    /**
+     * 该角色是否部署在当前进程内
+     * Whether the role is deployed in current process
+     *
+     * @param role 角色 / Role
+     * @return boolean
+     */
+    public static boolean isLocalRole(String role) {
+        return !LOCAL_ROLES.isEmpty() && LOCAL_ROLES.contains(role);
+    }
+
     /**
      * 扫描指定路径，得到所有接口的详细信息
      * Scan the specified path for details of all interfaces
@@ -711,6 +746,7 @@ public class ConnectManager {
                 msgEntries.remove();
             }
         }
+        BINARY_CHANNELS.remove(channel);
         ConnectData connectData = CHANNEL_DATA_MAP.remove(channel);
         connectData.setConnected(false);
         connectData.getThreadPool().shutdown();
@@ -748,6 +784,29 @@ public class ConnectManager {
         }
     }
 
+    /**
+     * 发送消息，协商支持二进制帧的连接使用二进制帧，否则使用文本帧
+     * Send message, binary frame is used if the connection negotiated it, otherwise text frame is used
+     *
+     * @param channel 连接通道 / connection channel
+     * @param message 消息 / message
+     */
+    public static void sendMessage(Channel channel, Message message) throws JsonProcessingException {
+        WebSocketFrame frame = MessageCodec.encode(message, BINARY_CHANNELS.contains(channel));
+        try {
+            channel.eventLoop().execute(() -> {
+                ChannelFuture cf = channel.writeAndFlush(frame);
+                cf.addListener((ChannelFutureListener) future -> {
+                    if (!future.isSuccess()) {
+                        Log.error(future.cause());
+                    }
+                });
+            });
+        } catch (Exception e) {
+            Log.error(e);
+        }
+    }
+
 //    public static void sendMessage(Channel channel, String message) {
 ////        Log.debug("发送消息:{}",message);
 //        try {
@@ -768,7 +827,7 @@ public class ConnectManager {
 //    }
 
     public static void sendMessage(String moduleAbbr, Message message) throws Exception {
-        sendMessage(getConnectByRole(moduleAbbr), SerializeUtil.getBuffer(JSONUtils.obj2ByteArray(message)));
+        sendMessage(getConnectByRole(moduleAbbr), message);
     }
 
     public static String getRoleByChannel(Channel channel){
@@ -1,6 +1,5 @@
 package io.nuls.core.rpc.netty.handler;
 
-import io.netty.buffer.ByteBuf;
 import io.netty.channel.*;
 import io.netty.channel.socket.SocketChannel;
 import io.netty.handler.codec.http.FullHttpResponse;
@@ -17,6 +16,7 @@ import io.nuls.core.rpc.model.message.Request;
 import io.nuls.core.rpc.netty.channel.ConnectData;
 import io.nuls.core.rpc.netty.channel.manager.ConnectManager;
 import io.nuls.core.rpc.netty.handler.message.TextMessageHandler;
+import io.nuls.core.rpc.util.MessageCodec;
 import io.nuls.core.thread.commom.NulsThreadFactory;
 
 import java.util.Map;
@@ -100,12 +100,9 @@ public class ClientHandler extends SimpleChannelInboundHandler<Object> {
 
             if (frame instanceof CloseWebSocketFrame) {
                 ch.close();
-            } else if (msg instanceof TextWebSocketFrame) {
-                TextWebSocketFrame txMsg = (TextWebSocketFrame) msg;
-                ByteBuf content = txMsg.content();
-                byte[] bytes = new byte[content.readableBytes()];
-                content.readBytes(bytes);
-                Message message = JSONUtils.byteArray2pojo(bytes, Message.class);
+            } else if (MessageCodec.isMessageFrame(msg)) {
+                byte[] bytes = MessageCodec.content(frame);
+                Message message = MessageCodec.decode(frame, bytes);
                 MessageType messageType = MessageType.valueOf(message.getMessageType());
                 int priority = CmdPriority.DEFAULT.getPriority();
                 TextMessageHandler messageHandler = new TextMessageHandler((SocketChannel) ctx.channel(), message, priority);
@@ -1,10 +1,9 @@
 package io.nuls.core.rpc.netty.handler;
 
-import io.netty.buffer.ByteBuf;
 import io.netty.channel.ChannelHandlerContext;
 import io.netty.channel.SimpleChannelInboundHandler;
 import io.netty.channel.socket.SocketChannel;
-import io.netty.handler.codec.http.websocketx.TextWebSocketFrame;
+import io.netty.handler.codec.http.websocketx.WebSocketFrame;
 import io.nuls.core.log.Log;
 import io.nuls.core.parse.JSONUtils;
 import io.nuls.core.rpc.info.Constants;
@@ -16,6 +15,7 @@ import io.nuls.core.rpc.model.message.Request;
 import io.nuls.core.rpc.netty.channel.ConnectData;
 import io.nuls.core.rpc.netty.channel.manager.ConnectManager;
 import io.nuls.core.rpc.netty.handler.message.TextMessageHandler;
+import io.nuls.core.rpc.util.MessageCodec;
 import io.nuls.core.thread.commom.NulsThreadFactory;
 
 import java.util.Map;
@@ -42,12 +42,10 @@ public class ServerHandler extends SimpleChannelInboundHandler<Object> {
 
     @Override
     protected void channelRead0(ChannelHandlerContext ctx, Object msg) throws Exception {
-        if (msg instanceof TextWebSocketFrame) {
-            TextWebSocketFrame txMsg = (TextWebSocketFrame) msg;
-            ByteBuf content = txMsg.content();
-            byte[] bytes = new byte[content.readableBytes()];
-            content.readBytes(bytes);
-            Message message = JSONUtils.byteArray2pojo(bytes, Message.class);
+        if (MessageCodec.isMessageFrame(msg)) {
+            WebSocketFrame frame = (WebSocketFrame) msg;
+            byte[] bytes = MessageCodec.content(frame);
+            Message message = MessageCodec.decode(frame, bytes);
             MessageType messageType = MessageType.valueOf(message.getMessageType());
             int priority = CmdPriority.DEFAULT.getPriority();
             TextMessageHandler messageHandler = new TextMessageHandler((SocketChannel) ctx.channel(), message,priority);
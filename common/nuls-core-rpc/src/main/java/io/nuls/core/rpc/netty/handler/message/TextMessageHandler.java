@@ -39,6 +39,7 @@ import io.nuls.core.rpc.netty.processor.container.RequestContainer;
 import io.nuls.core.rpc.netty.processor.container.ResponseContainer;
 import io.nuls.core.log.Log;
 import io.nuls.core.parse.JSONUtils;
+import io.nuls.core.rpc.util.MessageCodec;
 import io.nuls.core.rpc.util.NulsDateUtils;
 
 import java.util.Comparator;
@@ -149,6 +150,10 @@ public class TextMessageHandler implements Runnable, Comparable<TextMessageHandl
                     }
                     break;
                 case NegotiateConnectionResponse:
+                    //服务端支持二进制帧时，之后的消息使用二进制帧发送
+                    if (MessageCodec.supportBinary(((Map<String, String>) message.getMessageData()).get("ProtocolVersion"))) {
+                        ConnectManager.BINARY_CHANNELS.add(channel);
+                    }
                 case Ack:
                     ResponseContainer resContainer = RequestContainer.getResponseContainer(((Map<String, String>) message.getMessageData()).get("RequestID"));
                     if (resContainer != null && resContainer.getFuture() != null) {
@@ -13,14 +13,14 @@ import io.nuls.core.rpc.model.CmdParameter;
 import io.nuls.core.rpc.model.message.*;
 import io.nuls.core.rpc.netty.channel.ConnectData;
 import io.nuls.core.rpc.netty.channel.manager.ConnectManager;
+import io.nuls.core.rpc.util.MessageCodec;
 import io.nuls.core.rpc.util.NulsDateUtils;
-import io.nuls.core.rpc.util.SerializeUtil;
 
+import java.lang.reflect.Array;
 import java.lang.reflect.Method;
 import java.math.BigDecimal;
-import java.util.HashMap;
-import java.util.List;
-import java.util.Map;
+import java.math.BigInteger;
+import java.util.*;
 import java.util.concurrent.ConcurrentHashMap;
 
 import static io.nuls.core.rpc.info.Constants.CMD_NOT_FOUND;
@@ -48,13 +48,18 @@ public class RequestMessageProcessor {
         negotiateConnectionResponse.setRequestID(message.getMessageID());
         negotiateConnectionResponse.setNegotiationStatus("1");
         negotiateConnectionResponse.setNegotiationComment("Connection true!");
+        negotiateConnectionResponse.setProtocolVersion(MessageCodec.BINARY_PROTOCOL_VERSION);
 
         Message rspMsg = MessageUtil.basicMessage(MessageType.NegotiateConnectionResponse);
         rspMsg.setMessageData(negotiateConnectionResponse);
-        ConnectManager.sendMessage(channel, SerializeUtil.getBuffer(JSONUtils.obj2ByteArray(rspMsg)));
+        ConnectManager.sendMessage(channel, rspMsg);
 
         //握手成功之后保存channel与角色的对应信息
         NegotiateConnection negotiateConnection = JSONUtils.map2pojo((Map) message.getMessageData(), NegotiateConnection.class);
+        //双方都支持二进制帧时，之后的消息使用二进制帧发送
+        if (MessageCodec.supportBinary(negotiateConnection.getProtocolVersion())) {
+            ConnectManager.BINARY_CHANNELS.add(channel);
+        }
         ConnectManager.cacheConnect(negotiateConnection.getAbbreviation(), channel, false);
     }
 
@@ -72,7 +77,7 @@ public class RequestMessageProcessor {
         ack.setRequestId(messageId);
         Message rspMsg = MessageUtil.basicMessage(MessageType.Ack);
         rspMsg.setMessageData(ack);
-        ConnectManager.sendMessage(channel, SerializeUtil.getBuffer(JSONUtils.obj2ByteArray(rspMsg)));
+        ConnectManager.sendMessage(channel, rspMsg);
     }
 
     /**
@@ -86,7 +91,7 @@ public class RequestMessageProcessor {
         Response response = MessageUtil.newFailResponse(messageId, "Service not started!");
         Message rspMsg = MessageUtil.basicMessage(MessageType.Response);
         rspMsg.setMessageData(response);
-        ConnectManager.sendMessage(channel, SerializeUtil.getBuffer(JSONUtils.obj2ByteArray(rspMsg)));
+        ConnectManager.sendMessage(channel, rspMsg);
     }
 
     /**
@@ -187,7 +192,7 @@ public class RequestMessageProcessor {
                     response.setResponseErrorCode(CommonCodeConstanst.CMD_NOTFOUND.getCode());
                     Message rspMessage = MessageUtil.basicMessage(MessageType.Response);
                     rspMessage.setMessageData(response);
-                    ConnectManager.sendMessage(channel, SerializeUtil.getBuffer(JSONUtils.obj2ByteArray(rspMessage)));
+                    ConnectManager.sendMessage(channel, rspMessage);
                     return;
                 }
 
@@ -201,12 +206,12 @@ public class RequestMessageProcessor {
                     response.setResponseErrorCode(CommonCodeConstanst.PARAMETER_ERROR.getCode());
                     Message rspMessage = MessageUtil.basicMessage(MessageType.Response);
                     rspMessage.setMessageData(response);
-                    ConnectManager.sendMessage(channel, SerializeUtil.getBuffer(JSONUtils.obj2ByteArray(rspMessage)));
+                    ConnectManager.sendMessage(channel, rspMessage);
                     return;
                 }
 
                 Message rspMessage = execute(cmdDetail, params, messageId);
-                ConnectManager.sendMessage(channel, SerializeUtil.getBuffer(JSONUtils.obj2ByteArray(rspMessage)));
+                ConnectManager.sendMessage(channel, rspMessage);
 
                 /*
                 执行成功之后判断该接口是否被订阅过，如果被订阅则改变该接口触发次数
@@ -221,7 +226,7 @@ public class RequestMessageProcessor {
                 response.setResponseErrorCode(CommonCodeConstanst.SYS_UNKOWN_EXCEPTION.getCode());
                 Message rspMessage = MessageUtil.basicMessage(MessageType.Response);
                 rspMessage.setMessageData(response);
-                ConnectManager.sendMessage(channel, SerializeUtil.getBuffer(JSONUtils.obj2ByteArray(rspMessage)));
+                ConnectManager.sendMessage(channel, rspMessage);
             }
         }
     }
@@ -273,6 +278,100 @@ public class RequestMessageProcessor {
         }
     }
 
+    /**
+     * 进程内直接调用本地cmd，不经过websocket及序列化，返回结果与远程调用一致
+     * 参数与返回数据转换为与二进制通道反序列化后相同的结构(Map/List/基本类型, byte[]保持不变)，
+     * 处理方法与调用方看到的数据类型与远程调用相同，且不与调用方共享可变对象
+     * Call the local cmd in process without websocket and serialization, the result is consistent with remote call.
+     * Parameters and response data are converted to the same shape the binary channel decodes to
+     * (Map/List/scalars, byte[] kept as is), so handlers and callers see the same types as in a remote call.
+     *
+     * @param method 方法名 / method name
+     * @param params 参数 / parameters
+     * @return Response，本地未注册该cmd时返回null / null if the cmd is not registered locally
+     */
+    public static Response callLocalCommand(String method, Map params) {
+        if (params != null) {
+            params = (Map) toRemoteShape(params);
+        }
+        CmdDetail cmdDetail = params == null || params.get(Constants.VERSION_KEY_STR) == null
+                ? ConnectManager.getLocalInvokeCmd(method)
+                : ConnectManager.getLocalInvokeCmd(method, Double.parseDouble(params.get(Constants.VERSION_KEY_STR).toString()));
+        if (cmdDetail == null) {
+            return null;
+        }
+        String messageId = Constants.nextSequence();
+        String validationString = paramsValidation(cmdDetail, params);
+        if (validationString != null) {
+            Response response = MessageUtil.newFailResponse(messageId, validationString);
+            response.setResponseErrorCode(CommonCodeConstanst.PARAMETER_ERROR.getCode());
+            return response;
+        }
+        try {
+            Response response = (Response) execute(cmdDetail, params, messageId).getMessageData();
+            if (response.getResponseData() != null) {
+                response.setResponseData(toRemoteShape(response.getResponseData()));
+            }
+            if (ConnectManager.SUBSCRIBE_COUNT.containsKey(method)) {
+                ConnectManager.eventTrigger(method, response);
+            }
+            return response;
+        } catch (Exception e) {
+            Log.error(e);
+            Response response = MessageUtil.newFailResponse(messageId, "Server-side processing failed!");
+            response.setResponseErrorCode(CommonCodeConstanst.SYS_UNKOWN_EXCEPTION.getCode());
+            return response;
+        }
+    }
+
+    /**
+     * 把对象转换为远程调用反序列化后的结构: 对象转为Map, 集合与数组转为List, 整数按大小取Integer/Long/BigInteger,
+     * 字符串、布尔值、浮点数和byte[]保持不变
+     * Convert the object to the shape a remote call decodes to
+     *
+     * @param value 原对象 / original object
+     * @return 转换后的对象 / converted object
+     */
+    private static Object toRemoteShape(Object value) {
+        if (value == null || value instanceof String || value instanceof Boolean || value instanceof Integer
+                || value instanceof Double || value instanceof BigDecimal || value instanceof byte[]) {
+            return value;
+        }
+        if (value instanceof Long || value instanceof BigInteger) {
+            BigInteger integer = value instanceof Long ? BigInteger.valueOf((Long) value) : (BigInteger) value;
+            if (integer.bitLength() < Integer.SIZE) {
+                return integer.intValue();
+            }
+            return integer.bitLength() < Long.SIZE ? integer.longValue() : integer;
+        }
+        if (value instanceof Short || value instanceof Byte) {
+            return ((Number) value).intValue();
+        }
+        if (value instanceof Float) {
+            return ((Float) value).doubleValue();
+        }
+        if (value instanceof Map) {
+            Map<String, Object> map = new LinkedHashMap<>();
+            ((Map<?, ?>) value).forEach((k, v) -> map.put(String.valueOf(k), toRemoteShape(v)));
+            return map;
+        }
+        if (value instanceof Collection) {
+            List<Object> list = new ArrayList<>(((Collection<?>) value).size());
+            ((Collection<?>) value).forEach(e -> list.add(toRemoteShape(e)));
+            return list;
+        }
+        if (value.getClass().isArray()) {
+            int length = Array.getLength(value);
+            List<Object> list = new ArrayList<>(length);
+            for (int i = 0; i < length; i++) {
+                list.add(toRemoteShape(Array.get(value, i)));
+            }
+            return list;
+        }
+        //其他对象按JSON规则转换为Map或基本类型
+        return toRemoteShape(JSONUtils.getInstance().convertValue(value, Object.class));
+    }
+
     /**
      * 调用本地方法，把结果封装为Message对象，通过Websocket返回
      * Call the local method, encapsulate the result as a Message object, and return it through Websocket
@@ -309,7 +408,7 @@ public class RequestMessageProcessor {
         rspMessage.setMessageData(realResponse);
         try {
             Log.debug("responseWithEventCount: " + JSONUtils.obj2json(rspMessage));
-            ConnectManager.sendMessage(channel, SerializeUtil.getBuffer(JSONUtils.obj2ByteArray(rspMessage)));
+            ConnectManager.sendMessage(channel, rspMessage);
         } catch (JsonProcessingException e) {
             Log.error(e);
         }
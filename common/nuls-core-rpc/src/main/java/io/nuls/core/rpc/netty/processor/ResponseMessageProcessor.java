@@ -16,7 +16,6 @@ import io.nuls.core.rpc.model.message.*;
 import io.nuls.core.rpc.netty.channel.manager.ConnectManager;
 import io.nuls.core.rpc.netty.processor.container.RequestContainer;
 import io.nuls.core.rpc.netty.processor.container.ResponseContainer;
-import io.nuls.core.rpc.util.SerializeUtil;
 
 import java.util.Map;
 import java.util.concurrent.TimeUnit;
@@ -55,7 +54,7 @@ public class ResponseMessageProcessor {
 
         ResponseContainer responseContainer = RequestContainer.putRequest(message.getMessageID());
 
-        ConnectManager.sendMessage(channel, SerializeUtil.getBuffer(JSONUtils.obj2ByteArray(message)));
+        ConnectManager.sendMessage(channel, message);
 
         try {
             return responseContainer.getFuture().get(Constants.TIMEOUT_TIMEMILLIS, TimeUnit.MILLISECONDS) != null;
@@ -85,7 +84,7 @@ public class ResponseMessageProcessor {
 
         ResponseContainer responseContainer = RequestContainer.putRequest(message.getMessageID());
 
-        ConnectManager.sendMessage(channel, SerializeUtil.getBuffer(JSONUtils.obj2ByteArray(message)));
+        ConnectManager.sendMessage(channel, message);
 
         try {
             return responseContainer.getFuture().get(Constants.TIMEOUT_TIMEMILLIS, TimeUnit.MILLISECONDS) != null;
@@ -138,7 +137,7 @@ public class ResponseMessageProcessor {
         发送请求
         Send request
         */
-        ConnectManager.sendMessage(channel, SerializeUtil.getBuffer(JSONUtils.obj2ByteArray(message)));
+        ConnectManager.sendMessage(channel, message);
 
         /*
         获取返回的数据，放入本地变量
@@ -152,7 +151,7 @@ public class ResponseMessageProcessor {
         while (!response.isSuccess() && tryCount < Constants.TRY_COUNT) {
             Log.info("向核心注册消息发送失败第{}次",tryCount + 1);
             responseContainer = RequestContainer.putRequest(message.getMessageID());
-            ConnectManager.sendMessage(channel, SerializeUtil.getBuffer(JSONUtils.obj2ByteArray(message)));
+            ConnectManager.sendMessage(channel, message);
             response = receiveResponse(responseContainer, REGISTER_API_TIME_OUT);
             tryCount++;
         }
@@ -194,6 +193,16 @@ public class ResponseMessageProcessor {
      * @throws Exception 请求超时（timeOut），timeout (timeOut)
      */
     public static Response requestAndResponse(String role, String cmd, Map params, long timeOut) throws Exception {
+        /*
+        目标角色部署在当前进程内，直接调用本地cmd
+        The target role is deployed in current process, call the local cmd directly
+         */
+        if (ConnectManager.isLocalRole(role)) {
+            Response response = RequestMessageProcessor.callLocalCommand(cmd, params);
+            if (response != null) {
+                return response;
+            }
+        }
         Request request = MessageUtil.newRequest(cmd, params, Constants.BOOLEAN_FALSE, Constants.ZERO, Constants.ZERO);
         request.setTimeOut(String.valueOf(timeOut));
         ResponseContainer responseContainer = sendRequest(role, request);
@@ -284,7 +293,7 @@ public class ResponseMessageProcessor {
             Log.info("当前请求堆积过多,等待请求处理");
             return "0";
         }
-        ConnectManager.sendMessage(channel, SerializeUtil.getBuffer(JSONUtils.obj2ByteArray(message)));
+        ConnectManager.sendMessage(channel, message);
         return message.getMessageID();
     }
 
@@ -306,7 +315,7 @@ public class ResponseMessageProcessor {
 
         ResponseContainer responseContainer = RequestContainer.putRequest(message.getMessageID());
 
-        ConnectManager.sendMessage(channel, SerializeUtil.getBuffer(JSONUtils.obj2ByteArray(message)));
+        ConnectManager.sendMessage(channel, message);
         if (ConnectManager.isPureDigital(request.getSubscriptionPeriod())
                 || ConnectManager.isPureDigital(request.getSubscriptionEventCounter())) {
             /*
@@ -342,7 +351,7 @@ public class ResponseMessageProcessor {
          */
         Channel channel = ConnectManager.MSG_ID_KEY_CHANNEL_MAP.get(messageId);
         if (channel != null) {
-            ConnectManager.sendMessage(channel, SerializeUtil.getBuffer(JSONUtils.obj2ByteArray(message)));
+            ConnectManager.sendMessage(channel, message);
             Log.debug("取消订阅：" + JSONUtils.obj2json(message));
             ConnectManager.INVOKE_MAP.remove(messageId);
         }
@@ -0,0 +1,150 @@
+package io.nuls.core.rpc.util;
+
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.SerializerProvider;
+import com.fasterxml.jackson.databind.module.SimpleModule;
+import com.fasterxml.jackson.databind.ser.std.StdSerializer;
+import com.fasterxml.jackson.dataformat.smile.SmileFactory;
+import com.fasterxml.jackson.module.afterburner.AfterburnerModule;
+import io.netty.buffer.ByteBuf;
+import io.netty.handler.codec.http.websocketx.BinaryWebSocketFrame;
+import io.netty.handler.codec.http.websocketx.TextWebSocketFrame;
+import io.netty.handler.codec.http.websocketx.WebSocketFrame;
+import io.nuls.core.crypto.HexUtil;
+import io.nuls.core.parse.JSONUtils;
+import io.nuls.core.rpc.model.message.Message;
+
+import java.io.IOException;
+
+/**
+ * 模块间消息编解码工具
+ * 握手时双方协商协议版本，支持二进制帧的连接使用Smile编码，byte[]参数原样传输，无需转为hex字符串；
+ * 其他连接仍使用JSON文本帧，byte[]参数以hex字符串发送，与旧版本模块保持兼容
+ * Inter-module message codec.
+ * Connections that negotiated binary frames use Smile encoding and carry byte[] parameters as raw bytes,
+ * other connections keep JSON text frames in which byte[] parameters are sent as hex strings.
+ */
+public class MessageCodec {
+
+    /**
+     * 支持二进制帧的协议版本
+     * Protocol version that supports binary frames
+     */
+    public static final String BINARY_PROTOCOL_VERSION = "0.2";
+
+    private static final ObjectMapper BINARY_MAPPER = new ObjectMapper(new SmileFactory());
+
+    private static final ObjectMapper TEXT_MAPPER = new ObjectMapper();
+
+    static {
+        BINARY_MAPPER.registerModule(new AfterburnerModule());
+        SimpleModule hexModule = new SimpleModule();
+        hexModule.addSerializer(byte[].class, new StdSerializer<byte[]>(byte[].class) {
+            @Override
+            public void serialize(byte[] value, JsonGenerator gen, SerializerProvider provider) throws IOException {
+                gen.writeString(HexUtil.encode(value));
+            }
+        });
+        TEXT_MAPPER.registerModule(new AfterburnerModule());
+        TEXT_MAPPER.registerModule(hexModule);
+    }
+
+    /**
+     * 对方声明的协议版本是否支持二进制帧
+     * Whether the protocol version declared by the peer supports binary frames
+     *
+     * @param protocolVersion 协议版本 / protocol version
+     * @return boolean
+     */
+    public static boolean supportBinary(String protocolVersion) {
+        return protocolVersion != null && compareVersion(protocolVersion, BINARY_PROTOCOL_VERSION) >= 0;
+    }
+
+    /**
+     * 按数值逐段比较版本号，如"1.10"大于"1.9"，无法解析的版本视为最低版本
+     * Compare versions segment by segment numerically, e.g. "1.10" is greater than "1.9",
+     * a version that can't be parsed is treated as the lowest one
+     */
+    private static int compareVersion(String v1, String v2) {
+        int[] s1 = parseVersion(v1);
+        int[] s2 = parseVersion(v2);
+        for (int i = 0; i < Math.max(s1.length, s2.length); i++) {
+            int n1 = i < s1.length ? s1[i] : 0;
+            int n2 = i < s2.length ? s2[i] : 0;
+            if (n1 != n2) {
+                return Integer.compare(n1, n2);
+            }
+        }
+        return 0;
+    }
+
+    private static int[] parseVersion(String version) {
+        String[] segments = version.trim().split("\\.");
+        int[] numbers = new int[segments.length];
+        try {
+            for (int i = 0; i < segments.length; i++) {
+                numbers[i] = Integer.parseInt(segments[i]);
+            }
+        } catch (NumberFormatException e) {
+            return new int[]{-1};
+        }
+        return numbers;
+    }
+
+    /**
+     * 将消息编码为WebSocket帧
+     * Encode message into a WebSocket frame
+     *
+     * @param message 消息 / message
+     * @param binary  是否使用二进制帧 / whether to use binary frame
+     * @return WebSocketFrame
+     */
+    public static WebSocketFrame encode(Message message, boolean binary) throws JsonProcessingException {
+        if (binary) {
+            return new BinaryWebSocketFrame(SerializeUtil.getBuffer(BINARY_MAPPER.writeValueAsBytes(message)));
+        }
+        return new TextWebSocketFrame(SerializeUtil.getBuffer(TEXT_MAPPER.writeValueAsBytes(message)));
+    }
+
+    /**
+     * 解析消息帧的内容
+     * Decode message frame content
+     *
+     * @param frame 文本帧或二进制帧 / text frame or binary frame
+     * @param bytes 帧内容 / frame content
+     * @return Message
+     */
+    public static Message decode(WebSocketFrame frame, byte[] bytes) throws IOException {
+        if (frame instanceof BinaryWebSocketFrame) {
+            return BINARY_MAPPER.readValue(bytes, Message.class);
+        }
+        return JSONUtils.byteArray2pojo(bytes, Message.class);
+    }
+
+    /**
+     * 读取帧内容
+     * Read frame content
+     *
+     * @param frame 消息帧 / message frame
+     * @return byte[]
+     */
+    public static byte[] content(WebSocketFrame frame) {
+        ByteBuf content = frame.content();
+        byte[] bytes = new byte[content.readableBytes()];
+        content.readBytes(bytes);
+        return bytes;
+    }
+
+    /**
+     * 是否为可解析的消息帧
+     * Whether it is a message frame that can be decoded
+     *
+     * @param msg 接收到的消息 / received message
+     * @return boolean
+     */
+    public static boolean isMessageFrame(Object msg) {
+        return msg instanceof TextWebSocketFrame || msg instanceof BinaryWebSocketFrame;
+    }
+}
@@ -0,0 +1,105 @@
+package io.nuls.core.rpc;
+
+import io.nuls.core.rpc.cmd.BaseCmd;
+import io.nuls.core.rpc.model.CmdAnnotation;
+import io.nuls.core.rpc.model.message.Response;
+import io.nuls.core.rpc.netty.channel.manager.ConnectManager;
+import io.nuls.core.rpc.netty.processor.RequestMessageProcessor;
+import io.nuls.core.rpc.netty.processor.ResponseMessageProcessor;
+import org.junit.AfterClass;
+import org.junit.Assert;
+import org.junit.BeforeClass;
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * 进程内模块直接调用测试
+ */
+public class LocalInvokeTest {
+
+    private static final String ROLE = "local-test";
+
+    @BeforeClass
+    public static void before() {
+        ConnectManager.LOCAL.setMethods(new ArrayList<>());
+        ConnectManager.addCmdDetail(EchoCmd.class);
+        RequestMessageProcessor.handlerMap.put(EchoCmd.class.getName(), new EchoCmd());
+        ConnectManager.registerLocalRole(ROLE);
+    }
+
+    @AfterClass
+    public static void after() {
+        ConnectManager.LOCAL_ROLES.remove(ROLE);
+    }
+
+    @Test
+    public void requestAndResponseTest() throws Exception {
+        byte[] data = new byte[]{1, 2, 3};
+        Map<String, Object> params = new HashMap<>();
+        params.put("data", data);
+        Response response = ResponseMessageProcessor.requestAndResponse(ROLE, "test_echo", params);
+        Assert.assertTrue(response.isSuccess());
+        Map responseData = (Map) ((Map) response.getResponseData()).get("test_echo");
+        Assert.assertArrayEquals(data, (byte[]) responseData.get("value"));
+    }
+
+    @Test
+    public void sameShapeAsRemoteTest() throws Exception {
+        Map<String, Object> params = new HashMap<>();
+        params.put("height", 10L);
+        Response response = ResponseMessageProcessor.requestAndResponse(ROLE, "test_dto", params);
+        Assert.assertTrue(response.isSuccess());
+        //返回的对象与远程调用一样转换为Map, 小数值与JSON反序列化一样为Integer
+        Map responseData = (Map) ((Map) response.getResponseData()).get("test_dto");
+        Assert.assertEquals("name", responseData.get("name"));
+        Assert.assertEquals(10, responseData.get("height"));
+    }
+
+    @Test
+    public void failedTest() throws Exception {
+        Response response = ResponseMessageProcessor.requestAndResponse(ROLE, "test_error", new HashMap<>());
+        Assert.assertFalse(response.isSuccess());
+        Assert.assertNull(RequestMessageProcessor.callLocalCommand("test_not_exist", new HashMap<>()));
+    }
+
+    public static class EchoCmd extends BaseCmd {
+
+        @CmdAnnotation(cmd = "test_echo", version = 1.0, description = "echo")
+        public Response echo(Map params) {
+            Map<String, Object> result = new HashMap<>(2);
+            result.put("value", params.get("data"));
+            return success(result);
+        }
+
+        @CmdAnnotation(cmd = "test_dto", version = 1.0, description = "dto")
+        public Response dto(Map params) {
+            return success(new Dto("name", (Integer) params.get("height")));
+        }
+
+        @CmdAnnotation(cmd = "test_error", version = 1.0, description = "error")
+        public Response error(Map params) {
+            throw new IllegalStateException("error");
+        }
+    }
+
+    public static class Dto {
+        private final String name;
+        private final int height;
+
+        public Dto(String name, int height) {
+            this.name = name;
+            this.height = height;
+        }
+
+        public String getName() {
+            return name;
+        }
+
+        public int getHeight() {
+            return height;
+        }
+    }
+}
@@ -0,0 +1,74 @@
+package io.nuls.core.rpc;
+
+import io.netty.handler.codec.http.websocketx.BinaryWebSocketFrame;
+import io.netty.handler.codec.http.websocketx.TextWebSocketFrame;
+import io.netty.handler.codec.http.websocketx.WebSocketFrame;
+import io.nuls.core.crypto.HexUtil;
+import io.nuls.core.parse.JSONUtils;
+import io.nuls.core.rpc.model.message.Message;
+import io.nuls.core.rpc.model.message.MessageType;
+import io.nuls.core.rpc.model.message.MessageUtil;
+import io.nuls.core.rpc.model.message.Request;
+import io.nuls.core.rpc.util.MessageCodec;
+import org.junit.Assert;
+import org.junit.Test;
+
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * 模块间消息二进制帧与文本帧编解码测试
+ */
+public class MessageCodecTest {
+
+    private static final byte[] TX = new byte[]{1, 2, 3, (byte) 0xff};
+
+    @Test
+    public void binaryTest() throws Exception {
+        WebSocketFrame frame = MessageCodec.encode(newRequestMessage(), true);
+        Assert.assertTrue(frame instanceof BinaryWebSocketFrame);
+        Map params = decodeParams(frame);
+        Assert.assertArrayEquals(TX, (byte[]) params.get("blockHeader"));
+        Assert.assertArrayEquals(TX, (byte[]) ((List) params.get("txList")).get(0));
+        Assert.assertEquals(1, params.get("chainId"));
+    }
+
+    @Test
+    public void textTest() throws Exception {
+        WebSocketFrame frame = MessageCodec.encode(newRequestMessage(), false);
+        Assert.assertTrue(frame instanceof TextWebSocketFrame);
+        Map params = decodeParams(frame);
+        Assert.assertEquals(HexUtil.encode(TX), params.get("blockHeader"));
+        Assert.assertEquals(HexUtil.encode(TX), ((List) params.get("txList")).get(0));
+    }
+
+    @Test
+    public void supportBinaryTest() {
+        Assert.assertFalse(MessageCodec.supportBinary(null));
+        Assert.assertFalse(MessageCodec.supportBinary("0.1"));
+        Assert.assertFalse(MessageCodec.supportBinary("abc"));
+        Assert.assertTrue(MessageCodec.supportBinary(MessageCodec.BINARY_PROTOCOL_VERSION));
+        Assert.assertTrue(MessageCodec.supportBinary("0.10"));
+        Assert.assertTrue(MessageCodec.supportBinary("1.0"));
+        Assert.assertTrue(MessageCodec.supportBinary("0.2.1"));
+    }
+
+    private static Message newRequestMessage() {
+        Map<String, Object> params = new HashMap<>();
+        params.put("chainId", 1);
+        params.put("txList", List.of(TX));
+        params.put("blockHeader", TX);
+        Message message = new Message();
+        message.setMessageID("1");
+        message.setMessageType(MessageType.Request.name());
+        message.setMessageData(MessageUtil.newRequest("tx_save", params, "0", "0", "0"));
+        return message;
+    }
+
+    private static Map decodeParams(WebSocketFrame frame) throws Exception {
+        Message message = MessageCodec.decode(frame, MessageCodec.content(frame));
+        Request request = JSONUtils.map2pojo((Map) message.getMessageData(), Request.class);
+        return (Map) request.getRequestMethods().get("tx_save");
+    }
+}
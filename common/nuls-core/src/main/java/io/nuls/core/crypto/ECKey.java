@@ -20,8 +20,11 @@ package io.nuls.core.crypto;
 import com.google.common.annotations.VisibleForTesting;
 import com.google.common.base.Objects;
 import com.google.common.base.Preconditions;
+import com.google.common.cache.Cache;
+import com.google.common.cache.CacheBuilder;
 import com.google.common.primitives.UnsignedBytes;
 import io.nuls.core.basic.VarInt;
+import io.nuls.core.model.ByteArrayWrapper;
 import io.nuls.core.model.ObjectUtils;
 import io.nuls.core.parse.SerializeUtils;
 import org.bouncycastle.asn1.*;
@@ -129,6 +132,12 @@ public class ECKey {
 
     private static final SecureRandom secureRandom;
 
+    /**
+     * 已解码的公钥缓存, 验证签名时避免重复解码公钥的椭圆曲线点
+     * Decoded public key cache, avoids decoding the curve point again on every signature verification
+     */
+    private static final Cache<ByteArrayWrapper, ECPublicKeyParameters> PUB_KEY_PARAMS_CACHE = CacheBuilder.newBuilder().maximumSize(10000).build();
+
     static {
         // Init proper random number generator, as some old Android installations have bugs that make it unsecure.
         if (HexUtil.isAndroidRuntime()) {
@@ -662,7 +671,12 @@ public class ECKey {
      */
     public static boolean verify(byte[] data, ECDSASignature signature, byte[] pub) {
         ECDSASigner signer = new ECDSASigner();
-        ECPublicKeyParameters params = new ECPublicKeyParameters(CURVE.getCurve().decodePoint(pub), CURVE);
+        ByteArrayWrapper pubKey = new ByteArrayWrapper(pub);
+        ECPublicKeyParameters params = PUB_KEY_PARAMS_CACHE.getIfPresent(pubKey);
+        if (params == null) {
+            params = new ECPublicKeyParameters(CURVE.getCurve().decodePoint(pub), CURVE);
+            PUB_KEY_PARAMS_CACHE.put(new ByteArrayWrapper(pub.clone()), params);
+        }
         signer.init(false, params);
         try {
             return signer.verifySignature(data, signature.r, signature.s);
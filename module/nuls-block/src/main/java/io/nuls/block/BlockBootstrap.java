@@ -105,7 +105,11 @@ public class BlockBootstrap extends RpcModule {
      */
     private void initDb() throws Exception {
         //读取配置文件,数据存储根目录,初始化打开该目录下所有表连接并放入缓存
-        RocksDBService.init(blockConfig.getDataFolder());
+        if (blockConfig.isDbColumnFamilyMode()) {
+            RocksDBService.initColumnFamily(blockConfig.getDataFolder(), blockConfig.getDbBlockCacheSize(), blockConfig.getDbWriteBufferSize());
+        } else {
+            RocksDBService.init(blockConfig.getDataFolder());
+        }
         RocksDBService.createTable(CHAIN_LATEST_HEIGHT);
         RocksDBService.createTable(CHAIN_PARAMETERS);
         RocksDBService.createTable(PROTOCOL_CONFIG);
@@ -70,6 +70,18 @@ public interface CommandConstant {
      * 批量交易消息
      */
     String TXGROUP_MESSAGE = "txs";
+    /**
+     * 紧凑区块消息
+     */
+    String COMPACT_BLOCK_MESSAGE = "cBlock";
+    /**
+     * 获取紧凑区块消息
+     */
+    String GET_COMPACT_BLOCK_MESSAGE = "getcBlock";
+    /**
+     * 按短交易ID批量获取交易
+     */
+    String GET_COMPACT_TXS_MESSAGE = "getcTxs";
 
     //普通服务对应的RPC命令
     /**
@@ -61,6 +61,26 @@ public interface Constant {
      */
     String CACHED_BLOCK = "cached_block_";
 
+    /**
+     * 区块广播缓存在确认高度以下保留的高度数
+     */
+    int SMALL_BLOCK_CACHE_HEIGHT_WINDOW = 16;
+
+    /**
+     * 区块广播状态缓存的条目上限
+     */
+    int SMALL_BLOCK_STATUS_CACHE_SIZE = 1024;
+
+    /**
+     * 从数据库重建的SmallBlock缓存条目上限, 用于响应其他节点对最新区块的请求
+     */
+    int RECONSTRUCTED_SMALL_BLOCK_CACHE_SIZE = 16;
+
+    /**
+     * 记录的支持紧凑区块的节点数上限
+     */
+    int COMPACT_BLOCK_NODE_CACHE_SIZE = 1024;
+
     /**
      * 工作状态
      */
@@ -0,0 +1,103 @@
+/*
+ * MIT License
+ * Copyright (c) 2017-2019 nuls.io
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+package io.nuls.block.message;
+
+import io.nuls.base.basic.NulsByteBuffer;
+import io.nuls.base.basic.NulsOutputStreamBuffer;
+import io.nuls.base.data.BaseBusinessMessage;
+import io.nuls.base.data.CompactBlock;
+import io.nuls.base.data.NulsHash;
+import io.nuls.core.basic.VarInt;
+import io.nuls.core.exception.NulsException;
+import io.nuls.core.parse.SerializeUtils;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * 按短交易ID批量请求紧凑区块中缺失的交易消息
+ * 携带紧凑区块的nonce, 发送方据此重新计算区块中交易的短ID
+ */
+public class ShortTxIdListMessage extends BaseBusinessMessage {
+
+    private NulsHash blockHash;
+
+    private long nonce;
+
+    private List<Long> shortTxIdList = new ArrayList<>();
+
+    public NulsHash getBlockHash() {
+        return blockHash;
+    }
+
+    public void setBlockHash(NulsHash blockHash) {
+        this.blockHash = blockHash;
+    }
+
+    public long getNonce() {
+        return nonce;
+    }
+
+    public void setNonce(long nonce) {
+        this.nonce = nonce;
+    }
+
+    public List<Long> getShortTxIdList() {
+        return shortTxIdList;
+    }
+
+    public void setShortTxIdList(List<Long> shortTxIdList) {
+        this.shortTxIdList = shortTxIdList;
+    }
+
+    @Override
+    public int size() {
+        int size = 0;
+        size += NulsHash.HASH_LENGTH;
+        size += SerializeUtils.sizeOfInt64();
+        size += VarInt.sizeOf(shortTxIdList.size());
+        size += shortTxIdList.size() * CompactBlock.SHORT_TX_ID_LENGTH;
+        return size;
+    }
+
+    @Override
+    public void serializeToStream(NulsOutputStreamBuffer stream) throws IOException {
+        stream.write(blockHash.getBytes());
+        stream.writeInt64(nonce);
+        stream.writeVarInt(shortTxIdList.size());
+        for (long shortTxId : shortTxIdList) {
+            stream.writeUint48(shortTxId);
+        }
+    }
+
+    @Override
+    public void parse(NulsByteBuffer byteBuffer) throws NulsException {
+        this.blockHash = byteBuffer.readHash();
+        this.nonce = byteBuffer.readInt64();
+        long count = byteBuffer.readVarInt();
+        this.shortTxIdList = new ArrayList<>();
+        for (int i = 0; i < count; i++) {
+            this.shortTxIdList.add(byteBuffer.readUint48() & 0xFFFFFFFFFFFFL);
+        }
+    }
+
+}
@@ -25,6 +25,7 @@ import io.nuls.base.data.Block;
 import io.nuls.base.protocol.MessageProcessor;
 import io.nuls.block.manager.ContextManager;
 import io.nuls.block.message.BlockMessage;
+import io.nuls.block.model.BlockDownloaderParams;
 import io.nuls.block.model.ChainContext;
 import io.nuls.block.utils.SingleBlockCacher;
 import io.nuls.core.core.annotation.Component;
@@ -50,9 +51,14 @@ public class BlockHandler implements MessageProcessor {
 
     @Override
     public void process(int chainId, String nodeId, String msgStr) {
+        process(chainId, nodeId, RPCUtil.decode(msgStr));
+    }
+
+    @Override
+    public void process(int chainId, String nodeId, byte[] msgBytes) {
         ChainContext context = ContextManager.getContext(chainId);
         NulsLogger logger = context.getLogger();
-        BlockMessage message = RPCUtil.getInstanceRpcStr(msgStr, BlockMessage.class);
+        BlockMessage message = RPCUtil.getInstance(msgBytes, BlockMessage.class);
         if (message == null) {
             return;
         }
@@ -62,6 +68,11 @@ public class BlockHandler implements MessageProcessor {
             long height = block.getHeader().getHeight();
             //接受到的区块高度比当前最新高度高，并且区块同步过程正在进行
             boolean b = height > context.getLatestHeight() && context.isNeedSyn();
+            BlockDownloaderParams downloaderParams = context.getDownloaderParams();
+            if (b && downloaderParams != null) {
+                //统计节点的下载速度
+                downloaderParams.receive(nodeId, message.getRequestHash(), block.size());
+            }
             if (b && context.getBlockMap().put(height, block) == null) {
                 context.getCachedBlockSize().addAndGet(block.size());
             } else {
@@ -0,0 +1,179 @@
+/*
+ * MIT License
+ * Copyright (c) 2017-2019 nuls.io
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+package io.nuls.block.message.handler;
+
+import io.nuls.base.RPCUtil;
+import io.nuls.base.data.*;
+import io.nuls.base.protocol.MessageProcessor;
+import io.nuls.block.constant.BlockForwardEnum;
+import io.nuls.block.constant.StatusEnum;
+import io.nuls.block.manager.ContextManager;
+import io.nuls.block.message.CompactBlockMessage;
+import io.nuls.block.message.HashMessage;
+import io.nuls.block.message.ShortTxIdListMessage;
+import io.nuls.block.model.CachedSmallBlock;
+import io.nuls.block.model.ChainContext;
+import io.nuls.block.model.ChainParameters;
+import io.nuls.block.rpc.call.NetworkCall;
+import io.nuls.block.rpc.call.TransactionCall;
+import io.nuls.block.service.BlockService;
+import io.nuls.block.thread.monitor.TxGroupRequestor;
+import io.nuls.block.utils.BlockUtil;
+import io.nuls.block.utils.SmallBlockCacher;
+import io.nuls.core.core.annotation.Autowired;
+import io.nuls.core.core.annotation.Component;
+import io.nuls.core.log.logback.NulsLogger;
+import io.nuls.core.rpc.util.NulsDateUtils;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import static io.nuls.block.constant.BlockForwardEnum.*;
+import static io.nuls.block.constant.CommandConstant.*;
+
+/**
+ * 处理收到的{@link CompactBlockMessage},用于区块的广播与转发
+ * 按短交易ID从本地待打包交易中还原区块, 缺失的交易按短交易ID向源节点请求;
+ * 无法还原(短交易ID冲突)时改为向源节点请求SmallBlock
+ */
+@Component("CompactBlockHandlerV1")
+public class CompactBlockHandler implements MessageProcessor {
+
+    @Autowired
+    private BlockService blockService;
+
+    @Override
+    public String getCmd() {
+        return COMPACT_BLOCK_MESSAGE;
+    }
+
+    @Override
+    public void process(int chainId, String nodeId, String msgStr) {
+        process(chainId, nodeId, RPCUtil.decode(msgStr));
+    }
+
+    @Override
+    public void process(int chainId, String nodeId, byte[] msgBytes) {
+        ChainContext context = ContextManager.getContext(chainId);
+        CompactBlockMessage message = RPCUtil.getInstance(msgBytes, CompactBlockMessage.class);
+        if (message == null) {
+            return;
+        }
+        //发送紧凑区块的节点支持紧凑区块
+        context.getCompactBlockNodes().add(nodeId);
+        NulsLogger logger = context.getLogger();
+        CompactBlock compactBlock = message.getCompactBlock();
+        if (null == compactBlock) {
+            logger.warn("recieved a null compactBlock!");
+            return;
+        }
+
+        BlockHeader header = compactBlock.getHeader();
+        NulsHash blockHash = header.getHash();
+        //阻止恶意节点提前出块,拒绝接收未来一定时间外的区块
+        ChainParameters parameters = context.getParameters();
+        int validBlockInterval = parameters.getValidBlockInterval();
+        long currentTime = NulsDateUtils.getCurrentTimeMillis();
+        if (header.getTime() * 1000 > (currentTime + validBlockInterval)) {
+            logger.error("header.getTime()-" + header.getTime() + ", currentTime-" + currentTime + ", validBlockInterval-" + validBlockInterval);
+            return;
+        }
+
+        context.getCachedHashHeightMap().put(blockHash, header.getHeight());
+        NetworkCall.setHashAndHeight(chainId, blockHash, header.getHeight(), nodeId);
+        if (context.getStatus().equals(StatusEnum.SYNCHRONIZING)) {
+            return;
+        }
+        BlockForwardEnum status = SmallBlockCacher.getStatus(chainId, blockHash);
+        //已收到完整区块或者正在请求缺失的交易,丢弃
+        if (!EMPTY.equals(status)) {
+            return;
+        }
+        if (!BlockUtil.headerVerify(chainId, header)) {
+            logger.info("recieve error CompactBlockMessage from " + nodeId);
+            SmallBlockCacher.setStatus(chainId, blockHash, ERROR);
+            return;
+        }
+        //先放入预填交易, 再从交易管理模块的待打包交易中按短交易ID查找
+        Map<Long, Transaction> compactTxMap = new HashMap<>(header.getTxCount());
+        BlockUtil.putCompactTxs(compactBlock, compactTxMap, compactBlock.getPrefilledTxList());
+        List<Long> missingShortTxIds = BlockUtil.getMissingShortTxIds(compactBlock, compactTxMap);
+        List<Transaction> existTransactions = TransactionCall.getTransactionsByShortTxIds(chainId, compactBlock.getSipKey(), missingShortTxIds);
+        BlockUtil.putCompactTxs(compactBlock, compactTxMap, existTransactions);
+        missingShortTxIds = BlockUtil.getMissingShortTxIds(compactBlock, compactTxMap);
+
+        CachedSmallBlock cachedSmallBlock = new CachedSmallBlock(compactBlock, compactTxMap, nodeId);
+        cachedSmallBlock.setMissingShortTxIds(missingShortTxIds);
+        //获取没有的交易
+        if (!missingShortTxIds.isEmpty()) {
+            logger.debug("block height:" + header.getHeight() + ", total tx count:" + header.getTxCount() + " , get compact tx of " + missingShortTxIds.size());
+            SmallBlockCacher.cacheSmallBlock(chainId, cachedSmallBlock);
+            SmallBlockCacher.setStatus(chainId, blockHash, INCOMPLETE);
+            ShortTxIdListMessage request = new ShortTxIdListMessage();
+            request.setBlockHash(blockHash);
+            request.setNonce(compactBlock.getNonce());
+            request.setShortTxIdList(missingShortTxIds);
+            NetworkCall.sendToNode(chainId, request, nodeId, GET_COMPACT_TXS_MESSAGE);
+            return;
+        }
+        complete(chainId, cachedSmallBlock, nodeId);
+    }
+
+    /**
+     * 紧凑区块的交易全部收到后组装并保存区块, 无法组装时向源节点请求SmallBlock
+     *
+     * @param chainId          链Id/chain id
+     * @param cachedSmallBlock 缓存的紧凑区块
+     * @param nodeId           源节点
+     */
+    public void complete(int chainId, CachedSmallBlock cachedSmallBlock, String nodeId) {
+        CompactBlock compactBlock = cachedSmallBlock.getCompactBlock();
+        NulsHash blockHash = compactBlock.getHeader().getHash();
+        Map<Long, Transaction> compactTxMap = cachedSmallBlock.getCompactTxMap();
+        Block block = BlockUtil.assemblyCompactBlock(compactBlock, compactTxMap);
+        if (block == null) {
+            ContextManager.getContext(chainId).getLogger().info("can not assembly compact block, get small block from " + nodeId + ", hash-" + blockHash);
+            SmallBlockCacher.setStatus(chainId, blockHash, EMPTY);
+            HashMessage request = new HashMessage();
+            request.setRequestHash(blockHash);
+            NetworkCall.sendToNode(chainId, request, nodeId, GET_SMALL_BLOCK_MESSAGE);
+            return;
+        }
+        //转为SmallBlock缓存, 本节点也缺失的交易在转发时作为预填交易
+        Map<NulsHash, Transaction> txMap = new HashMap<>(block.getTxs().size());
+        block.getTxs().forEach(e -> txMap.put(e.getHash(), e));
+        List<NulsHash> missingTransactions = new ArrayList<>();
+        if (cachedSmallBlock.getMissingShortTxIds() != null) {
+            cachedSmallBlock.getMissingShortTxIds().forEach(e -> missingTransactions.add(compactTxMap.get(e).getHash()));
+        }
+        SmallBlock smallBlock = BlockUtil.getSmallBlock(chainId, block);
+        SmallBlockCacher.cacheSmallBlock(chainId, new CachedSmallBlock(missingTransactions, smallBlock, txMap, nodeId));
+        SmallBlockCacher.setStatus(chainId, blockHash, COMPLETE);
+        TxGroupRequestor.removeTask(chainId, blockHash);
+        block.setNodeId(nodeId);
+        boolean b = blockService.saveBlock(chainId, block, 1, true, false, true);
+        if (!b) {
+            SmallBlockCacher.setStatus(chainId, blockHash, ERROR);
+        }
+    }
+}
@@ -22,11 +22,13 @@ package io.nuls.block.message.handler;
 
 import io.nuls.base.RPCUtil;
 import io.nuls.base.protocol.MessageProcessor;
-import io.nuls.block.constant.NodeEnum;
 import io.nuls.block.manager.ContextManager;
 import io.nuls.block.message.CompleteMessage;
+import io.nuls.block.model.BlockDownloaderParams;
 import io.nuls.block.model.ChainContext;
+import io.nuls.block.model.DownloadRange;
 import io.nuls.block.model.Node;
+import io.nuls.block.thread.BlockDownloader;
 import io.nuls.core.core.annotation.Component;
 import io.nuls.core.log.logback.NulsLogger;
 
@@ -49,18 +51,40 @@ public class CompleteHandler implements MessageProcessor {
 
     @Override
     public void process(int chainId, String nodeId, String msgStr) {
-        CompleteMessage message = RPCUtil.getInstanceRpcStr(msgStr, CompleteMessage.class);
+        process(chainId, nodeId, RPCUtil.decode(msgStr));
+    }
+
+    @Override
+    public void process(int chainId, String nodeId, byte[] msgBytes) {
+        CompleteMessage message = RPCUtil.getInstance(msgBytes, CompleteMessage.class);
         if (message == null) {
             return;
         }
         ChainContext context = ContextManager.getContext(chainId);
         NulsLogger logger = context.getLogger();
         logger.debug("recieve " + message + " from node-" + nodeId);
-        if(null == context.getDownloaderParams()){
+        BlockDownloaderParams downloaderParams = context.getDownloaderParams();
+        if(null == downloaderParams){
+            return;
+        }
+        DownloadRange range = downloaderParams.getRanges().get(message.getRequestHash());
+        if (range == null || !range.getNode().getId().equals(nodeId)) {
+            //区间已超时并重新分配给其他节点, 忽略原节点迟到的完成消息
             return;
         }
-        Node node = context.getDownloaderParams().getNodeMap().get(nodeId);
+        if (!downloaderParams.getRanges().remove(message.getRequestHash(), range)) {
+            return;
+        }
+        Node node = range.getNode();
         node.adjustCredit(message.isSuccess());
-        node.setNodeEnum(NodeEnum.IDLE);
+        if (message.isSuccess() && range.getFirstReceiveTime() > 0) {
+            node.recordThroughput(range.getReceivedBytes(), System.currentTimeMillis() - range.getFirstReceiveTime());
+        }
+        node.removeOutstanding();
+        if (!message.isSuccess()) {
+            //下载失败的区间立即重新分配
+            BlockDownloader.retryRange(context, range);
+        }
+        context.signalDownloader();
     }
 }
@@ -28,11 +28,13 @@ import io.nuls.block.constant.StatusEnum;
 import io.nuls.block.manager.ContextManager;
 import io.nuls.block.message.HashListMessage;
 import io.nuls.block.message.HashMessage;
+import io.nuls.block.message.ShortTxIdListMessage;
 import io.nuls.block.model.CachedSmallBlock;
 import io.nuls.block.model.ChainContext;
 import io.nuls.block.model.TxGroupTask;
 import io.nuls.block.rpc.call.NetworkCall;
 import io.nuls.block.thread.monitor.TxGroupRequestor;
+import io.nuls.block.utils.BlockUtil;
 import io.nuls.block.utils.SmallBlockCacher;
 import io.nuls.core.core.annotation.Component;
 import io.nuls.core.log.logback.NulsLogger;
@@ -40,8 +42,7 @@ import io.nuls.core.log.logback.NulsLogger;
 import java.util.List;
 
 import static io.nuls.block.BlockBootstrap.blockConfig;
-import static io.nuls.block.constant.CommandConstant.FORWARD_SMALL_BLOCK_MESSAGE;
-import static io.nuls.block.constant.CommandConstant.GET_SMALL_BLOCK_MESSAGE;
+import static io.nuls.block.constant.CommandConstant.*;
 
 /**
  * 处理收到的{@link HashMessage},用于区块的广播与转发
@@ -60,7 +61,12 @@ public class ForwardSmallBlockHandler implements MessageProcessor {
 
     @Override
     public void process(int chainId, String nodeId, String msgStr) {
-        HashMessage message = RPCUtil.getInstanceRpcStr(msgStr, HashMessage.class);
+        process(chainId, nodeId, RPCUtil.decode(msgStr));
+    }
+
+    @Override
+    public void process(int chainId, String nodeId, byte[] msgBytes) {
+        HashMessage message = RPCUtil.getInstance(msgBytes, HashMessage.class);
         if (message == null) {
             return;
         }
@@ -88,6 +94,15 @@ public class ForwardSmallBlockHandler implements MessageProcessor {
             if (block == null) {
                 return;
             }
+            //紧凑区块按短交易ID向转发节点请求缺失的交易
+            if (block.getCompactBlock() != null) {
+                ShortTxIdListMessage request = new ShortTxIdListMessage();
+                request.setBlockHash(blockHash);
+                request.setNonce(block.getCompactBlock().getNonce());
+                request.setShortTxIdList(BlockUtil.getMissingShortTxIds(block.getCompactBlock(), block.getCompactTxMap()));
+                NetworkCall.sendToNode(chainId, request, nodeId, GET_COMPACT_TXS_MESSAGE);
+                return;
+            }
             HashListMessage request = new HashListMessage();
             request.setBlockHash(blockHash);
             request.setTxHashList(block.getMissingTransactions());
@@ -103,7 +118,13 @@ public class ForwardSmallBlockHandler implements MessageProcessor {
         if (BlockForwardEnum.EMPTY.equals(status)) {
             HashMessage request = new HashMessage();
             request.setRequestHash(blockHash);
-            NetworkCall.sendToNode(chainId, request, nodeId, GET_SMALL_BLOCK_MESSAGE);
+            //只向已知支持紧凑区块的节点请求紧凑区块, 其他节点请求小区块
+            boolean compact = blockConfig.isCompactBlockRelay() && context.getCompactBlockNodes().contains(nodeId);
+            NetworkCall.sendToNode(chainId, request, nodeId, compact ? GET_COMPACT_BLOCK_MESSAGE : GET_SMALL_BLOCK_MESSAGE);
+            //未知的节点额外发送一次紧凑区块请求探测, 对方回复后即记为支持紧凑区块
+            if (blockConfig.isCompactBlockRelay() && !compact && context.getCompactBlockProbedNodes().add(nodeId)) {
+                NetworkCall.sendToNode(chainId, request, nodeId, GET_COMPACT_BLOCK_MESSAGE);
+            }
         }
     }
 }
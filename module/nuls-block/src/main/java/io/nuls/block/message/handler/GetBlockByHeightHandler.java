@@ -68,7 +68,12 @@ public class GetBlockByHeightHandler implements MessageProcessor {
 
     @Override
     public void process(int chainId, String nodeId, String msgStr) {
-        HeightMessage message = RPCUtil.getInstanceRpcStr(msgStr, HeightMessage.class);
+        process(chainId, nodeId, RPCUtil.decode(msgStr));
+    }
+
+    @Override
+    public void process(int chainId, String nodeId, byte[] msgBytes) {
+        HeightMessage message = RPCUtil.getInstance(msgBytes, HeightMessage.class);
         if (message == null) {
             return;
         }
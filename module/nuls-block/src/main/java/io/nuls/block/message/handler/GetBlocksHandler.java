@@ -62,7 +62,12 @@ public class GetBlocksHandler implements MessageProcessor {
 
     @Override
     public void process(int chainId, String nodeId, String msgStr) {
-        HeightRangeMessage message = RPCUtil.getInstanceRpcStr(msgStr, HeightRangeMessage.class);
+        process(chainId, nodeId, RPCUtil.decode(msgStr));
+    }
+
+    @Override
+    public void process(int chainId, String nodeId, byte[] msgBytes) {
+        HeightRangeMessage message = RPCUtil.getInstance(msgBytes, HeightRangeMessage.class);
         if (message == null) {
             return;
         }
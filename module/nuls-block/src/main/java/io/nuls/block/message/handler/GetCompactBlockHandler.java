@@ -0,0 +1,82 @@
+/*
+ * MIT License
+ * Copyright (c) 2017-2019 nuls.io
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+package io.nuls.block.message.handler;
+
+import io.nuls.base.RPCUtil;
+import io.nuls.base.data.CompactBlock;
+import io.nuls.base.data.NulsHash;
+import io.nuls.base.data.SmallBlock;
+import io.nuls.base.protocol.MessageProcessor;
+import io.nuls.block.manager.ContextManager;
+import io.nuls.block.message.CompactBlockMessage;
+import io.nuls.block.message.HashMessage;
+import io.nuls.block.message.SmallBlockMessage;
+import io.nuls.block.model.CachedSmallBlock;
+import io.nuls.block.rpc.call.NetworkCall;
+import io.nuls.block.utils.BlockUtil;
+import io.nuls.block.utils.SmallBlockCacher;
+import io.nuls.core.core.annotation.Component;
+
+import static io.nuls.block.constant.CommandConstant.*;
+
+/**
+ * 处理收到的{@link HashMessage},返回紧凑区块, 区块中交易的短ID重复时返回SmallBlock
+ */
+@Component("GetCompactBlockHandlerV1")
+public class GetCompactBlockHandler implements MessageProcessor {
+
+    @Override
+    public String getCmd() {
+        return GET_COMPACT_BLOCK_MESSAGE;
+    }
+
+    @Override
+    public void process(int chainId, String nodeId, String msgStr) {
+        process(chainId, nodeId, RPCUtil.decode(msgStr));
+    }
+
+    @Override
+    public void process(int chainId, String nodeId, byte[] msgBytes) {
+        HashMessage message = RPCUtil.getInstance(msgBytes, HashMessage.class);
+        if (message == null) {
+            return;
+        }
+        //发送紧凑区块相关消息的节点支持紧凑区块
+        ContextManager.getContext(chainId).getCompactBlockNodes().add(nodeId);
+        NulsHash blockHash = message.getRequestHash();
+        CachedSmallBlock cachedSmallBlock = SmallBlockCacher.getCachedSmallBlock(chainId, blockHash);
+        //本节点的紧凑区块也还未还原
+        if (cachedSmallBlock == null || cachedSmallBlock.getCompactBlock() != null) {
+            return;
+        }
+        SmallBlock smallBlock = cachedSmallBlock.getSmallBlock();
+        CompactBlock compactBlock = BlockUtil.getCompactBlock(smallBlock, cachedSmallBlock.getTxMap(), cachedSmallBlock.getMissingTransactions());
+        if (compactBlock == null) {
+            SmallBlockMessage smallBlockMessage = new SmallBlockMessage();
+            smallBlockMessage.setSmallBlock(smallBlock);
+            NetworkCall.sendToNode(chainId, smallBlockMessage, nodeId, SMALL_BLOCK_MESSAGE);
+            return;
+        }
+        CompactBlockMessage compactBlockMessage = new CompactBlockMessage();
+        compactBlockMessage.setCompactBlock(compactBlock);
+        NetworkCall.sendToNode(chainId, compactBlockMessage, nodeId, COMPACT_BLOCK_MESSAGE);
+    }
+}
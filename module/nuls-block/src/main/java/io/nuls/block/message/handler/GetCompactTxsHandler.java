@@ -0,0 +1,90 @@
+/*
+ * MIT License
+ * Copyright (c) 2017-2019 nuls.io
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+package io.nuls.block.message.handler;
+
+import io.nuls.base.RPCUtil;
+import io.nuls.base.data.CompactBlock;
+import io.nuls.base.data.Transaction;
+import io.nuls.base.protocol.MessageProcessor;
+import io.nuls.block.manager.ContextManager;
+import io.nuls.block.message.ShortTxIdListMessage;
+import io.nuls.block.message.TxGroupMessage;
+import io.nuls.block.model.CachedSmallBlock;
+import io.nuls.block.rpc.call.NetworkCall;
+import io.nuls.block.utils.SmallBlockCacher;
+import io.nuls.core.core.annotation.Component;
+
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+
+import static io.nuls.block.constant.CommandConstant.GET_COMPACT_TXS_MESSAGE;
+import static io.nuls.block.constant.CommandConstant.TXGROUP_MESSAGE;
+
+/**
+ * 处理收到的{@link ShortTxIdListMessage},按短交易ID返回紧凑区块中的交易
+ */
+@Component("GetCompactTxsHandlerV1")
+public class GetCompactTxsHandler implements MessageProcessor {
+
+    @Override
+    public String getCmd() {
+        return GET_COMPACT_TXS_MESSAGE;
+    }
+
+    @Override
+    public void process(int chainId, String nodeId, String msgStr) {
+        process(chainId, nodeId, RPCUtil.decode(msgStr));
+    }
+
+    @Override
+    public void process(int chainId, String nodeId, byte[] msgBytes) {
+        ShortTxIdListMessage message = RPCUtil.getInstance(msgBytes, ShortTxIdListMessage.class);
+        if (message == null) {
+            return;
+        }
+        //发送紧凑区块相关消息的节点支持紧凑区块
+        ContextManager.getContext(chainId).getCompactBlockNodes().add(nodeId);
+        CachedSmallBlock cachedSmallBlock = SmallBlockCacher.getCachedSmallBlock(chainId, message.getBlockHash());
+        if (cachedSmallBlock == null || cachedSmallBlock.getCompactBlock() != null) {
+            return;
+        }
+        //按请求方收到的紧凑区块的nonce重新计算短交易ID
+        CompactBlock compactBlock = new CompactBlock();
+        compactBlock.setHeader(cachedSmallBlock.getSmallBlock().getHeader());
+        compactBlock.setNonce(message.getNonce());
+        Set<Long> shortTxIds = new HashSet<>(message.getShortTxIdList());
+        List<Transaction> transactions = new ArrayList<>(shortTxIds.size());
+        for (Transaction tx : cachedSmallBlock.getTxMap().values()) {
+            if (shortTxIds.contains(compactBlock.shortTxId(tx.getHash()))) {
+                transactions.add(tx);
+            }
+        }
+        if (transactions.isEmpty()) {
+            return;
+        }
+        TxGroupMessage request = new TxGroupMessage();
+        request.setBlockHash(message.getBlockHash());
+        request.setTransactions(transactions);
+        NetworkCall.sendToNode(chainId, request, nodeId, TXGROUP_MESSAGE);
+    }
+}
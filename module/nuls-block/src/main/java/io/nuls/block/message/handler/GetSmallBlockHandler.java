@@ -52,7 +52,12 @@ public class GetSmallBlockHandler implements MessageProcessor {
 
     @Override
     public void process(int chainId, String nodeId, String msgStr) {
-        HashMessage message = RPCUtil.getInstanceRpcStr(msgStr, HashMessage.class);
+        process(chainId, nodeId, RPCUtil.decode(msgStr));
+    }
+
+    @Override
+    public void process(int chainId, String nodeId, byte[] msgBytes) {
+        HashMessage message = RPCUtil.getInstance(msgBytes, HashMessage.class);
         if (message == null) {
             return;
         }
@@ -60,7 +65,8 @@ public class GetSmallBlockHandler implements MessageProcessor {
         NulsHash blockHash = message.getRequestHash();
 //        logger.debug("recieve " + message + " from node-" + nodeId + ", hash:" + blockHash);
         SmallBlock smallBlock = SmallBlockCacher.getSmallBlock(chainId, blockHash);
-        if (smallBlock != null) {
+        //尚未还原的紧凑区块没有交易hash列表
+        if (smallBlock != null && smallBlock.getTxHashList() != null) {
             SmallBlockMessage smallBlockMessage = new SmallBlockMessage();
             smallBlockMessage.setSmallBlock(smallBlock);
             NetworkCall.sendToNode(chainId, smallBlockMessage, nodeId, SMALL_BLOCK_MESSAGE);
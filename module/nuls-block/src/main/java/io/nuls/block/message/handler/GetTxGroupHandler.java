@@ -54,7 +54,12 @@ public class GetTxGroupHandler implements MessageProcessor {
 
     @Override
     public void process(int chainId, String nodeId, String msgStr) {
-        HashListMessage message = RPCUtil.getInstanceRpcStr(msgStr, HashListMessage.class);
+        process(chainId, nodeId, RPCUtil.decode(msgStr));
+    }
+
+    @Override
+    public void process(int chainId, String nodeId, byte[] msgBytes) {
+        HashListMessage message = RPCUtil.getInstance(msgBytes, HashListMessage.class);
         if (message == null) {
             return;
         }
@@ -75,8 +75,13 @@ public class SmallBlockHandler implements MessageProcessor {
 
     @Override
     public void process(int chainId, String nodeId, String msgStr) {
+        process(chainId, nodeId, RPCUtil.decode(msgStr));
+    }
+
+    @Override
+    public void process(int chainId, String nodeId, byte[] msgBytes) {
         ChainContext context = ContextManager.getContext(chainId);
-        SmallBlockMessage message = RPCUtil.getInstanceRpcStr(msgStr, SmallBlockMessage.class);
+        SmallBlockMessage message = RPCUtil.getInstance(msgBytes, SmallBlockMessage.class);
         if (message == null) {
             return;
         }
@@ -120,20 +125,24 @@ public class SmallBlockHandler implements MessageProcessor {
             if (block == null) {
                 return;
             }
-            List<NulsHash> missingTransactions = block.getMissingTransactions();
-            if (missingTransactions == null) {
+            //紧凑区块尚未还原时, 直接使用收到的SmallBlock
+            if (block.getCompactBlock() == null) {
+                List<NulsHash> missingTransactions = block.getMissingTransactions();
+                if (missingTransactions == null) {
+                    return;
+                }
+                HashListMessage request = new HashListMessage();
+                request.setBlockHash(blockHash);
+                request.setTxHashList(missingTransactions);
+                TxGroupTask task = new TxGroupTask();
+                task.setId(System.nanoTime());
+                task.setNodeId(nodeId);
+                task.setRequest(request);
+                task.setExcuteTime(blockConfig.getTxGroupTaskDelay());
+                TxGroupRequestor.addTask(chainId, blockHash.toString(), task);
                 return;
             }
-            HashListMessage request = new HashListMessage();
-            request.setBlockHash(blockHash);
-            request.setTxHashList(missingTransactions);
-            TxGroupTask task = new TxGroupTask();
-            task.setId(System.nanoTime());
-            task.setNodeId(nodeId);
-            task.setRequest(request);
-            task.setExcuteTime(blockConfig.getTxGroupTaskDelay());
-            TxGroupRequestor.addTask(chainId, blockHash.toString(), task);
-            return;
+            status = EMPTY;
         }
 
         //3.未收到区块
@@ -55,6 +55,9 @@ public class TxGroupHandler implements MessageProcessor {
     @Autowired
     private BlockService blockService;
 
+    @Autowired
+    private CompactBlockHandler compactBlockHandler;
+
     @Override
     public String getCmd() {
         return TXGROUP_MESSAGE;
@@ -62,7 +65,12 @@ public class TxGroupHandler implements MessageProcessor {
 
     @Override
     public void process(int chainId, String nodeId, String msgStr) {
-        TxGroupMessage message = RPCUtil.getInstanceRpcStr(msgStr, TxGroupMessage.class);
+        process(chainId, nodeId, RPCUtil.decode(msgStr));
+    }
+
+    @Override
+    public void process(int chainId, String nodeId, byte[] msgBytes) {
+        TxGroupMessage message = RPCUtil.getInstance(msgBytes, TxGroupMessage.class);
         if (message == null) {
             return;
         }
@@ -85,6 +93,13 @@ public class TxGroupHandler implements MessageProcessor {
             if (cachedSmallBlock == null) {
                 return;
             }
+            //紧凑区块按短交易ID放入交易
+            CompactBlock compactBlock = cachedSmallBlock.getCompactBlock();
+            if (compactBlock != null) {
+                BlockUtil.putCompactTxs(compactBlock, cachedSmallBlock.getCompactTxMap(), transactions);
+                compactBlockHandler.complete(chainId, cachedSmallBlock, nodeId);
+                return;
+            }
             SmallBlock smallBlock = cachedSmallBlock.getSmallBlock();
             BlockHeader header = smallBlock.getHeader();
             Map<NulsHash, Transaction> txMap = cachedSmallBlock.getTxMap();
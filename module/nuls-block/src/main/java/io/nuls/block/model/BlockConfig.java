@@ -75,6 +75,30 @@ public class BlockConfig extends ChainParameters implements ModuleConfig {
      */
     private int rollbackHeight;
 
+    /**
+     * 是否以列族模式打开数据库(所有表共享一个数据库、块缓存与写缓冲)
+     */
+    private boolean dbColumnFamilyMode = false;
+
+    /**
+     * 列族模式下共享块缓存大小(字节)
+     */
+    private long dbBlockCacheSize = 256L * 1024 * 1024;
+
+    /**
+     * 列族模式下所有表memtable总大小上限(字节)
+     */
+    private long dbWriteBufferSize = 64L * 1024 * 1024;
+
+    /**
+     * 区块同步时, 保存当前区块期间提前验证的后续区块数, 0表示不提前验证
+     */
+    private int preVerifyDepth;
+    /**
+     * 是否使用紧凑区块(短交易ID)广播新区块, 需要网络中节点都已支持
+     */
+    private boolean compactBlockRelay;
+
     public int getNodesMonitorInterval() {
         return nodesMonitorInterval;
     }
@@ -174,4 +198,44 @@ public class BlockConfig extends ChainParameters implements ModuleConfig {
     public void setRollbackHeight(int rollbackHeight) {
         this.rollbackHeight = rollbackHeight;
     }
+
+    public boolean isDbColumnFamilyMode() {
+        return dbColumnFamilyMode;
+    }
+
+    public void setDbColumnFamilyMode(boolean dbColumnFamilyMode) {
+        this.dbColumnFamilyMode = dbColumnFamilyMode;
+    }
+
+    public long getDbBlockCacheSize() {
+        return dbBlockCacheSize;
+    }
+
+    public void setDbBlockCacheSize(long dbBlockCacheSize) {
+        this.dbBlockCacheSize = dbBlockCacheSize;
+    }
+
+    public long getDbWriteBufferSize() {
+        return dbWriteBufferSize;
+    }
+
+    public void setDbWriteBufferSize(long dbWriteBufferSize) {
+        this.dbWriteBufferSize = dbWriteBufferSize;
+    }
+
+    public int getPreVerifyDepth() {
+        return preVerifyDepth;
+    }
+
+    public void setPreVerifyDepth(int preVerifyDepth) {
+        this.preVerifyDepth = preVerifyDepth;
+    }
+
+    public boolean isCompactBlockRelay() {
+        return compactBlockRelay;
+    }
+
+    public void setCompactBlockRelay(boolean compactBlockRelay) {
+        this.compactBlockRelay = compactBlockRelay;
+    }
 }
@@ -24,6 +24,10 @@ import io.nuls.base.data.NulsHash;
 
 import java.util.List;
 import java.util.Map;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.atomic.AtomicLong;
 
 /**
  * 一次区块下载过程中用到的参数
@@ -62,6 +66,52 @@ public class BlockDownloaderParams {
      * 网络上可用节点数>=nodes.size()
      */
     private int availableNodesCount;
+    /**
+     * 已发送请求尚未完成的下载区间, 以请求hash为key
+     */
+    private Map<NulsHash, DownloadRange> ranges = new ConcurrentHashMap<>();
+    /**
+     * 失败或超时待重新分配的下载区间
+     */
+    private Queue<DownloadRange> retryRanges = new ConcurrentLinkedQueue<>();
+    /**
+     * 已收到的区块数与字节数, 用于估算在途区块的字节数
+     */
+    private AtomicLong receivedBlocks = new AtomicLong();
+    private AtomicLong receivedBytes = new AtomicLong();
+
+    /**
+     * 已收到区块的平均字节数, 尚未收到区块时返回0
+     */
+    public long getAverageBlockSize() {
+        long blocks = receivedBlocks.get();
+        return blocks == 0 ? 0 : receivedBytes.get() / blocks;
+    }
+
+    /**
+     * 收到同步区块
+     *
+     * @param nodeId      发送区块的节点
+     * @param requestHash 请求hash
+     * @param size        区块字节数
+     */
+    public void receive(String nodeId, NulsHash requestHash, int size) {
+        receivedBlocks.incrementAndGet();
+        receivedBytes.addAndGet(size);
+        DownloadRange range = requestHash == null ? null : ranges.get(requestHash);
+        //区间已重新分配给其他节点时, 不计入新节点的下载统计
+        if (range != null && range.getNode().getId().equals(nodeId)) {
+            range.receive(size);
+        }
+    }
+
+    public Map<NulsHash, DownloadRange> getRanges() {
+        return ranges;
+    }
+
+    public Queue<DownloadRange> getRetryRanges() {
+        return retryRanges;
+    }
 
     public Map<String, Node> getNodeMap() {
         return nodeMap;
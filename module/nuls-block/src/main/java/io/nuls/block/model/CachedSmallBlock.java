@@ -22,6 +22,7 @@
 
 package io.nuls.block.model;
 
+import io.nuls.base.data.CompactBlock;
 import io.nuls.base.data.NulsHash;
 import io.nuls.base.data.SmallBlock;
 import io.nuls.base.data.Transaction;
@@ -55,6 +56,21 @@ public class CachedSmallBlock {
      */
     private String nodeId;
 
+    /**
+     * 尚未还原完整的紧凑区块, 此时smallBlock只有区块头
+     */
+    private CompactBlock compactBlock;
+
+    /**
+     * 紧凑区块中已还原的交易, 以短交易ID为key
+     */
+    private Map<Long, Transaction> compactTxMap;
+
+    /**
+     * 紧凑区块中本地没有、需要向源节点请求的短交易ID
+     */
+    private List<Long> missingShortTxIds;
+
     public CachedSmallBlock(List<NulsHash> missingTransactions, SmallBlock smallBlock, Map<NulsHash, Transaction> txMap, String nodeId) {
         this.missingTransactions = missingTransactions;
         this.smallBlock = smallBlock;
@@ -62,6 +78,14 @@ public class CachedSmallBlock {
         this.nodeId = nodeId;
     }
 
+    public CachedSmallBlock(CompactBlock compactBlock, Map<Long, Transaction> compactTxMap, String nodeId) {
+        this.compactBlock = compactBlock;
+        this.compactTxMap = compactTxMap;
+        this.nodeId = nodeId;
+        this.smallBlock = new SmallBlock();
+        this.smallBlock.setHeader(compactBlock.getHeader());
+    }
+
     public String getNodeId() {
         return nodeId;
     }
@@ -89,4 +113,20 @@ public class CachedSmallBlock {
     public void setTxMap(Map<NulsHash, Transaction> txMap) {
         this.txMap = txMap;
     }
+
+    public CompactBlock getCompactBlock() {
+        return compactBlock;
+    }
+
+    public Map<Long, Transaction> getCompactTxMap() {
+        return compactTxMap;
+    }
+
+    public List<Long> getMissingShortTxIds() {
+        return missingShortTxIds;
+    }
+
+    public void setMissingShortTxIds(List<Long> missingShortTxIds) {
+        this.missingShortTxIds = missingShortTxIds;
+    }
 }
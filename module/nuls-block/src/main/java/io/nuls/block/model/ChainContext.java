@@ -38,6 +38,8 @@ import java.util.concurrent.ConcurrentHashMap;
 import java.util.concurrent.atomic.AtomicInteger;
 import java.util.concurrent.locks.StampedLock;
 
+import static io.nuls.block.constant.Constant.COMPACT_BLOCK_NODE_CACHE_SIZE;
+
 /**
  * 每个链ID对应一个{@link ChainContext},维护一些链运行期间的信息,并负责链的初始化、启动、停止、销毁操作
  *
@@ -127,11 +129,26 @@ public class ChainContext {
      */
     private Map<Long, Block> blockMap = new ConcurrentHashMap<>(100);
 
+    /**
+     * 下载线程等待的信号: 同步区块被消费或下载区间完成时唤醒
+     */
+    private final Object downloadSignal = new Object();
+
     /**
      * 孤儿区块关联的节点,维护孤儿区块时优先从这些节点下载
      */
     private Map<NulsHash, List<String>> orphanBlockRelatedNodes;
 
+    /**
+     * 支持紧凑区块的节点, 收到过该节点发送的紧凑区块相关消息
+     */
+    private Set<String> compactBlockNodes;
+
+    /**
+     * 已发送过紧凑区块请求以探测是否支持的节点
+     */
+    private Set<String> compactBlockProbedNodes;
+
     public Map<NulsHash, List<String>> getOrphanBlockRelatedNodes() {
         return orphanBlockRelatedNodes;
     }
@@ -140,6 +157,14 @@ public class ChainContext {
         this.orphanBlockRelatedNodes = orphanBlockRelatedNodes;
     }
 
+    public Set<String> getCompactBlockNodes() {
+        return compactBlockNodes;
+    }
+
+    public Set<String> getCompactBlockProbedNodes() {
+        return compactBlockProbedNodes;
+    }
+
     public Map<Long, Block> getBlockMap() {
         return blockMap;
     }
@@ -164,6 +189,36 @@ public class ChainContext {
         this.cachedBlockSize = cachedBlockSize;
     }
 
+    /**
+     * 同步区块被消费后释放缓存字节数, 唤醒下载线程
+     *
+     * @param size 区块字节数
+     */
+    public void releaseCachedBlockSize(int size) {
+        cachedBlockSize.addAndGet(-size);
+        signalDownloader();
+    }
+
+    /**
+     * 唤醒等待中的下载线程
+     */
+    public void signalDownloader() {
+        synchronized (downloadSignal) {
+            downloadSignal.notifyAll();
+        }
+    }
+
+    /**
+     * 下载线程等待消费线程释放缓存或下载区间完成, 最多等待指定时间
+     *
+     * @param timeoutMillis 最长等待时间(毫秒)
+     */
+    public void awaitDownloadSignal(long timeoutMillis) throws InterruptedException {
+        synchronized (downloadSignal) {
+            downloadSignal.wait(timeoutMillis);
+        }
+    }
+
     public Map<NulsHash, Long> getCachedHashHeightMap() {
         return cachedHashHeightMap;
     }
@@ -284,6 +339,8 @@ public class ChainContext {
         this.setStatus(StatusEnum.INITIALIZING);
         cachedHashHeightMap = CollectionUtils.getSynSizedMap(parameters.getSmallBlockCache());
         orphanBlockRelatedNodes = CollectionUtils.getSynSizedMap(parameters.getHeightRange());
+        compactBlockNodes = CollectionUtils.getSynSizedSet(COMPACT_BLOCK_NODE_CACHE_SIZE);
+        compactBlockProbedNodes = CollectionUtils.getSynSizedSet(COMPACT_BLOCK_NODE_CACHE_SIZE);
         packingAddressList = CollectionUtils.getSynList();
         duplicateBlockMap = new HashMap<>();
         systemTransactionType = new ArrayList<>();
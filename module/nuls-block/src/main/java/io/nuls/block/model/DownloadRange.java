@@ -0,0 +1,126 @@
+/*
+ * MIT License
+ * Copyright (c) 2017-2019 nuls.io
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+package io.nuls.block.model;
+
+import io.nuls.base.data.NulsHash;
+
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * 区块同步过程中的一个下载区间, 记录分配的节点与已收到的区块数、字节数
+ */
+public class DownloadRange {
+
+    private final long startHeight;
+
+    private final long endHeight;
+
+    /**
+     * 分配的节点, 未分配时为null
+     */
+    private Node node;
+
+    /**
+     * 批量获取区块请求的hash, 用于关联收到的区块与完成消息
+     */
+    private NulsHash requestHash;
+
+    private volatile long sendTime;
+
+    /**
+     * 收到第一个区块的时间
+     */
+    private volatile long firstReceiveTime;
+
+    private final AtomicInteger receivedBlocks = new AtomicInteger();
+
+    private final AtomicLong receivedBytes = new AtomicLong();
+
+    public DownloadRange(long startHeight, long endHeight) {
+        this.startHeight = startHeight;
+        this.endHeight = endHeight;
+    }
+
+    /**
+     * 请求发送成功后记录分配的节点
+     */
+    public void assign(Node node, NulsHash requestHash) {
+        this.node = node;
+        this.requestHash = requestHash;
+        this.sendTime = System.currentTimeMillis();
+    }
+
+    /**
+     * 收到该区间的一个区块
+     *
+     * @param size 区块字节数
+     */
+    public void receive(int size) {
+        if (receivedBlocks.getAndIncrement() == 0) {
+            firstReceiveTime = System.currentTimeMillis();
+            node.recordRtt(firstReceiveTime - sendTime);
+        }
+        receivedBytes.addAndGet(size);
+        node.setLastReceiveTime(System.currentTimeMillis());
+    }
+
+    public int size() {
+        return (int) (endHeight - startHeight + 1);
+    }
+
+    public long getStartHeight() {
+        return startHeight;
+    }
+
+    public long getEndHeight() {
+        return endHeight;
+    }
+
+    public Node getNode() {
+        return node;
+    }
+
+    public NulsHash getRequestHash() {
+        return requestHash;
+    }
+
+    public long getSendTime() {
+        return sendTime;
+    }
+
+    public long getFirstReceiveTime() {
+        return firstReceiveTime;
+    }
+
+    public int getReceivedBlocks() {
+        return receivedBlocks.get();
+    }
+
+    public long getReceivedBytes() {
+        return receivedBytes.get();
+    }
+
+    @Override
+    public String toString() {
+        return "[" + startHeight + "-" + endHeight + "]";
+    }
+}
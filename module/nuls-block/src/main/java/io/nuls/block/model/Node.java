@@ -71,6 +71,80 @@ public class Node {
      * 节点状态
      */
     private NodeEnum nodeEnum;
+    /**
+     * 未完成的下载区间数
+     */
+    private int outstanding = 0;
+    /**
+     * 从发送请求到收到第一个区块的平均时间(毫秒), 0表示尚无统计
+     */
+    private volatile long rtt = 0;
+    /**
+     * 平均下载速度(字节/秒), 0表示尚无统计
+     */
+    private volatile long throughput = 0;
+    /**
+     * 最近一次收到区块的时间
+     */
+    private volatile long lastReceiveTime = 0;
+
+    /**
+     * 分配下载区间
+     */
+    public synchronized void addOutstanding() {
+        outstanding++;
+        if (!NodeEnum.TIMEOUT.equals(nodeEnum)) {
+            nodeEnum = NodeEnum.WORKING;
+        }
+    }
+
+    /**
+     * 下载区间完成或被重新分配
+     */
+    public synchronized void removeOutstanding() {
+        outstanding = Math.max(0, outstanding - 1);
+        if (outstanding == 0 && !NodeEnum.TIMEOUT.equals(nodeEnum)) {
+            nodeEnum = NodeEnum.IDLE;
+        }
+    }
+
+    public synchronized int getOutstanding() {
+        return outstanding;
+    }
+
+    /**
+     * 记录往返时间, 按1/4权重平滑
+     */
+    public synchronized void recordRtt(long millis) {
+        rtt = rtt == 0 ? millis : (rtt * 3 + millis) / 4;
+    }
+
+    /**
+     * 记录一个下载区间的速度, 按1/4权重平滑
+     *
+     * @param bytes  区间字节数
+     * @param millis 区间耗时(从收到第一个区块到完成)
+     */
+    public synchronized void recordThroughput(long bytes, long millis) {
+        long sample = bytes * 1000 / Math.max(1, millis);
+        throughput = throughput == 0 ? sample : (throughput * 3 + sample) / 4;
+    }
+
+    public long getRtt() {
+        return rtt;
+    }
+
+    public long getThroughput() {
+        return throughput;
+    }
+
+    public long getLastReceiveTime() {
+        return lastReceiveTime;
+    }
+
+    public void setLastReceiveTime(long lastReceiveTime) {
+        this.lastReceiveTime = lastReceiveTime;
+    }
 
     public long getStartHeight() {
         return startHeight;
@@ -177,6 +251,8 @@ public class Node {
                 .add("height=" + height)
                 .add("hash=" + hash)
                 .add("credit=" + credit)
+                .add("rtt=" + rtt)
+                .add("throughput=" + throughput)
                 .add("nodeEnum=" + nodeEnum)
                 .toString();
     }
@@ -19,7 +19,6 @@
  */
 package io.nuls.block.rpc.call;
 
-import io.nuls.base.RPCUtil;
 import io.nuls.base.data.BaseBusinessMessage;
 import io.nuls.base.data.NulsHash;
 import io.nuls.block.constant.NodeEnum;
@@ -129,7 +128,7 @@ public class NetworkCall {
             params.put(Constants.VERSION_KEY_STR, "1.0");
             params.put(Constants.CHAIN_ID, chainId);
             params.put("excludeNodes", excludeNodes);
-            params.put("messageBody", RPCUtil.encode(message.serialize()));
+            params.put("messageBody", message.serialize());
             params.put("command", command);
             boolean success = ResponseMessageProcessor.requestAndResponse(ModuleE.NW.abbr, "nw_broadcast", params).isSuccess();
 //            logger.debug("broadcast " + message.getClass().getName() + ", success:" + success);
@@ -155,7 +154,7 @@ public class NetworkCall {
             params.put(Constants.VERSION_KEY_STR, "1.0");
             params.put(Constants.CHAIN_ID, chainId);
             params.put("nodes", nodeId);
-            params.put("messageBody", RPCUtil.encode(message.serialize()));
+            params.put("messageBody", message.serialize());
             params.put("command", command);
             boolean success = ResponseMessageProcessor.requestAndResponse(ModuleE.NW.abbr, "nw_sendPeersMsg", params).isSuccess();
 //            logger.debug("send " + message.toString() + " to node-" + nodeId + ", success:" + success);
@@ -123,12 +123,13 @@ public class TransactionCall {
             Map<String, Object> params = new HashMap<>(2);
 //            params.put(Constants.VERSION_KEY_STR, "1.0");
             params.put(Constants.CHAIN_ID, chainId);
-            List<String> txList = new ArrayList<>();
+            //交易与区块头直接以byte[]传输，二进制帧连接无需hex编码，文本帧连接由RPC层转为hex字符串
+            List<byte[]> txList = new ArrayList<>();
             for (Transaction transaction : txs) {
-                txList.add(RPCUtil.encode(transaction.serialize()));
+                txList.add(transaction.serialize());
             }
             params.put("txList", txList);
-            params.put("blockHeader", RPCUtil.encode(BlockUtil.fromBlockHeaderPo(blockHeaderPo).serialize()));
+            params.put("blockHeader", BlockUtil.fromBlockHeaderPo(blockHeaderPo).serialize());
             params.put("contractList", contractList);
             Response response = ResponseMessageProcessor.requestAndResponse(ModuleE.TX.abbr, "tx_save", params, 60 * 1000);
             if (response.isSuccess()) {
@@ -262,6 +263,49 @@ public class TransactionCall {
         return transactions;
     }
 
+    /**
+     * 根据紧凑区块的短交易ID, 从交易管理模块的待打包交易中批量获取交易
+     * 短交易ID在待打包交易中不唯一时不返回该交易
+     *
+     * @param chainId    链Id/chain id
+     * @param sipKey     计算短交易ID的key
+     * @param shortTxIds 短交易ID集合
+     * @return
+     */
+    public static List<Transaction> getTransactionsByShortTxIds(int chainId, byte[] sipKey, Collection<Long> shortTxIds) {
+        if (shortTxIds == null || shortTxIds.isEmpty()) {
+            return Collections.emptyList();
+        }
+        ArrayList<Transaction> transactions = new ArrayList<>();
+        NulsLogger logger = ContextManager.getContext(chainId).getLogger();
+        try {
+            Map<String, Object> params = new HashMap<>(4);
+            params.put(Constants.CHAIN_ID, chainId);
+            params.put("sipKey", RPCUtil.encode(sipKey));
+            params.put("shortTxIdList", new ArrayList<>(shortTxIds));
+            Response response = ResponseMessageProcessor.requestAndResponse(ModuleE.TX.abbr, "tx_getTxsByShortIds", params);
+            if (response.isSuccess()) {
+                Map responseData = (Map) response.getResponseData();
+                Map map = (Map) responseData.get("tx_getTxsByShortIds");
+                List<String> txHexList = (List<String>) map.get("txList");
+                if (txHexList == null || txHexList.isEmpty()) {
+                    return Collections.emptyList();
+                }
+                for (String txHex : txHexList) {
+                    Transaction transaction = new Transaction();
+                    transaction.parse(new NulsByteBuffer(RPCUtil.decode(txHex)));
+                    transactions.add(transaction);
+                }
+            } else {
+                return Collections.emptyList();
+            }
+        } catch (Exception e) {
+            logger.error("", e);
+            return Collections.emptyList();
+        }
+        return transactions;
+    }
+
     /**
      * 获取单个交易
      *
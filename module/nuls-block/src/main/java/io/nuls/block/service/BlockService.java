@@ -162,6 +162,17 @@ public interface BlockService {
      */
     boolean saveBlock(int chainId, Block block, boolean needLock);
 
+    /**
+     * 保存已通过无状态验证(BlockUtil.preVerify)的区块, 跳过重复的基础验证、梅克尔哈希与签名验证
+     *
+     * @param chainId     链Id/chain id
+     * @param block       待保存区块
+     * @param needLock    是否需要加锁
+     * @param preVerified 是否已通过无状态验证
+     * @return
+     */
+    boolean saveBlock(int chainId, Block block, boolean needLock, boolean preVerified);
+
     /**
      * 保存区块,已经考虑失败回滚操作,不抛出异常情况下,不会有垃圾数据
      *
@@ -20,22 +20,24 @@
 
 package io.nuls.block.service.impl;
 
-import io.nuls.base.RPCUtil;
 import io.nuls.base.data.*;
 import io.nuls.base.data.po.BlockHeaderPo;
 import io.nuls.block.constant.BlockErrorCode;
 import io.nuls.block.manager.BlockChainManager;
 import io.nuls.block.manager.ContextManager;
+import io.nuls.block.message.CompactBlockMessage;
 import io.nuls.block.message.HashMessage;
 import io.nuls.block.message.SmallBlockMessage;
 import io.nuls.block.model.Chain;
 import io.nuls.block.model.ChainContext;
 import io.nuls.block.model.ChainParameters;
 import io.nuls.block.model.GenesisBlock;
+import io.nuls.block.model.Node;
 import io.nuls.block.rpc.call.*;
 import io.nuls.block.service.BlockService;
 import io.nuls.block.storage.BlockStorageService;
 import io.nuls.block.storage.ChainStorageService;
+import io.nuls.block.thread.CrossChainHeightNotifier;
 import io.nuls.block.utils.BlockUtil;
 import io.nuls.block.utils.ChainGenerator;
 import io.nuls.block.utils.LoggerUtil;
@@ -64,6 +66,7 @@ import java.util.*;
 import java.util.concurrent.locks.StampedLock;
 
 import static io.nuls.base.data.BlockHeader.BLOCK_HEADER_COMPARATOR;
+import static io.nuls.block.BlockBootstrap.blockConfig;
 import static io.nuls.block.constant.BlockForwardEnum.COMPLETE;
 import static io.nuls.block.constant.CommandConstant.*;
 import static io.nuls.block.constant.Constant.BLOCK_HEADER_INDEX;
@@ -286,15 +289,20 @@ public class BlockServiceImpl implements BlockService {
 
     @Override
     public boolean saveBlock(int chainId, Block block, boolean needLock) {
-        return saveBlock(chainId, block, false, 0, needLock, false, false);
+        return saveBlock(chainId, block, false, 0, needLock, false, false, false);
+    }
+
+    @Override
+    public boolean saveBlock(int chainId, Block block, boolean needLock, boolean preVerified) {
+        return saveBlock(chainId, block, false, 0, needLock, false, false, preVerified);
     }
 
     @Override
     public boolean saveBlock(int chainId, Block block, int download, boolean needLock, boolean broadcast, boolean forward) {
-        return saveBlock(chainId, block, false, download, needLock, broadcast, forward);
+        return saveBlock(chainId, block, false, download, needLock, broadcast, forward, false);
     }
 
-    private boolean saveBlock(int chainId, Block block, boolean localInit, int download, boolean needLock, boolean broadcast, boolean forward) {
+    private boolean saveBlock(int chainId, Block block, boolean localInit, int download, boolean needLock, boolean broadcast, boolean forward, boolean preVerified) {
         long startTime = System.nanoTime();
         ChainContext context = ContextManager.getContext(chainId);
         NulsLogger logger = context.getLogger();
@@ -312,7 +320,7 @@ public class BlockServiceImpl implements BlockService {
         }
         try {
             //1.验证区块
-            Result result = verifyBlock(chainId, block, localInit, download);
+            Result result = verifyBlock(chainId, block, localInit, download, preVerified);
             if (result.isFailed()) {
                 logger.error("verifyBlock fail! height-" + height);
                 return false;
@@ -327,31 +335,25 @@ public class BlockServiceImpl implements BlockService {
                     forwardBlock(chainId, hash, null);
                 }
             }
-            //2.设置最新高度,如果失败则恢复上一个高度
-            boolean setHeight = blockStorageService.setLatestHeight(chainId, height);
-            if (!setHeight) {
-                if (!blockStorageService.setLatestHeight(chainId, height - 1)) {
+            //2.在同一批次中保存区块头并设置最新高度,如果失败则恢复上一个高度
+            BlockHeaderPo blockHeaderPo = BlockUtil.toBlockHeaderPo(block);
+            if (!blockStorageService.saveAndSetLatestHeight(chainId, blockHeaderPo)) {
+                if (!blockStorageService.removeAndSetLatestHeight(chainId, height)) {
                     throw new NulsRuntimeException(BlockErrorCode.UPDATE_HEIGHT_ERROR);
                 }
-                logger.error("setHeight false, height-" + height);
+                logger.error("headerSave false, height-" + height + ", hash-" + hash);
                 return false;
             }
 
-            //3.保存区块头, 保存交易
-            BlockHeaderPo blockHeaderPo = BlockUtil.toBlockHeaderPo(block);
-            boolean headerSave;
-            boolean txSave = false;
-            if (!(headerSave = blockStorageService.save(chainId, blockHeaderPo)) || !(txSave = TransactionCall.save(chainId, blockHeaderPo, block.getTxs(), localInit, (List) result.getData()))) {
-                if (headerSave && !TransactionCall.rollback(chainId, blockHeaderPo)) {
+            //3.保存交易
+            if (!TransactionCall.save(chainId, blockHeaderPo, block.getTxs(), localInit, (List) result.getData())) {
+                if (!TransactionCall.rollback(chainId, blockHeaderPo)) {
                     throw new NulsRuntimeException(BlockErrorCode.TX_ROLLBACK_ERROR);
                 }
-                if (!blockStorageService.remove(chainId, height)) {
+                if (!blockStorageService.removeAndSetLatestHeight(chainId, height)) {
                     throw new NulsRuntimeException(BlockErrorCode.HEADER_REMOVE_ERROR);
                 }
-                if (!blockStorageService.setLatestHeight(chainId, height - 1)) {
-                    throw new NulsRuntimeException(BlockErrorCode.UPDATE_HEIGHT_ERROR);
-                }
-                logger.error("headerSave-" + headerSave + ", txsSave-" + txSave + ", height-" + height + ", hash-" + hash);
+                logger.error("txsSave false, height-" + height + ", hash-" + hash);
                 return false;
             }
             //4.通知共识模块
@@ -360,12 +362,9 @@ public class BlockServiceImpl implements BlockService {
                 if (!TransactionCall.rollback(chainId, blockHeaderPo)) {
                     throw new NulsRuntimeException(BlockErrorCode.TX_ROLLBACK_ERROR);
                 }
-                if (!blockStorageService.remove(chainId, height)) {
+                if (!blockStorageService.removeAndSetLatestHeight(chainId, height)) {
                     throw new NulsRuntimeException(BlockErrorCode.HEADER_REMOVE_ERROR);
                 }
-                if (!blockStorageService.setLatestHeight(chainId, height - 1)) {
-                    throw new NulsRuntimeException(BlockErrorCode.UPDATE_HEIGHT_ERROR);
-                }
                 logger.error("consensus notice fail! height-" + height);
                 return false;
             }
@@ -379,18 +378,16 @@ public class BlockServiceImpl implements BlockService {
                 if (!TransactionCall.rollback(chainId, blockHeaderPo)) {
                     throw new NulsRuntimeException(BlockErrorCode.TX_ROLLBACK_ERROR);
                 }
-                if (!blockStorageService.remove(chainId, height)) {
+                if (!blockStorageService.removeAndSetLatestHeight(chainId, height)) {
                     throw new NulsRuntimeException(BlockErrorCode.HEADER_REMOVE_ERROR);
                 }
-                if (!blockStorageService.setLatestHeight(chainId, height - 1)) {
-                    throw new NulsRuntimeException(BlockErrorCode.UPDATE_HEIGHT_ERROR);
-                }
                 logger.error("ProtocolCall saveNotice fail! height-" + height);
                 return false;
             }
             try {
+                //交易模块验证交易时依赖最新高度, 同步通知; 跨链模块异步批量通知
                 TransactionCall.heightNotice(chainId, height);
-                CrossChainCall.heightNotice(chainId, height, RPCUtil.encode(block.getHeader().serialize()));
+                CrossChainHeightNotifier.notice(chainId, height, header);
             } catch (Exception e) {
                 LoggerUtil.COMMON_LOG.error(e);
             }
@@ -406,6 +403,7 @@ public class BlockServiceImpl implements BlockService {
                     hashList.removeFirst();
                 }
                 hashList.addLast(hash);
+                SmallBlockCacher.confirm(chainId, height);
             }
             Response response = MessageUtil.newSuccessResponse("");
             Map<String, Long> responseData = new HashMap<>(2);
@@ -487,9 +485,9 @@ public class BlockServiceImpl implements BlockService {
                 return false;
             }
 
-            if (!blockStorageService.remove(chainId, height)) {
+            if (!blockStorageService.removeAndSetLatestHeight(chainId, height)) {
                 blockHeaderPo.setComplete(true);
-                if (!blockStorageService.save(chainId, blockHeaderPo)) {
+                if (!blockStorageService.saveAndSetLatestHeight(chainId, blockHeaderPo)) {
                     throw new NulsRuntimeException(BlockErrorCode.HEADER_SAVE_ERROR);
                 }
                 //todo 待确认
@@ -505,30 +503,9 @@ public class BlockServiceImpl implements BlockService {
                 logger.error("blockStorageService remove fail! height-" + height);
                 return false;
             }
-            if (!blockStorageService.setLatestHeight(chainId, height - 1)) {
-                if (!blockStorageService.setLatestHeight(chainId, height)) {
-                    throw new NulsRuntimeException(BlockErrorCode.UPDATE_HEIGHT_ERROR);
-                }
-                blockHeaderPo.setComplete(true);
-                if (!blockStorageService.save(chainId, blockHeaderPo)) {
-                    throw new NulsRuntimeException(BlockErrorCode.HEADER_SAVE_ERROR);
-                }
-                //todo 待确认
-                if (!TransactionCall.saveNormal(chainId, blockHeaderPo, TransactionCall.getTransactions(chainId, blockHeaderPo.getTxHashList(), true), null)) {
-                    throw new NulsRuntimeException(BlockErrorCode.TX_SAVE_ERROR);
-                }
-                if (!ConsensusCall.saveNotice(chainId, blockHeader, false)) {
-                    throw new NulsRuntimeException(BlockErrorCode.CS_SAVE_ERROR);
-                }
-                if (!ProtocolCall.saveNotice(chainId, blockHeader)) {
-                    throw new NulsRuntimeException(BlockErrorCode.PU_SAVE_ERROR);
-                }
-                logger.error("rollback setLatestHeight fail! height-" + height);
-                return false;
-            }
             try {
                 TransactionCall.heightNotice(chainId, height - 1);
-                CrossChainCall.heightNotice(chainId, height - 1, RPCUtil.encode(blockHeader.serialize()));
+                CrossChainHeightNotifier.notice(chainId, height - 1, blockHeader);
             } catch (Exception e) {
                 LoggerUtil.COMMON_LOG.error(e);
             }
@@ -568,15 +545,40 @@ public class BlockServiceImpl implements BlockService {
 
     @Override
     public boolean broadcastBlock(int chainId, Block block) {
-        NulsLogger logger = ContextManager.getContext(chainId).getLogger();
+        ChainContext context = ContextManager.getContext(chainId);
+        NulsLogger logger = context.getLogger();
+        SmallBlock smallBlock = BlockUtil.getSmallBlock(chainId, block);
+        String compactNodes = null;
+        if (blockConfig.isCompactBlockRelay()) {
+            Map<NulsHash, Transaction> txMap = new HashMap<>(block.getTxs().size());
+            block.getTxs().forEach(e -> txMap.put(e.getHash(), e));
+            CompactBlock compactBlock = BlockUtil.getCompactBlock(smallBlock, txMap, null);
+            //区块中交易的短ID重复时改用SmallBlock广播
+            if (compactBlock != null) {
+                //紧凑区块只发送给已知支持的节点, 其余节点仍发送SmallBlock
+                List<String> nodeIds = new ArrayList<>();
+                for (Node node : NetworkCall.getAvailableNodes(chainId)) {
+                    if (context.getCompactBlockNodes().contains(node.getId())) {
+                        nodeIds.add(node.getId());
+                    }
+                }
+                if (!nodeIds.isEmpty()) {
+                    compactNodes = String.join(",", nodeIds);
+                    CompactBlockMessage message = new CompactBlockMessage();
+                    message.setCompactBlock(compactBlock);
+                    boolean send = NetworkCall.sendToNode(chainId, message, compactNodes, COMPACT_BLOCK_MESSAGE);
+                    logger.debug("hash-" + block.getHeader().getHash() + ", send compact block to " + nodeIds.size() + " nodes-" + send);
+                }
+            }
+        }
         SmallBlockMessage message = new SmallBlockMessage();
-        message.setSmallBlock(BlockUtil.getSmallBlock(chainId, block));
-        boolean broadcast = NetworkCall.broadcast(chainId, message, SMALL_BLOCK_MESSAGE);
+        message.setSmallBlock(smallBlock);
+        boolean broadcast = compactNodes == null ? NetworkCall.broadcast(chainId, message, SMALL_BLOCK_MESSAGE) : NetworkCall.broadcast(chainId, message, compactNodes, SMALL_BLOCK_MESSAGE);
         logger.debug("hash-" + block.getHeader().getHash() + ", broadcast-" + broadcast);
         return broadcast;
     }
 
-    private Result verifyBlock(int chainId, Block block, boolean localInit, int download) {
+    private Result verifyBlock(int chainId, Block block, boolean localInit, int download, boolean preVerified) {
         ChainContext context = ContextManager.getContext(chainId);
         NulsLogger logger = context.getLogger();
         BlockHeader header = block.getHeader();
@@ -586,8 +588,8 @@ public class BlockServiceImpl implements BlockService {
             return Result.getFailed(BlockErrorCode.BLOCK_VERIFY_ERROR);
         }
 
-        //1.验证一些基本信息如区块大小限制、字段非空验证
-        boolean basicVerify = BlockUtil.basicVerify(chainId, block);
+        //1.验证一些基本信息如区块大小限制、字段非空验证, 已提前验证过的区块不再重复验证
+        boolean basicVerify = preVerified || BlockUtil.basicVerify(chainId, block);
         if (localInit) {
             if (basicVerify) {
                 return Result.getSuccess(BlockErrorCode.SUCCESS);
@@ -604,7 +606,7 @@ public class BlockServiceImpl implements BlockService {
             return Result.getFailed(BlockErrorCode.BLOCK_VERIFY_ERROR);
         }
         //共识验证
-        Result consensusVerify = ConsensusCall.verify(chainId, block, download);
+        Result consensusVerify = ConsensusCall.verify(chainId, block, download, preVerified);
         if (consensusVerify.isFailed()) {
             logger.error("consensusVerify-" + consensusVerify);
             return Result.getFailed(BlockErrorCode.BLOCK_VERIFY_ERROR);
@@ -637,7 +639,7 @@ public class BlockServiceImpl implements BlockService {
                         genesisBlock = GenesisBlock.getInstance(chainId, chainParameters.getAssetId(), Files.readString(Path.of(configFile, value)));
                     }
                 }
-                boolean b = saveBlock(chainId, genesisBlock, true, 0, false, false, false);
+                boolean b = saveBlock(chainId, genesisBlock, true, 0, false, false, false, false);
                 if (!b) {
                     throw new NulsRuntimeException(BlockErrorCode.SAVE_GENESIS_ERROR);
                 }
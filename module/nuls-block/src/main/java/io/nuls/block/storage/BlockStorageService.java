@@ -109,4 +109,22 @@ public interface BlockStorageService {
      */
     boolean setLatestHeight(int chainId, long height);
 
+    /**
+     * 在同一批次中存储{@link BlockHeaderPo}并把该链的最新高度设置为区块高度
+     *
+     * @param chainId 链Id/chain id
+     * @param blockHeader
+     * @return
+     */
+    boolean saveAndSetLatestHeight(int chainId, BlockHeaderPo blockHeader);
+
+    /**
+     * 在同一批次中移除指定高度的{@link BlockHeaderPo}并把该链的最新高度回退到height-1
+     *
+     * @param chainId 链Id/chain id
+     * @param height
+     * @return
+     */
+    boolean removeAndSetLatestHeight(int chainId, long height);
+
 }
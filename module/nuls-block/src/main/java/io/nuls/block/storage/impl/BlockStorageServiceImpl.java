@@ -29,6 +29,7 @@ import io.nuls.core.core.annotation.Component;
 import io.nuls.core.exception.NulsException;
 import io.nuls.core.model.ByteUtils;
 import io.nuls.core.parse.SerializeUtils;
+import io.nuls.core.rockdb.service.MultiTableBatchOperation;
 import io.nuls.core.rockdb.service.RocksDBService;
 
 import java.util.ArrayList;
@@ -51,18 +52,22 @@ public class BlockStorageServiceImpl implements BlockStorageService {
 
     @Override
     public boolean save(int chainId, BlockHeaderPo blockHeader) {
-        byte[] height = SerializeUtils.uint64ToByteArray(blockHeader.getHeight());
-        try {
-            byte[] hash = blockHeader.getHash().getBytes();
-            boolean b1 = RocksDBService.put(BLOCK_HEADER_INDEX + chainId, height, hash);
-            boolean b2 = RocksDBService.put(BLOCK_HEADER + chainId, hash, blockHeader.serialize());
-            return b1 && b2;
+        try (MultiTableBatchOperation batch = RocksDBService.createMultiTableWriteBatch()) {
+            putHeader(batch, chainId, blockHeader);
+            return batch.executeBatch();
         } catch (Exception e) {
             COMMON_LOG.error("", e);
             return false;
         }
     }
 
+    private void putHeader(MultiTableBatchOperation batch, int chainId, BlockHeaderPo blockHeader) throws Exception {
+        byte[] height = SerializeUtils.uint64ToByteArray(blockHeader.getHeight());
+        byte[] hash = blockHeader.getHash().getBytes();
+        batch.put(BLOCK_HEADER_INDEX + chainId, height, hash);
+        batch.put(BLOCK_HEADER + chainId, hash, blockHeader.serialize());
+    }
+
     @Override
     public BlockHeaderPo query(int chainId, long height) {
         try {
@@ -127,17 +132,24 @@ public class BlockStorageServiceImpl implements BlockStorageService {
 
     @Override
     public boolean remove(int chainId, long height) {
-        try {
-            byte[] hash = RocksDBService.get(BLOCK_HEADER_INDEX + chainId, SerializeUtils.uint64ToByteArray(height));
-            boolean b1 = RocksDBService.delete(BLOCK_HEADER_INDEX + chainId, SerializeUtils.uint64ToByteArray(height));
-            boolean b2 = RocksDBService.delete(BLOCK_HEADER + chainId, hash);
-            return b1 && b2;
+        try (MultiTableBatchOperation batch = RocksDBService.createMultiTableWriteBatch()) {
+            deleteHeader(batch, chainId, height);
+            return batch.executeBatch();
         } catch (Exception e) {
             COMMON_LOG.error("", e);
             return false;
         }
     }
 
+    private void deleteHeader(MultiTableBatchOperation batch, int chainId, long height) throws Exception {
+        byte[] key = SerializeUtils.uint64ToByteArray(height);
+        byte[] hash = RocksDBService.get(BLOCK_HEADER_INDEX + chainId, key);
+        batch.delete(BLOCK_HEADER_INDEX + chainId, key);
+        if (hash != null) {
+            batch.delete(BLOCK_HEADER + chainId, hash);
+        }
+    }
+
     @Override
     public boolean destroy(int chainId) {
         try {
@@ -167,4 +179,34 @@ public class BlockStorageServiceImpl implements BlockStorageService {
         }
     }
 
+    /**
+     * 区块头和高度索引先于最新高度加入批次, 非原子提交时最新高度也不会指向未写入的区块
+     */
+    @Override
+    public boolean saveAndSetLatestHeight(int chainId, BlockHeaderPo blockHeader) {
+        try (MultiTableBatchOperation batch = RocksDBService.createMultiTableWriteBatch()) {
+            putHeader(batch, chainId, blockHeader);
+            batch.put(CHAIN_LATEST_HEIGHT, ByteUtils.intToBytes(chainId), SerializeUtils.uint64ToByteArray(blockHeader.getHeight()));
+            return batch.executeBatch();
+        } catch (Exception e) {
+            COMMON_LOG.error("", e);
+            return false;
+        }
+    }
+
+    /**
+     * 与保存相反, 最新高度先于区块头加入批次
+     */
+    @Override
+    public boolean removeAndSetLatestHeight(int chainId, long height) {
+        try (MultiTableBatchOperation batch = RocksDBService.createMultiTableWriteBatch()) {
+            batch.put(CHAIN_LATEST_HEIGHT, ByteUtils.intToBytes(chainId), SerializeUtils.uint64ToByteArray(height - 1));
+            deleteHeader(batch, chainId, height);
+            return batch.executeBatch();
+        } catch (Exception e) {
+            COMMON_LOG.error("", e);
+            return false;
+        }
+    }
+
 }
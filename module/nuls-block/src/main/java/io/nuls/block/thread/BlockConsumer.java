@@ -24,18 +24,25 @@ import io.nuls.base.data.Block;
 import io.nuls.block.constant.BlockErrorCode;
 import io.nuls.block.constant.NodeEnum;
 import io.nuls.block.manager.ContextManager;
+import io.nuls.block.model.BlockConfig;
 import io.nuls.block.model.BlockDownloaderParams;
 import io.nuls.block.model.ChainContext;
+import io.nuls.block.model.DownloadRange;
 import io.nuls.block.model.Node;
 import io.nuls.block.service.BlockService;
 import io.nuls.block.utils.BlockUtil;
 import io.nuls.core.core.ioc.SpringLiteContext;
 import io.nuls.core.exception.NulsException;
 import io.nuls.core.log.logback.NulsLogger;
+import io.nuls.core.thread.ThreadUtils;
+import io.nuls.core.thread.commom.NulsThreadFactory;
 
+import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
 import java.util.concurrent.Callable;
+import java.util.concurrent.Future;
+import java.util.concurrent.ThreadPoolExecutor;
 
 /**
  * 消费共享队列中的区块
@@ -48,10 +55,19 @@ public class BlockConsumer implements Callable<Boolean> {
 
     private int chainId;
     private BlockService blockService;
+    /**
+     * 保存当前区块期间提前验证的后续区块数
+     */
+    private int preVerifyDepth;
+    /**
+     * 已提交无状态验证的区块, 按高度索引
+     */
+    private Map<Long, PreVerifyTask> preVerifyTasks = new HashMap<>();
 
     BlockConsumer(int chainId) {
         this.chainId = chainId;
         this.blockService = SpringLiteContext.getBean(BlockService.class);
+        this.preVerifyDepth = SpringLiteContext.getBean(BlockConfig.class).getPreVerifyDepth();
     }
 
     @Override
@@ -63,28 +79,42 @@ public class BlockConsumer implements Callable<Boolean> {
         NulsLogger logger = context.getLogger();
         Block block;
         logger.info("BlockConsumer start work");
+        ThreadPoolExecutor preVerifyExecutor = null;
+        if (preVerifyDepth > 0) {
+            int threads = Math.min(preVerifyDepth, Runtime.getRuntime().availableProcessors());
+            preVerifyExecutor = ThreadUtils.createThreadPool(threads, preVerifyDepth, new NulsThreadFactory("block-pre-verify-" + chainId));
+        }
         try {
             long begin = System.nanoTime();
             while (pendingHeight <= netLatestHeight && context.isNeedSyn()) {
+                if (preVerifyExecutor != null) {
+                    submitPreVerify(context, preVerifyExecutor, pendingHeight, netLatestHeight);
+                }
                 block = context.getBlockMap().remove(pendingHeight);
                 if (block != null) {
                     begin = System.nanoTime();
-                    boolean saveBlock = blockService.saveBlock(chainId, block, true);
+                    //等待该区块的无状态验证结果, 验证失败同保存失败处理
+                    Boolean preVerified = getPreVerifyResult(pendingHeight, block);
+                    if (Boolean.FALSE.equals(preVerified)) {
+                        logger.error("Downloaded block pre verify fail, height-" + pendingHeight + ", hash-" + block.getHeader().getHash());
+                        context.setNeedSyn(false);
+                        return false;
+                    }
+                    boolean saveBlock = blockService.saveBlock(chainId, block, true, preVerified != null);
                     if (!saveBlock) {
                         logger.error("An exception occurred while saving the downloaded block, height-" + pendingHeight + ", hash-" + block.getHeader().getHash());
                         context.setNeedSyn(false);
                         return false;
                     }
                     pendingHeight++;
-                    context.getCachedBlockSize().addAndGet(-block.size());
+                    context.releaseCachedBlockSize(block.size());
                     continue;
                 }
                 Thread.sleep(10);
                 long end = System.nanoTime();
                 //超过10秒没有高度更新
                 if ((end - begin) / 1000000 > 5000) {
-                    updateNodeStatus(context);
-                    punishNode(pendingHeight, params.getNodes(), context);
+                    punishNode(pendingHeight, context);
                     retryDownload(pendingHeight, context);
                     begin = System.nanoTime();
                 }
@@ -95,27 +125,51 @@ public class BlockConsumer implements Callable<Boolean> {
             logger.error("BlockConsumer stop work abnormally", e);
             context.setNeedSyn(false);
             return false;
+        } finally {
+            if (preVerifyExecutor != null) {
+                preVerifyExecutor.shutdownNow();
+            }
+            preVerifyTasks.clear();
         }
     }
 
-    private void punishNode(long pendingHeight, List<Node> nodes, ChainContext context) {
-        for (Node node : nodes) {
-            if (node.getStartHeight() <= pendingHeight && pendingHeight <= node.getEndHeight()) {
-                context.getLogger().error("download block from {} failed! failed height {}", node.getId(), pendingHeight);
-                node.adjustCredit(false);
-                return;
+    /**
+     * 对已下载的后续区块提交无状态验证(基础信息、梅克尔哈希、签名), 与当前区块的保存并行
+     */
+    private void submitPreVerify(ChainContext context, ThreadPoolExecutor executor, long pendingHeight, long netLatestHeight) {
+        long maxHeight = Math.min(pendingHeight + preVerifyDepth - 1, netLatestHeight);
+        for (long height = pendingHeight; height <= maxHeight; height++) {
+            if (preVerifyTasks.containsKey(height)) {
+                continue;
             }
+            Block block = context.getBlockMap().get(height);
+            if (block == null) {
+                continue;
+            }
+            preVerifyTasks.put(height, new PreVerifyTask(block, executor.submit(() -> BlockUtil.preVerify(chainId, block))));
         }
     }
 
-    private void updateNodeStatus(ChainContext context) {
-        List<Node> nodes = context.getDownloaderParams().getNodes();
-        for (Node node : nodes) {
-            if (node.getNodeEnum().equals(NodeEnum.WORKING) && (System.currentTimeMillis() - node.getStartTime() > 60000)) {
-                node.adjustCredit(false);
-                if (!node.getNodeEnum().equals(NodeEnum.TIMEOUT)) {
-                    node.setNodeEnum(NodeEnum.IDLE);
-                }
+    /**
+     * 获取区块的无状态验证结果, 没有提交验证或区块已被替换时返回null
+     */
+    private Boolean getPreVerifyResult(long height, Block block) throws Exception {
+        PreVerifyTask task = preVerifyTasks.remove(height);
+        if (task == null || task.block != block) {
+            return null;
+        }
+        return task.future.get();
+    }
+
+    /**
+     * 惩罚持有待保存高度下载区间的节点
+     */
+    private void punishNode(long pendingHeight, ChainContext context) {
+        for (DownloadRange range : context.getDownloaderParams().getRanges().values()) {
+            if (range.getStartHeight() <= pendingHeight && pendingHeight <= range.getEndHeight()) {
+                context.getLogger().error("download block from {} failed! failed height {}", range.getNode().getId(), pendingHeight);
+                range.getNode().adjustCredit(false);
+                return;
             }
         }
     }
@@ -152,4 +206,13 @@ public class BlockConsumer implements Callable<Boolean> {
         }
     }
 
+    private static final class PreVerifyTask {
+        private final Block block;
+        private final Future<Boolean> future;
+
+        private PreVerifyTask(Block block, Future<Boolean> future) {
+            this.block = block;
+            this.future = future;
+        }
+    }
 }
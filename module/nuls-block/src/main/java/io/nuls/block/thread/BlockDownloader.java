@@ -22,6 +22,7 @@
 
 package io.nuls.block.thread;
 
+import io.nuls.base.data.NulsHash;
 import io.nuls.block.constant.BlockErrorCode;
 import io.nuls.block.constant.NodeEnum;
 import io.nuls.block.manager.ContextManager;
@@ -29,12 +30,16 @@ import io.nuls.block.message.HeightRangeMessage;
 import io.nuls.block.model.BlockDownloaderParams;
 import io.nuls.block.model.ChainContext;
 import io.nuls.block.model.ChainParameters;
+import io.nuls.block.model.DownloadRange;
 import io.nuls.block.model.Node;
 import io.nuls.block.rpc.call.NetworkCall;
 import io.nuls.core.exception.NulsRuntimeException;
 import io.nuls.core.log.logback.NulsLogger;
 
+import java.io.IOException;
 import java.util.List;
+import java.util.Map;
+import java.util.Queue;
 import java.util.concurrent.Callable;
 import java.util.concurrent.atomic.AtomicInteger;
 
@@ -42,6 +47,9 @@ import static io.nuls.block.constant.CommandConstant.GET_BLOCKS_BY_HEIGHT_MESSAG
 
 /**
  * 区块下载管理器
+ * 按节点的往返时间与下载速度分配下载区间, 速度快的节点可以同时持有多个区间;
+ * 节点长时间没有返回区块时, 其持有的区间立即重新分配给其他节点;
+ * 缓存的区块字节数(含在途区块的估算)超过上限时, 等待消费线程释放缓存后再继续下载
  *
  * @author captain
  * @version 1.0
@@ -49,6 +57,21 @@ import static io.nuls.block.constant.CommandConstant.GET_BLOCKS_BY_HEIGHT_MESSAG
  */
 public class BlockDownloader implements Callable<Boolean> {
 
+    /**
+     * 速度快的节点最多同时持有的下载区间数
+     */
+    private static final int MAX_OUTSTANDING_RANGES = 3;
+
+    /**
+     * 判断节点停滞的最短时间(毫秒)
+     */
+    private static final long MIN_STALL_MILLIS = 2000L;
+
+    /**
+     * 没有可分配节点或缓存已满时, 等待的最长时间(毫秒)
+     */
+    private static final long WAIT_MILLIS = 200L;
+
     /**
      * 链ID
      */
@@ -72,46 +95,41 @@ public class BlockDownloader implements Callable<Boolean> {
             long cachedBlockSizeLimit = chainParameters.getCachedBlockSizeLimit();
             int downloadNumber = chainParameters.getDownloadNumber();
             AtomicInteger cachedBlockSize = context.getCachedBlockSize();
-            long limit = context.getParameters().getCachedBlockSizeLimit() * 80 / 100;
-            while (startHeight <= netLatestHeight && context.isNeedSyn()) {
-                int cachedSize = cachedBlockSize.get();
-                while (cachedSize > cachedBlockSizeLimit) {
-                    logger.info("BlockDownloader wait! cached block:" + context.getBlockMap().size() + ", total block size:" + cachedSize);
-                    nodes.forEach(e -> e.setCredit(20));
-                    Thread.sleep(3000L);
-                    cachedSize = cachedBlockSize.get();
-                    if (!context.isNeedSyn()) {
-                        return false;
-                    }
-                }
-                //下载的区块字节数达到缓存阈值的80%时，降慢下载速度
-                if (cachedSize > limit) {
-                    nodes.forEach(e -> e.setCredit(e.getCredit() / 2));
+            Map<NulsHash, DownloadRange> ranges = downloaderParams.getRanges();
+            Queue<DownloadRange> retryRanges = downloaderParams.getRetryRanges();
+            while (context.isNeedSyn() && context.getLatestHeight() < netLatestHeight
+                    && (startHeight <= netLatestHeight || !ranges.isEmpty() || !retryRanges.isEmpty())) {
+                reassignStalledRanges(context, chainParameters.getSingleDownloadTimeout());
+                //缓存的区块与在途区块的字节数超过上限时, 等待消费线程释放
+                long cachedSize = cachedBlockSize.get() + inflightBytes(downloaderParams);
+                if (cachedSize > cachedBlockSizeLimit) {
+                    logger.debug("BlockDownloader wait! cached block:" + context.getBlockMap().size() + ", total block size:" + cachedSize);
+                    context.awaitDownloadSignal(WAIT_MILLIS);
+                    continue;
                 }
                 Node node = getNode(nodes);
                 if (node == null) {
-                    Thread.sleep(100L);
+                    context.awaitDownloadSignal(WAIT_MILLIS);
                     continue;
                 }
-                int credit = node.getCredit();
-                int size = downloadNumber * credit / 100;
-                size = size <= 0 ? 1 : size;
-                if (startHeight + size > netLatestHeight) {
-                    size = (int) (netLatestHeight - startHeight + 1);
-                }
-                long endHeight = startHeight + size - 1;
-                //组装批量获取区块消息
-                HeightRangeMessage message = new HeightRangeMessage(startHeight, endHeight);
-                //发送消息给目标节点
-                boolean b = NetworkCall.sendToNode(chainId, message, node.getId(), GET_BLOCKS_BY_HEIGHT_MESSAGE);
-                if (b) {
-                    node.setNodeEnum(NodeEnum.WORKING);
-                    node.setStartTime(System.currentTimeMillis());
-                    node.setStartHeight(startHeight);
-                    node.setEndHeight(endHeight);
+                DownloadRange range = retryRanges.poll();
+                if (range == null) {
+                    if (startHeight > netLatestHeight) {
+                        context.awaitDownloadSignal(WAIT_MILLIS);
+                        continue;
+                    }
+                    int size = downloadNumber * node.getCredit() / 100;
+                    size = size <= 0 ? 1 : size;
+                    if (startHeight + size > netLatestHeight) {
+                        size = (int) (netLatestHeight - startHeight + 1);
+                    }
+                    range = new DownloadRange(startHeight, startHeight + size - 1);
                     startHeight += size;
-                } else {
+                }
+                if (!sendRange(context, node, range)) {
                     logger.error("BlockDownloader sendToNode failed!");
+                    retryRanges.offer(range);
+                    node.adjustCredit(false);
                 }
             }
             logger.info("BlockDownloader stop work, flag-" + context.isNeedSyn());
@@ -122,20 +140,119 @@ public class BlockDownloader implements Callable<Boolean> {
         return context.isNeedSyn();
     }
 
+    /**
+     * 发送批量获取区块请求, 成功后登记下载区间
+     */
+    private boolean sendRange(ChainContext context, Node node, DownloadRange range) throws IOException {
+        HeightRangeMessage message = new HeightRangeMessage(range.getStartHeight(), range.getEndHeight());
+        NulsHash requestHash = NulsHash.calcHash(message.serialize());
+        //先登记再发送, 避免区块先于登记到达
+        range.assign(node, requestHash);
+        context.getDownloaderParams().getRanges().put(requestHash, range);
+        node.addOutstanding();
+        boolean b = NetworkCall.sendToNode(chainId, message, node.getId(), GET_BLOCKS_BY_HEIGHT_MESSAGE);
+        if (b) {
+            node.setStartTime(range.getSendTime());
+            node.setStartHeight(range.getStartHeight());
+            node.setEndHeight(range.getEndHeight());
+        } else {
+            context.getDownloaderParams().getRanges().remove(requestHash);
+            node.removeOutstanding();
+        }
+        return b;
+    }
+
+    /**
+     * 节点在停滞时间内没有返回任何区块时, 其持有的区间立即重新分配
+     * 停滞时间按节点往返时间的4倍计算, 不低于MIN_STALL_MILLIS, 不高于singleDownloadTimeout
+     */
+    private void reassignStalledRanges(ChainContext context, long singleDownloadTimeout) {
+        long now = System.currentTimeMillis();
+        Map<NulsHash, DownloadRange> ranges = context.getDownloaderParams().getRanges();
+        for (DownloadRange range : ranges.values()) {
+            Node node = range.getNode();
+            long stallMillis = node.getRtt() == 0 ? singleDownloadTimeout : Math.min(singleDownloadTimeout, Math.max(MIN_STALL_MILLIS, node.getRtt() * 4));
+            long lastActive = Math.max(range.getSendTime(), node.getLastReceiveTime());
+            boolean stalled = node.getNodeEnum().equals(NodeEnum.TIMEOUT) || now - lastActive > stallMillis;
+            if (stalled && ranges.remove(range.getRequestHash(), range)) {
+                context.getLogger().info("download range " + range + " from " + node.getId() + " stalled, reassign");
+                node.adjustCredit(false);
+                node.removeOutstanding();
+                retryRange(context, range);
+            }
+        }
+    }
+
+    /**
+     * 将区间中尚未收到的区块高度重新放入待分配队列
+     *
+     * @param context 链上下文
+     * @param range   失败或超时的下载区间
+     */
+    public static void retryRange(ChainContext context, DownloadRange range) {
+        Queue<DownloadRange> retryRanges = context.getDownloaderParams().getRetryRanges();
+        long latestHeight = context.getLatestHeight();
+        long start = -1;
+        for (long height = Math.max(range.getStartHeight(), latestHeight + 1); height <= range.getEndHeight(); height++) {
+            boolean missing = !context.getBlockMap().containsKey(height);
+            if (missing && start < 0) {
+                start = height;
+            } else if (!missing && start >= 0) {
+                retryRanges.offer(new DownloadRange(start, height - 1));
+                start = -1;
+            }
+        }
+        if (start >= 0) {
+            retryRanges.offer(new DownloadRange(start, range.getEndHeight()));
+        }
+    }
+
+    /**
+     * 估算已请求尚未收到的区块字节数
+     */
+    private long inflightBytes(BlockDownloaderParams downloaderParams) {
+        long blocks = 0;
+        for (DownloadRange range : downloaderParams.getRanges().values()) {
+            blocks += Math.max(0, range.size() - range.getReceivedBlocks());
+        }
+        return blocks * downloaderParams.getAverageBlockSize();
+    }
+
+    /**
+     * 选择下载节点: 尚无速度统计的空闲节点优先, 其次选择速度最快且未达到区间上限的节点
+     * 速度不低于最快节点一半的节点最多同时持有MAX_OUTSTANDING_RANGES个区间, 其余节点只持有一个
+     */
     private Node getNode(List<Node> nodes) {
         int count = 0;
+        long maxThroughput = 0;
+        for (Node node : nodes) {
+            maxThroughput = Math.max(maxThroughput, node.getThroughput());
+        }
+        Node best = null;
         for (Node node : nodes) {
-            if (node.getNodeEnum().equals(NodeEnum.IDLE)) {
-                return node;
-            }
             if (node.getNodeEnum().equals(NodeEnum.TIMEOUT)) {
                 count++;
+                continue;
+            }
+            int outstanding = node.getOutstanding();
+            if (node.getThroughput() == 0) {
+                if (outstanding == 0) {
+                    return node;
+                }
+                continue;
+            }
+            boolean fast = node.getThroughput() * 2 >= maxThroughput;
+            if (outstanding >= (fast ? MAX_OUTSTANDING_RANGES : 1)) {
+                continue;
+            }
+            if (best == null || node.getThroughput() > best.getThroughput()) {
+                best = node;
             }
         }
         if (count == nodes.size()) {
             throw new NulsRuntimeException(BlockErrorCode.BLOCK_SYN_ERROR);
         }
-        return null;
+        return best;
     }
 
 }
@@ -131,15 +131,11 @@ public class BlockSynchronizer implements Runnable {
                     logger.error("TransactionCall rollback error when clean incomplete block ");
                     System.exit(1);
                 }
-                if (!blockStorageService.remove(chainId, latestHeight)) {
+                if (!blockStorageService.removeAndSetLatestHeight(chainId, latestHeight)) {
                     logger.error("blockStorageService remove error when clean incomplete block ");
                     System.exit(1);
                 }
                 latestHeight = latestHeight - 1;
-                if (!blockStorageService.setLatestHeight(chainId, latestHeight)) {
-                    logger.error("blockStorageService setLatestHeight error when clean incomplete block ");
-                    System.exit(1);
-                }
                 //latestHeight已经维护成功,上面的步骤保证了latestHeight这个高度的区块数据在本地是完整的,但是区块数据的内容并不一定是正确的,所以要继续验证latestBlock
                 Block block = blockService.getBlock(chainId, latestHeight);
                 //本地区块维护成功
@@ -0,0 +1,110 @@
+/*
+ * MIT License
+ * Copyright (c) 2017-2019 nuls.io
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+package io.nuls.block.thread;
+
+import io.nuls.base.RPCUtil;
+import io.nuls.base.data.BlockHeader;
+import io.nuls.base.protocol.ModuleHelper;
+import io.nuls.block.manager.ContextManager;
+import io.nuls.block.rpc.call.CrossChainCall;
+import io.nuls.core.thread.ThreadUtils;
+
+import java.util.Map;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicReference;
+
+/**
+ * 异步通知跨链模块最新区块高度
+ * 区块保存或回滚成功后只记录最新的区块头并唤醒通知线程, 不阻塞持有链写锁的调用方;
+ * 跨链模块处理较慢时未发送的通知合并为最新高度, 通知线程每次唤醒只发送一次RPC
+ * Notify the cross-chain module of new block heights asynchronously. Pending notices are coalesced to the latest
+ * height and sent with one RPC call per wake-up, the caller holding the chain write lock never blocks.
+ */
+public class CrossChainHeightNotifier implements Runnable {
+
+    private static final Map<Integer, CrossChainHeightNotifier> NOTIFIERS = new ConcurrentHashMap<>();
+
+    private final int chainId;
+
+    /**
+     * 尚未发送的最新通知, 新通知直接覆盖旧通知
+     */
+    private final AtomicReference<Notice> latest = new AtomicReference<>();
+
+    /**
+     * 唤醒通知线程的信号, 容量为1, 已有信号时offer直接返回
+     */
+    private final BlockingQueue<Boolean> signal = new ArrayBlockingQueue<>(1);
+
+    private CrossChainHeightNotifier(int chainId) {
+        this.chainId = chainId;
+    }
+
+    /**
+     * 区块保存或回滚成功后调用, 保存与回滚的通知按调用顺序覆盖, 跨链模块收到的总是最新高度
+     *
+     * @param chainId 链Id/chain id
+     * @param height  最新高度
+     * @param header  保存或回滚的区块头
+     */
+    public static void notice(int chainId, long height, BlockHeader header) {
+        if (!ModuleHelper.isSupportCrossChain()) {
+            return;
+        }
+        CrossChainHeightNotifier notifier = NOTIFIERS.computeIfAbsent(chainId, k -> {
+            CrossChainHeightNotifier n = new CrossChainHeightNotifier(k);
+            ThreadUtils.createAndRunThread("cross-chain-height-notifier-" + k, n);
+            return n;
+        });
+        notifier.latest.set(new Notice(height, header));
+        notifier.signal.offer(Boolean.TRUE);
+    }
+
+    @Override
+    public void run() {
+        while (true) {
+            try {
+                signal.take();
+                Notice notice = latest.getAndSet(null);
+                if (notice != null) {
+                    CrossChainCall.heightNotice(chainId, notice.height, RPCUtil.encode(notice.header.serialize()));
+                }
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                return;
+            } catch (Exception e) {
+                ContextManager.getContext(chainId).getLogger().error("cross chain height notice error", e);
+            }
+        }
+    }
+
+    private static final class Notice {
+        private final long height;
+        private final BlockHeader header;
+
+        private Notice(long height, BlockHeader header) {
+            this.height = height;
+            this.header = header;
+        }
+    }
+}
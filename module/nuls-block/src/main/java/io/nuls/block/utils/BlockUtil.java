@@ -46,6 +46,7 @@ import io.nuls.core.model.ByteUtils;
 
 import java.util.*;
 import java.util.concurrent.Future;
+import java.util.concurrent.ThreadLocalRandom;
 import java.util.concurrent.TimeUnit;
 
 import static io.nuls.block.constant.CommandConstant.GET_BLOCK_BY_HEIGHT_MESSAGE;
@@ -103,6 +104,31 @@ public class BlockUtil {
         return true;
     }
 
+    /**
+     * 区块的无状态验证: 基础信息、梅克尔哈希、区块头签名
+     * 不依赖本地链状态, 区块同步时可以在保存上一个区块的同时提前进行
+     *
+     * @param chainId 链Id/chain id
+     * @param block   待验证区块
+     * @return
+     */
+    public static boolean preVerify(int chainId, Block block) {
+        if (!basicVerify(chainId, block)) {
+            return false;
+        }
+        NulsLogger logger = ContextManager.getContext(chainId).getLogger();
+        BlockHeader header = block.getHeader();
+        if (header.getMerkleHash() == null || !header.getMerkleHash().equals(NulsHash.calcMerkleHash(block.getTxHashList()))) {
+            logger.error("preVerify fail, merkle hash error! height-" + header.getHeight() + ", hash-" + header.getHash());
+            return false;
+        }
+        if (header.getBlockSignature() == null || header.getBlockSignature().verifySignature(header.getHash()).isFailed()) {
+            logger.error("preVerify fail, block signature error! height-" + header.getHeight() + ", hash-" + header.getHash());
+            return false;
+        }
+        return true;
+    }
+
     public static boolean headerVerify(int chainId, BlockHeader header) {
         NulsLogger logger = ContextManager.getContext(chainId).getLogger();
         if (header.getHash() == null) {
@@ -366,6 +392,109 @@ public class BlockUtil {
         return smallBlock;
     }
 
+    /**
+     * 根据SmallBlock构造紧凑区块, 系统交易与预计接收方缺失的交易作为预填交易
+     * 区块中交易的短ID重复时返回null, 由调用方改用SmallBlock广播
+     *
+     * @param smallBlock       小区块
+     * @param txMap            区块中的全部交易
+     * @param predictedMissing 预计接收方缺失的交易(本节点收到该区块时也曾缺失的交易)
+     * @return
+     */
+    public static CompactBlock getCompactBlock(SmallBlock smallBlock, Map<NulsHash, Transaction> txMap, List<NulsHash> predictedMissing) {
+        CompactBlock compactBlock = new CompactBlock();
+        compactBlock.setHeader(smallBlock.getHeader());
+        compactBlock.setNonce(ThreadLocalRandom.current().nextLong());
+        List<NulsHash> txHashList = smallBlock.getTxHashList();
+        List<Long> shortTxIdList = new ArrayList<>(txHashList.size());
+        Set<Long> shortTxIds = new HashSet<>(txHashList.size());
+        for (NulsHash txHash : txHashList) {
+            long shortTxId = compactBlock.shortTxId(txHash);
+            if (!shortTxIds.add(shortTxId)) {
+                return null;
+            }
+            shortTxIdList.add(shortTxId);
+        }
+        compactBlock.setShortTxIdList(shortTxIdList);
+        List<Transaction> prefilledTxList = new ArrayList<>(smallBlock.getSystemTxList());
+        if (predictedMissing != null) {
+            Set<NulsHash> systemTxHashes = new HashSet<>();
+            prefilledTxList.forEach(e -> systemTxHashes.add(e.getHash()));
+            for (NulsHash txHash : predictedMissing) {
+                Transaction tx = txMap.get(txHash);
+                if (tx != null && !systemTxHashes.contains(txHash)) {
+                    prefilledTxList.add(tx);
+                }
+            }
+        }
+        compactBlock.setPrefilledTxList(prefilledTxList);
+        return compactBlock;
+    }
+
+    /**
+     * 按短交易ID放入紧凑区块的交易
+     *
+     * @param compactBlock 紧凑区块
+     * @param compactTxMap 已还原的交易, 以短交易ID为key
+     * @param txs          待放入的交易
+     */
+    public static void putCompactTxs(CompactBlock compactBlock, Map<Long, Transaction> compactTxMap, Collection<Transaction> txs) {
+        for (Transaction tx : txs) {
+            compactTxMap.put(compactBlock.shortTxId(tx.getHash()), tx);
+        }
+    }
+
+    /**
+     * 获取紧凑区块中尚未还原的短交易ID
+     *
+     * @param compactBlock 紧凑区块
+     * @param compactTxMap 已还原的交易, 以短交易ID为key
+     * @return
+     */
+    public static List<Long> getMissingShortTxIds(CompactBlock compactBlock, Map<Long, Transaction> compactTxMap) {
+        List<Long> missing = new ArrayList<>();
+        for (Long shortTxId : compactBlock.getShortTxIdList()) {
+            if (!compactTxMap.containsKey(shortTxId)) {
+                missing.add(shortTxId);
+            }
+        }
+        return missing;
+    }
+
+    /**
+     * 根据紧凑区块和已还原的交易组装完整区块
+     * 交易缺失、短交易ID重复或梅克尔哈希不一致(本地其他交易与区块中交易短ID冲突)时返回null, 由调用方改为请求SmallBlock
+     *
+     * @param compactBlock 紧凑区块
+     * @param compactTxMap 已还原的交易, 以短交易ID为key
+     * @return
+     */
+    public static Block assemblyCompactBlock(CompactBlock compactBlock, Map<Long, Transaction> compactTxMap) {
+        BlockHeader header = compactBlock.getHeader();
+        List<Long> shortTxIdList = compactBlock.getShortTxIdList();
+        if (shortTxIdList.size() != header.getTxCount() || new HashSet<>(shortTxIdList).size() != shortTxIdList.size()) {
+            return null;
+        }
+        List<Transaction> txs = new ArrayList<>(shortTxIdList.size());
+        List<NulsHash> txHashList = new ArrayList<>(shortTxIdList.size());
+        for (Long shortTxId : shortTxIdList) {
+            Transaction tx = compactTxMap.get(shortTxId);
+            if (null == tx) {
+                return null;
+            }
+            tx.setBlockHeight(header.getHeight());
+            txs.add(tx);
+            txHashList.add(tx.getHash());
+        }
+        if (!header.getMerkleHash().equals(NulsHash.calcMerkleHash(txHashList))) {
+            return null;
+        }
+        Block block = new Block();
+        block.setHeader(header);
+        block.setTxs(txs);
+        return block;
+    }
+
     /**
      * 根据smallblock和txmap组装一个完整区块
      *
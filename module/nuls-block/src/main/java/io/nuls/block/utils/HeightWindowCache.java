@@ -0,0 +1,122 @@
+/*
+ * MIT License
+ * Copyright (c) 2017-2019 nuls.io
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+package io.nuls.block.utils;
+
+import io.nuls.base.data.NulsHash;
+
+import java.util.*;
+
+/**
+ * 按区块高度淘汰的有界缓存, 用于区块广播、转发过程中的缓存
+ * 1.条目数超过容量时淘汰最早放入的条目
+ * 2.确认高度推进后淘汰高度低于(确认高度-窗口)的条目
+ *
+ * @param <V> 缓存值
+ */
+public class HeightWindowCache<V> {
+
+    private final int capacity;
+
+    private final int window;
+
+    private final LinkedHashMap<NulsHash, Entry<V>> map = new LinkedHashMap<>();
+
+    /**
+     * 高度对应的区块hash, 用于按高度批量淘汰
+     */
+    private final TreeMap<Long, Set<NulsHash>> heightIndex = new TreeMap<>();
+
+    /**
+     * @param capacity 最多缓存的条目数
+     * @param window   确认高度以下保留的高度数
+     */
+    public HeightWindowCache(int capacity, int window) {
+        this.capacity = capacity;
+        this.window = window;
+    }
+
+    public synchronized V get(NulsHash hash) {
+        Entry<V> entry = map.get(hash);
+        return entry == null ? null : entry.value;
+    }
+
+    /**
+     * 获取缓存条目的区块高度
+     *
+     * @param hash 区块hash
+     * @return 未缓存时返回null
+     */
+    public synchronized Long getHeight(NulsHash hash) {
+        Entry<V> entry = map.get(hash);
+        return entry == null ? null : entry.height;
+    }
+
+    public synchronized void put(NulsHash hash, long height, V value) {
+        Entry<V> old = map.put(hash, new Entry<>(height, value));
+        if (old != null && old.height != height) {
+            unindex(hash, old.height);
+        }
+        heightIndex.computeIfAbsent(height, k -> new HashSet<>()).add(hash);
+        while (map.size() > capacity) {
+            Iterator<Map.Entry<NulsHash, Entry<V>>> iterator = map.entrySet().iterator();
+            Map.Entry<NulsHash, Entry<V>> eldest = iterator.next();
+            iterator.remove();
+            unindex(eldest.getKey(), eldest.getValue().height);
+        }
+    }
+
+    /**
+     * 确认高度推进, 淘汰窗口以外的条目
+     *
+     * @param confirmedHeight 最新确认高度
+     */
+    public synchronized void confirm(long confirmedHeight) {
+        SortedMap<Long, Set<NulsHash>> expired = heightIndex.headMap(confirmedHeight - window);
+        for (Set<NulsHash> hashes : expired.values()) {
+            hashes.forEach(map::remove);
+        }
+        expired.clear();
+    }
+
+    public synchronized int size() {
+        return map.size();
+    }
+
+    private void unindex(NulsHash hash, long height) {
+        Set<NulsHash> hashes = heightIndex.get(height);
+        if (hashes != null) {
+            hashes.remove(hash);
+            if (hashes.isEmpty()) {
+                heightIndex.remove(height);
+            }
+        }
+    }
+
+    private static final class Entry<V> {
+        private final long height;
+        private final V value;
+
+        private Entry(long height, V value) {
+            this.height = height;
+            this.value = value;
+        }
+    }
+}
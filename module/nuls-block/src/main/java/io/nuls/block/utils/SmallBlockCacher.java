@@ -21,27 +21,29 @@
 package io.nuls.block.utils;
 
 import io.nuls.base.data.Block;
+import io.nuls.base.data.BlockHeader;
 import io.nuls.base.data.NulsHash;
 import io.nuls.base.data.SmallBlock;
 import io.nuls.base.data.Transaction;
 import io.nuls.block.constant.BlockForwardEnum;
 import io.nuls.block.manager.ContextManager;
 import io.nuls.block.model.CachedSmallBlock;
+import io.nuls.block.model.ChainContext;
 import io.nuls.block.model.ChainParameters;
 import io.nuls.block.service.BlockService;
 import io.nuls.core.core.annotation.Autowired;
 import io.nuls.core.core.annotation.Component;
-import io.nuls.core.model.CollectionUtils;
 
-import java.util.HashMap;
-import java.util.List;
-import java.util.Map;
+import java.util.*;
 import java.util.concurrent.ConcurrentHashMap;
 
+import static io.nuls.block.constant.Constant.*;
+
 /**
  * 系统正常运行时缓存区块的广播、转发消息
  * 1.缓存收到的SmallBlock
  * 2.缓存状态标记
+ * 两者都按条目数与确认高度淘汰, 另外缓存少量从数据库重建的SmallBlock, 避免重复读库
  *
  * @author captain
  * @version 1.0
@@ -56,27 +58,32 @@ public class SmallBlockCacher {
     /**
      * 缓存区块转发、广播过程中收到的{@link SmallBlock},可以用来排除重复消息,
      */
-    private static Map<Integer, Map<NulsHash, CachedSmallBlock>> smallBlockCacheMap = new ConcurrentHashMap<>();
+    private static Map<Integer, HeightWindowCache<CachedSmallBlock>> smallBlockCacheMap = new ConcurrentHashMap<>();
 
     /**
      * 记录每一个区块的传播状态
      */
-    private static Map<Integer, Map<NulsHash, BlockForwardEnum>> statusCacheMap = new ConcurrentHashMap<>();
+    private static Map<Integer, HeightWindowCache<BlockForwardEnum>> statusCacheMap = new ConcurrentHashMap<>();
 
     /**
-     * 将一个SmallBlock放入内存中,若不主动删除,则在缓存存满或者存在时间超过1000秒时,自动清理
+     * 从数据库重建的{@link CachedSmallBlock},按访问顺序淘汰
+     */
+    private static Map<Integer, Map<NulsHash, CachedSmallBlock>> reconstructedCacheMap = new ConcurrentHashMap<>();
+
+    /**
+     * 将一个SmallBlock放入内存中,若不主动删除,则在缓存存满或者高度低于确认高度的窗口时,自动清理
      *
      * @param chainId          链Id/chain id
      * @param cachedSmallBlock
      */
     public static void cacheSmallBlock(int chainId, CachedSmallBlock cachedSmallBlock) {
-        SmallBlock smallBlock = cachedSmallBlock.getSmallBlock();
-        smallBlockCacheMap.get(chainId).put(smallBlock.getHeader().getHash(), cachedSmallBlock);
+        BlockHeader header = cachedSmallBlock.getSmallBlock().getHeader();
+        smallBlockCacheMap.get(chainId).put(header.getHash(), header.getHeight(), cachedSmallBlock);
     }
 
     /**
      * 根据hash获取缓存的{@link SmallBlock}
-     * TODO  注释完整性
+     * 未缓存时从数据库重建, 重建结果放入按访问顺序淘汰的缓存
      *
      * @param chainId   链Id/chain id
      * @param blockHash
@@ -84,23 +91,29 @@ public class SmallBlockCacher {
      */
     public static CachedSmallBlock getCachedSmallBlock(int chainId, NulsHash blockHash) {
         CachedSmallBlock cachedSmallBlock = smallBlockCacheMap.get(chainId).get(blockHash);
-        if (cachedSmallBlock == null) {
-            Block block = service.getBlock(chainId, blockHash);
-            if (block == null) {
-                return null;
-            }
-            SmallBlock smallBlock = BlockUtil.getSmallBlock(chainId, block);
-            List<Transaction> txs = block.getTxs();
-            Map<NulsHash, Transaction> txMap = new HashMap<>(txs.size());
-            txs.forEach(e -> txMap.put(e.getHash(), e));
-            cachedSmallBlock = new CachedSmallBlock(null, smallBlock, txMap, null);
+        if (cachedSmallBlock != null) {
+            return cachedSmallBlock;
+        }
+        Map<NulsHash, CachedSmallBlock> reconstructedCache = reconstructedCacheMap.get(chainId);
+        cachedSmallBlock = reconstructedCache.get(blockHash);
+        if (cachedSmallBlock != null) {
+            return cachedSmallBlock;
         }
+        Block block = service.getBlock(chainId, blockHash);
+        if (block == null) {
+            return null;
+        }
+        SmallBlock smallBlock = BlockUtil.getSmallBlock(chainId, block);
+        List<Transaction> txs = block.getTxs();
+        Map<NulsHash, Transaction> txMap = new HashMap<>(txs.size());
+        txs.forEach(e -> txMap.put(e.getHash(), e));
+        cachedSmallBlock = new CachedSmallBlock(null, smallBlock, txMap, null);
+        reconstructedCache.put(blockHash, cachedSmallBlock);
         return cachedSmallBlock;
     }
 
     /**
      * 根据hash获取缓存的{@link SmallBlock}
-     * TODO  注释完整性
      *
      * @param chainId   链Id/chain id
      * @param blockHash
@@ -115,19 +128,20 @@ public class SmallBlockCacher {
     }
 
     /**
-     * 获取状态
+     * 获取状态, 未记录状态的区块返回{@link BlockForwardEnum#EMPTY}, 不写入缓存
      *
      * @param chainId   链Id/chain id
      * @param blockHash
      * @return
      */
     public static BlockForwardEnum getStatus(int chainId, NulsHash blockHash) {
-        Map<NulsHash, BlockForwardEnum> map = statusCacheMap.get(chainId);
-        return map.computeIfAbsent(blockHash, k -> BlockForwardEnum.EMPTY);
+        BlockForwardEnum status = statusCacheMap.get(chainId).get(blockHash);
+        return status == null ? BlockForwardEnum.EMPTY : status;
     }
 
     /**
      * 设置状态
+     * 区块高度依次从已缓存的状态、已缓存的SmallBlock、收到的区块hash与高度映射中获取, 都没有时按最新高度的下一个高度处理
      *
      * @param chainId          链Id/chain id
      * @param blockHash
@@ -135,7 +149,30 @@ public class SmallBlockCacher {
      * @return
      */
     public static void setStatus(int chainId, NulsHash blockHash, BlockForwardEnum blockForwardEnum) {
-        statusCacheMap.get(chainId).put(blockHash, blockForwardEnum);
+        HeightWindowCache<BlockForwardEnum> statusCache = statusCacheMap.get(chainId);
+        Long height = statusCache.getHeight(blockHash);
+        if (height == null) {
+            height = smallBlockCacheMap.get(chainId).getHeight(blockHash);
+        }
+        ChainContext context = ContextManager.getContext(chainId);
+        if (height == null) {
+            height = context.getCachedHashHeightMap().get(blockHash);
+        }
+        if (height == null) {
+            height = context.getLatestHeight() + 1;
+        }
+        statusCache.put(blockHash, height, blockForwardEnum);
+    }
+
+    /**
+     * 区块保存后按确认高度淘汰窗口以外的缓存
+     *
+     * @param chainId 链Id/chain id
+     * @param height  最新确认高度
+     */
+    public static void confirm(int chainId, long height) {
+        smallBlockCacheMap.get(chainId).confirm(height);
+        statusCacheMap.get(chainId).confirm(height);
     }
 
     /**
@@ -146,10 +183,14 @@ public class SmallBlockCacher {
     public static void init(int chainId) {
         ChainParameters parameters = ContextManager.getContext(chainId).getParameters();
         int config = parameters.getSmallBlockCache();
-        Map<NulsHash, CachedSmallBlock> map = CollectionUtils.getSynSizedMap(config);
-        smallBlockCacheMap.put(chainId, map);
-        Map<NulsHash, BlockForwardEnum> statusMap = CollectionUtils.getSynSizedMap(config);
-        statusCacheMap.put(chainId, statusMap);
+        smallBlockCacheMap.put(chainId, new HeightWindowCache<>(config, SMALL_BLOCK_CACHE_HEIGHT_WINDOW));
+        statusCacheMap.put(chainId, new HeightWindowCache<>(SMALL_BLOCK_STATUS_CACHE_SIZE, SMALL_BLOCK_CACHE_HEIGHT_WINDOW));
+        reconstructedCacheMap.put(chainId, Collections.synchronizedMap(new LinkedHashMap<>(RECONSTRUCTED_SMALL_BLOCK_CACHE_SIZE, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<NulsHash, CachedSmallBlock> eldest) {
+                return size() > RECONSTRUCTED_SMALL_BLOCK_CACHE_SIZE;
+            }
+        }));
     }
 
 }
@@ -0,0 +1,74 @@
+package io.nuls.block.model;
+
+import io.nuls.base.data.NulsHash;
+import io.nuls.block.constant.NodeEnum;
+import org.junit.Assert;
+import org.junit.Test;
+
+/**
+ * 下载区间与节点速度统计测试
+ */
+public class DownloadRangeTest {
+
+    @Test
+    public void receiveTest() {
+        Node node = new Node();
+        node.setNodeEnum(NodeEnum.IDLE);
+        DownloadRange range = new DownloadRange(11, 20);
+        Assert.assertEquals(10, range.size());
+        range.assign(node, new NulsHash(new byte[NulsHash.HASH_LENGTH]));
+        node.addOutstanding();
+        node.addOutstanding();
+        Assert.assertEquals(NodeEnum.WORKING, node.getNodeEnum());
+
+        range.receive(1000);
+        range.receive(3000);
+        Assert.assertEquals(2, range.getReceivedBlocks());
+        Assert.assertEquals(4000, range.getReceivedBytes());
+        Assert.assertTrue(range.getFirstReceiveTime() > 0);
+        Assert.assertTrue(node.getLastReceiveTime() >= range.getFirstReceiveTime());
+
+        //所有区间完成后节点恢复空闲
+        node.removeOutstanding();
+        Assert.assertEquals(NodeEnum.WORKING, node.getNodeEnum());
+        node.removeOutstanding();
+        Assert.assertEquals(NodeEnum.IDLE, node.getNodeEnum());
+        Assert.assertEquals(0, node.getOutstanding());
+    }
+
+    @Test
+    public void reassignedRangeTest() {
+        Node stalled = new Node();
+        stalled.setId("node-a");
+        Node current = new Node();
+        current.setId("node-b");
+        NulsHash requestHash = new NulsHash(new byte[NulsHash.HASH_LENGTH]);
+        DownloadRange range = new DownloadRange(11, 20);
+        range.assign(stalled, requestHash);
+        //区间超时后以相同的请求hash重新分配给其他节点
+        range.assign(current, requestHash);
+        BlockDownloaderParams params = new BlockDownloaderParams();
+        params.getRanges().put(requestHash, range);
+
+        //原节点迟到的区块不计入新节点的区间
+        params.receive("node-a", requestHash, 1000);
+        Assert.assertEquals(0, range.getReceivedBlocks());
+        params.receive("node-b", requestHash, 1000);
+        Assert.assertEquals(1, range.getReceivedBlocks());
+    }
+
+    @Test
+    public void statisticsTest() {
+        Node node = new Node();
+        node.setNodeEnum(NodeEnum.IDLE);
+        node.recordRtt(100);
+        Assert.assertEquals(100, node.getRtt());
+        node.recordRtt(500);
+        Assert.assertEquals(200, node.getRtt());
+
+        node.recordThroughput(4000, 1000);
+        Assert.assertEquals(4000, node.getThroughput());
+        node.recordThroughput(8000, 1000);
+        Assert.assertEquals(5000, node.getThroughput());
+    }
+}
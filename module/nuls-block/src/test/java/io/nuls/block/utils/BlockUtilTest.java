@@ -0,0 +1,92 @@
+package io.nuls.block.utils;
+
+import io.nuls.base.basic.NulsByteBuffer;
+import io.nuls.base.data.*;
+import io.nuls.block.manager.ContextManager;
+import io.nuls.block.message.CompactBlockMessage;
+import io.nuls.block.model.ChainParameters;
+import io.nuls.block.model.GenesisBlock;
+import io.nuls.block.service.impl.BlockServiceImpl;
+import io.nuls.core.core.ioc.SpringLiteContext;
+import org.junit.Assert;
+import org.junit.BeforeClass;
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * 区块无状态验证与紧凑区块测试
+ */
+public class BlockUtilTest {
+
+    private static final int CHAIN_ID = 2;
+
+    @BeforeClass
+    public static void beforeClass() {
+        SpringLiteContext.putBean("blockService", new BlockServiceImpl());
+        ChainParameters parameters = new ChainParameters();
+        parameters.setChainId(CHAIN_ID);
+        parameters.setBlockMaxSize(5242880);
+        parameters.setExtendMaxSize(1024);
+        parameters.setSmallBlockCache((byte) 6);
+        parameters.setHeightRange(1000);
+        ContextManager.init(parameters);
+    }
+
+    @Test
+    public void preVerifyTest() throws Exception {
+        Assert.assertTrue(BlockUtil.preVerify(CHAIN_ID, GenesisBlock.getInstance(CHAIN_ID, 1)));
+
+        //梅克尔哈希错误
+        Block merkleError = GenesisBlock.getInstance(CHAIN_ID, 1);
+        merkleError.getHeader().setMerkleHash(new NulsHash(new byte[NulsHash.HASH_LENGTH]));
+        Assert.assertFalse(BlockUtil.preVerify(CHAIN_ID, merkleError));
+
+        //签名与区块头不一致
+        Block signError = GenesisBlock.getInstance(CHAIN_ID, 1);
+        signError.getHeader().setHash(new NulsHash(new byte[NulsHash.HASH_LENGTH]));
+        Assert.assertFalse(BlockUtil.preVerify(CHAIN_ID, signError));
+    }
+
+    @Test
+    public void compactBlockTest() throws Exception {
+        Block block = GenesisBlock.getInstance(CHAIN_ID, 1);
+        SmallBlock smallBlock = new SmallBlock();
+        smallBlock.setHeader(block.getHeader());
+        smallBlock.setTxHashList((ArrayList<NulsHash>) block.getTxHashList());
+        Map<NulsHash, Transaction> txMap = new HashMap<>();
+        block.getTxs().forEach(e -> txMap.put(e.getHash(), e));
+        CompactBlock compactBlock = BlockUtil.getCompactBlock(smallBlock, txMap, block.getTxHashList());
+        Assert.assertNotNull(compactBlock);
+        Assert.assertEquals(block.getTxs().size(), compactBlock.getShortTxIdList().size());
+        Assert.assertEquals(block.getTxs().size(), compactBlock.getPrefilledTxList().size());
+
+        //序列化后短交易ID与key保持一致
+        CompactBlockMessage message = new CompactBlockMessage();
+        message.setCompactBlock(compactBlock);
+        CompactBlockMessage parsed = new CompactBlockMessage();
+        parsed.parse(new NulsByteBuffer(message.serialize()));
+        CompactBlock received = parsed.getCompactBlock();
+        Assert.assertEquals(compactBlock.getShortTxIdList(), received.getShortTxIdList());
+        Assert.assertArrayEquals(compactBlock.getSipKey(), received.getSipKey());
+
+        //交易缺失时无法组装
+        Map<Long, Transaction> compactTxMap = new HashMap<>();
+        Assert.assertEquals(block.getTxs().size(), BlockUtil.getMissingShortTxIds(received, compactTxMap).size());
+        Assert.assertNull(BlockUtil.assemblyCompactBlock(received, compactTxMap));
+
+        BlockUtil.putCompactTxs(received, compactTxMap, received.getPrefilledTxList());
+        Assert.assertTrue(BlockUtil.getMissingShortTxIds(received, compactTxMap).isEmpty());
+        Block assembled = BlockUtil.assemblyCompactBlock(received, compactTxMap);
+        Assert.assertNotNull(assembled);
+        Assert.assertEquals(block.getTxHashList(), assembled.getTxHashList());
+
+        //短交易ID对应到其他交易时梅克尔哈希不一致, 无法组装
+        Transaction other = new Transaction();
+        other.setTime(1L);
+        compactTxMap.put(received.getShortTxIdList().get(0), other);
+        Assert.assertNull(BlockUtil.assemblyCompactBlock(received, compactTxMap));
+    }
+}
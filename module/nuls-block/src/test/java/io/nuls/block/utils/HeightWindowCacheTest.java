@@ -0,0 +1,47 @@
+package io.nuls.block.utils;
+
+import io.nuls.base.data.NulsHash;
+import org.junit.Assert;
+import org.junit.Test;
+
+import java.util.Arrays;
+
+/**
+ * 按高度淘汰的缓存测试
+ */
+public class HeightWindowCacheTest {
+
+    @Test
+    public void capacityTest() {
+        HeightWindowCache<String> cache = new HeightWindowCache<>(2, 10);
+        cache.put(hash(1), 1, "a");
+        cache.put(hash(2), 2, "b");
+        cache.put(hash(3), 3, "c");
+        //超过容量时淘汰最早放入的条目
+        Assert.assertNull(cache.get(hash(1)));
+        Assert.assertEquals("b", cache.get(hash(2)));
+        Assert.assertEquals(Long.valueOf(3), cache.getHeight(hash(3)));
+        Assert.assertEquals(2, cache.size());
+    }
+
+    @Test
+    public void confirmTest() {
+        HeightWindowCache<String> cache = new HeightWindowCache<>(100, 2);
+        for (int i = 1; i <= 10; i++) {
+            cache.put(hash(i), i, "v" + i);
+        }
+        //同一区块更新高度后按新高度淘汰
+        cache.put(hash(1), 9, "v1");
+        cache.confirm(10);
+        Assert.assertNull(cache.get(hash(7)));
+        Assert.assertEquals("v8", cache.get(hash(8)));
+        Assert.assertEquals("v1", cache.get(hash(1)));
+        Assert.assertEquals(4, cache.size());
+    }
+
+    private static NulsHash hash(int i) {
+        byte[] bytes = new byte[NulsHash.HASH_LENGTH];
+        Arrays.fill(bytes, (byte) i);
+        return new NulsHash(bytes);
+    }
+}
@@ -175,9 +175,8 @@ public class TxCirculateCmd extends BaseChainCmd {
             ObjectUtils.canNotEmpty(params.get("blockHeader"));
             Integer chainId = (Integer) params.get("chainId");
             List<String> txHexList = (List) params.get("txList");
-            String blockHeaderStr = (String) params.get("blockHeader");
             BlockHeader blockHeader = new BlockHeader();
-            blockHeader.parse(RPCUtil.decode(blockHeaderStr), 0);
+            blockHeader.parse(RPCUtil.decode(params.get("blockHeader")), 0);
             long commitHeight = blockHeader.getHeight();
             List<Transaction> txList = new ArrayList<>();
             Response parseResponse = parseTxs(txHexList, txList);
@@ -231,9 +230,8 @@ public class TxCirculateCmd extends BaseChainCmd {
             ObjectUtils.canNotEmpty(params.get("blockHeader"));
             Integer chainId = (Integer) params.get("chainId");
             List<String> txHexList = (List) params.get("txList");
-            String blockHeaderStr = (String) params.get("blockHeader");
             BlockHeader blockHeader = new BlockHeader();
-            blockHeader.parse(RPCUtil.decode(blockHeaderStr), 0);
+            blockHeader.parse(RPCUtil.decode(params.get("blockHeader")), 0);
             long commitHeight = blockHeader.getHeight();
             List<Transaction> txList = new ArrayList<>();
             Response parseResponse = parseTxs(txHexList, txList);
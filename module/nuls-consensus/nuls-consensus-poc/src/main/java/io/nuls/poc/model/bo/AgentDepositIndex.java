@@ -0,0 +1,178 @@
+package io.nuls.poc.model.bo;
+
+import io.nuls.base.data.NulsHash;
+import io.nuls.poc.model.bo.tx.txdata.Deposit;
+
+import java.math.BigInteger;
+import java.util.*;
+
+/**
+ * 节点委托索引
+ * 按节点hash分组保存委托信息, 组内顺序与链委托列表一致; 每条委托的有效高度区间为[blockHeight, delHeight),
+ * 查询时按高度过滤, 同时维护每个节点当前有效委托的总金额
+ * Agent deposit index.
+ * Deposits are grouped by agent hash in the same order as the chain deposit list, each deposit is valid in
+ * [blockHeight, delHeight) and queries filter by height. The total amount of currently active deposits is kept per agent.
+ */
+public class AgentDepositIndex {
+
+    /**
+     * 节点hash对应的委托列表
+     */
+    private final Map<NulsHash, List<Deposit>> agentDepositMap = new HashMap<>();
+
+    /**
+     * 委托交易hash对应的委托
+     */
+    private final Map<NulsHash, Deposit> depositMap = new HashMap<>();
+
+    /**
+     * 节点当前有效(未退出)委托总金额
+     */
+    private final Map<NulsHash, BigInteger> activeTotalMap = new HashMap<>();
+
+    /**
+     * 根据链委托列表重建索引
+     * Rebuild the index from the chain deposit list
+     *
+     * @param depositList 委托列表/deposit list
+     */
+    public synchronized void reset(List<Deposit> depositList) {
+        agentDepositMap.clear();
+        depositMap.clear();
+        activeTotalMap.clear();
+        if (depositList == null) {
+            return;
+        }
+        for (Deposit deposit : depositList) {
+            add(deposit);
+        }
+    }
+
+    /**
+     * 添加委托
+     * Add deposit
+     *
+     * @param deposit 委托信息/deposit info
+     */
+    public synchronized void add(Deposit deposit) {
+        agentDepositMap.computeIfAbsent(deposit.getAgentHash(), k -> new ArrayList<>()).add(deposit);
+        depositMap.put(deposit.getTxHash(), deposit);
+        changeActiveTotal(deposit, true);
+    }
+
+    /**
+     * 用新的委托对象替换相同交易hash的委托, 位置不变
+     * Replace the deposit with the same transaction hash, keeping its position
+     *
+     * @param deposit 委托信息/deposit info
+     * @return 是否找到被替换的委托/whether the old deposit was found
+     */
+    public synchronized boolean update(Deposit deposit) {
+        Deposit old = depositMap.get(deposit.getTxHash());
+        if (old == null) {
+            return false;
+        }
+        List<Deposit> agentDepositList = agentDepositMap.get(old.getAgentHash());
+        agentDepositList.set(agentDepositList.indexOf(old), deposit);
+        depositMap.put(deposit.getTxHash(), deposit);
+        changeActiveTotal(old, false);
+        changeActiveTotal(deposit, true);
+        return true;
+    }
+
+    /**
+     * 删除委托
+     * Remove deposit
+     *
+     * @param txHash 委托交易hash/deposit transaction hash
+     */
+    public synchronized void remove(NulsHash txHash) {
+        Deposit old = depositMap.remove(txHash);
+        if (old == null) {
+            return;
+        }
+        List<Deposit> agentDepositList = agentDepositMap.get(old.getAgentHash());
+        agentDepositList.remove(old);
+        if (agentDepositList.isEmpty()) {
+            agentDepositMap.remove(old.getAgentHash());
+        }
+        changeActiveTotal(old, false);
+    }
+
+    /**
+     * 获取节点在指定高度有效的委托列表, 按链委托列表的倒序返回
+     * Get the deposits of the agent valid at the given height, in reverse order of the chain deposit list
+     *
+     * @param agentHash 节点hash/agent hash
+     * @param height    区块高度/block height
+     * @return List<Deposit>
+     */
+    public synchronized List<Deposit> getDepositList(NulsHash agentHash, long height) {
+        List<Deposit> agentDepositList = agentDepositMap.get(agentHash);
+        if (agentDepositList == null) {
+            return new ArrayList<>();
+        }
+        List<Deposit> resultList = new ArrayList<>();
+        for (int i = agentDepositList.size() - 1; i >= 0; i--) {
+            Deposit deposit = agentDepositList.get(i);
+            if (isValid(deposit, height)) {
+                resultList.add(deposit);
+            }
+        }
+        return resultList;
+    }
+
+    /**
+     * 获取节点在指定高度有效的委托总金额
+     * Get the total deposit of the agent at the given height
+     *
+     * @param agentHash 节点hash/agent hash
+     * @param height    区块高度/block height
+     * @return BigInteger
+     */
+    public synchronized BigInteger getTotalDeposit(NulsHash agentHash, long height) {
+        List<Deposit> agentDepositList = agentDepositMap.get(agentHash);
+        BigInteger totalDeposit = BigInteger.ZERO;
+        if (agentDepositList == null) {
+            return totalDeposit;
+        }
+        for (Deposit deposit : agentDepositList) {
+            if (isValid(deposit, height)) {
+                totalDeposit = totalDeposit.add(deposit.getDeposit());
+            }
+        }
+        return totalDeposit;
+    }
+
+    /**
+     * 获取节点当前有效(未退出)的委托总金额
+     * Get the total amount of the agent's deposits that have not been cancelled
+     *
+     * @param agentHash 节点hash/agent hash
+     * @return BigInteger
+     */
+    public synchronized BigInteger getActiveTotalDeposit(NulsHash agentHash) {
+        return activeTotalMap.getOrDefault(agentHash, BigInteger.ZERO);
+    }
+
+    private void changeActiveTotal(Deposit deposit, boolean increase) {
+        if (deposit.getDelHeight() >= 0) {
+            return;
+        }
+        BigInteger total = activeTotalMap.getOrDefault(deposit.getAgentHash(), BigInteger.ZERO);
+        total = increase ? total.add(deposit.getDeposit()) : total.subtract(deposit.getDeposit());
+        if (total.signum() == 0) {
+            activeTotalMap.remove(deposit.getAgentHash());
+        } else {
+            activeTotalMap.put(deposit.getAgentHash(), total);
+        }
+    }
+
+    private static boolean isValid(Deposit deposit, long height) {
+        if (deposit.getDelHeight() != -1L && deposit.getDelHeight() <= height) {
+            return false;
+        }
+        return deposit.getBlockHeight() <= height && deposit.getBlockHeight() >= 0L;
+    }
+}
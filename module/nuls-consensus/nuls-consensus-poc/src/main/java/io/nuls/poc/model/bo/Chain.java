@@ -2,13 +2,14 @@ package io.nuls.poc.model.bo;
 
 import io.nuls.base.basic.AddressTool;
 import io.nuls.base.data.BlockHeader;
-import io.nuls.base.data.NulsHash;
 import io.nuls.base.data.Transaction;
 import io.nuls.core.log.Log;
 import io.nuls.core.parse.I18nUtils;
+import io.nuls.poc.constant.ConsensusConstant;
 import io.nuls.poc.model.bo.config.ConfigBean;
 import io.nuls.poc.model.bo.consensus.Evidence;
 import io.nuls.poc.model.bo.round.MeetingRound;
+import io.nuls.poc.model.bo.round.MeetingRoundCache;
 import io.nuls.poc.model.bo.tx.txdata.Agent;
 import io.nuls.poc.model.bo.tx.txdata.Deposit;
 import io.nuls.poc.model.po.PunishLogPo;
@@ -72,6 +73,12 @@ public class Chain {
      */
     private List<Deposit> depositList;
 
+    /**
+     * 按节点分组的委托索引
+     * Deposit index grouped by agent
+     */
+    private final AgentDepositIndex depositIndex = new AgentDepositIndex();
+
     /**
      * 黄牌列表
      * Yellow punish list
@@ -105,6 +112,12 @@ public class Chain {
      */
     private List<MeetingRound> roundList;
 
+    /**
+     * 已计算轮次缓存
+     * Calculated round cache
+     */
+    private final MeetingRoundCache roundCache = new MeetingRoundCache(ConsensusConstant.ROUND_CACHE_COUNT);
+
     /**
      * 最新200轮区块头
      * The latest 200 rounds block
@@ -175,14 +188,10 @@ public class Chain {
                 continue;
             }
             /*
-            获取节点委托信息，用于计算节点总的委托金额
-            Get the node delegation information for calculating the total amount of the node delegation
+            获取节点总的委托金额
+            Get the total amount of the node delegation
             */
-            List<Deposit> cdList = getDepositListByAgentId(agent.getTxHash(), height);
-            BigInteger totalDeposit = BigInteger.ZERO;
-            for (Deposit dtx : cdList) {
-                totalDeposit = totalDeposit.add(dtx.getDeposit());
-            }
+            BigInteger totalDeposit = depositIndex.getTotalDeposit(agent.getTxHash(), height);
             if (totalDeposit.compareTo(config.getCommissionMin()) >= 0) {
                 workAgentList.add(agent);
             }
@@ -207,14 +216,10 @@ public class Chain {
                 continue;
             }
             /*
-            获取节点委托信息，用于计算节点总的委托金额
-            Get the node delegation information for calculating the total amount of the node delegation
+            获取节点总的委托金额
+            Get the total amount of the node delegation
             */
-            List<Deposit> cdList = getDepositListByAgentId(agent.getTxHash(), height);
-            BigInteger totalDeposit = BigInteger.ZERO;
-            for (Deposit dtx : cdList) {
-                totalDeposit = totalDeposit.add(dtx.getDeposit());
-            }
+            BigInteger totalDeposit = depositIndex.getTotalDeposit(agent.getTxHash(), height);
             if (totalDeposit.compareTo(config.getCommissionMin()) >= 0) {
                 workAddressList.add(AddressTool.getStringAddressByBytes(agent.getPackingAddress()));
             }
@@ -222,32 +227,6 @@ public class Chain {
         return workAddressList;
     }
 
-    /**
-     * 获取节点的委托信息
-     * Obtaining delegation information of nodes
-     *
-     * @param agentHash        节点ID/agent hash
-     * @param startBlockHeight 上一轮次的起始区块高度/Initial blocks of the last round
-     * @return List<Deposit>
-     */
-    private List<Deposit> getDepositListByAgentId(NulsHash agentHash, long startBlockHeight) {
-        List<Deposit> resultList = new ArrayList<>();
-        for (int i = depositList.size() - 1; i >= 0; i--) {
-            Deposit deposit = depositList.get(i);
-            if (deposit.getDelHeight() != -1L && deposit.getDelHeight() <= startBlockHeight) {
-                continue;
-            }
-            if (deposit.getBlockHeight() > startBlockHeight || deposit.getBlockHeight() < 0L) {
-                continue;
-            }
-            if (deposit.getAgentHash().equals(agentHash)) {
-                resultList.add(deposit);
-            }
-        }
-        return resultList;
-    }
-
-
     public ConfigBean getConfig() {
         return config;
     }
@@ -286,6 +265,11 @@ public class Chain {
 
     public void setDepositList(List<Deposit> depositList) {
         this.depositList = depositList;
+        this.depositIndex.reset(depositList);
+    }
+
+    public AgentDepositIndex getDepositIndex() {
+        return depositIndex;
     }
 
     public List<PunishLogPo> getYellowPunishList() {
@@ -328,6 +312,10 @@ public class Chain {
         this.roundList = roundList;
     }
 
+    public MeetingRoundCache getRoundCache() {
+        return roundCache;
+    }
+
     public BlockHeader getNewestHeader() {
         return newestHeader;
     }
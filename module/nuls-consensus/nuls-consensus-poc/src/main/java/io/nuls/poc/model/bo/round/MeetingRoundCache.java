@@ -0,0 +1,71 @@
+package io.nuls.poc.model.bo.round;
+
+import io.nuls.base.data.NulsHash;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * 已计算轮次缓存
+ * 以轮次下标为键, 保存根据指定起始区块与开始时间计算出的轮次; 轮次成员只由起始区块及之前的数据决定,
+ * 起始区块hash与开始时间相同时可直接复用计算结果
+ * Calculated round cache.
+ * Keyed by round index, holding the round calculated from a given start block and start time. Members only depend on
+ * data up to the start block, so the result can be reused while the start block hash and start time match.
+ */
+public class MeetingRoundCache {
+
+    private final Map<Long, Entry> roundMap;
+
+    public MeetingRoundCache(int capacity) {
+        this.roundMap = new LinkedHashMap<>(capacity * 2) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<Long, Entry> eldest) {
+                return size() > capacity;
+            }
+        };
+    }
+
+    /**
+     * 获取已计算的轮次, 返回的对象只能用来复制, 不能修改
+     * Get the calculated round, the returned object is only used as a template and must not be modified
+     *
+     * @param index          轮次下标/round index
+     * @param startTime      轮次开始时间/round start time
+     * @param startBlockHash 计算使用的起始区块hash/hash of the start block used for calculation
+     * @return MeetingRound
+     */
+    public synchronized MeetingRound get(long index, long startTime, NulsHash startBlockHash) {
+        Entry entry = roundMap.get(index);
+        if (entry == null || entry.round.getStartTime() != startTime || !entry.startBlockHash.equals(startBlockHash)) {
+            return null;
+        }
+        return entry.round;
+    }
+
+    /**
+     * 缓存计算出的轮次, 同一下标只保留最后一次的结果
+     * Cache the calculated round, only the latest result of each index is kept
+     *
+     * @param round          轮次信息/round info
+     * @param startBlockHash 计算使用的起始区块hash/hash of the start block used for calculation
+     */
+    public synchronized void put(MeetingRound round, NulsHash startBlockHash) {
+        roundMap.remove(round.getIndex());
+        roundMap.put(round.getIndex(), new Entry(round, startBlockHash));
+    }
+
+    public synchronized void clear() {
+        roundMap.clear();
+    }
+
+    private static class Entry {
+        private final MeetingRound round;
+        private final NulsHash startBlockHash;
+
+        private Entry(MeetingRound round, NulsHash startBlockHash) {
+            this.round = round;
+            this.startBlockHash = startBlockHash;
+        }
+    }
+}
@@ -11,6 +11,10 @@ public class ValidBlockDTO {
     private int chainId;
     private int download;
     private String block;
+    /**
+     * 梅克尔哈希与区块头签名已由区块模块验证
+     */
+    private boolean preVerified;
 
     public int getChainId() {
         return chainId;
@@ -35,4 +39,12 @@ public class ValidBlockDTO {
     public void setBlock(String block) {
         this.block = block;
     }
+
+    public boolean isPreVerified() {
+        return preVerified;
+    }
+
+    public void setPreVerified(boolean preVerified) {
+        this.preVerified = preVerified;
+    }
 }
@@ -315,16 +315,6 @@ public class AgentManager {
     }
 
     public BigInteger getAgentDeposit(Chain chain, Agent agent) {
-        BigInteger totalDeposit = BigInteger.ZERO;
-        for (Deposit deposit : chain.getDepositList()) {
-            if (!agent.getTxHash().equals(deposit.getAgentHash())) {
-                continue;
-            }
-            if (deposit.getDelHeight() >= 0) {
-                continue;
-            }
-            totalDeposit = totalDeposit.add(deposit.getDeposit());
-        }
-        return totalDeposit;
+        return chain.getDepositIndex().getActiveTotalDeposit(agent.getTxHash());
     }
 }
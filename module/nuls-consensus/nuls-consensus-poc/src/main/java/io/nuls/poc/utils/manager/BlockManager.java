@@ -42,28 +42,46 @@ public class BlockManager {
         BlockExtendsData newestExtendsData = newestHeader.getExtendsData();
         BlockExtendsData receiveExtendsData = blockHeader.getExtendsData();
         long receiveRoundIndex = receiveExtendsData.getRoundIndex();
-        if(chain.getBlockHeaderList().size() >0){
-            BlockExtendsData lastExtendsData = chain.getBlockHeaderList().get(0).getExtendsData();
-            long lastRoundIndex = lastExtendsData.getRoundIndex();
-            if (receiveRoundIndex > newestExtendsData.getRoundIndex() && (receiveRoundIndex - ConsensusConstant.INIT_BLOCK_HEADER_COUNT > lastRoundIndex)) {
-                Iterator<BlockHeader> iterator = chain.getBlockHeaderList().iterator();
-                while (iterator.hasNext()) {
-                    lastExtendsData = iterator.next().getExtendsData();
-                    if (lastExtendsData.getRoundIndex() == lastRoundIndex) {
-                        iterator.remove();
-                    } else if (lastExtendsData.getRoundIndex() > lastRoundIndex) {
-                        break;
+        /*
+        轮次计算会遍历区块头与黄牌缓存，修改缓存时加轮次锁，避免后台预先计算轮次时读到不完整的数据
+        Round calculation iterates the block header and yellow card caches, modify them under the round lock
+        so that the background round precalculation never reads them half updated
+        */
+        chain.getRoundLock().lock();
+        try {
+            if(chain.getBlockHeaderList().size() >0){
+                BlockExtendsData lastExtendsData = chain.getBlockHeaderList().get(0).getExtendsData();
+                long lastRoundIndex = lastExtendsData.getRoundIndex();
+                if (receiveRoundIndex > newestExtendsData.getRoundIndex() && (receiveRoundIndex - ConsensusConstant.INIT_BLOCK_HEADER_COUNT > lastRoundIndex)) {
+                    Iterator<BlockHeader> iterator = chain.getBlockHeaderList().iterator();
+                    while (iterator.hasNext()) {
+                        lastExtendsData = iterator.next().getExtendsData();
+                        if (lastExtendsData.getRoundIndex() == lastRoundIndex) {
+                            iterator.remove();
+                        } else if (lastExtendsData.getRoundIndex() > lastRoundIndex) {
+                            break;
+                        }
                     }
+                    //清理轮次缓存
+                    punishManager.clear(chain);
                 }
-                //清理轮次缓存
-                punishManager.clear(chain);
             }
+            chain.getBlockHeaderList().add(blockHeader);
+            chain.setNewestHeader(blockHeader);
+        } finally {
+            chain.getRoundLock().unlock();
         }
-        chain.getBlockHeaderList().add(blockHeader);
-        chain.setNewestHeader(blockHeader);
         chain.getLogger().info("区块保存，高度为：" + blockHeader.getHeight() + " , txCount: " + blockHeader.getTxCount() + ",本地最新区块高度为：" + chain.getNewestHeader().getHeight() + ", 轮次:" + receiveExtendsData.getRoundIndex());
         //清除已经缓存了的比本节点轮次大的轮次信息
         roundManager.clearRound(chain,receiveRoundIndex);
+        /*
+        收到新轮次的第一个区块后，下一轮次的起始区块已确定，后台预先计算下一轮次
+        After the first block of a new round the start block of the next round is final, precalculate the next round in the background
+        */
+        if (receiveRoundIndex > newestExtendsData.getRoundIndex()) {
+            BlockHeader startBlockHeader = receiveExtendsData.getPackingIndexOfRound() > 1 ? newestHeader : blockHeader;
+            roundManager.precalculateRound(chain, startBlockHeader, receiveRoundIndex + 1, receiveExtendsData.getRoundEndTime(chain.getConfig().getPackingInterval()));
+        }
     }
 
     /**
@@ -3,10 +3,10 @@ package io.nuls.poc.utils.manager;
 import io.nuls.base.basic.AddressTool;
 import io.nuls.base.data.BlockExtendsData;
 import io.nuls.base.data.BlockHeader;
-import io.nuls.base.data.NulsHash;
 import io.nuls.core.core.annotation.Component;
 import io.nuls.core.exception.NulsException;
 import io.nuls.core.log.Log;
+import io.nuls.core.model.ByteArrayWrapper;
 import io.nuls.core.model.DoubleUtils;
 import io.nuls.core.model.StringUtils;
 import io.nuls.core.rpc.util.NulsDateUtils;
@@ -18,11 +18,11 @@ import io.nuls.poc.model.bo.tx.txdata.Agent;
 import io.nuls.poc.model.bo.tx.txdata.Deposit;
 import io.nuls.poc.model.po.PunishLogPo;
 import io.nuls.poc.rpc.call.CallMethodUtils;
-import io.nuls.poc.utils.enumeration.PunishType;
 
 import java.io.IOException;
 import java.math.BigInteger;
 import java.util.*;
+import java.util.concurrent.ScheduledThreadPoolExecutor;
 
 /**
  * 轮次信息管理类
@@ -430,10 +430,7 @@ public class RoundManager {
      */
     @SuppressWarnings("unchecked")
     private MeetingRound calculationRound(Chain chain, BlockHeader startBlockHeader, long index, long startTime) throws Exception {
-        MeetingRound round = new MeetingRound();
-        round.setIndex(index);
-        round.setStartTime(startTime);
-        setMemberList(chain, round, startBlockHeader);
+        MeetingRound round = calculationMembers(chain, startBlockHeader, index, startTime);
         List<byte[]> packingAddressList = CallMethodUtils.getEncryptedAddressList(chain);
         if (!packingAddressList.isEmpty()) {
             round.calcLocalPacker(packingAddressList, chain);
@@ -443,6 +440,86 @@ public class RoundManager {
         return round;
     }
 
+    /**
+     * 计算轮次成员，相同起始区块与开始时间的轮次只计算一次，之后从缓存复制
+     * Calculate round members, a round with the same start block and start time is calculated once and copied from cache afterwards
+     *
+     * @param chain            chain info
+     * @param startBlockHeader 上一轮次的起始区块/Initial blocks of the last round
+     * @param index            轮次下标/round index
+     * @param startTime        轮次开始打包时间/start time
+     * @return MeetingRound
+     */
+    private MeetingRound calculationMembers(Chain chain, BlockHeader startBlockHeader, long index, long startTime) throws NulsException {
+        MeetingRound cachedRound = chain.getRoundCache().get(index, startTime, startBlockHeader.getHash());
+        if (cachedRound != null) {
+            return copyRound(chain, cachedRound);
+        }
+        MeetingRound round = new MeetingRound();
+        round.setIndex(index);
+        round.setStartTime(startTime);
+        setMemberList(chain, round, startBlockHeader);
+        if (round.getMemberList() != null) {
+            chain.getRoundCache().put(copyRound(chain, round), startBlockHeader.getHash());
+        }
+        return round;
+    }
+
+    /**
+     * 后台预先计算下一轮次的成员信息
+     * 收到某轮次的第一个区块后，下一轮次计算所需的起始区块已确定，提前计算并放入缓存，下一轮开始时直接使用
+     * Precalculate the members of the next round in the background.
+     * Once the first block of a round is received the start block of the next round is final,
+     * so the next round is calculated in advance and cached.
+     *
+     * @param chain            chain info
+     * @param startBlockHeader 下一轮次计算使用的起始区块/start block used to calculate the next round
+     * @param index            下一轮次下标/next round index
+     * @param startTime        下一轮次开始时间/next round start time
+     */
+    public void precalculateRound(Chain chain, BlockHeader startBlockHeader, long index, long startTime) {
+        ScheduledThreadPoolExecutor executor = chain.getScheduledThreadPoolExecutor();
+        if (executor == null || chain.getRoundCache().get(index, startTime, startBlockHeader.getHash()) != null) {
+            return;
+        }
+        executor.execute(() -> {
+            chain.getRoundLock().lock();
+            try {
+                calculationMembers(chain, startBlockHeader, index, startTime);
+            } catch (Exception e) {
+                chain.getLogger().error(e);
+            } finally {
+                chain.getRoundLock().unlock();
+            }
+        });
+    }
+
+    /**
+     * 复制轮次信息，成员对象重新创建，节点与委托信息共用
+     * Copy round information, members are recreated while agents and deposits are shared
+     *
+     * @param chain chain info
+     * @param round 被复制的轮次/round to copy
+     * @return MeetingRound
+     */
+    private MeetingRound copyRound(Chain chain, MeetingRound round) {
+        List<MeetingMember> memberList = new ArrayList<>(round.getMemberCount());
+        for (MeetingMember member : round.getMemberList()) {
+            MeetingMember copy = new MeetingMember();
+            copy.setRoundIndex(member.getRoundIndex());
+            copy.setRoundStartTime(member.getRoundStartTime());
+            copy.setAgent(member.getAgent());
+            copy.setDepositList(member.getDepositList());
+            copy.setSortValue(member.getSortValue());
+            memberList.add(copy);
+        }
+        MeetingRound copyRound = new MeetingRound();
+        copyRound.setIndex(round.getIndex());
+        copyRound.setStartTime(round.getStartTime());
+        copyRound.init(memberList, chain);
+        return copyRound;
+    }
+
     /**
      * 设置轮次中打包节点信息
      * Setting Packing Node Information in Rounds
@@ -477,6 +554,15 @@ public class RoundManager {
             }
         }
         List<Agent> agentList = getAliveAgentList(chain, startBlockHeader.getHeight());
+        /*
+        信誉值计算所需的出块数与黄牌数，一次遍历统计出所有地址的数量
+        Count the blocks and yellow cards of all addresses in one pass for credit calculation
+        */
+        BlockExtendsData roundData = startBlockHeader.getExtendsData();
+        long roundStart = Math.max(roundData.getRoundIndex() - ConsensusConstant.RANGE_OF_CAPACITY_COEFFICIENT, 0);
+        long roundEnd = roundData.getRoundIndex() - 1;
+        Map<ByteArrayWrapper, Long> blockCountMap = getBlockCountMap(chain, roundStart, roundEnd);
+        Map<ByteArrayWrapper, Long> punishCountMap = getPunishCountMap(chain, roundStart, roundEnd);
         for (Agent agent : agentList) {
             Agent realAgent = new Agent();
             try {
@@ -492,7 +578,7 @@ public class RoundManager {
             获取节点委托信息，用于计算节点总的委托金额
             Get the node delegation information for calculating the total amount of the node delegation
             */
-            List<Deposit> cdList = getDepositListByAgentId(chain, realAgent.getTxHash(), startBlockHeader.getHeight());
+            List<Deposit> cdList = chain.getDepositIndex().getDepositList(realAgent.getTxHash(), startBlockHeader.getHeight());
             BigInteger totalDeposit = BigInteger.ZERO;
             for (Deposit dtx : cdList) {
                 totalDeposit = totalDeposit.add(dtx.getDeposit());
@@ -508,41 +594,13 @@ public class RoundManager {
             */
             boolean isItIn = realAgent.getTotalDeposit().compareTo(chain.getConfig().getCommissionMin()) >= 0 ? true : false;
             if (isItIn) {
-                realAgent.setCreditVal(calcCreditVal(chain, member, startBlockHeader));
+                realAgent.setCreditVal(calcCreditVal(member, blockCountMap, punishCountMap));
                 memberList.add(member);
             }
         }
         round.init(memberList, chain);
     }
 
-    /**
-     * 获取节点的委托信息
-     * Obtaining delegation information of nodes
-     *
-     * @param chain            chain info
-     * @param agentHash        节点ID/agent hash
-     * @param startBlockHeight 上一轮次的起始区块高度/Initial blocks of the last round
-     * @return List<Deposit>
-     */
-    private List<Deposit> getDepositListByAgentId(Chain chain, NulsHash agentHash, long startBlockHeight) {
-        List<Deposit> depositList = chain.getDepositList();
-        List<Deposit> resultList = new ArrayList<>();
-        for (int i = depositList.size() - 1; i >= 0; i--) {
-            Deposit deposit = depositList.get(i);
-            if (deposit.getDelHeight() != -1L && deposit.getDelHeight() <= startBlockHeight) {
-                continue;
-            }
-            if (deposit.getBlockHeight() > startBlockHeight || deposit.getBlockHeight() < 0L) {
-                continue;
-            }
-            if (!deposit.getAgentHash().equals(agentHash)) {
-                continue;
-            }
-            resultList.add(deposit);
-        }
-        return resultList;
-    }
-
     /**
      * 获取网络中有效的节点列表
      * Getting a list of valid nodes in the network
@@ -572,23 +630,18 @@ public class RoundManager {
      * 计算节点的信誉值
      * Calculating the Node's Credit Value
      *
-     * @param chain       chain info
-     * @param member      打包成员对象/packing info
-     * @param blockHeader 区块头/block header
+     * @param member         打包成员对象/packing info
+     * @param blockCountMap  各出块地址的出块数/block count of packing addresses
+     * @param punishCountMap 各地址的黄牌数/yellow card count of addresses
      * @return double
      */
-    private double calcCreditVal(Chain chain, MeetingMember member, BlockHeader blockHeader) throws NulsException {
-        BlockExtendsData roundData = blockHeader.getExtendsData();
-        long roundStart = roundData.getRoundIndex() - ConsensusConstant.RANGE_OF_CAPACITY_COEFFICIENT;
-        if (roundStart < 0) {
-            roundStart = 0;
-        }
+    private double calcCreditVal(MeetingMember member, Map<ByteArrayWrapper, Long> blockCountMap, Map<ByteArrayWrapper, Long> punishCountMap) {
         /*
         信誉值计算是通过限定轮次内节点出块数与黄牌数计算出的
         Credit value is calculated by limiting the number of blocks and yellow cards of nodes in rounds.
         */
-        long blockCount = getBlockCountByAddress(chain, member.getAgent().getPackingAddress(), roundStart, roundData.getRoundIndex() - 1);
-        long sumRoundVal = getPunishCountByAddress(chain, member.getAgent().getAgentAddress(), roundStart, roundData.getRoundIndex() - 1, PunishType.YELLOW.getCode());
+        long blockCount = blockCountMap.getOrDefault(new ByteArrayWrapper(member.getAgent().getPackingAddress()), 0L);
+        long sumRoundVal = punishCountMap.getOrDefault(new ByteArrayWrapper(member.getAgent().getAgentAddress()), 0L);
         double ability = DoubleUtils.div(blockCount, ConsensusConstant.RANGE_OF_CAPACITY_COEFFICIENT);
         /*double penalty = DoubleUtils.div(DoubleUtils.mul(ConsensusConstant.CREDIT_MAGIC_NUM, sumRoundVal),
                 DoubleUtils.mul(ConsensusConstant.RANGE_OF_CAPACITY_COEFFICIENT, ConsensusConstant.RANGE_OF_CAPACITY_COEFFICIENT));*/
@@ -598,48 +651,34 @@ public class RoundManager {
     }
 
     /**
-     * 获取指定地址获得的红黄牌惩罚数量
-     * Get the number of red and yellow card penalties for the specified address
+     * 统计指定轮次区间内各地址获得的黄牌数量
+     * Count the yellow card penalties of each address in the specified rounds
      *
      * @param chain      chain info
-     * @param address    地址/address
      * @param roundStart 起始轮次/round start index
      * @param roundEnd   结束轮次/round end index
-     * @param code       红黄牌标识/Red and yellow logo
-     * @return long
+     * @return 地址对应的黄牌数/yellow card count of addresses
      */
-    private long getPunishCountByAddress(Chain chain, byte[] address, long roundStart, long roundEnd, int code) throws NulsException {
-        long count = 0;
+    private Map<ByteArrayWrapper, Long> getPunishCountMap(Chain chain, long roundStart, long roundEnd) {
+        Map<ByteArrayWrapper, Long> countMap = new HashMap<>(ConsensusConstant.INIT_CAPACITY);
         List<PunishLogPo> punishList = chain.getYellowPunishList();
-        if (code == PunishType.RED.getCode()) {
-            punishList = chain.getRedPunishList();
-        }
         for (int i = punishList.size() - 1; i >= 0; i--) {
-            if (count >= ConsensusConstant.CREDIT_MAGIC_NUM) {
-                break;
-            }
             PunishLogPo punish = punishList.get(i);
-
             if (punish.getRoundIndex() > roundEnd) {
                 continue;
             }
             if (punish.getRoundIndex() < roundStart) {
                 break;
             }
-            if (Arrays.equals(punish.getAddress(), address)) {
-                count++;
-            }
-        }
-        /*
-        每一轮的惩罚都有可能包含上一轮次的惩罚记录，即计算从a到a+99轮的惩罚记录时，a轮的惩罚中可能是惩罚某个地址在a-1轮未出块，导致100轮最多可能有101个惩罚记录，在这里处理下
-        Each round of punishment is likely to contain a rounds punishment record, calculated from a to a + 99 rounds of punishment record,
-        a round of punishment is likely to be punished in an address in a - 1 round not out of the blocks,
-        lead to round up to 100 May be 101 punishment record, treatment here
-        */
-        if (count > ConsensusConstant.CREDIT_MAGIC_NUM) {
-            return ConsensusConstant.CREDIT_MAGIC_NUM;
+            /*
+            每一轮的惩罚都有可能包含上一轮次的惩罚记录，即计算从a到a+99轮的惩罚记录时，a轮的惩罚中可能是惩罚某个地址在a-1轮未出块，导致100轮最多可能有101个惩罚记录，在这里处理下
+            Each round of punishment is likely to contain a rounds punishment record, calculated from a to a + 99 rounds of punishment record,
+            a round of punishment is likely to be punished in an address in a - 1 round not out of the blocks,
+            lead to round up to 100 May be 101 punishment record, treatment here
+            */
+            countMap.merge(new ByteArrayWrapper(punish.getAddress()), 1L, (oldCount, one) -> Math.min(oldCount + one, ConsensusConstant.CREDIT_MAGIC_NUM));
         }
-        return count;
+        return countMap;
     }
 
 
@@ -703,16 +742,16 @@ public class RoundManager {
     }
 
     /**
-     * 获取地址出块数量
-     * Get the number of address blocks
+     * 统计指定轮次区间内各出块地址的出块数量
+     * Count the blocks of each packing address in the specified rounds
      *
-     * @param chain          chain info
-     * @param packingAddress 出块地址
-     * @param roundStart     起始轮次
-     * @param roundEnd       结束轮次
+     * @param chain      chain info
+     * @param roundStart 起始轮次
+     * @param roundEnd   结束轮次
+     * @return 出块地址对应的出块数/block count of packing addresses
      */
-    private long getBlockCountByAddress(Chain chain, byte[] packingAddress, long roundStart, long roundEnd) {
-        long count = 0;
+    private Map<ByteArrayWrapper, Long> getBlockCountMap(Chain chain, long roundStart, long roundEnd) {
+        Map<ByteArrayWrapper, Long> countMap = new HashMap<>(ConsensusConstant.INIT_CAPACITY);
         List<BlockHeader> blockHeaderList = chain.getBlockHeaderList();
         for (int i = blockHeaderList.size() - 1; i >= 0; i--) {
             BlockHeader blockHeader = blockHeaderList.get(i);
@@ -723,11 +762,12 @@ public class RoundManager {
             if (roundData.getRoundIndex() < roundStart) {
                 break;
             }
-            if (Arrays.equals(blockHeader.getPackingAddress(chain.getConfig().getChainId()), packingAddress)) {
-                count++;
+            byte[] packingAddress = blockHeader.getPackingAddress(chain.getConfig().getChainId());
+            if (packingAddress != null) {
+                countMap.merge(new ByteArrayWrapper(packingAddress), 1L, Long::sum);
             }
         }
-        return count;
+        return countMap;
     }
 
 
@@ -52,18 +52,19 @@ public class BlockValidator {
      * 区块头验证
      * Block verification
      *
-     * @param isDownload block status
-     * @param chain      chain info
-     * @param block      block info
+     * @param isDownload  block status
+     * @param chain       chain info
+     * @param block       block info
+     * @param preVerified 梅克尔哈希与区块头签名已由区块模块验证 / merkle hash and signature already verified by the block module
      */
-    public void validate(boolean isDownload, Chain chain, Block block) throws NulsException, IOException {
+    public void validate(boolean isDownload, Chain chain, Block block, boolean preVerified) throws NulsException, IOException {
         BlockHeader blockHeader = block.getHeader();
         //验证梅克尔哈希]
-        if (!blockHeader.getMerkleHash().equals(NulsHash.calcMerkleHash(block.getTxHashList()))) {
+        if (!preVerified && !blockHeader.getMerkleHash().equals(NulsHash.calcMerkleHash(block.getTxHashList()))) {
             throw new NulsException(ConsensusErrorCode.MERKEL_HASH_ERROR);
         }
         //区块头签名验证
-        if (blockHeader.getBlockSignature().verifySignature(blockHeader.getHash()).isFailed()) {
+        if (!preVerified && blockHeader.getBlockSignature().verifySignature(blockHeader.getHash()).isFailed()) {
             chain.getLogger().error("Block Header Verification Error!");
             throw new NulsException(ConsensusErrorCode.SIGNATURE_ERROR);
         }
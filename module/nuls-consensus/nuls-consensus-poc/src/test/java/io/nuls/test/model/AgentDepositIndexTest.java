@@ -0,0 +1,81 @@
+package io.nuls.test.model;
+
+import io.nuls.base.data.NulsHash;
+import io.nuls.poc.model.bo.AgentDepositIndex;
+import io.nuls.poc.model.bo.tx.txdata.Deposit;
+import org.junit.Assert;
+import org.junit.Test;
+
+import java.math.BigInteger;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * 节点委托索引测试
+ */
+public class AgentDepositIndexTest {
+
+    private final NulsHash agentA = NulsHash.calcHash(new byte[]{1});
+    private final NulsHash agentB = NulsHash.calcHash(new byte[]{2});
+
+    @Test
+    public void heightFilterTest() {
+        AgentDepositIndex index = new AgentDepositIndex();
+        List<Deposit> depositList = new ArrayList<>();
+        Deposit first = deposit(agentA, 1, 10, 100, -1);
+        Deposit second = deposit(agentA, 2, 20, 200, 300);
+        depositList.add(first);
+        depositList.add(deposit(agentB, 3, 30, 100, -1));
+        depositList.add(second);
+        index.reset(depositList);
+
+        Assert.assertTrue(index.getDepositList(agentA, 99).isEmpty());
+        Assert.assertEquals(1, index.getDepositList(agentA, 100).size());
+        //与链委托列表倒序一致
+        List<Deposit> list = index.getDepositList(agentA, 250);
+        Assert.assertSame(second, list.get(0));
+        Assert.assertSame(first, list.get(1));
+        //退出高度及之后不再有效
+        Assert.assertEquals(BigInteger.valueOf(10), index.getTotalDeposit(agentA, 300));
+        Assert.assertEquals(BigInteger.valueOf(30), index.getTotalDeposit(agentA, 299));
+        Assert.assertEquals(BigInteger.valueOf(10), index.getActiveTotalDeposit(agentA));
+        Assert.assertEquals(BigInteger.valueOf(30), index.getActiveTotalDeposit(agentB));
+    }
+
+    @Test
+    public void updateAndRemoveTest() {
+        AgentDepositIndex index = new AgentDepositIndex();
+        Deposit first = deposit(agentA, 1, 10, 100, -1);
+        index.add(first);
+        index.add(deposit(agentA, 2, 20, 100, -1));
+        Assert.assertEquals(BigInteger.valueOf(30), index.getActiveTotalDeposit(agentA));
+
+        //退出委托
+        Assert.assertTrue(index.update(deposit(agentA, 1, 10, 100, 150)));
+        Assert.assertEquals(BigInteger.valueOf(20), index.getActiveTotalDeposit(agentA));
+        Assert.assertEquals(BigInteger.valueOf(30), index.getTotalDeposit(agentA, 149));
+        //回滚退出
+        Assert.assertTrue(index.update(first));
+        Assert.assertEquals(BigInteger.valueOf(30), index.getActiveTotalDeposit(agentA));
+        Assert.assertFalse(index.update(deposit(agentA, 5, 10, 100, -1)));
+
+        index.remove(hash(2));
+        index.remove(hash(1));
+        Assert.assertTrue(index.getDepositList(agentA, 200).isEmpty());
+        Assert.assertEquals(BigInteger.ZERO, index.getActiveTotalDeposit(agentA));
+    }
+
+    private static Deposit deposit(NulsHash agentHash, int txIndex, long amount, long blockHeight, long delHeight) {
+        Deposit deposit = new Deposit();
+        deposit.setAgentHash(agentHash);
+        deposit.setTxHash(hash(txIndex));
+        deposit.setDeposit(BigInteger.valueOf(amount));
+        deposit.setBlockHeight(blockHeight);
+        deposit.setDelHeight(delHeight);
+        return deposit;
+    }
+
+    private static NulsHash hash(int txIndex) {
+        return NulsHash.calcHash(new byte[]{0, (byte) txIndex});
+    }
+}
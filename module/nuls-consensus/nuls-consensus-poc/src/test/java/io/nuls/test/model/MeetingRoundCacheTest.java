@@ -0,0 +1,54 @@
+package io.nuls.test.model;
+
+import io.nuls.base.data.NulsHash;
+import io.nuls.poc.model.bo.round.MeetingRound;
+import io.nuls.poc.model.bo.round.MeetingRoundCache;
+import org.junit.Assert;
+import org.junit.Test;
+
+/**
+ * 已计算轮次缓存测试
+ */
+public class MeetingRoundCacheTest {
+
+    private final NulsHash hashA = NulsHash.calcHash(new byte[]{1});
+    private final NulsHash hashB = NulsHash.calcHash(new byte[]{2});
+
+    @Test
+    public void matchTest() {
+        MeetingRoundCache cache = new MeetingRoundCache(4);
+        MeetingRound round = round(5, 100);
+        cache.put(round, hashA);
+        Assert.assertSame(round, cache.get(5, 100, hashA));
+        //起始区块或开始时间不同时需要重新计算
+        Assert.assertNull(cache.get(5, 100, hashB));
+        Assert.assertNull(cache.get(5, 110, hashA));
+        Assert.assertNull(cache.get(6, 100, hashA));
+
+        //同一下标只保留最后一次的结果
+        MeetingRound other = round(5, 110);
+        cache.put(other, hashB);
+        Assert.assertNull(cache.get(5, 100, hashA));
+        Assert.assertSame(other, cache.get(5, 110, hashB));
+    }
+
+    @Test
+    public void capacityTest() {
+        MeetingRoundCache cache = new MeetingRoundCache(2);
+        cache.put(round(1, 10), hashA);
+        cache.put(round(2, 20), hashA);
+        cache.put(round(3, 30), hashA);
+        Assert.assertNull(cache.get(1, 10, hashA));
+        Assert.assertNotNull(cache.get(2, 20, hashA));
+        Assert.assertNotNull(cache.get(3, 30, hashA));
+        cache.clear();
+        Assert.assertNull(cache.get(3, 30, hashA));
+    }
+
+    private static MeetingRound round(long index, long startTime) {
+        MeetingRound round = new MeetingRound();
+        round.setIndex(index);
+        round.setStartTime(startTime);
+        return round;
+    }
+}
@@ -39,7 +39,7 @@ public class CrossChainProtocolCmd extends BaseCmd {
     public Response getOtherCtx(Map<String,Object> params){
         int chainId = Integer.parseInt(params.get("chainId").toString());
         String nodeId = params.get("nodeId").toString();
-        byte[] decode = RPCUtil.decode(params.get("messageBody").toString());
+        byte[] decode = RPCUtil.decode(params.get("messageBody"));
         GetOtherCtxMessage message = new GetOtherCtxMessage();
         try {
             message.parse(new NulsByteBuffer(decode));
@@ -61,7 +61,7 @@ public class CrossChainProtocolCmd extends BaseCmd {
     public Response getCtxState(Map<String,Object> params){
         int chainId = Integer.parseInt(params.get("chainId").toString());
         String nodeId = params.get("nodeId").toString();
-        byte[] decode = RPCUtil.decode(params.get("messageBody").toString());
+        byte[] decode = RPCUtil.decode(params.get("messageBody"));
         GetCtxStateMessage message = new GetCtxStateMessage();
         try {
             message.parse(new NulsByteBuffer(decode));
@@ -83,7 +83,7 @@ public class CrossChainProtocolCmd extends BaseCmd {
     public Response recvCtxState(Map<String,Object> params){
         int chainId = Integer.parseInt(params.get("chainId").toString());
         String nodeId = params.get("nodeId").toString();
-        byte[] decode = RPCUtil.decode(params.get("messageBody").toString());
+        byte[] decode = RPCUtil.decode(params.get("messageBody"));
         CtxStateMessage message = new CtxStateMessage();
         try {
             message.parse(new NulsByteBuffer(decode));
@@ -105,7 +105,7 @@ public class CrossChainProtocolCmd extends BaseCmd {
     public Response getCirculat(Map<String,Object> params){
         int chainId = Integer.parseInt(params.get("chainId").toString());
         String nodeId = params.get("nodeId").toString();
-        byte[] decode = RPCUtil.decode(params.get("messageBody").toString());
+        byte[] decode = RPCUtil.decode(params.get("messageBody"));
         GetCirculationMessage message = new GetCirculationMessage();
         try {
             message.parse(new NulsByteBuffer(decode));
@@ -128,7 +128,7 @@ public class CrossChainProtocolCmd extends BaseCmd {
     public Response recvOtherCtx(Map<String,Object> params){
         int chainId = Integer.parseInt(params.get("chainId").toString());
         String nodeId = params.get("nodeId").toString();
-        byte[] decode = RPCUtil.decode(params.get("messageBody").toString());
+        byte[] decode = RPCUtil.decode(params.get("messageBody"));
         NewOtherCtxMessage message = new NewOtherCtxMessage();
         try {
             message.parse(new NulsByteBuffer(decode));
@@ -151,7 +151,7 @@ public class CrossChainProtocolCmd extends BaseCmd {
     public Response recvCtxHash(Map<String,Object> params){
         int chainId = Integer.parseInt(params.get("chainId").toString());
         String nodeId = params.get("nodeId").toString();
-        byte[] decode = RPCUtil.decode(params.get("messageBody").toString());
+        byte[] decode = RPCUtil.decode(params.get("messageBody"));
         BroadCtxHashMessage message = new BroadCtxHashMessage();
         try {
             message.parse(new NulsByteBuffer(decode));
@@ -173,7 +173,7 @@ public class CrossChainProtocolCmd extends BaseCmd {
     public Response recvCtxSign(Map<String,Object> params){
         int chainId = Integer.parseInt(params.get("chainId").toString());
         String nodeId = params.get("nodeId").toString();
-        byte[] decode = RPCUtil.decode(params.get("messageBody").toString());
+        byte[] decode = RPCUtil.decode(params.get("messageBody"));
         BroadCtxSignMessage message = new BroadCtxSignMessage();
         try {
             message.parse(new NulsByteBuffer(decode));
@@ -1,6 +1,5 @@
 package io.nuls.crosschain.nuls.rpc.call;
 
-import io.nuls.base.RPCUtil;
 import io.nuls.core.exception.NulsException;
 import io.nuls.core.log.Log;
 import io.nuls.core.parse.JSONUtils;
@@ -75,7 +74,7 @@ public class NetWorkCall {
             params.put(Constants.VERSION_KEY_STR, "1.0");
             params.put(Constants.CHAIN_ID, chainId);
             params.put("excludeNodes", excludeNodes);
-            params.put("messageBody", RPCUtil.encode(message.serialize()));
+            params.put("messageBody", message.serialize());
             params.put("command", command);
             params.put("isCross", isCross);
             Response cmdResp = ResponseMessageProcessor.requestAndResponse(ModuleE.NW.abbr, "nw_broadcast", params, NulsCrossChainConstant.RPC_TIME_OUT);
@@ -104,7 +103,7 @@ public class NetWorkCall {
             params.put(Constants.VERSION_KEY_STR, "1.0");
             params.put(Constants.CHAIN_ID, chainId);
             params.put("nodes", nodeId);
-            params.put("messageBody", RPCUtil.encode(message.serialize()));
+            params.put("messageBody", message.serialize());
             params.put("command", command);
             return ResponseMessageProcessor.requestAndResponse(ModuleE.NW.abbr, "nw_sendPeersMsg", params).isSuccess();
         } catch (Exception e) {
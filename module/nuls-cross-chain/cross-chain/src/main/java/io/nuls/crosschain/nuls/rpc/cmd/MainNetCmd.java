@@ -123,7 +123,7 @@ public class MainNetCmd extends BaseCmd {
     public Response recvCirculat(Map<String,Object> params){
         int chainId = Integer.parseInt(params.get("chainId").toString());
         String nodeId = params.get("nodeId").toString();
-        byte[] decode = RPCUtil.decode(params.get("messageBody").toString());
+        byte[] decode = RPCUtil.decode(params.get("messageBody"));
         CirculationMessage message = new CirculationMessage();
         try {
             message.parse(new NulsByteBuffer(decode));
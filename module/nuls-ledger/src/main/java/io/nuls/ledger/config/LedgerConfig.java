@@ -4,6 +4,7 @@ import io.nuls.core.basic.ModuleConfig;
 import io.nuls.core.core.annotation.Component;
 import io.nuls.core.core.annotation.Configuration;
 import io.nuls.core.rpc.model.ModuleE;
+import io.nuls.ledger.constant.LedgerConstant;
 
 /**
  * @Author: lanjinsheng
@@ -37,6 +38,36 @@ public class LedgerConfig implements ModuleConfig {
      */
     private String dataPath;
 
+    /**
+     * 是否以列族模式打开数据库(所有表共享一个数据库、块缓存与写缓冲)
+     */
+    private boolean dbColumnFamilyMode = false;
+
+    /**
+     * 列族模式下共享块缓存大小(字节)
+     */
+    private long dbBlockCacheSize = 256L * 1024 * 1024;
+
+    /**
+     * 列族模式下所有表memtable总大小上限(字节)
+     */
+    private long dbWriteBufferSize = 64L * 1024 * 1024;
+
+    /**
+     * 每条链已确认账户状态缓存的容量上限, 每个账户按1+冻结记录数计算
+     */
+    private long accountStateCacheSize = 200000;
+
+    /**
+     * 区块账户备份是否使用增量格式, 只保存区块中发生变化的字段
+     */
+    private boolean snapshotDeltaMode = true;
+
+    /**
+     * 保留账户备份的区块数, 即可回滚的区块数
+     */
+    private long snapshotKeepBlocks = LedgerConstant.CACHE_ACCOUNT_BLOCK;
+
     public String getLanguage() {
         return language;
     }
@@ -117,4 +148,52 @@ public class LedgerConfig implements ModuleConfig {
     public void setSymbol(String symbol) {
         this.symbol = symbol;
     }
+
+    public boolean isDbColumnFamilyMode() {
+        return dbColumnFamilyMode;
+    }
+
+    public void setDbColumnFamilyMode(boolean dbColumnFamilyMode) {
+        this.dbColumnFamilyMode = dbColumnFamilyMode;
+    }
+
+    public long getDbBlockCacheSize() {
+        return dbBlockCacheSize;
+    }
+
+    public void setDbBlockCacheSize(long dbBlockCacheSize) {
+        this.dbBlockCacheSize = dbBlockCacheSize;
+    }
+
+    public long getDbWriteBufferSize() {
+        return dbWriteBufferSize;
+    }
+
+    public void setDbWriteBufferSize(long dbWriteBufferSize) {
+        this.dbWriteBufferSize = dbWriteBufferSize;
+    }
+
+    public long getAccountStateCacheSize() {
+        return accountStateCacheSize;
+    }
+
+    public void setAccountStateCacheSize(long accountStateCacheSize) {
+        this.accountStateCacheSize = accountStateCacheSize;
+    }
+
+    public boolean isSnapshotDeltaMode() {
+        return snapshotDeltaMode;
+    }
+
+    public void setSnapshotDeltaMode(boolean snapshotDeltaMode) {
+        this.snapshotDeltaMode = snapshotDeltaMode;
+    }
+
+    public long getSnapshotKeepBlocks() {
+        return snapshotKeepBlocks;
+    }
+
+    public void setSnapshotKeepBlocks(long snapshotKeepBlocks) {
+        this.snapshotKeepBlocks = snapshotKeepBlocks;
+    }
 }
@@ -144,4 +144,9 @@ public interface CmdConstant {
     String CMD_GET_ASSETS_BY_ID = "getAssetsById";
 
     String CMD_GET_ASSET_BY_ID = "getAssetById";
+
+    /**
+     * 获取账户状态缓存统计信息
+     */
+    String CMD_GET_ACCOUNT_STATE_CACHE_INFO = "getAccountStateCacheInfo";
 }
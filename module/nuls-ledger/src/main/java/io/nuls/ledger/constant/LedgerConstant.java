@@ -93,6 +93,12 @@ public class LedgerConstant {
      */
     public static int UNCONFIRM_NONCE_EXPIRED_TIME = 100;
 
+    /**
+     * 区块交易数达到该值时按账户分组并行校验
+     */
+    public static final int PARALLEL_VALIDATE_MIN_TXS = 200;
+    public static final String BLOCK_VALIDATE_THREAD = "ledgerBlockValidate";
+
     public static final String COMMA = ",";
     public static final String COLON = ":";
     public static final String DOWN_LINE = "_";
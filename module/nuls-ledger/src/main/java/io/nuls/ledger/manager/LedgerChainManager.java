@@ -116,7 +116,12 @@ public class LedgerChainManager {
      */
     private void initRocksDb() {
         try {
-            RocksDBService.init(ledgerConfig.getDataPath() + File.separator + ModuleE.LG.name);
+            String dataPath = ledgerConfig.getDataPath() + File.separator + ModuleE.LG.name;
+            if (ledgerConfig.isDbColumnFamilyMode()) {
+                RocksDBService.initColumnFamily(dataPath, ledgerConfig.getDbBlockCacheSize(), ledgerConfig.getDbWriteBufferSize());
+            } else {
+                RocksDBService.init(dataPath);
+            }
             Repository initDB = SpringLiteContext.getBean(RepositoryImpl.class);
             initDB.initTableName();
         } catch (Exception e) {
@@ -0,0 +1,80 @@
+/*-
+ * ⁣⁣
+ * MIT License
+ * ⁣⁣
+ * Copyright (C) 2017 - 2018 nuls.io
+ * ⁣⁣
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ * ⁣⁣
+ */
+package io.nuls.ledger.model.po;
+
+import io.nuls.base.basic.NulsByteBuffer;
+import io.nuls.base.basic.NulsOutputStreamBuffer;
+import io.nuls.base.data.BaseNulsData;
+import io.nuls.core.exception.NulsException;
+import io.nuls.core.parse.SerializeUtils;
+import io.nuls.ledger.model.po.sub.AccountStateDelta;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * 区块中账户信息的增量备份, 与BlockSnapshotAccounts对应
+ */
+public class BlockSnapshotDelta extends BaseNulsData {
+
+    private List<AccountStateDelta> accounts = new ArrayList<>();
+
+    public void addAccountDelta(AccountStateDelta accountStateDelta) {
+        accounts.add(accountStateDelta);
+    }
+
+    public List<AccountStateDelta> getAccounts() {
+        return accounts;
+    }
+
+    @Override
+    protected void serializeToStream(NulsOutputStreamBuffer stream) throws IOException {
+        stream.writeVarInt(accounts.size());
+        for (AccountStateDelta accountStateDelta : accounts) {
+            stream.writeNulsData(accountStateDelta);
+        }
+    }
+
+    @Override
+    public void parse(NulsByteBuffer byteBuffer) throws NulsException {
+        int accountsCount = (int) byteBuffer.readVarInt();
+        for (int i = 0; i < accountsCount; i++) {
+            AccountStateDelta accountStateDelta = new AccountStateDelta();
+            byteBuffer.readNulsData(accountStateDelta);
+            this.accounts.add(accountStateDelta);
+        }
+    }
+
+    @Override
+    public int size() {
+        int size = SerializeUtils.sizeOfVarInt(accounts.size());
+        for (AccountStateDelta accountStateDelta : accounts) {
+            size += accountStateDelta.size();
+        }
+        return size;
+    }
+}
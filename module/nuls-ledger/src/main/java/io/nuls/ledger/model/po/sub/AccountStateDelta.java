@@ -0,0 +1,289 @@
+/*-
+ * ⁣⁣
+ * MIT License
+ * ⁣⁣
+ * Copyright (C) 2017 - 2018 nuls.io
+ * ⁣⁣
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ * ⁣⁣
+ */
+package io.nuls.ledger.model.po.sub;
+
+import io.nuls.base.basic.AddressTool;
+import io.nuls.base.basic.NulsByteBuffer;
+import io.nuls.base.basic.NulsOutputStreamBuffer;
+import io.nuls.base.data.BaseNulsData;
+import io.nuls.core.exception.NulsException;
+import io.nuls.core.parse.SerializeUtils;
+import io.nuls.ledger.constant.LedgerConstant;
+import io.nuls.ledger.model.po.AccountState;
+
+import java.io.IOException;
+import java.math.BigInteger;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * 账户在某高度的增量备份, 只保存区块中发生变化的字段在区块执行前的值
+ * 回滚时在账户当前状态上还原这些字段即可得到区块执行前的状态, 对区块执行前后的状态重复还原结果相同
+ * Delta backup of an account at a height, only the pre-block values of the fields changed by the block are kept.
+ * Restoring them onto the current state gives the pre-block state, applying it to either the pre or post state yields the same result.
+ */
+public class AccountStateDelta extends BaseNulsData {
+
+    private static final int NONCE_CHANGED = 1;
+    private static final int FROM_AMOUNT_CHANGED = 1 << 1;
+    private static final int TO_AMOUNT_CHANGED = 1 << 2;
+    private static final int HEIGHT_STATES_CHANGED = 1 << 3;
+    private static final int LOCK_TIME_STATES_CHANGED = 1 << 4;
+
+    private byte[] address;
+
+    private int addressChainId;
+
+    private int assetChainId;
+
+    private int assetId;
+
+    private int flags;
+
+    private long latestUnFreezeTime;
+
+    private byte[] nonce;
+
+    private BigInteger totalFromAmount;
+
+    private BigInteger totalToAmount;
+
+    private List<FreezeHeightState> freezeHeightStates;
+
+    private List<FreezeLockTimeState> freezeLockTimeStates;
+
+    /**
+     * 区块中对应账户的所有nonce值集合
+     */
+    private List<AmountNonce> nonces = new ArrayList<>();
+
+    public AccountStateDelta() {
+        super();
+    }
+
+    /**
+     * @param snapshot 区块执行前的账户备份
+     * @param now      区块执行后的账户状态
+     */
+    public AccountStateDelta(AccountStateSnapshot snapshot, AccountState now) throws IOException {
+        AccountState pre = snapshot.getAccountState();
+        this.address = AddressTool.getAddressByRealAddr(snapshot.getAddress());
+        this.addressChainId = snapshot.getAddressChainId();
+        this.assetChainId = snapshot.getAssetChainId();
+        this.assetId = snapshot.getAssetId();
+        this.latestUnFreezeTime = pre.getLatestUnFreezeTime();
+        this.nonces = snapshot.getNonces();
+        if (!Arrays.equals(pre.getNonce(), now.getNonce())) {
+            flags |= NONCE_CHANGED;
+            this.nonce = pre.getNonce();
+        }
+        if (pre.getTotalFromAmount().compareTo(now.getTotalFromAmount()) != 0) {
+            flags |= FROM_AMOUNT_CHANGED;
+            this.totalFromAmount = pre.getTotalFromAmount();
+        }
+        if (pre.getTotalToAmount().compareTo(now.getTotalToAmount()) != 0) {
+            flags |= TO_AMOUNT_CHANGED;
+            this.totalToAmount = pre.getTotalToAmount();
+        }
+        if (!sameStates(pre.getFreezeHeightStates(), now.getFreezeHeightStates())) {
+            flags |= HEIGHT_STATES_CHANGED;
+            this.freezeHeightStates = pre.getFreezeHeightStates();
+        }
+        if (!sameStates(pre.getFreezeLockTimeStates(), now.getFreezeLockTimeStates())) {
+            flags |= LOCK_TIME_STATES_CHANGED;
+            this.freezeLockTimeStates = pre.getFreezeLockTimeStates();
+        }
+    }
+
+    private static boolean sameStates(List<? extends BaseNulsData> pre, List<? extends BaseNulsData> now) throws IOException {
+        if (pre.size() != now.size()) {
+            return false;
+        }
+        for (int i = 0; i < pre.size(); i++) {
+            if (pre.get(i) != now.get(i) && !Arrays.equals(pre.get(i).serialize(), now.get(i).serialize())) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * 在账户当前状态上还原为区块执行前的备份
+     *
+     * @param current 账户当前状态, 不会被修改
+     * @return AccountStateSnapshot
+     */
+    public AccountStateSnapshot toSnapshot(AccountState current) {
+        AccountState pre = current.deepClone();
+        pre.setLatestUnFreezeTime(latestUnFreezeTime);
+        if ((flags & NONCE_CHANGED) != 0) {
+            pre.setNonce(nonce);
+        }
+        if ((flags & FROM_AMOUNT_CHANGED) != 0) {
+            pre.setTotalFromAmount(totalFromAmount);
+        }
+        if ((flags & TO_AMOUNT_CHANGED) != 0) {
+            pre.setTotalToAmount(totalToAmount);
+        }
+        if ((flags & HEIGHT_STATES_CHANGED) != 0) {
+            pre.setFreezeHeightStates(new ArrayList<>(freezeHeightStates));
+        }
+        if ((flags & LOCK_TIME_STATES_CHANGED) != 0) {
+            pre.setFreezeLockTimeStates(new ArrayList<>(freezeLockTimeStates));
+        }
+        AccountStateSnapshot snapshot = new AccountStateSnapshot(addressChainId, assetChainId, assetId, getAddressStr(), pre);
+        snapshot.setNonces(nonces);
+        return snapshot;
+    }
+
+    @Override
+    protected void serializeToStream(NulsOutputStreamBuffer stream) throws IOException {
+        stream.writeBytesWithLength(address);
+        stream.writeUint16(addressChainId);
+        stream.writeUint16(assetChainId);
+        stream.writeUint16(assetId);
+        stream.writeUint8((short) flags);
+        stream.writeUint32(latestUnFreezeTime);
+        if ((flags & NONCE_CHANGED) != 0) {
+            stream.write(nonce);
+        }
+        if ((flags & FROM_AMOUNT_CHANGED) != 0) {
+            stream.writeBytesWithLength(totalFromAmount.toByteArray());
+        }
+        if ((flags & TO_AMOUNT_CHANGED) != 0) {
+            stream.writeBytesWithLength(totalToAmount.toByteArray());
+        }
+        if ((flags & HEIGHT_STATES_CHANGED) != 0) {
+            stream.writeVarInt(freezeHeightStates.size());
+            for (FreezeHeightState heightState : freezeHeightStates) {
+                stream.writeNulsData(heightState);
+            }
+        }
+        if ((flags & LOCK_TIME_STATES_CHANGED) != 0) {
+            stream.writeVarInt(freezeLockTimeStates.size());
+            for (FreezeLockTimeState lockTimeState : freezeLockTimeStates) {
+                stream.writeNulsData(lockTimeState);
+            }
+        }
+        stream.writeVarInt(nonces.size());
+        for (AmountNonce amountNonce : nonces) {
+            stream.writeNulsData(amountNonce);
+        }
+    }
+
+    @Override
+    public void parse(NulsByteBuffer byteBuffer) throws NulsException {
+        this.address = byteBuffer.readByLengthByte();
+        this.addressChainId = byteBuffer.readUint16();
+        this.assetChainId = byteBuffer.readUint16();
+        this.assetId = byteBuffer.readUint16();
+        this.flags = byteBuffer.readUint8();
+        this.latestUnFreezeTime = byteBuffer.readUint32();
+        if ((flags & NONCE_CHANGED) != 0) {
+            this.nonce = byteBuffer.readBytes(LedgerConstant.NONCE_LENGHT);
+        }
+        if ((flags & FROM_AMOUNT_CHANGED) != 0) {
+            this.totalFromAmount = new BigInteger(byteBuffer.readByLengthByte());
+        }
+        if ((flags & TO_AMOUNT_CHANGED) != 0) {
+            this.totalToAmount = new BigInteger(byteBuffer.readByLengthByte());
+        }
+        if ((flags & HEIGHT_STATES_CHANGED) != 0) {
+            int count = (int) byteBuffer.readVarInt();
+            this.freezeHeightStates = new ArrayList<>(count);
+            for (int i = 0; i < count; i++) {
+                FreezeHeightState heightState = new FreezeHeightState();
+                byteBuffer.readNulsData(heightState);
+                this.freezeHeightStates.add(heightState);
+            }
+        }
+        if ((flags & LOCK_TIME_STATES_CHANGED) != 0) {
+            int count = (int) byteBuffer.readVarInt();
+            this.freezeLockTimeStates = new ArrayList<>(count);
+            for (int i = 0; i < count; i++) {
+                FreezeLockTimeState lockTimeState = new FreezeLockTimeState();
+                byteBuffer.readNulsData(lockTimeState);
+                this.freezeLockTimeStates.add(lockTimeState);
+            }
+        }
+        int nonceCount = (int) byteBuffer.readVarInt();
+        this.nonces = new ArrayList<>(nonceCount);
+        for (int i = 0; i < nonceCount; i++) {
+            AmountNonce amountNonce = new AmountNonce();
+            byteBuffer.readNulsData(amountNonce);
+            this.nonces.add(amountNonce);
+        }
+    }
+
+    @Override
+    public int size() {
+        int size = 0;
+        size += SerializeUtils.sizeOfBytes(address);
+        //addressChainId, assetChainId, assetId
+        size += SerializeUtils.sizeOfUint16() * 3;
+        size += SerializeUtils.sizeOfUint8();
+        size += SerializeUtils.sizeOfUint32();
+        if ((flags & NONCE_CHANGED) != 0) {
+            size += LedgerConstant.NONCE_LENGHT;
+        }
+        if ((flags & FROM_AMOUNT_CHANGED) != 0) {
+            size += SerializeUtils.sizeOfBytes(totalFromAmount.toByteArray());
+        }
+        if ((flags & TO_AMOUNT_CHANGED) != 0) {
+            size += SerializeUtils.sizeOfBytes(totalToAmount.toByteArray());
+        }
+        if ((flags & HEIGHT_STATES_CHANGED) != 0) {
+            size += SerializeUtils.sizeOfVarInt(freezeHeightStates.size());
+            for (FreezeHeightState heightState : freezeHeightStates) {
+                size += SerializeUtils.sizeOfNulsData(heightState);
+            }
+        }
+        if ((flags & LOCK_TIME_STATES_CHANGED) != 0) {
+            size += SerializeUtils.sizeOfVarInt(freezeLockTimeStates.size());
+            for (FreezeLockTimeState lockTimeState : freezeLockTimeStates) {
+                size += SerializeUtils.sizeOfNulsData(lockTimeState);
+            }
+        }
+        size += SerializeUtils.sizeOfVarInt(nonces.size());
+        for (AmountNonce amountNonce : nonces) {
+            size += SerializeUtils.sizeOfNulsData(amountNonce);
+        }
+        return size;
+    }
+
+    public String getAddressStr() {
+        return AddressTool.getStringAddressNoPrefix(address);
+    }
+
+    public int getAssetChainId() {
+        return assetChainId;
+    }
+
+    public int getAssetId() {
+        return assetId;
+    }
+}
@@ -40,6 +40,7 @@ import io.nuls.ledger.model.po.sub.FreezeHeightState;
 import io.nuls.ledger.model.po.sub.FreezeLockTimeState;
 import io.nuls.ledger.service.AccountStateService;
 import io.nuls.ledger.service.UnconfirmedStateService;
+import io.nuls.ledger.storage.Repository;
 import io.nuls.ledger.utils.LedgerUtil;
 import io.nuls.ledger.utils.LoggerUtil;
 
@@ -62,6 +63,8 @@ public class AccountStateCmd extends BaseLedgerCmd {
     @Autowired
     private AccountStateService accountStateService;
     @Autowired
+    private Repository repository;
+    @Autowired
     private UnconfirmedStateService unconfirmedStateService;
 
     /**
@@ -359,4 +362,32 @@ public class AccountStateCmd extends BaseLedgerCmd {
         return response;
     }
 
+    /**
+     * 获取已确认账户状态缓存的统计信息
+     * get confirmed account state cache statistics
+     *
+     * @param params
+     * @return
+     */
+    @CmdAnnotation(cmd = CmdConstant.CMD_GET_ACCOUNT_STATE_CACHE_INFO, version = 1.0,
+            description = "获取账户状态缓存统计信息")
+    @Parameters(value = {
+            @Parameter(parameterName = "chainId", requestType = @TypeDescriptor(value = int.class), parameterValidRange = "[1-65535]", parameterDes = "运行链Id,取值区间[1-65535]")
+    })
+    @ResponseData(name = "返回值", description = "返回一个Map对象",
+            responseType = @TypeDescriptor(value = Map.class, mapKeys = {
+                    @Key(name = "size", valueType = Long.class, description = "缓存账户数"),
+                    @Key(name = "hitCount", valueType = Long.class, description = "命中次数"),
+                    @Key(name = "missCount", valueType = Long.class, description = "未命中次数"),
+                    @Key(name = "evictionCount", valueType = Long.class, description = "淘汰次数"),
+                    @Key(name = "hitRate", valueType = Double.class, description = "命中率")
+            })
+    )
+    public Response getAccountStateCacheInfo(Map params) {
+        Integer chainId = (Integer) params.get("chainId");
+        if (!chainHanlder(chainId)) {
+            return failed(LedgerErrorCode.CHAIN_INIT_FAIL);
+        }
+        return success(repository.getAccountStateCacheStats(chainId));
+    }
 }
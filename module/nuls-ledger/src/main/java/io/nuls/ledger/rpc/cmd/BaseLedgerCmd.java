@@ -58,9 +58,10 @@ public class BaseLedgerCmd extends BaseCmd {
         return true;
     }
 
-    Response parseTxs(List<String> txStrList, List<Transaction> txList, int chainId) {
-        for (String txStr : txStrList) {
-            Transaction tx = RPCUtil.getInstanceRpcStr(txStr, Transaction.class);
+    Response parseTxs(List<?> txDataList, List<Transaction> txList, int chainId) {
+        //二进制帧连接中交易为byte[]，文本帧连接中为hex字符串
+        for (Object txData : txDataList) {
+            Transaction tx = RPCUtil.getInstanceRpcData(txData, Transaction.class);
             if (null == tx) {
                 return failed(LedgerErrorCode.TX_IS_WRONG);
             } else {
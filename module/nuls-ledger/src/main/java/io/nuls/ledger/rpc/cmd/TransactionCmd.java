@@ -168,7 +168,7 @@ public class TransactionCmd extends BaseLedgerCmd {
             description = "提交区块")
     @Parameters(value = {
             @Parameter(parameterName = "chainId", requestType = @TypeDescriptor(value = int.class), parameterValidRange = "[1-65535]", parameterDes = "运行的链Id,取值区间[1-65535]"),
-            @Parameter(parameterName = "txList", requestType = @TypeDescriptor(value = List.class, collectionElement = String.class), parameterDes = "交易Hex值列表"),
+            @Parameter(parameterName = "txList", requestType = @TypeDescriptor(value = List.class, collectionElement = String.class), parameterDes = "交易列表, 二进制帧中为byte[], 文本帧中为Hex"),
             @Parameter(parameterName = "blockHeight", requestType = @TypeDescriptor(value = long.class), parameterDes = "区块高度")
     })
     @ResponseData(name = "返回值", description = "返回一个Map对象",
@@ -183,7 +183,7 @@ public class TransactionCmd extends BaseLedgerCmd {
             return failed(LedgerErrorCode.CHAIN_INIT_FAIL);
         }
         long blockHeight = Long.valueOf(params.get("blockHeight").toString());
-        List<String> txStrList = (List) params.get("txList");
+        List<Object> txStrList = (List) params.get("txList");
         LoggerUtil.logger(chainId).info("commitBlockTxs chainId={},blockHeight={},txs={}", chainId, blockHeight,txStrList.size());
         if (null == txStrList || 0 == txStrList.size()) {
             LoggerUtil.logger(chainId).error("txList is blank");
@@ -291,7 +291,7 @@ public class TransactionCmd extends BaseLedgerCmd {
             description = "区块回滚")
     @Parameters(value = {
             @Parameter(parameterName = "chainId", requestType = @TypeDescriptor(value = int.class), parameterValidRange = "[1-65535]", parameterDes = "运行的链Id,取值区间[1-65535]"),
-            @Parameter(parameterName = "txList", requestType = @TypeDescriptor(value = List.class, collectionElement = String.class), parameterDes = "[]交易Hex值列表"),
+            @Parameter(parameterName = "txList", requestType = @TypeDescriptor(value = List.class, collectionElement = String.class), parameterDes = "[]交易列表, 二进制帧中为byte[], 文本帧中为Hex"),
             @Parameter(parameterName = "blockHeight", parameterType = "long", parameterDes = "区块高度")
     })
     @ResponseData(name = "返回值", description = "返回一个Map对象",
@@ -308,7 +308,7 @@ public class TransactionCmd extends BaseLedgerCmd {
         }
         try {
             long blockHeight = Long.valueOf(params.get("blockHeight").toString());
-            List<String> txStrList = (List) params.get("txList");
+            List<Object> txStrList = (List) params.get("txList");
             if (null == txStrList || 0 == txStrList.size()) {
                 LoggerUtil.logger(chainId).error("txList is blank");
                 return failed("txList is blank");
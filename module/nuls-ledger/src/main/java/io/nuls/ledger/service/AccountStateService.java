@@ -61,6 +61,17 @@ public interface AccountStateService {
      */
     AccountState getAccountStateReCal(String address, int addressChainId, int assetChainId, int assetId);
 
+    /**
+     * 批量获取账本信息并重新计算冻结的金额, 直接读库不经过缓存, 避免全量扫描挤出缓存中的热点账户
+     *
+     * @param addresses
+     * @param addressChainId
+     * @param assetChainId
+     * @param assetId
+     * @return 存在的账户的账本信息
+     */
+    List<AccountState> getAccountStatesReCal(List<String> addresses, int addressChainId, int assetChainId, int assetId);
+
     /**
      * 回滚账户信息
      *
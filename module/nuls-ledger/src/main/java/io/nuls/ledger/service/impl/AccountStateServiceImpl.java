@@ -43,6 +43,7 @@ import io.nuls.ledger.storage.UnconfirmedRepository;
 import io.nuls.ledger.utils.LedgerUtil;
 
 import java.math.BigInteger;
+import java.util.ArrayList;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
@@ -69,12 +70,13 @@ public class AccountStateServiceImpl implements AccountStateService {
     public void rollAccountState(int chainId, List<AccountStateSnapshot> preAccountStates) throws Exception {
         //获取当前数据库值
         Map<byte[], byte[]> accountStates = new HashMap<>(preAccountStates.size());
-        Map<String, AccountState> accountStatesMem = new HashMap<>(preAccountStates.size());
+        Map<byte[], AccountState> accountStatesMem = new HashMap<>(preAccountStates.size());
         for (AccountStateSnapshot accountStateSnapshot : preAccountStates) {
             String assetKey = LedgerUtil.getKeyStr(accountStateSnapshot.getAddress(),
                     accountStateSnapshot.getAssetChainId(), accountStateSnapshot.getAssetId());
-            accountStates.put(assetKey.getBytes(LedgerConstant.DEFAULT_ENCODING), accountStateSnapshot.getAccountState().serialize());
-            accountStatesMem.put(assetKey, accountStateSnapshot.getAccountState());
+            byte[] key = assetKey.getBytes(LedgerConstant.DEFAULT_ENCODING);
+            accountStates.put(key, accountStateSnapshot.getAccountState().serialize());
+            accountStatesMem.put(key, accountStateSnapshot.getAccountState());
             //获取当前数据库值
             Map<String, TxUnconfirmed> unconfirmedNonces = new HashMap<>(64);
             AccountStateUnconfirmed accountStateUnconfirmed = new AccountStateUnconfirmed();
@@ -112,13 +114,8 @@ public class AccountStateServiceImpl implements AccountStateService {
      */
     @Override
     public AccountState getAccountState(String address, int addressChainId, int assetChainId, int assetId) {
-        //尝试缓存获取
-        AccountState accountState = repository.getAccountStateByMemory(addressChainId, LedgerUtil.getKeyStr(address, assetChainId, assetId));
-        if (null != accountState) {
-            return accountState;
-        }
-        byte[] key = LedgerUtil.getKey(address, assetChainId, assetId);
-        accountState = repository.getAccountState(addressChainId, key);
+        //缓存获取, 只读不修改, 直接使用缓存中的对象
+        AccountState accountState = repository.getAccountStateByMemory(addressChainId, LedgerUtil.getKey(address, assetChainId, assetId));
         if (null == accountState) {
             accountState = new AccountState(LedgerConstant.getInitNonceByte());
         }
@@ -134,17 +131,12 @@ public class AccountStateServiceImpl implements AccountStateService {
      */
     @Override
     public AccountState getAccountStateReCal(String address, int addressChainId, int assetChainId, int assetId) {
-        //尝试缓存获取
-        AccountState accountState = repository.getAccountStateByMemory(addressChainId, LedgerUtil.getKeyStr(address, assetChainId, assetId));
+        //缓存获取, 调用方会修改返回的对象, 复制一份
+        AccountState accountState = repository.getAccountStateByMemory(addressChainId, LedgerUtil.getKey(address, assetChainId, assetId));
         if (null == accountState) {
-            //账户处理锁
-            byte[] key = LedgerUtil.getKey(address, assetChainId, assetId);
-            accountState = repository.getAccountState(addressChainId, key);
-            if (null == accountState) {
-                accountState = new AccountState(LedgerConstant.getInitNonceByte());
-                return accountState;
-            }
+            return new AccountState(LedgerConstant.getInitNonceByte());
         }
+        accountState = accountState.deepClone();
         //解冻时间高度锁
         if (accountState.timeAllow()) {
             freezeStateService.recalculateFreeze(addressChainId, accountState);
@@ -153,5 +145,23 @@ public class AccountStateServiceImpl implements AccountStateService {
         return accountState;
     }
 
+    @Override
+    public List<AccountState> getAccountStatesReCal(List<String> addresses, int addressChainId, int assetChainId, int assetId) {
+        List<byte[]> keys = new ArrayList<>(addresses.size());
+        for (String address : addresses) {
+            keys.add(LedgerUtil.getKey(address, assetChainId, assetId));
+        }
+        //数据库读取的是新对象, 不需要复制
+        List<AccountState> accountStates = repository.getAccountStates(addressChainId, keys);
+        for (AccountState accountState : accountStates) {
+            //解冻时间高度锁
+            if (accountState.timeAllow()) {
+                freezeStateService.recalculateFreeze(addressChainId, accountState);
+                accountState.setLatestUnFreezeTime(NulsDateUtils.getCurrentTimeSeconds());
+            }
+        }
+        return accountStates;
+    }
+
 
 }
@@ -171,6 +171,7 @@ public class AssetRegMngServiceImpl implements AssetRegMngService {
         int assetId = getRegAssetId(chainId);
         LoggerUtil.COMMON_LOG.info("1=assetId={}" + assetId);
         Map<byte[], byte[]> accountStatesMap = new HashMap<>(ledgerAssets.size());
+        Map<byte[], AccountState> accountStatesMem = new HashMap<>(ledgerAssets.size());
         Map<String, List<String>> assetAddressIndex = new HashMap<>(4);
         for (LedgerAsset ledgerAsset : ledgerAssets) {
             ledgerAsset.setAssetType(LedgerConstant.COMMON_ASSET_TYPE);
@@ -185,7 +186,9 @@ public class AssetRegMngServiceImpl implements AssetRegMngService {
             long decimal = (long) Math.pow(10, Integer.valueOf(ledgerAsset.getDecimalPlace()));
             BigInteger amount = ledgerAsset.getInitNumber().multiply(BigInteger.valueOf(decimal));
             accountState.setTotalToAmount(amount);
-            accountStatesMap.put(key.getBytes(LedgerConstant.DEFAULT_ENCODING), accountState.serialize());
+            byte[] keyBytes = key.getBytes(LedgerConstant.DEFAULT_ENCODING);
+            accountStatesMap.put(keyBytes, accountState.serialize());
+            accountStatesMem.put(keyBytes, accountState);
             LedgerUtil.dealAssetAddressIndex(assetAddressIndex, chainId, ledgerAsset.getAssetId(), address);
         }
         assetRegMngRepository.batchSaveLedgerAssetReg(chainId, assets, hashMap);
@@ -193,9 +196,9 @@ public class AssetRegMngServiceImpl implements AssetRegMngService {
         //资产信息入账本
         //更新链下资产种类，及资产地址集合数据。
         chainAssetsService.updateChainAssets(chainId, assetAddressIndex);
-        //更新账本
+        //更新账本, 同步更新账户状态缓存
         if (accountStatesMap.size() > 0) {
-            assetRegMngRepository.batchUpdateAccountState(chainId, accountStatesMap);
+            repository.batchUpdateAccountState(chainId, accountStatesMap, accountStatesMem);
         }
     }
 
@@ -203,19 +206,18 @@ public class AssetRegMngServiceImpl implements AssetRegMngService {
     public void rollBackTxAssets(int chainId, List<LedgerAsset> ledgerAssets) throws Exception {
         List<byte[]> list = new ArrayList<>();
         List<byte[]> delKeys = new ArrayList<>();
-        Map<String, AccountState> delMap = new ConcurrentHashMap<>();
         for (LedgerAsset ledgerAsset : ledgerAssets) {
             byte[] hash = HexUtil.decode(ledgerAsset.getTxHash());
             list.add(hash);
             int assetId = assetRegMngRepository.getLedgerAssetIdByHash(chainId, hash);
             String address = LedgerUtil.getRealAddressStr(ledgerAsset.getAssetOwnerAddress());
             String key = LedgerUtil.getKeyStr(address, chainId, assetId);
-            delMap.put(key, new AccountState());
             delKeys.add(key.getBytes(LedgerConstant.DEFAULT_ENCODING));
         }
-        repository.clearAccountStateMem(chainId, delMap);
         assetRegMngRepository.batchRollBackLedgerAssetReg(chainId, list);
         assetRegMngRepository.batchDelAccountState(chainId, delKeys);
+        //先删库再清理缓存
+        repository.clearAccountStateMem(chainId, delKeys);
         //回滚资产后，进行缓存数据重置
         initDBAssetsIdMap();
     }
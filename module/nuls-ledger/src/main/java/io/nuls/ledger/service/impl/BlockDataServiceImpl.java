@@ -29,6 +29,7 @@ import io.nuls.core.core.annotation.Autowired;
 import io.nuls.core.core.annotation.Component;
 import io.nuls.core.log.Log;
 import io.nuls.core.model.ByteUtils;
+import io.nuls.ledger.config.LedgerConfig;
 import io.nuls.ledger.constant.LedgerConstant;
 import io.nuls.ledger.model.ChainHeight;
 import io.nuls.ledger.model.po.BlockSnapshotAccounts;
@@ -63,6 +64,8 @@ public class BlockDataServiceImpl implements BlockDataService {
     @Autowired
     private AccountStateService accountStateService;
     @Autowired
+    private LedgerConfig ledgerConfig;
+    @Autowired
     private ChainAssetsService chainAssetsService;
     @Autowired
     private TransactionService transactionService;
@@ -184,9 +187,10 @@ public class BlockDataServiceImpl implements BlockDataService {
         if (height > LedgerConstant.CACHE_NONCE_INFO_BLOCK) {
             lgBlockSyncRepository.delBlockSnapshotTxs(addressChainId, (height - LedgerConstant.CACHE_NONCE_INFO_BLOCK));
         }
-        if (height > LedgerConstant.CACHE_ACCOUNT_BLOCK) {
+        long keepBlocks = ledgerConfig.getSnapshotKeepBlocks();
+        if (height > keepBlocks) {
             try {
-                repository.delBlockSnapshot(addressChainId, (height - LedgerConstant.CACHE_ACCOUNT_BLOCK));
+                repository.delBlockSnapshot(addressChainId, (height - keepBlocks));
             } catch (Exception e) {
                 LoggerUtil.logger(addressChainId).error(e);
             }
@@ -49,6 +49,11 @@ import java.util.Map;
 @Component
 public class ChainAssetsServiceImpl implements ChainAssetsService {
 
+    /**
+     * 统计资产总量时每批读取的地址数
+     */
+    private static final int ADDRESS_SCAN_BATCH_SIZE = 1000;
+
     @Autowired
     AccountIndexRepository accountIndexRepository;
     @Autowired
@@ -106,20 +111,19 @@ public class ChainAssetsServiceImpl implements ChainAssetsService {
 
     @Override
     public Map<String, Object> getAssetByChainAssetId(int addressChainId, int assetChainId, int assetId) {
-        List<String> addressKeys = accountIndexRepository.assetsAddressKeyList(addressChainId, assetChainId, assetId);
         Map<String, Object> asset = new HashMap<>();
-        BigInteger amount = BigInteger.ZERO;
-        BigInteger freeze = BigInteger.ZERO;
-        if (null != addressKeys) {
-            for (String addressKey : addressKeys) {
-                AccountState accountState = accountStateService.getAccountStateReCal(addressKey, addressChainId, assetChainId, assetId);
-                amount = amount.add(accountState.getAvailableAmount());
-                freeze = freeze.add(accountState.getFreezeTotal());
+        BigInteger[] total = {BigInteger.ZERO, BigInteger.ZERO};
+        accountIndexRepository.scanAssetsAddressKeys(addressChainId, assetChainId, assetId, ADDRESS_SCAN_BATCH_SIZE, addressKeys -> {
+            //全量扫描直接读库, 不占用账户状态缓存
+            for (AccountState accountState : accountStateService.getAccountStatesReCal(addressKeys, addressChainId, assetChainId, assetId)) {
+                total[0] = total[0].add(accountState.getAvailableAmount());
+                total[1] = total[1].add(accountState.getFreezeTotal());
             }
-        }
+            return true;
+        });
         asset.put("assetId", assetId);
-        asset.put("availableAmount", amount);
-        asset.put("freeze", freeze);
+        asset.put("availableAmount", total[0]);
+        asset.put("freeze", total[1]);
         return asset;
     }
 }
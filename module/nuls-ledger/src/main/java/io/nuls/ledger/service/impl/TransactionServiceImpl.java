@@ -29,6 +29,7 @@ import io.nuls.base.data.*;
 import io.nuls.core.core.annotation.Autowired;
 import io.nuls.core.core.annotation.Component;
 import io.nuls.core.rpc.util.NulsDateUtils;
+import io.nuls.ledger.config.LedgerConfig;
 import io.nuls.ledger.constant.LedgerConstant;
 import io.nuls.ledger.constant.LedgerErrorCode;
 import io.nuls.ledger.model.AccountBalance;
@@ -36,7 +37,9 @@ import io.nuls.ledger.model.Uncfd2CfdKey;
 import io.nuls.ledger.model.ValidateResult;
 import io.nuls.ledger.model.po.AccountState;
 import io.nuls.ledger.model.po.BlockSnapshotAccounts;
+import io.nuls.ledger.model.po.BlockSnapshotDelta;
 import io.nuls.ledger.model.po.TxUnconfirmed;
+import io.nuls.ledger.model.po.sub.AccountStateDelta;
 import io.nuls.ledger.model.po.sub.AccountStateSnapshot;
 import io.nuls.ledger.model.po.sub.AmountNonce;
 import io.nuls.ledger.service.*;
@@ -52,6 +55,7 @@ import io.nuls.ledger.validator.CoinDataValidator;
 
 import java.util.*;
 import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.locks.Lock;
 
 import static io.nuls.ledger.utils.LoggerUtil.logger;
 
@@ -70,6 +74,8 @@ public class TransactionServiceImpl implements TransactionService {
     @Autowired
     CoinDataValidator coinDataValidator;
     @Autowired
+    LedgerConfig ledgerConfig;
+    @Autowired
     LockedTransactionProcessor lockedTransactionProcessor;
     @Autowired
     CommontTransactionProcessor commontTransactionProcessor;
@@ -84,13 +90,13 @@ public class TransactionServiceImpl implements TransactionService {
     @Autowired
     AssetRegMngService assetRegMngService;
     /**
-     * 缓存一个区块的nonce值
+     * 缓存每条链一个区块的nonce值, key=addressChainId
      */
-    private Map<String, Integer> ledgerNonce = new ConcurrentHashMap<String, Integer>(5120);
+    private Map<Integer, Map<String, Integer>> ledgerNonce = new ConcurrentHashMap<>(8);
     /**
-     * 缓存一个区块的hash值
+     * 缓存每条链一个区块的hash值, key=addressChainId
      */
-    private Map<String, Integer> ledgerHash = new ConcurrentHashMap<>(5120);
+    private Map<Integer, Map<String, Integer>> ledgerHash = new ConcurrentHashMap<>(8);
 
 
     /**
@@ -110,29 +116,73 @@ public class TransactionServiceImpl implements TransactionService {
         if (!coinDataValidator.validateTxAmount(coinData, transaction.getType())) {
             return ValidateResult.getResult(LedgerErrorCode.TX_AMOUNT_INVALIDATE, new String[]{transaction.getHash().toHex()});
         }
-        /*未确认交易的校验*/
-        Map<String, TxUnconfirmed> accountsMap = new ConcurrentHashMap<>(8);
-        byte[] txNonce = LedgerUtil.getNonceByTx(transaction);
-        ValidateResult validateResult = coinDataValidator.analysisCoinData(addressChainId, transaction, accountsMap, txNonce);
-        if (!validateResult.isSuccess()) {
-            return validateResult;
+        //只锁交易from的账户, 与正在提交的区块不涉及同一账户时不会被阻塞
+        List<Lock> locks = LockerUtil.lockAccounts(getFromAccountKeys(addressChainId, coinData));
+        try {
+            /*未确认交易的校验*/
+            Map<String, TxUnconfirmed> accountsMap = new ConcurrentHashMap<>(8);
+            byte[] txNonce = LedgerUtil.getNonceByTx(transaction);
+            ValidateResult validateResult = coinDataValidator.analysisCoinData(addressChainId, transaction, accountsMap, txNonce);
+            if (!validateResult.isSuccess()) {
+                return validateResult;
+            }
+            Set keys = accountsMap.keySet();
+            Iterator<String> it = keys.iterator();
+            while (it.hasNext()) {
+                TxUnconfirmed txUnconfirmed = accountsMap.get(it.next());
+                ValidateResult updateResult = unconfirmedStateService.updateUnconfirmedTx(transaction.getHash().toHex(), addressChainId, txNonce, txUnconfirmed);
+                if (!updateResult.isSuccess()) {
+                    return updateResult;
+                }
+            }
+            return ValidateResult.getSuccess();
+        } finally {
+            LockerUtil.unlockAccounts(locks);
+        }
+    }
+
+    /**
+     * 获取coinData中本链from的账户key(address-assetChainId-assetId)
+     *
+     * @param addressChainId
+     * @param coinData
+     * @return
+     */
+    private Set<String> getFromAccountKeys(int addressChainId, CoinData coinData) {
+        Set<String> accountKeys = new HashSet<>();
+        for (CoinFrom from : coinData.getFrom()) {
+            if (LedgerUtil.isNotLocalChainAccount(addressChainId, from.getAddress())) {
+                continue;
+            }
+            accountKeys.add(LedgerUtil.getKeyStr(LedgerUtil.getRealAddressStr(from.getAddress()), from.getAssetsChainId(), from.getAssetsId()));
         }
-        Set keys = accountsMap.keySet();
-        Iterator<String> it = keys.iterator();
-        while (it.hasNext()) {
-            TxUnconfirmed txUnconfirmed = accountsMap.get(it.next());
-            ValidateResult updateResult = unconfirmedStateService.updateUnconfirmedTx(transaction.getHash().toHex(), addressChainId, txNonce, txUnconfirmed);
-            if (!updateResult.isSuccess()) {
-                return updateResult;
+        return accountKeys;
+    }
+
+    /**
+     * 获取区块中所有交易本链from的账户key
+     *
+     * @param addressChainId
+     * @param txList
+     * @return
+     */
+    private Set<String> getFromAccountKeys(int addressChainId, List<Transaction> txList) {
+        Set<String> accountKeys = new HashSet<>();
+        for (Transaction transaction : txList) {
+            CoinData coinData = CoinDataUtil.parseCoinData(transaction.getCoinData());
+            if (null != coinData) {
+                accountKeys.addAll(getFromAccountKeys(addressChainId, coinData));
             }
         }
-        return ValidateResult.getSuccess();
+        return accountKeys;
     }
 
 
     private boolean confirmBlockTxProcess(long blockHeight, int addressChainId, List<Transaction> txList,
                                           Map<String, AccountBalance> updateAccounts, List<Uncfd2CfdKey> delUncfd2CfdKeys,
                                           Map<String, Integer> clearUncfs, Map<String, List<String>> assetAddressIndex) throws Exception {
+        Map<String, Integer> ledgerHash = getLedgerHash(addressChainId);
+        Map<String, Integer> ledgerNonce = getLedgerNonce(addressChainId);
         for (Transaction transaction : txList) {
             byte[] nonce8Bytes = LedgerUtil.getNonceByTx(transaction);
             String nonce8Str = LedgerUtil.getNonceEncode(nonce8Bytes);
@@ -233,9 +283,13 @@ public class TransactionServiceImpl implements TransactionService {
      */
     @Override
     public boolean confirmBlockProcess(int addressChainId, List<Transaction> txList, long blockHeight) {
+        //区块提交期间锁住区块中from的账户, 其他账户的未确认交易可以继续处理
+        Set<String> fromAccountKeys = getFromAccountKeys(addressChainId, txList);
+        Lock ledgerLocker = LockerUtil.getLedgerLocker(addressChainId);
+        ledgerLocker.lock();
+        List<Lock> accountLocks = LockerUtil.lockAccounts(fromAccountKeys);
         try {
-            cleanBlockCommitTempDatas();
-            LockerUtil.LEDGER_LOCKER.lock();
+            cleanBlockCommitTempDatas(addressChainId);
             long currentDbHeight = repository.getBlockHeight(addressChainId);
             if ((blockHeight - currentDbHeight) != 1) {
                 //高度不一致，数据出问题了
@@ -245,9 +299,10 @@ public class TransactionServiceImpl implements TransactionService {
             int accountMapSize = txList.size() * 3;
             //批量交易按交易进行账户的金额处理，再按区块为原子性进行提交,updateAccounts用于账户计算缓存，最后统一处理
             Map<String, AccountBalance> updateAccounts = new HashMap<>(accountMapSize);
-            Map<String, AccountState> updateMemAccounts = new HashMap<>(accountMapSize);
+            Map<byte[], AccountState> updateMemAccounts = new HashMap<>(accountMapSize);
             //整体区块备份
             BlockSnapshotAccounts blockSnapshotAccounts = new BlockSnapshotAccounts();
+            BlockSnapshotDelta blockSnapshotDelta = ledgerConfig.isSnapshotDeltaMode() ? new BlockSnapshotDelta() : null;
             Map<byte[], byte[]> accountStatesMap = new HashMap<>(accountMapSize);
             List<Uncfd2CfdKey> delUncfd2CfdKeys = new ArrayList<>();
             Map<String, Integer> clearUncfs = new HashMap<>(txList.size());
@@ -263,19 +318,28 @@ public class TransactionServiceImpl implements TransactionService {
                     blockSnapshotAccounts.addAccountState(entry.getValue().getPreAccountState());
                     freezeStateService.recalculateFreeze(addressChainId, entry.getValue().getNowAccountState());
                     entry.getValue().getNowAccountState().setLatestUnFreezeTime(NulsDateUtils.getCurrentTimeSeconds());
-                    accountStatesMap.put(entry.getKey().getBytes(LedgerConstant.DEFAULT_ENCODING), entry.getValue().getNowAccountState().serialize());
-                    updateMemAccounts.put(entry.getKey(), entry.getValue().getNowAccountState());
+                    if (null != blockSnapshotDelta) {
+                        //增量备份只保存变化的字段
+                        blockSnapshotDelta.addAccountDelta(new AccountStateDelta(entry.getValue().getPreAccountState(), entry.getValue().getNowAccountState()));
+                    }
+                    byte[] key = entry.getKey().getBytes(LedgerConstant.DEFAULT_ENCODING);
+                    accountStatesMap.put(key, entry.getValue().getNowAccountState().serialize());
+                    updateMemAccounts.put(key, entry.getValue().getNowAccountState());
                 }
             } catch (Exception e) {
                 logger(addressChainId).error("confirmBlockProcess blockSnapshotAccounts addAccountState error!");
                 logger(addressChainId).error(e);
-                cleanBlockCommitTempDatas();
+                cleanBlockCommitTempDatas(addressChainId);
                 return false;
             }
             //提交整体数据
             try {
                 //备份历史
-                repository.saveBlockSnapshot(addressChainId, blockHeight, blockSnapshotAccounts);
+                if (null != blockSnapshotDelta) {
+                    repository.saveBlockSnapshotDelta(addressChainId, blockHeight, blockSnapshotDelta);
+                } else {
+                    repository.saveBlockSnapshot(addressChainId, blockHeight, blockSnapshotAccounts);
+                }
                 //更新链下资产种类，及资产地址集合数据。
                 chainAssetsService.updateChainAssets(addressChainId, assetAddressIndex);
                 //更新账本
@@ -289,12 +353,13 @@ public class TransactionServiceImpl implements TransactionService {
                 //删除跃迁的未确认交易
                 unconfirmedStateService.batchDeleteUnconfirmedTx(addressChainId, delUncfd2CfdKeys);
                 //删除过期缓存数据
-                if (blockHeight > LedgerConstant.CACHE_ACCOUNT_BLOCK) {
-                    repository.delBlockSnapshot(addressChainId, (blockHeight - LedgerConstant.CACHE_ACCOUNT_BLOCK));
+                long keepBlocks = ledgerConfig.getSnapshotKeepBlocks();
+                if (blockHeight > keepBlocks) {
+                    repository.delBlockSnapshot(addressChainId, (blockHeight - keepBlocks));
                 }
             } catch (Exception e) {
                 //需要回滚数据
-                cleanBlockCommitTempDatas();
+                cleanBlockCommitTempDatas(addressChainId);
                 logger(addressChainId).error(e);
                 LoggerUtil.logger(addressChainId).error("confirmBlockProcess  error! go rollBackBlock!addrChainId={},height={}", addressChainId, blockHeight);
                 rollBackBlock(addressChainId, blockSnapshotAccounts.getAccounts(), blockHeight);
@@ -305,11 +370,11 @@ public class TransactionServiceImpl implements TransactionService {
             return true;
         } catch (Exception e) {
             LoggerUtil.logger(addressChainId).error("confirmBlockProcess error", e);
-            cleanBlockCommitTempDatas();
+            cleanBlockCommitTempDatas(addressChainId);
             return false;
         } finally {
-            LockerUtil.LEDGER_LOCKER.unlock();
-
+            LockerUtil.unlockAccounts(accountLocks);
+            ledgerLocker.unlock();
         }
 
     }
@@ -335,7 +400,10 @@ public class TransactionServiceImpl implements TransactionService {
      * @return
      */
     @Override
-    public synchronized boolean rollBackBlock(int addressChainId, List<AccountStateSnapshot> preAccountStates, long blockHeight) {
+    public boolean rollBackBlock(int addressChainId, List<AccountStateSnapshot> preAccountStates, long blockHeight) {
+        //在区块提交中调用时已持有链锁及区块中from账户的锁, 这里不再获取账户锁, 避免与未确认交易交叉加锁
+        Lock ledgerLocker = LockerUtil.getLedgerLocker(addressChainId);
+        ledgerLocker.lock();
         try {
             //回滚账号信息
             accountStateService.rollAccountState(addressChainId, preAccountStates);
@@ -344,6 +412,8 @@ public class TransactionServiceImpl implements TransactionService {
         } catch (Exception e) {
             logger(addressChainId).error("rollBackBlock error!!", e);
             return false;
+        } finally {
+            ledgerLocker.unlock();
         }
         return true;
     }
@@ -354,9 +424,11 @@ public class TransactionServiceImpl implements TransactionService {
      */
     @Override
     public boolean rollBackConfirmTxs(int addressChainId, long blockHeight, List<Transaction> txs) {
+        Lock ledgerLocker = LockerUtil.getLedgerLocker(addressChainId);
+        ledgerLocker.lock();
+        List<Lock> accountLocks = new ArrayList<>();
         try {
-            LockerUtil.LEDGER_LOCKER.lock();
-            cleanBlockCommitTempDatas();
+            cleanBlockCommitTempDatas(addressChainId);
             long currentDbHeight = repository.getBlockHeight(addressChainId);
             if ((blockHeight - currentDbHeight) == 1) {
                 logger(addressChainId).debug("addressChainId ={},blockHeight={},ledgerBlockHeight={}", addressChainId, blockHeight, currentDbHeight);
@@ -375,6 +447,7 @@ public class TransactionServiceImpl implements TransactionService {
             //回滚高度
             repository.saveOrUpdateBlockHeight(addressChainId, (blockHeight - 1));
             List<AccountStateSnapshot> preAccountStates = blockSnapshotAccounts.getAccounts();
+            accountLocks = LockerUtil.lockAccounts(getSnapshotAccountKeys(preAccountStates));
             accountStateService.rollAccountState(addressChainId, preAccountStates);
             //删除备份数据
             repository.delBlockSnapshot(addressChainId, blockHeight);
@@ -413,7 +486,8 @@ public class TransactionServiceImpl implements TransactionService {
             repository.saveOrUpdateBlockHeight(addressChainId, blockHeight);
             return false;
         } finally {
-            LockerUtil.LEDGER_LOCKER.unlock();
+            LockerUtil.unlockAccounts(accountLocks);
+            ledgerLocker.unlock();
         }
         return true;
     }
@@ -453,20 +527,36 @@ public class TransactionServiceImpl implements TransactionService {
      *
      * @return
      */
-    private void cleanBlockCommitTempDatas() {
-        ledgerNonce.clear();
-        ledgerHash.clear();
+    private void cleanBlockCommitTempDatas(int addressChainId) {
+        getLedgerNonce(addressChainId).clear();
+        getLedgerHash(addressChainId).clear();
+    }
+
+    private Map<String, Integer> getLedgerNonce(int addressChainId) {
+        return ledgerNonce.computeIfAbsent(addressChainId, k -> new ConcurrentHashMap<>(5120));
+    }
+
+    private Map<String, Integer> getLedgerHash(int addressChainId) {
+        return ledgerHash.computeIfAbsent(addressChainId, k -> new ConcurrentHashMap<>(5120));
+    }
+
+    private Set<String> getSnapshotAccountKeys(List<AccountStateSnapshot> preAccountStates) {
+        Set<String> accountKeys = new HashSet<>(preAccountStates.size());
+        for (AccountStateSnapshot snapshot : preAccountStates) {
+            accountKeys.add(LedgerUtil.getKeyStr(snapshot.getAddress(), snapshot.getAssetChainId(), snapshot.getAssetId()));
+        }
+        return accountKeys;
     }
 
     @Override
     public boolean fromNonceExist(int addressChainId, String accountNonceKey) throws Exception {
-        return ledgerNonce.containsKey(accountNonceKey);
+        return getLedgerNonce(addressChainId).containsKey(accountNonceKey);
 //        return (lgBlockSyncRepository.existAccountNonce(addressChainId, accountNonceKey));
     }
 
     @Override
     public boolean hadTxExist(int addressChainId, String hash) throws Exception {
-        return ledgerHash.containsKey(hash);
+        return getLedgerHash(addressChainId).containsKey(hash);
 //        return (lgBlockSyncRepository.existAccountHash(addressChainId, hash));
     }
 
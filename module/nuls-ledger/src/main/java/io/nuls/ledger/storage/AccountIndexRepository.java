@@ -27,6 +27,7 @@ package io.nuls.ledger.storage;
 
 import java.util.List;
 import java.util.Map;
+import java.util.function.Predicate;
 
 /**
  * 账户资产索引存储接口
@@ -45,4 +46,15 @@ public interface AccountIndexRepository {
 
     List<String> assetsAddressKeyList(int addressChainId, int assetChainId, int assetId);
 
+    /**
+     * 分批遍历持有该资产的地址, handler返回false时终止遍历
+     *
+     * @param addressChainId
+     * @param assetChainId
+     * @param assetId
+     * @param batchSize      每批地址数
+     * @param handler
+     */
+    void scanAssetsAddressKeys(int addressChainId, int assetChainId, int assetId, int batchSize, Predicate<List<String>> handler);
+
 }
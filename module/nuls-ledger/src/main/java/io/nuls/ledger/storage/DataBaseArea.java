@@ -46,6 +46,11 @@ public interface DataBaseArea {
 
     String TB_LEDGER_ACCOUNT_BLOCK_SNAPSHOT = "account_block_snapshot";
 
+    /**
+     *   按区块高度存储账号状态的增量备份
+     */
+    String TB_LEDGER_ACCOUNT_BLOCK_SNAPSHOT_DELTA = "account_block_snapshot_delta";
+
     /**
      *   存区块当前确认的高度
      */
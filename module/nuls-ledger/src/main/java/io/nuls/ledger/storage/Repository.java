@@ -29,7 +29,9 @@ import io.nuls.core.exception.NulsException;
 import io.nuls.ledger.model.ChainHeight;
 import io.nuls.ledger.model.po.AccountState;
 import io.nuls.ledger.model.po.BlockSnapshotAccounts;
+import io.nuls.ledger.model.po.BlockSnapshotDelta;
 
+import java.util.Collection;
 import java.util.List;
 import java.util.Map;
 
@@ -52,13 +54,35 @@ public interface Repository {
     AccountState getAccountState(int chainId, byte[] key);
 
     /**
-     * 内存获取账户余额对象
+     * 从缓存获取账户余额对象, 未命中时查库并放入缓存
+     * 返回的是缓存中的共享对象, 调用方不能修改, 需要修改时先deepClone
+     * Get account state from cache, load from database on miss.
+     * The returned object is shared by the cache and must not be modified, deepClone it before modifying.
      *
      * @param chainId
-     * @param key
-     * @return
+     * @param key     address-assetChainId-assetId的字节
+     * @return AccountState 账户不存在时返回null
+     */
+    AccountState getAccountStateByMemory(int chainId, byte[] key);
+
+    /**
+     * 一次批量读取多个账户状态放入缓存, 已缓存的账户不再读取
+     * Load several account states into cache with one multiGet, cached accounts are skipped
+     *
+     * @param chainId
+     * @param keys    address-assetChainId-assetId的字节
      */
-    AccountState getAccountStateByMemory(int chainId, String key);
+    void prefetchAccountStates(int chainId, Collection<byte[]> keys);
+
+    /**
+     * 直接从数据库批量读取账户状态, 不经过缓存, 用于全量扫描等不应占用缓存的场景
+     * Read several account states from database with one multiGet, bypassing the cache, used by bulk scans
+     *
+     * @param chainId
+     * @param keys    address-assetChainId-assetId的字节
+     * @return 存在的账户状态, 不存在的账户不返回
+     */
+    List<AccountState> getAccountStates(int chainId, List<byte[]> keys);
 
     /**
      * 批量更新账号账本信息
@@ -66,10 +90,27 @@ public interface Repository {
      *
      * @param addressChainId
      * @param accountStateMap
+     * @param accountStateMemMap 同步更新到缓存的账户状态, 放入后不能再被修改
      * @throws Exception
      */
-    void batchUpdateAccountState(int addressChainId, Map<byte[], byte[]> accountStateMap,Map<String, AccountState> accountStateMemMap) throws Exception;
-    void clearAccountStateMem(int addressChainId, Map<String, AccountState> accountStateMemMap) throws Exception;
+    void batchUpdateAccountState(int addressChainId, Map<byte[], byte[]> accountStateMap, Map<byte[], AccountState> accountStateMemMap) throws Exception;
+
+    /**
+     * 数据库删除账户后, 同步清理缓存
+     *
+     * @param addressChainId
+     * @param keys
+     */
+    void clearAccountStateMem(int addressChainId, List<byte[]> keys);
+
+    /**
+     * 获取账户状态缓存统计信息
+     * Get account state cache statistics
+     *
+     * @param chainId
+     * @return Map
+     */
+    Map<String, Object> getAccountStateCacheStats(int chainId);
 
     /**
      * 删除区块快照
@@ -91,7 +132,17 @@ public interface Repository {
     void saveBlockSnapshot(int chainId, long height, BlockSnapshotAccounts blockSnapshotAccounts) throws Exception;
 
     /**
-     * 获取区块快照
+     * 存储区块增量快照
+     *
+     * @param chainId
+     * @param height
+     * @param blockSnapshotDelta
+     * @throws Exception
+     */
+    void saveBlockSnapshotDelta(int chainId, long height, BlockSnapshotDelta blockSnapshotDelta) throws Exception;
+
+    /**
+     * 获取区块快照, 增量快照在账户当前状态上还原为完整的区块执行前状态
      *
      * @param chainId
      * @param height
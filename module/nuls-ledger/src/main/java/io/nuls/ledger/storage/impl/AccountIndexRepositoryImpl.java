@@ -29,12 +29,14 @@ import io.nuls.core.basic.InitializingBean;
 import io.nuls.core.core.annotation.Component;
 import io.nuls.core.exception.NulsException;
 import io.nuls.core.model.ByteUtils;
+import io.nuls.core.rockdb.service.RocksDBCursor;
 import io.nuls.core.rockdb.service.RocksDBService;
 import io.nuls.ledger.storage.AccountIndexRepository;
 import io.nuls.ledger.storage.DataBaseArea;
 
 import java.util.List;
 import java.util.Map;
+import java.util.function.Predicate;
 
 import static io.nuls.ledger.utils.LoggerUtil.logger;
 
@@ -122,6 +124,22 @@ public class AccountIndexRepositoryImpl implements AccountIndexRepository, Initi
         return ByteUtils.bytesToStrings(assetKeys);
     }
 
+    @Override
+    public void scanAssetsAddressKeys(int addressChainId, int assetChainId, int assetId, int batchSize, Predicate<List<String>> handler) {
+        String table = initLedgerAddressIndexDb(addressChainId,assetChainId,assetId);
+        try (RocksDBCursor cursor = RocksDBService.cursor(table)) {
+            if (cursor == null) {
+                return;
+            }
+            List<byte[]> addressKeys;
+            while (!(addressKeys = cursor.nextKeys(batchSize)).isEmpty()) {
+                if (!handler.test(ByteUtils.bytesToStrings(addressKeys))) {
+                    break;
+                }
+            }
+        }
+    }
+
     @Override
     public void afterPropertiesSet() throws NulsException {
 
@@ -0,0 +1,145 @@
+/*-
+ * ⁣⁣
+ * MIT License
+ * ⁣⁣
+ * Copyright (C) 2017 - 2018 nuls.io
+ * ⁣⁣
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ * ⁣⁣
+ */
+package io.nuls.ledger.storage.impl;
+
+import com.google.common.cache.Cache;
+import com.google.common.cache.CacheBuilder;
+import com.google.common.cache.CacheStats;
+import io.nuls.core.model.ByteArrayWrapper;
+import io.nuls.ledger.model.po.AccountState;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.ExecutionException;
+import java.util.function.Function;
+
+/**
+ * 单条链的已确认账户状态缓存
+ * 以数据库key(address-assetChainId-assetId的字节)为键, 容量按权重限制, 每个账户的权重为1+冻结记录数;
+ * 缓存中的对象放入后不再修改(写时复制), 读取时直接返回共享对象, 需要修改的调用方先复制
+ * Confirmed account state cache of one chain.
+ * Keyed by the database key bytes and bounded by weight (1 + number of freeze records per account).
+ * Cached objects are never modified once stored, readers get the shared instance and must copy before modifying.
+ */
+public class AccountStateCache {
+
+    /**
+     * 数据库中不存在的账户, 同样缓存, 避免重复查库
+     */
+    private static final AccountState ABSENT = new AccountState();
+
+    private final Cache<ByteArrayWrapper, AccountState> cache;
+
+    public AccountStateCache(long maxWeight) {
+        this.cache = CacheBuilder.newBuilder()
+                .maximumWeight(maxWeight)
+                .weigher((ByteArrayWrapper key, AccountState value) ->
+                        1 + value.getFreezeHeightStates().size() + value.getFreezeLockTimeStates().size())
+                .recordStats()
+                .build();
+    }
+
+    /**
+     * 获取账户状态, 缓存未命中时通过loader从数据库加载
+     * 加载期间有写入时以写入的值为准, 加载结果被丢弃
+     *
+     * @param key    数据库key
+     * @param loader 数据库加载方法, 账户不存在时返回null
+     * @return 共享的账户状态对象, 不可修改; 账户不存在时返回null
+     */
+    public AccountState get(byte[] key, Function<byte[], AccountState> loader) {
+        AccountState accountState;
+        try {
+            accountState = cache.get(new ByteArrayWrapper(key), () -> {
+                AccountState dbState = loader.apply(key);
+                return null == dbState ? ABSENT : dbState;
+            });
+        } catch (ExecutionException e) {
+            accountState = loader.apply(key);
+        }
+        return accountState == ABSENT ? null : accountState;
+    }
+
+    /**
+     * 获取已缓存的账户状态, 不访问数据库
+     *
+     * @param key 数据库key
+     * @return 共享的账户状态对象, 不可修改; 未缓存或账户不存在时返回null
+     */
+    public AccountState getIfPresent(byte[] key) {
+        AccountState accountState = cache.getIfPresent(new ByteArrayWrapper(key));
+        return accountState == ABSENT ? null : accountState;
+    }
+
+    /**
+     * 是否已缓存(包括已缓存为不存在的账户), 不计入命中统计
+     *
+     * @param key 数据库key
+     * @return boolean
+     */
+    public boolean contains(byte[] key) {
+        return cache.asMap().containsKey(new ByteArrayWrapper(key));
+    }
+
+    /**
+     * 数据库写入后更新缓存, 放入的对象之后不能再被修改
+     *
+     * @param key          数据库key
+     * @param accountState 已写入数据库的账户状态
+     */
+    public void put(byte[] key, AccountState accountState) {
+        cache.put(new ByteArrayWrapper(key), accountState);
+    }
+
+    /**
+     * 数据库删除账户后标记为不存在
+     *
+     * @param key 数据库key
+     */
+    public void remove(byte[] key) {
+        cache.put(new ByteArrayWrapper(key), ABSENT);
+    }
+
+    public long size() {
+        return cache.size();
+    }
+
+    /**
+     * 缓存统计信息: 条目数, 命中数, 未命中数, 淘汰数, 命中率
+     *
+     * @return Map
+     */
+    public Map<String, Object> stats() {
+        CacheStats stats = cache.stats();
+        Map<String, Object> map = new HashMap<>(8);
+        map.put("size", cache.size());
+        map.put("hitCount", stats.hitCount());
+        map.put("missCount", stats.missCount());
+        map.put("evictionCount", stats.evictionCount());
+        map.put("hitRate", stats.hitRate());
+        return map;
+    }
+}
@@ -27,21 +27,26 @@ package io.nuls.ledger.storage.impl;
 
 import io.nuls.base.basic.NulsByteBuffer;
 import io.nuls.core.basic.InitializingBean;
+import io.nuls.core.core.annotation.Autowired;
 import io.nuls.core.core.annotation.Component;
 import io.nuls.core.exception.NulsException;
 import io.nuls.core.log.Log;
+import io.nuls.core.model.ByteArrayWrapper;
 import io.nuls.core.model.ByteUtils;
 import io.nuls.core.rockdb.model.Entry;
 import io.nuls.core.rockdb.service.RocksDBService;
+import io.nuls.ledger.config.LedgerConfig;
+import io.nuls.ledger.constant.LedgerConstant;
 import io.nuls.ledger.model.ChainHeight;
 import io.nuls.ledger.model.po.AccountState;
 import io.nuls.ledger.model.po.BlockSnapshotAccounts;
+import io.nuls.ledger.model.po.BlockSnapshotDelta;
+import io.nuls.ledger.model.po.sub.AccountStateDelta;
 import io.nuls.ledger.storage.DataBaseArea;
 import io.nuls.ledger.storage.Repository;
+import io.nuls.ledger.utils.LedgerUtil;
 
-import java.util.ArrayList;
-import java.util.List;
-import java.util.Map;
+import java.util.*;
 import java.util.concurrent.ConcurrentHashMap;
 
 import static io.nuls.ledger.utils.LoggerUtil.logger;
@@ -54,41 +59,52 @@ import static io.nuls.ledger.utils.LoggerUtil.logger;
 @Component
 public class RepositoryImpl implements Repository, InitializingBean {
     /**
-     * key1=chainId,  Map1=确认账户状态， key2= addr+assetkey  value=AccountState
+     * key=chainId, value=已确认账户状态缓存
      */
-    Map<String, Map<String, AccountState>> memChainsAccounts = new ConcurrentHashMap<>(16);
+    private final Map<Integer, AccountStateCache> memChainsAccounts = new ConcurrentHashMap<>(16);
+
+    @Autowired
+    private LedgerConfig ledgerConfig;
 
     public RepositoryImpl() {
 
     }
 
+    private AccountStateCache getAccountStateCache(int chainId) {
+        return memChainsAccounts.computeIfAbsent(chainId, k -> new AccountStateCache(ledgerConfig.getAccountStateCacheSize()));
+    }
+
     @Override
-    public void batchUpdateAccountState(int addressChainId, Map<byte[], byte[]> accountStateMap, Map<String, AccountState> accountStateMemMap) throws Exception {
-        if (null == memChainsAccounts.get(String.valueOf(addressChainId))) {
-            memChainsAccounts.put(String.valueOf(addressChainId), new ConcurrentHashMap<>(1024));
-        }
-        if (null != accountStateMemMap) {
-            memChainsAccounts.get(String.valueOf(addressChainId)).putAll(accountStateMemMap);
-        }
+    public void batchUpdateAccountState(int addressChainId, Map<byte[], byte[]> accountStateMap, Map<byte[], AccountState> accountStateMemMap) throws Exception {
         //update account
         RocksDBService.batchPut(getLedgerAccountTableName(addressChainId), accountStateMap);
-
+        //先写库再更新缓存, 保证缓存不会早于数据库
+        if (null != accountStateMemMap) {
+            AccountStateCache cache = getAccountStateCache(addressChainId);
+            for (Map.Entry<byte[], AccountState> entry : accountStateMemMap.entrySet()) {
+                cache.put(entry.getKey(), entry.getValue());
+            }
+        }
     }
 
     @Override
-    public void clearAccountStateMem(int addressChainId, Map<String, AccountState> accountStateMemMap) throws Exception {
-        if (null == memChainsAccounts.get(String.valueOf(addressChainId))) {
-            memChainsAccounts.put(String.valueOf(addressChainId), new ConcurrentHashMap<>(1024));
-        }
-        if (null != accountStateMemMap) {
-            memChainsAccounts.get(String.valueOf(addressChainId)).putAll(accountStateMemMap);
+    public void clearAccountStateMem(int addressChainId, List<byte[]> keys) {
+        AccountStateCache cache = getAccountStateCache(addressChainId);
+        for (byte[] key : keys) {
+            cache.remove(key);
         }
     }
 
+    @Override
+    public Map<String, Object> getAccountStateCacheStats(int chainId) {
+        return getAccountStateCache(chainId).stats();
+    }
+
 
     @Override
     public void delBlockSnapshot(int chainId, long height) throws Exception {
         RocksDBService.delete(getBlockSnapshotTableName(chainId), ByteUtils.longToBytes(height));
+        RocksDBService.delete(getBlockSnapshotDeltaTableName(chainId), ByteUtils.longToBytes(height));
     }
 
     @Override
@@ -97,8 +113,17 @@ public class RepositoryImpl implements Repository, InitializingBean {
 
     }
 
+    @Override
+    public void saveBlockSnapshotDelta(int chainId, long height, BlockSnapshotDelta blockSnapshotDelta) throws Exception {
+        RocksDBService.put(getBlockSnapshotDeltaTableName(chainId), ByteUtils.longToBytes(height), blockSnapshotDelta.serialize());
+    }
+
     @Override
     public BlockSnapshotAccounts getBlockSnapshot(int chainId, long height) {
+        BlockSnapshotAccounts deltaSnapshot = getBlockSnapshotByDelta(chainId, height);
+        if (null != deltaSnapshot) {
+            return deltaSnapshot;
+        }
         byte[] stream = RocksDBService.get(getBlockSnapshotTableName(chainId), ByteUtils.longToBytes(height));
         if (stream == null) {
             return null;
@@ -113,6 +138,34 @@ public class RepositoryImpl implements Repository, InitializingBean {
     }
 
 
+    /**
+     * 读取增量快照, 在数据库中账户当前状态上还原出区块执行前的状态
+     * 数据库处于区块提交前或提交后的状态时, 还原结果相同
+     */
+    private BlockSnapshotAccounts getBlockSnapshotByDelta(int chainId, long height) {
+        byte[] stream = RocksDBService.get(getBlockSnapshotDeltaTableName(chainId), ByteUtils.longToBytes(height));
+        if (stream == null) {
+            return null;
+        }
+        BlockSnapshotDelta blockSnapshotDelta = new BlockSnapshotDelta();
+        try {
+            blockSnapshotDelta.parse(new NulsByteBuffer(stream));
+        } catch (NulsException e) {
+            logger(chainId).error("getBlockSnapshotDelta serialize error.", e);
+            return null;
+        }
+        BlockSnapshotAccounts blockSnapshotAccounts = new BlockSnapshotAccounts();
+        for (AccountStateDelta accountStateDelta : blockSnapshotDelta.getAccounts()) {
+            AccountState current = getAccountState(chainId, LedgerUtil.getKey(accountStateDelta.getAddressStr(),
+                    accountStateDelta.getAssetChainId(), accountStateDelta.getAssetId()));
+            if (null == current) {
+                current = new AccountState(LedgerConstant.getInitNonceByte());
+            }
+            blockSnapshotAccounts.addAccountState(accountStateDelta.toSnapshot(current));
+        }
+        return blockSnapshotAccounts;
+    }
+
     /**
      * get accountState from rocksdb
      *
@@ -121,7 +174,10 @@ public class RepositoryImpl implements Repository, InitializingBean {
      */
     @Override
     public AccountState getAccountState(int chainId, byte[] key) {
-        byte[] stream = RocksDBService.get(getLedgerAccountTableName(chainId), key);
+        return parseAccountState(chainId, RocksDBService.get(getLedgerAccountTableName(chainId), key));
+    }
+
+    private AccountState parseAccountState(int chainId, byte[] stream) {
         if (stream == null) {
             return null;
         }
@@ -135,22 +191,48 @@ public class RepositoryImpl implements Repository, InitializingBean {
     }
 
     @Override
-    public AccountState getAccountStateByMemory(int chainId, String key) {
-        //缓存有值,则直接获取
-        if (null != memChainsAccounts.get(String.valueOf(chainId))) {
-            AccountState accountStateMem = memChainsAccounts.get(String.valueOf(chainId)).get(key);
-            if (null != accountStateMem) {
-                AccountState accountState = new AccountState();
-                System.arraycopy(accountStateMem.getNonce(), 0, accountState.getNonce(), 0, accountStateMem.getNonce().length);
-                accountState.setTotalFromAmount(accountStateMem.getTotalFromAmount());
-                accountState.setTotalToAmount(accountStateMem.getTotalToAmount());
-                accountState.setLatestUnFreezeTime(accountStateMem.getLatestUnFreezeTime());
-                accountState.getFreezeHeightStates().addAll(accountStateMem.getFreezeHeightStates());
-                accountState.getFreezeLockTimeStates().addAll(accountStateMem.getFreezeLockTimeStates());
-                return accountState;
+    public AccountState getAccountStateByMemory(int chainId, byte[] key) {
+        return getAccountStateCache(chainId).get(key, k -> getAccountState(chainId, k));
+    }
+
+    @Override
+    public void prefetchAccountStates(int chainId, Collection<byte[]> keys) {
+        AccountStateCache cache = getAccountStateCache(chainId);
+        List<byte[]> missKeys = new ArrayList<>();
+        for (byte[] key : keys) {
+            if (!cache.contains(key)) {
+                missKeys.add(key);
             }
         }
-        return null;
+        if (missKeys.isEmpty()) {
+            return;
+        }
+        Map<byte[], byte[]> streams = RocksDBService.multiGet(getLedgerAccountTableName(chainId), missKeys);
+        Map<ByteArrayWrapper, byte[]> values = new HashMap<>(missKeys.size());
+        if (null != streams) {
+            for (Map.Entry<byte[], byte[]> entry : streams.entrySet()) {
+                values.put(new ByteArrayWrapper(entry.getKey()), entry.getValue());
+            }
+        }
+        for (byte[] key : missKeys) {
+            //通过缓存加载, 与并发写入的处理方式一致, 以写入的值为准
+            cache.get(key, k -> parseAccountState(chainId, values.get(new ByteArrayWrapper(k))));
+        }
+    }
+
+    @Override
+    public List<AccountState> getAccountStates(int chainId, List<byte[]> keys) {
+        List<byte[]> streams = RocksDBService.multiGetValueList(getLedgerAccountTableName(chainId), keys);
+        List<AccountState> accountStates = new ArrayList<>();
+        if (null != streams) {
+            for (byte[] stream : streams) {
+                AccountState accountState = parseAccountState(chainId, stream);
+                if (null != accountState) {
+                    accountStates.add(accountState);
+                }
+            }
+        }
+        return accountStates;
     }
 
     @Override
@@ -206,6 +288,10 @@ public class RepositoryImpl implements Repository, InitializingBean {
         return getChainTableName(DataBaseArea.TB_LEDGER_ACCOUNT_BLOCK_SNAPSHOT, chainId);
     }
 
+    String getBlockSnapshotDeltaTableName(int chainId) {
+        return getChainTableName(DataBaseArea.TB_LEDGER_ACCOUNT_BLOCK_SNAPSHOT_DELTA, chainId);
+    }
+
     public String getChainsHeightTableName() {
         return DataBaseArea.TB_LEDGER_BLOCK_HEIGHT;
     }
@@ -221,6 +307,9 @@ public class RepositoryImpl implements Repository, InitializingBean {
             if (!RocksDBService.existTable(getBlockSnapshotTableName(addressChainId))) {
                 RocksDBService.createTable(getBlockSnapshotTableName(addressChainId));
             }
+            if (!RocksDBService.existTable(getBlockSnapshotDeltaTableName(addressChainId))) {
+                RocksDBService.createTable(getBlockSnapshotDeltaTableName(addressChainId));
+            }
         } catch (Exception e) {
             logger(addressChainId).error(e);
         }
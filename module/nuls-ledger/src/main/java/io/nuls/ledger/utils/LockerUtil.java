@@ -24,6 +24,13 @@
  */
 package io.nuls.ledger.utils;
 
+import com.google.common.util.concurrent.Striped;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
 import java.util.concurrent.locks.Lock;
 import java.util.concurrent.locks.ReentrantLock;
 
@@ -35,5 +42,42 @@ import java.util.concurrent.locks.ReentrantLock;
 public class LockerUtil {
 //    public final static Lock BLOCK_SYNC_LOCKER = new ReentrantLock();
     public final static Lock UNCONFIRMED_SYNC_LOCKER = new ReentrantLock();
-    public final static Lock LEDGER_LOCKER = new ReentrantLock();
+
+    /**
+     * 每条链的区块提交/回滚锁, 不同链之间互不阻塞
+     * Block commit/rollback lock of each chain, chains do not block each other
+     */
+    private final static Map<Integer, Lock> LEDGER_LOCKERS = new ConcurrentHashMap<>(8);
+
+    /**
+     * 账户分段锁, key=address-assetChainId-assetId
+     * 区块提交时锁住区块中from的账户, 未确认交易只锁自己的from账户, 不涉及同一账户时可以并发处理
+     */
+    private final static Striped<Lock> ACCOUNT_LOCKER = Striped.lock(4096);
+
+    public static Lock getLedgerLocker(int chainId) {
+        return LEDGER_LOCKERS.computeIfAbsent(chainId, k -> new ReentrantLock());
+    }
+
+    /**
+     * 锁定一组账户, 按固定顺序加锁避免死锁
+     * Lock a group of accounts in a fixed order to avoid deadlock
+     *
+     * @param accountKeys address-assetChainId-assetId
+     * @return 已加锁的锁, 用于unlockAccounts
+     */
+    public static List<Lock> lockAccounts(Collection<String> accountKeys) {
+        List<Lock> locks = new ArrayList<>(accountKeys.size());
+        for (Lock lock : ACCOUNT_LOCKER.bulkGet(accountKeys)) {
+            lock.lock();
+            locks.add(lock);
+        }
+        return locks;
+    }
+
+    public static void unlockAccounts(List<Lock> locks) {
+        for (int i = locks.size() - 1; i >= 0; i--) {
+            locks.get(i).unlock();
+        }
+    }
 }
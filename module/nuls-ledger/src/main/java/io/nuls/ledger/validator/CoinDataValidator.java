@@ -26,6 +26,7 @@
 package io.nuls.ledger.validator;
 
 import io.nuls.base.basic.AddressTool;
+import io.nuls.base.data.Coin;
 import io.nuls.base.data.CoinData;
 import io.nuls.base.data.CoinFrom;
 import io.nuls.base.data.CoinTo;
@@ -35,6 +36,8 @@ import io.nuls.core.core.annotation.Autowired;
 import io.nuls.core.core.annotation.Component;
 import io.nuls.core.crypto.HexUtil;
 import io.nuls.core.model.BigIntegerUtils;
+import io.nuls.core.thread.ThreadUtils;
+import io.nuls.core.thread.commom.NulsThreadFactory;
 import io.nuls.ledger.constant.LedgerConstant;
 import io.nuls.ledger.constant.LedgerErrorCode;
 import io.nuls.ledger.model.TempAccountNonce;
@@ -56,6 +59,9 @@ import io.nuls.ledger.utils.LoggerUtil;
 import java.math.BigInteger;
 import java.util.*;
 import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Future;
 
 import static io.nuls.ledger.utils.LoggerUtil.logger;
 
@@ -107,6 +113,16 @@ public class CoinDataValidator {
     @Autowired
     private TxLockedProcessor txLockedProcessor;
 
+    /**
+     * 区块交易并行校验的分区数
+     */
+    private int validateThreads = Runtime.getRuntime().availableProcessors();
+
+    /**
+     * 区块交易分组并行校验线程池
+     */
+    private ExecutorService validateExecutor = ThreadUtils.createThreadPool(validateThreads, 1024, new NulsThreadFactory(LedgerConstant.BLOCK_VALIDATE_THREAD));
+
     public Map<String, String> getBatchValidateTxMap(int addressChainId) {
         return chainsBatchValidateTxMap.get(String.valueOf(addressChainId));
     }
@@ -194,6 +210,7 @@ public class CoinDataValidator {
 
     /**
      * 开始批量校验,整个区块校验，场景：接收到的外部的区块包
+     * 交易数较多时按账户将交易划分为互不相关的分组, 批量预读账户状态后各分组并行校验, 分组内仍按区块顺序校验
      */
     public boolean blockValidate(int chainId, long height, List<Transaction> txs) {
         LoggerUtil.logger(chainId).debug("blocksValidate chainId={},height={},txsNumber={}", chainId, height, txs.size());
@@ -202,6 +219,43 @@ public class CoinDataValidator {
             LoggerUtil.logger(chainId).error("addressChainId ={},blockHeight={},ledgerBlockHeight={}", chainId, height, currentDbHeight);
             return false;
         }
+        for (Transaction tx : txs) {
+            tx.setBlockHeight(height);
+        }
+        if (txs.size() < LedgerConstant.PARALLEL_VALIDATE_MIN_TXS) {
+            return blockValidateInOrder(chainId, txs);
+        }
+        List<List<Transaction>> partitions = partitionByAccount(chainId, txs);
+        if (null == partitions) {
+            return false;
+        }
+        if (partitions.size() == 1) {
+            return blockValidateInOrder(chainId, partitions.get(0));
+        }
+        List<Future<Boolean>> futures = new ArrayList<>(partitions.size());
+        for (List<Transaction> partition : partitions) {
+            futures.add(validateExecutor.submit(() -> blockValidateInOrder(chainId, partition)));
+        }
+        boolean result = true;
+        for (Future<Boolean> future : futures) {
+            try {
+                result = future.get() && result;
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                LoggerUtil.logger(chainId).error(e);
+                return false;
+            } catch (ExecutionException e) {
+                LoggerUtil.logger(chainId).error(e);
+                result = false;
+            }
+        }
+        return result;
+    }
+
+    /**
+     * 按区块顺序逐笔校验一组交易
+     */
+    private boolean blockValidateInOrder(int chainId, List<Transaction> txs) {
         Set<String> batchValidateTxSet = new HashSet<>(txs.size());
         Map<String, List<TempAccountNonce>> accountValidateTxMap = new HashMap<>(1024);
         Map<String, AccountState> accountStateMap = new HashMap<>(1024);
@@ -210,7 +264,6 @@ public class CoinDataValidator {
         Map<String, List<FreezeHeightState>> lockedHeightMap = new ConcurrentHashMap<String, List<FreezeHeightState>>();
 
         for (Transaction tx : txs) {
-            tx.setBlockHeight(height);
             if (LoggerUtil.logger(chainId).isDebugEnabled()) {
                 LoggerUtil.logger(chainId).debug("[TEST] blocksValidate tx type: {}, hash: {}", tx.getType(), tx.getHash().toHex());
             }
@@ -233,6 +286,95 @@ public class CoinDataValidator {
         return true;
     }
 
+    /**
+     * 将区块交易按涉及的账户划分为互不相关的分组(共享任一账户或解锁nonce的交易在同一组), 再将分组合并为不超过线程数的分区,
+     * 分区内保持交易在区块中的顺序; 同时批量预读所有本链账户的状态
+     * Partition block transactions into independent account groups, transactions sharing any account or unlock nonce
+     * fall into the same group. Groups are merged into at most thread-count partitions keeping block order.
+     *
+     * @return 分区列表, 区块中有重复交易时返回null
+     */
+    private List<List<Transaction>> partitionByAccount(int chainId, List<Transaction> txs) {
+        int size = txs.size();
+        int[] parent = new int[size];
+        Map<String, Integer> keyOwner = new HashMap<>(size * 2);
+        Set<String> txHashSet = new HashSet<>(size);
+        Map<String, byte[]> prefetchKeys = new HashMap<>(size * 2);
+        for (int i = 0; i < size; i++) {
+            parent[i] = i;
+            Transaction tx = txs.get(i);
+            if (!txHashSet.add(tx.getHash().toHex())) {
+                logger(chainId).error("{} tx exist!", tx.getHash().toHex());
+                return null;
+            }
+            CoinData coinData = CoinDataUtil.parseCoinData(tx.getCoinData());
+            if (null == coinData) {
+                continue;
+            }
+            for (CoinFrom coinFrom : coinData.getFrom()) {
+                unionAccount(chainId, coinFrom, parent, i, keyOwner, prefetchKeys);
+                if (coinFrom.getLocked() != 0) {
+                    //解锁nonce的重复校验不区分账户, 同一解锁nonce的交易也放在同一组
+                    String lockedNonce = coinFrom.getAssetsChainId() + "-" + coinFrom.getAssetsId() + "-" + LedgerUtil.getNonceEncode(coinFrom.getNonce());
+                    unionKey(parent, i, keyOwner, lockedNonce);
+                }
+            }
+            for (CoinTo coinTo : coinData.getTo()) {
+                unionAccount(chainId, coinTo, parent, i, keyOwner, prefetchKeys);
+            }
+        }
+        repository.prefetchAccountStates(chainId, prefetchKeys.values());
+
+        int threads = validateThreads;
+        Map<Integer, Integer> groupPartition = new HashMap<>();
+        int[] partitionSize = new int[threads];
+        List<List<Transaction>> partitions = new ArrayList<>(threads);
+        for (int i = 0; i < threads; i++) {
+            partitions.add(new ArrayList<>());
+        }
+        //按区块顺序分配, 新分组放入当前交易最少的分区
+        for (int i = 0; i < size; i++) {
+            int root = find(parent, i);
+            Integer partition = groupPartition.get(root);
+            if (null == partition) {
+                partition = 0;
+                for (int p = 1; p < threads; p++) {
+                    if (partitionSize[p] < partitionSize[partition]) {
+                        partition = p;
+                    }
+                }
+                groupPartition.put(root, partition);
+            }
+            partitionSize[partition]++;
+            partitions.get(partition).add(txs.get(i));
+        }
+        partitions.removeIf(List::isEmpty);
+        return partitions;
+    }
+
+    private void unionAccount(int chainId, Coin coin, int[] parent, int txIndex, Map<String, Integer> keyOwner, Map<String, byte[]> prefetchKeys) {
+        String address = LedgerUtil.getRealAddressStr(coin.getAddress());
+        String assetKey = LedgerUtil.getKeyStr(address, coin.getAssetsChainId(), coin.getAssetsId());
+        unionKey(parent, txIndex, keyOwner, assetKey);
+        if (!LedgerUtil.isNotLocalChainAccount(chainId, coin.getAddress()) && !prefetchKeys.containsKey(assetKey)) {
+            prefetchKeys.put(assetKey, LedgerUtil.getKey(address, coin.getAssetsChainId(), coin.getAssetsId()));
+        }
+    }
+
+    private static void unionKey(int[] parent, int txIndex, Map<String, Integer> keyOwner, String key) {
+        Integer owner = keyOwner.putIfAbsent(key, txIndex);
+        if (null != owner) {
+            parent[find(parent, txIndex)] = find(parent, owner);
+        }
+    }
+
+    private static int find(int[] parent, int i) {
+        while (parent[i] != i) {
+            parent[i] = parent[parent[i]];
+            i = parent[i];
+        }
+        return i;
+    }
 
     /**
      * 批量逐笔校验
@@ -0,0 +1,62 @@
+package io.nuls.ledger.test.storage;
+
+import io.nuls.ledger.model.po.AccountState;
+import io.nuls.ledger.model.po.sub.FreezeHeightState;
+import io.nuls.ledger.storage.impl.AccountStateCache;
+import org.junit.Assert;
+import org.junit.Test;
+
+import java.math.BigInteger;
+import java.nio.charset.StandardCharsets;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * 已确认账户状态缓存测试
+ */
+public class AccountStateCacheTest {
+
+    @Test
+    public void loadAndPutTest() {
+        AccountStateCache cache = new AccountStateCache(100);
+        AtomicInteger loads = new AtomicInteger();
+        byte[] key = key("a");
+        //数据库不存在的账户也缓存, 只查一次库
+        Assert.assertNull(cache.get(key, k -> {
+            loads.incrementAndGet();
+            return null;
+        }));
+        Assert.assertNull(cache.get(key, k -> {
+            loads.incrementAndGet();
+            return null;
+        }));
+        Assert.assertEquals(1, loads.get());
+
+        AccountState accountState = new AccountState();
+        accountState.setTotalToAmount(BigInteger.TEN);
+        cache.put(key("a"), accountState);
+        Assert.assertSame(accountState, cache.get(key, k -> null));
+        cache.remove(key);
+        Assert.assertNull(cache.getIfPresent(key));
+        Assert.assertEquals(1L, cache.stats().get("missCount"));
+        Assert.assertEquals(3L, cache.stats().get("hitCount"));
+    }
+
+    @Test
+    public void weightTest() {
+        AccountStateCache cache = new AccountStateCache(10);
+        for (int i = 0; i < 5; i++) {
+            AccountState accountState = new AccountState();
+            for (int j = 0; j < 3; j++) {
+                accountState.getFreezeHeightStates().add(new FreezeHeightState());
+            }
+            cache.put(key("w" + i), accountState);
+        }
+        //每个账户权重为4, 容量10最多容纳2个
+        Assert.assertTrue(cache.size() <= 2);
+        Assert.assertTrue((Long) cache.stats().get("evictionCount") >= 3);
+    }
+
+    private static byte[] key(String address) {
+        return (address + "-1-1").getBytes(StandardCharsets.UTF_8);
+    }
+}
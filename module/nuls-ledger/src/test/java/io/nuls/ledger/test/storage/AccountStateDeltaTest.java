@@ -0,0 +1,67 @@
+package io.nuls.ledger.test.storage;
+
+import io.nuls.base.basic.AddressTool;
+import io.nuls.base.basic.NulsByteBuffer;
+import io.nuls.ledger.model.po.AccountState;
+import io.nuls.ledger.model.po.BlockSnapshotAccounts;
+import io.nuls.ledger.model.po.BlockSnapshotDelta;
+import io.nuls.ledger.model.po.sub.AccountStateDelta;
+import io.nuls.ledger.model.po.sub.AccountStateSnapshot;
+import io.nuls.ledger.model.po.sub.FreezeHeightState;
+import org.junit.Assert;
+import org.junit.Test;
+
+import java.math.BigInteger;
+
+/**
+ * 账户增量备份测试
+ */
+public class AccountStateDeltaTest {
+
+    private static final String ADDRESS = AddressTool.getStringAddressNoPrefix(AddressTool.getAddress(new byte[33], 2));
+
+    @Test
+    public void restoreTest() throws Exception {
+        AccountState pre = new AccountState(new byte[]{1, 1, 1, 1, 1, 1, 1, 1});
+        pre.setTotalToAmount(BigInteger.valueOf(1000));
+        pre.getFreezeHeightStates().add(freezeHeightState("a", 10));
+        AccountStateSnapshot snapshot = new AccountStateSnapshot(2, 2, 1, ADDRESS, pre.deepClone());
+
+        AccountState post = pre.deepClone();
+        post.setNonce(new byte[]{2, 2, 2, 2, 2, 2, 2, 2});
+        post.setTotalFromAmount(BigInteger.valueOf(100));
+        post.getFreezeHeightStates().add(freezeHeightState("b", 20));
+        post.setLatestUnFreezeTime(99);
+
+        BlockSnapshotDelta blockSnapshotDelta = new BlockSnapshotDelta();
+        blockSnapshotDelta.addAccountDelta(new AccountStateDelta(snapshot, post));
+        BlockSnapshotDelta parsed = new BlockSnapshotDelta();
+        parsed.parse(new NulsByteBuffer(blockSnapshotDelta.serialize()));
+        AccountStateDelta delta = parsed.getAccounts().get(0);
+
+        //增量备份比完整备份小
+        BlockSnapshotAccounts blockSnapshotAccounts = new BlockSnapshotAccounts();
+        blockSnapshotAccounts.addAccountState(snapshot);
+        Assert.assertTrue(blockSnapshotDelta.size() < blockSnapshotAccounts.size());
+        Assert.assertEquals(blockSnapshotDelta.size(), blockSnapshotDelta.serialize().length);
+
+        //在提交后与提交前的状态上还原, 结果相同
+        byte[] expected = pre.serialize();
+        AccountStateSnapshot fromPost = delta.toSnapshot(post);
+        AccountStateSnapshot fromPre = delta.toSnapshot(pre);
+        Assert.assertArrayEquals(expected, fromPost.getAccountState().serialize());
+        Assert.assertArrayEquals(expected, fromPre.getAccountState().serialize());
+        Assert.assertEquals(ADDRESS, fromPost.getAddress());
+        Assert.assertEquals(1, fromPost.getAssetId());
+        //当前状态不被修改
+        Assert.assertEquals(2, post.getFreezeHeightStates().size());
+    }
+
+    private static FreezeHeightState freezeHeightState(String txHash, long height) {
+        FreezeHeightState freezeHeightState = new FreezeHeightState();
+        freezeHeightState.setTxHash(txHash);
+        freezeHeightState.setHeight(height);
+        freezeHeightState.setAmount(BigInteger.TEN);
+        return freezeHeightState;
+    }
+}
@@ -0,0 +1,272 @@
+package io.nuls.ledger.test.validater;
+
+import io.nuls.base.basic.AddressTool;
+import io.nuls.base.data.CoinData;
+import io.nuls.base.data.CoinFrom;
+import io.nuls.base.data.CoinTo;
+import io.nuls.base.data.Transaction;
+import io.nuls.core.constant.TxType;
+import io.nuls.ledger.constant.LedgerConstant;
+import io.nuls.ledger.model.po.AccountState;
+import io.nuls.ledger.model.po.sub.FreezeLockTimeState;
+import io.nuls.ledger.service.AccountStateService;
+import io.nuls.ledger.service.TransactionService;
+import io.nuls.ledger.service.processor.LockedTransactionProcessor;
+import io.nuls.ledger.storage.Repository;
+import io.nuls.ledger.utils.LedgerUtil;
+import io.nuls.ledger.validator.CoinDataValidator;
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.lang.reflect.Field;
+import java.lang.reflect.Method;
+import java.lang.reflect.Proxy;
+import java.math.BigInteger;
+import java.util.*;
+
+/**
+ * 区块交易分组并行校验与逐笔校验的一致性测试
+ * 交易数超过并行校验阈值, 涵盖共享转出/转入账户、连续nonce和解锁交易
+ */
+public class CoinDataValidatorTest {
+
+    private static final int CHAIN_ID = 2;
+    private static final int ASSET_ID = 1;
+    private static final long HEIGHT = 100;
+    private static final int ACCOUNTS = 40;
+    private static final int GROUP_SIZE = 5;
+    private static final int TX_COUNT = 300;
+    private static final BigInteger BALANCE = BigInteger.valueOf(1000000);
+    private static final BigInteger LOCKED_AMOUNT = BigInteger.valueOf(100);
+
+    private CoinDataValidator validator;
+    private List<byte[]> accounts;
+    private Map<String, byte[][]> lockedNonces;
+    private Random random;
+
+    @Before
+    public void setUp() throws Exception {
+        random = new Random(20190801L);
+        accounts = new ArrayList<>(ACCOUNTS);
+        lockedNonces = new HashMap<>(ACCOUNTS);
+        for (int i = 0; i < ACCOUNTS; i++) {
+            byte[] address = AddressTool.getAddress(("validate-account-" + i).getBytes(), CHAIN_ID);
+            accounts.add(address);
+            byte[][] nonces = new byte[2][];
+            for (int k = 0; k < nonces.length; k++) {
+                nonces[k] = new byte[8];
+                random.nextBytes(nonces[k]);
+            }
+            lockedNonces.put(LedgerUtil.getRealAddressStr(address), nonces);
+        }
+
+        validator = new CoinDataValidator();
+        setField("repository", Proxy.newProxyInstance(Repository.class.getClassLoader(), new Class[]{Repository.class}, (proxy, method, args) -> {
+            switch (method.getName()) {
+                case "getBlockHeight":
+                    return HEIGHT - 1;
+                case "prefetchAccountStates":
+                    return null;
+                default:
+                    throw new UnsupportedOperationException(method.getName());
+            }
+        }));
+        setField("accountStateService", Proxy.newProxyInstance(AccountStateService.class.getClassLoader(), new Class[]{AccountStateService.class}, (proxy, method, args) -> {
+            if ("getAccountStateReCal".equals(method.getName())) {
+                return accountState((String) args[0]);
+            }
+            throw new UnsupportedOperationException(method.getName());
+        }));
+        setField("transactionService", Proxy.newProxyInstance(TransactionService.class.getClassLoader(), new Class[]{TransactionService.class}, (proxy, method, args) -> {
+            if ("hadTxExist".equals(method.getName())) {
+                return false;
+            }
+            throw new UnsupportedOperationException(method.getName());
+        }));
+        setField("txLockedProcessor", new LockedTransactionProcessor());
+        //单核环境下同样划分为多个分区
+        setField("validateThreads", 4);
+    }
+
+    @Test
+    public void validBlockTest() throws Exception {
+        List<Transaction> txs = buildBlock();
+        assertPartitions(txs);
+        Assert.assertTrue(validateInOrder(txs));
+        Assert.assertTrue(validator.blockValidate(CHAIN_ID, HEIGHT, txs));
+    }
+
+    @Test
+    public void brokenNonceChainTest() throws Exception {
+        List<Transaction> txs = buildBlock();
+        //组内最后一笔交易的nonce与前序交易不连续
+        byte[] from = accounts.get(ACCOUNTS - 1);
+        byte[] nonce = new byte[8];
+        random.nextBytes(nonce);
+        txs.add(transfer(from, accounts.get(ACCOUNTS - 2), BigInteger.TEN, nonce));
+        Assert.assertFalse(validateInOrder(txs));
+        Assert.assertFalse(validator.blockValidate(CHAIN_ID, HEIGHT, txs));
+    }
+
+    @Test
+    public void repeatedUnlockTest() throws Exception {
+        List<Transaction> txs = buildBlock();
+        //另一账户解锁同一个锁定nonce
+        byte[] owner = accounts.get(0);
+        byte[] other = accounts.get(ACCOUNTS - 1);
+        byte[] nonce = lockedNonces.get(LedgerUtil.getRealAddressStr(owner))[0];
+        lockedNonces.get(LedgerUtil.getRealAddressStr(other))[1] = nonce;
+        txs.add(unlock(other, nonce));
+        Assert.assertFalse(validateInOrder(txs));
+        Assert.assertFalse(validator.blockValidate(CHAIN_ID, HEIGHT, txs));
+    }
+
+    @Test
+    public void balanceNotEnoughTest() throws Exception {
+        List<Transaction> txs = buildBlock();
+        //账户转出超过余额
+        byte[] from = accounts.get(ACCOUNTS - 1);
+        txs.add(transfer(from, accounts.get(ACCOUNTS - 2), BALANCE.multiply(BigInteger.TEN), lastNonce(txs, from)));
+        Assert.assertFalse(validateInOrder(txs));
+        Assert.assertFalse(validator.blockValidate(CHAIN_ID, HEIGHT, txs));
+    }
+
+    /**
+     * 账户按组划分, 组内账户互相转账形成连续nonce, 每个账户各有一笔解锁交易, 另有部分交易连接两个组
+     */
+    private List<Transaction> buildBlock() throws Exception {
+        Map<String, byte[]> nonces = new HashMap<>(ACCOUNTS);
+        List<Transaction> txs = new ArrayList<>(TX_COUNT + ACCOUNTS);
+        int groups = ACCOUNTS / GROUP_SIZE;
+        for (int i = 0; i < TX_COUNT; i++) {
+            int group = random.nextInt(groups);
+            byte[] from = accounts.get(group * GROUP_SIZE + random.nextInt(GROUP_SIZE));
+            byte[] to = accounts.get(group * GROUP_SIZE + random.nextInt(GROUP_SIZE));
+            if (i % 50 == 49) {
+                //连接相邻的两个组
+                to = accounts.get(((group + 1) % groups) * GROUP_SIZE);
+            }
+            String fromKey = AddressTool.getStringAddressByBytes(from);
+            byte[] nonce = nonces.getOrDefault(fromKey, LedgerConstant.getInitNonceByte());
+            Transaction tx = transfer(from, to, BigInteger.valueOf(10 + random.nextInt(10)), nonce);
+            nonces.put(fromKey, LedgerUtil.getNonceByTx(tx));
+            txs.add(tx);
+        }
+        for (byte[] account : accounts) {
+            txs.add(random.nextInt(txs.size()), unlock(account, lockedNonces.get(LedgerUtil.getRealAddressStr(account))[0]));
+        }
+        //插入解锁交易后重新按顺序给出每个账户的nonce链
+        nonces.clear();
+        for (Transaction tx : txs) {
+            if (tx.getType() != TxType.TRANSFER) {
+                continue;
+            }
+            CoinData coinData = tx.getCoinDataInstance();
+            CoinFrom coinFrom = coinData.getFrom().get(0);
+            String fromKey = AddressTool.getStringAddressByBytes(coinFrom.getAddress());
+            Assert.assertArrayEquals(nonces.getOrDefault(fromKey, LedgerConstant.getInitNonceByte()), coinFrom.getNonce());
+            nonces.put(fromKey, LedgerUtil.getNonceByTx(tx));
+        }
+        return txs;
+    }
+
+    private byte[] lastNonce(List<Transaction> txs, byte[] address) throws Exception {
+        byte[] nonce = LedgerConstant.getInitNonceByte();
+        for (Transaction tx : txs) {
+            CoinFrom coinFrom = tx.getCoinDataInstance().getFrom().get(0);
+            if (coinFrom.getLocked() == 0 && Arrays.equals(address, coinFrom.getAddress())) {
+                nonce = LedgerUtil.getNonceByTx(tx);
+            }
+        }
+        return nonce;
+    }
+
+    private Transaction transfer(byte[] from, byte[] to, BigInteger amount, byte[] nonce) throws Exception {
+        CoinData coinData = new CoinData();
+        coinData.addFrom(new CoinFrom(from, CHAIN_ID, ASSET_ID, amount, nonce, (byte) 0));
+        coinData.addTo(new CoinTo(to, CHAIN_ID, ASSET_ID, amount.subtract(BigInteger.ONE)));
+        return newTx(TxType.TRANSFER, coinData);
+    }
+
+    private Transaction unlock(byte[] address, byte[] lockedNonce) throws Exception {
+        CoinData coinData = new CoinData();
+        coinData.addFrom(new CoinFrom(address, CHAIN_ID, ASSET_ID, LOCKED_AMOUNT, lockedNonce, (byte) LedgerConstant.UNLOCKED_TIME));
+        coinData.addTo(new CoinTo(address, CHAIN_ID, ASSET_ID, LOCKED_AMOUNT));
+        return newTx(TxType.STOP_AGENT, coinData);
+    }
+
+    private Transaction newTx(int type, CoinData coinData) throws Exception {
+        Transaction tx = new Transaction(type);
+        tx.setTime(random.nextInt(Integer.MAX_VALUE));
+        tx.setRemark(String.valueOf(random.nextLong()).getBytes());
+        tx.setCoinData(coinData.serialize());
+        return tx;
+    }
+
+    private AccountState accountState(String address) {
+        AccountState accountState = new AccountState();
+        accountState.setTotalToAmount(BALANCE);
+        for (byte[] nonce : lockedNonces.get(address)) {
+            FreezeLockTimeState timeState = new FreezeLockTimeState();
+            timeState.setNonce(nonce);
+            timeState.setAmount(LOCKED_AMOUNT);
+            timeState.setLockTime(1);
+            accountState.getFreezeLockTimeStates().add(timeState);
+        }
+        return accountState;
+    }
+
+    /**
+     * 逐笔校验, 与交易数低于并行阈值时的校验相同
+     */
+    private boolean validateInOrder(List<Transaction> txs) throws Exception {
+        for (Transaction tx : txs) {
+            tx.setBlockHeight(HEIGHT);
+        }
+        Method method = CoinDataValidator.class.getDeclaredMethod("blockValidateInOrder", int.class, List.class);
+        method.setAccessible(true);
+        return (Boolean) method.invoke(validator, CHAIN_ID, txs);
+    }
+
+    /**
+     * 分区覆盖全部交易且保持区块顺序, 同一账户的交易不跨分区
+     */
+    @SuppressWarnings("unchecked")
+    private void assertPartitions(List<Transaction> txs) throws Exception {
+        Method method = CoinDataValidator.class.getDeclaredMethod("partitionByAccount", int.class, List.class);
+        method.setAccessible(true);
+        List<List<Transaction>> partitions = (List<List<Transaction>>) method.invoke(validator, CHAIN_ID, txs);
+        Assert.assertTrue(partitions.size() > 1);
+        Map<Transaction, Integer> index = new IdentityHashMap<>();
+        for (int i = 0; i < txs.size(); i++) {
+            index.put(txs.get(i), i);
+        }
+        Map<String, Integer> accountPartition = new HashMap<>();
+        int total = 0;
+        for (int p = 0; p < partitions.size(); p++) {
+            int last = -1;
+            for (Transaction tx : partitions.get(p)) {
+                int i = index.get(tx);
+                Assert.assertTrue(i > last);
+                last = i;
+                CoinData coinData = tx.getCoinDataInstance();
+                List<byte[]> addresses = new ArrayList<>();
+                coinData.getFrom().forEach(coin -> addresses.add(coin.getAddress()));
+                coinData.getTo().forEach(coin -> addresses.add(coin.getAddress()));
+                for (byte[] address : addresses) {
+                    Integer owner = accountPartition.putIfAbsent(AddressTool.getStringAddressByBytes(address), p);
+                    Assert.assertTrue(null == owner || owner == p);
+                }
+            }
+            total += partitions.get(p).size();
+        }
+        Assert.assertEquals(txs.size(), total);
+    }
+
+    private void setField(String name, Object value) throws Exception {
+        Field field = CoinDataValidator.class.getDeclaredField(name);
+        field.setAccessible(true);
+        field.set(validator, value);
+    }
+}
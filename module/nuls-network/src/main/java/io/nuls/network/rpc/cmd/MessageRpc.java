@@ -122,7 +122,7 @@ public class MessageRpc extends BaseCmd {
     @Parameters(value = {
             @Parameter(parameterName = "chainId", requestType = @TypeDescriptor(value = int.class), parameterValidRange = "[1-65535]", parameterDes = "连接的链Id,取值区间[1-65535]"),
             @Parameter(parameterName = "excludeNodes", requestType = @TypeDescriptor(value = String.class), parameterDes = "排除peer节点Id，用逗号分割"),
-            @Parameter(parameterName = "messageBody", requestType = @TypeDescriptor(value = String.class), parameterDes = "消息体Hex"),
+            @Parameter(parameterName = "messageBody", requestType = @TypeDescriptor(value = String.class), parameterDes = "消息体, 二进制帧中为byte[], 文本帧中为Hex"),
             @Parameter(parameterName = "command", requestType = @TypeDescriptor(value = String.class), parameterDes = "消息协议指令"),
             @Parameter(parameterName = "isCross", requestType = @TypeDescriptor(value = boolean.class), parameterDes = "是否是跨链"),
             @Parameter(parameterName = "percent", requestType = @TypeDescriptor(value = int.class), parameterDes = "广播发送比例,不填写,默认100"),
@@ -138,8 +138,8 @@ public class MessageRpc extends BaseCmd {
         try {
             int chainId = Integer.valueOf(String.valueOf(params.get("chainId")));
             String excludeNodes = String.valueOf(params.get("excludeNodes"));
-            String messageBodyStr = String.valueOf(params.get("messageBody"));
-            byte[] messageBody = RPCUtil.decode(messageBodyStr);
+            //二进制帧连接中消息体为byte[]，文本帧连接中为hex字符串
+            byte[] messageBody = RPCUtil.decode(params.get("messageBody"));
             String cmd = String.valueOf(params.get("command"));
             Object percentParam = params.get("percent");
             if (null != percentParam) {
@@ -191,7 +191,7 @@ public class MessageRpc extends BaseCmd {
     @Parameters(value = {
             @Parameter(parameterName = "chainId", requestType = @TypeDescriptor(value = int.class), parameterValidRange = "[1-65535]", parameterDes = "连接的链Id,取值区间[1-65535]"),
             @Parameter(parameterName = "nodes", requestType = @TypeDescriptor(value = String.class), parameterDes = "指定发送peer节点Id，用逗号拼接的字符串"),
-            @Parameter(parameterName = "messageBody", requestType = @TypeDescriptor(value = String.class), parameterDes = "消息体Hex"),
+            @Parameter(parameterName = "messageBody", requestType = @TypeDescriptor(value = String.class), parameterDes = "消息体, 二进制帧中为byte[], 文本帧中为Hex"),
             @Parameter(parameterName = "command", requestType = @TypeDescriptor(value = String.class), parameterDes = "消息协议指令")
     })
     @ResponseData(description = "无特定返回值，没有错误即成功")
@@ -199,8 +199,8 @@ public class MessageRpc extends BaseCmd {
         try {
             int chainId = Integer.valueOf(String.valueOf(params.get("chainId")));
             String nodes = String.valueOf(params.get("nodes"));
-            String messageBodyStr = String.valueOf(params.get("messageBody"));
-            byte[] messageBody = RPCUtil.decode(messageBodyStr);
+            //二进制帧连接中消息体为byte[]，文本帧连接中为hex字符串
+            byte[] messageBody = RPCUtil.decode(params.get("messageBody"));
             String cmd = String.valueOf(params.get("command"));
             MessageManager messageManager = MessageManager.getInstance();
             NodeGroupManager nodeGroupManager = NodeGroupManager.getInstance();
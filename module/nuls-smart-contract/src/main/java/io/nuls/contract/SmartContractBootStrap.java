@@ -36,6 +36,7 @@ import io.nuls.core.rpc.modulebootstrap.RpcModule;
 import io.nuls.core.rpc.modulebootstrap.RpcModuleState;
 import io.nuls.core.rpc.util.AddressPrefixDatas;
 import io.nuls.core.rpc.util.NulsDateUtils;
+import org.ethereum.config.SystemProperties;
 
 import java.io.File;
 import java.lang.reflect.Field;
@@ -85,6 +86,7 @@ public class SmartContractBootStrap extends RpcModule {
             AddressTool.init(addressPrefixDatas);
             initContractDefaultLog();
             initNulsConfig();
+            initStatePrune();
             initDB();
             initNRC20Standard();
             initNRC721Standard();
@@ -108,6 +110,18 @@ public class SmartContractBootStrap extends RpcModule {
         }
     }
 
+    /**
+     * 合约状态裁剪配置, 需在创建合约状态数据库之前设置
+     */
+    private void initStatePrune() {
+        if (!contractConfig.isStatePruneEnabled()) {
+            return;
+        }
+        int depth = Math.max(contractConfig.getStatePruneDepth(), MIN_STATE_PRUNE_DEPTH);
+        SystemProperties.getDefault().overrideParams("database.prune.enabled", "true", "database.prune.maxDepth", String.valueOf(depth));
+        Log.info("contract state prune enabled, depth is {}", depth);
+    }
+
     /**
      * 初始化系统编码
      * Initialization System Coding
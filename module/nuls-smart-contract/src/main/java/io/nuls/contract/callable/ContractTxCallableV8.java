@@ -80,6 +80,10 @@ public class ContractTxCallableV8 {
     private int blockType;
     private long blockTime;
     private BatchInfoV8 batchInfo;
+    /**
+     * 调用合约交易的预执行结果, 为null时在本线程执行
+     */
+    private ContractResult preCallResult;
 
 
     public ContractTxCallableV8(int chainId, int blockType, long blockTime, ProgramExecutor executor, String contract, ContractWrapperTransaction tx, long number, String preStateRoot) {
@@ -98,6 +102,11 @@ public class ContractTxCallableV8 {
         this.preStateRoot = preStateRoot;
     }
 
+    public ContractTxCallableV8(int chainId, int blockType, long blockTime, ProgramExecutor executor, String contract, ContractWrapperTransaction tx, long number, String preStateRoot, ContractResult preCallResult) {
+        this(chainId, blockType, blockTime, executor, contract, tx, number, preStateRoot);
+        this.preCallResult = preCallResult;
+    }
+
     public ContractResult call() throws Exception {
         ChainManager.chainHandle(chainId, blockType);
         this.batchInfo = contractHelper.getChain(chainId).getBatchInfoV8();
@@ -136,7 +145,11 @@ public class ContractTxCallableV8 {
                         break;
                     }
                     contractHelper.extractAssetInfoFromCallTransaction((CallContractData) contractData, tx);
-                    contractResult = contractExecutor.call(executor, contractData, number, preStateRoot, extractPublicKey(tx));
+                    if (preCallResult != null && type == CALL_CONTRACT) {
+                        contractResult = preCallResult;
+                    } else {
+                        contractResult = contractExecutor.call(executor, contractData, number, preStateRoot, extractPublicKey(tx));
+                    }
                     checkCallResult(tx, contractResult);
                     break;
                 case DELETE_CONTRACT:
@@ -0,0 +1,74 @@
+/**
+ * MIT License
+ * <p>
+ * Copyright (c) 2017-2019 nuls.io
+ * <p>
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ * <p>
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ * <p>
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package io.nuls.contract.callable;
+
+import io.nuls.contract.helper.ContractHelper;
+import io.nuls.contract.manager.ChainManager;
+import io.nuls.contract.model.bo.ContractResult;
+import io.nuls.contract.model.bo.ContractWrapperTransaction;
+import io.nuls.contract.model.txdata.CallContractData;
+import io.nuls.contract.model.txdata.ContractData;
+import io.nuls.contract.service.ContractExecutor;
+import io.nuls.contract.vm.program.ProgramExecutor;
+import io.nuls.core.core.ioc.SpringLiteContext;
+
+import java.util.concurrent.Callable;
+
+import static io.nuls.contract.util.ContractUtil.extractPublicKey;
+
+/**
+ * 调用合约交易的预执行, 基于批次开始时的状态执行且不提交, 结果由批次按区块顺序检查读写冲突后决定是否采用
+ * Speculative execution of a call contract transaction against the state at the start of the batch without committing,
+ * the batch decides whether to use the result after checking read/write conflicts in block order
+ */
+public class ContractTxPreCallable implements Callable<ContractResult> {
+
+    private ContractExecutor contractExecutor;
+    private ContractHelper contractHelper;
+    private ProgramExecutor executor;
+    private ContractWrapperTransaction tx;
+    private long number;
+    private String preStateRoot;
+    private int chainId;
+    private int blockType;
+
+    public ContractTxPreCallable(int chainId, int blockType, ProgramExecutor executor, ContractWrapperTransaction tx, long number, String preStateRoot) {
+        this.chainId = chainId;
+        this.blockType = blockType;
+        this.contractExecutor = SpringLiteContext.getBean(ContractExecutor.class);
+        this.contractHelper = SpringLiteContext.getBean(ContractHelper.class);
+        this.executor = executor;
+        this.tx = tx;
+        this.number = number;
+        this.preStateRoot = preStateRoot;
+    }
+
+    @Override
+    public ContractResult call() throws Exception {
+        ChainManager.chainHandle(chainId, blockType);
+        ContractData contractData = tx.getContractData();
+        contractHelper.extractAssetInfoFromCallTransaction((CallContractData) contractData, tx);
+        return contractExecutor.call(executor, contractData, number, preStateRoot, extractPublicKey(tx));
+    }
+}
@@ -68,6 +68,32 @@ public class ContractConfig implements ModuleConfig {
 
     private String crossTokenSystemContract;
 
+    /**
+     * 是否裁剪合约历史状态
+     */
+    private boolean statePruneEnabled;
+
+    /**
+     * 合约状态保留的区块高度数, 不小于区块最大回滚高度
+     */
+    private int statePruneDepth;
+
+    public boolean isStatePruneEnabled() {
+        return statePruneEnabled;
+    }
+
+    public void setStatePruneEnabled(boolean statePruneEnabled) {
+        this.statePruneEnabled = statePruneEnabled;
+    }
+
+    public int getStatePruneDepth() {
+        return statePruneDepth;
+    }
+
+    public void setStatePruneDepth(int statePruneDepth) {
+        this.statePruneDepth = statePruneDepth;
+    }
+
     public String getCrossTokenSystemContract() {
         return crossTokenSystemContract;
     }
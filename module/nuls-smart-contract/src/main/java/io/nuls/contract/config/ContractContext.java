@@ -70,4 +70,9 @@ public class ContractContext {
     public static short UPDATE_VERSION_CONTRACT_ASSET = 8;
 
     public static short UPDATE_VERSION_CONTRACT_BALANCE = 9;
+
+    /**
+     * 合约对象状态使用二进制编码存储, 须为新增的协议版本, 否则已生效该版本的链上新旧节点状态根不一致
+     */
+    public static short UPDATE_VERSION_BINARY_STATE = 11;
 }
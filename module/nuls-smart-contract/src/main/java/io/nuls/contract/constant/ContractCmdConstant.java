@@ -34,6 +34,7 @@ public interface ContractCmdConstant {
      */
     String BATCH_BEGIN = "sc_batch_begin";
     String INVOKE_CONTRACT = "sc_invoke_contract";
+    String INVOKE_CONTRACT_BATCH = "sc_invoke_contract_batch";
     String BATCH_BEFORE_END = "sc_batch_before_end";
     String BATCH_END = "sc_batch_end";
     String PACKAGE_BATCH_END = "sc_package_batch_end";
@@ -74,6 +74,12 @@ public interface ContractConstant {
 
     long CONTRACT_MINIMUM_PRICE = 25;
 
+    /**
+     * 合约状态裁剪的最小深度, 须大于区块模块允许的最大回滚高度(1000), 保证回滚到的区块状态根仍然完整
+     * Minimum contract state prune depth, must be greater than the max rollback height of the block module
+     */
+    int MIN_STATE_PRUNE_DEPTH = 1001;
+
 
 
     /**
@@ -32,6 +32,7 @@ import io.nuls.contract.constant.ContractConstant;
 import io.nuls.contract.constant.ContractErrorCode;
 import io.nuls.contract.helper.ContractHelper;
 import io.nuls.contract.model.bo.ContractBalance;
+import io.nuls.contract.vm.program.ProgramAccessRecord;
 import io.nuls.core.basic.Result;
 import io.nuls.core.core.ioc.SpringLiteContext;
 
@@ -59,6 +60,11 @@ public class ContractTempBalanceManager {
 
     private ContractHelper contractHelper;
 
+    /**
+     * 记录临时余额被访问的地址, 为null时不记录; 返回的余额对象可能被调用方修改, 读取也记为写入
+     */
+    private ProgramAccessRecord accessRecord;
+
     public static ContractTempBalanceManager newInstance(int chainId) {
         ContractTempBalanceManager temp = new ContractTempBalanceManager();
         temp.chainId = chainId;
@@ -84,6 +90,7 @@ public class ContractTempBalanceManager {
                 return Result.getFailed(ContractErrorCode.PARAMETER_ERROR);
             }
 
+            recordAccess(address);
             String addressKey = balanceKey(address, assetChainId,  assetId);
             ContractBalance balance = tempBalanceMap.get(addressKey);
             // 临时余额区没有余额，则从真实余额中取值
@@ -105,6 +112,7 @@ public class ContractTempBalanceManager {
     public void addTempBalance(byte[] address, BigInteger amount, int assetChainId, int assetId) {
         lock.lock();
         try {
+            recordAccess(address);
             ContractBalance contractBalance = tempBalanceMap.get(balanceKey(address, assetChainId,  assetId));
             if (contractBalance != null) {
                 contractBalance.addTemp(amount);
@@ -117,6 +125,7 @@ public class ContractTempBalanceManager {
     public void minusTempBalance(byte[] address, BigInteger amount, int assetChainId, int assetId) {
         lock.lock();
         try {
+            recordAccess(address);
             ContractBalance contractBalance = tempBalanceMap.get(balanceKey(address, assetChainId,  assetId));
             if (contractBalance != null) {
                 contractBalance.minusTemp(amount);
@@ -129,6 +138,7 @@ public class ContractTempBalanceManager {
     public void addLockedTempBalance(byte[] address, BigInteger amount, int assetChainId, int assetId) {
         lock.lock();
         try {
+            recordAccess(address);
             ContractBalance contractBalance = tempBalanceMap.get(balanceKey(address, assetChainId,  assetId));
             if (contractBalance != null) {
                 contractBalance.addLockedTemp(amount);
@@ -141,6 +151,7 @@ public class ContractTempBalanceManager {
     public void minusLockedTempBalance(byte[] address, BigInteger amount, int assetChainId, int assetId) {
         lock.lock();
         try {
+            recordAccess(address);
             ContractBalance contractBalance = tempBalanceMap.get(balanceKey(address, assetChainId,  assetId));
             if (contractBalance != null) {
                 contractBalance.minusLockedTemp(amount);
@@ -150,4 +161,23 @@ public class ContractTempBalanceManager {
         }
     }
 
+    /**
+     * 设置访问记录, 传入null时停止记录
+     * Set the access record, recording stops when null is passed
+     */
+    public void setAccessRecord(ProgramAccessRecord accessRecord) {
+        lock.lock();
+        try {
+            this.accessRecord = accessRecord;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    private void recordAccess(byte[] address) {
+        if (accessRecord != null) {
+            accessRecord.recordBalanceWrite(address);
+        }
+    }
+
 }
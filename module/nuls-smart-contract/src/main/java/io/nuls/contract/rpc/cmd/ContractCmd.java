@@ -171,6 +171,44 @@ public class ContractCmd extends BaseCmd {
         }
     }
 
+    @CmdAnnotation(cmd = INVOKE_CONTRACT_BATCH, version = 1.0, description = "批次通知开始后，批量执行区块中的合约交易，结果与逐笔执行一致/invoke contract batch")
+    @Parameters(value = {
+        @Parameter(parameterName = "chainId", parameterType = "int", parameterDes = "链id"),
+        @Parameter(parameterName = "blockType", parameterType = "int", parameterDes = "区块处理模式, 打包区块 - 0, 验证区块 - 1"),
+        @Parameter(parameterName = "txList", parameterType = "List<String>", parameterDes = "按区块顺序排列的交易序列化的HEX编码字符串")
+    })
+    @ResponseData(name = "返回值", description = "返回一个Map对象，如果返回错误，则这批交易验证失败", responseType = @TypeDescriptor(value = Map.class, mapKeys = {
+        @Key(name = "list", valueType = List.class, valueElement = Map.class, description = "与交易列表顺序一致的执行结果, 包含success, gasUsed, txList")
+    }))
+    public Response invokeContractBatch(Map<String, Object> params) {
+        try {
+            Integer chainId = (Integer) params.get("chainId");
+            Integer blockType = (Integer) params.get("blockType");
+            ChainManager.chainHandle(chainId, blockType);
+            if (ProtocolGroupManager.getCurrentVersion(chainId) < ContractContext.UPDATE_VERSION_CONTRACT_ASSET) {
+                return failed("Batch invoke is not supported by the current protocol version.");
+            }
+            List<String> txDataList = (List<String>) params.get("txList");
+            List<ContractTempTransaction> txList = new ArrayList<>(txDataList.size());
+            for (String txData : txDataList) {
+                ContractTempTransaction tx = new ContractTempTransaction();
+                tx.setTxHex(txData);
+                tx.parse(RPCUtil.decode(txData), 0);
+                txList.add(tx);
+            }
+            Result result = contractService.invokeContractBatchV8(chainId, txList);
+            if (result.isFailed()) {
+                return wrapperFailed(result);
+            }
+            Map<String, Object> resultMap = new HashMap<>(2);
+            resultMap.put(RPC_COLLECTION_RESULT_KEY, result.getData());
+            return success(resultMap);
+        } catch (Exception e) {
+            Log.error(e);
+            return failed(e.getMessage());
+        }
+    }
+
     @CmdAnnotation(cmd = BATCH_BEFORE_END, version = 1.0, description = "交易模块打包完交易，在做统一验证前，通知合约模块，合约模块停止接收交易，开始异步处理这个批次的结果/batch before end")
     @Parameters(value = {
         @Parameter(parameterName = "chainId", parameterType = "int", parameterDes = "链id"),
@@ -32,6 +32,7 @@ import io.nuls.core.basic.Result;
 import io.nuls.core.exception.NulsException;
 
 import java.util.List;
+import java.util.concurrent.Future;
 
 /**
  * @author: PierreLuo
@@ -43,6 +44,12 @@ public interface ContractCaller {
 
     Result callBatchEnd(int chainId, long blockHeight);
 
+    /**
+     * 多线程预执行调用合约交易, 返回的结果未提交, 与交易列表一一对应
+     * Speculatively execute call contract transactions in parallel, the uncommitted results match the transaction list
+     */
+    List<Future<ContractResult>> preCallTx(int chainId, ProgramExecutor batchExecutor, List<ContractWrapperTransaction> txList, long number, String preStateRoot);
+
     List<ContractResult> reCallTx(ProgramExecutor batchExecutor, List<ContractWrapperTransaction> reCallTxList, int chainId, String preStateRoot) throws NulsException;
 
 }
@@ -31,6 +31,8 @@ import io.nuls.contract.model.po.ContractOfflineTxHashPo;
 import io.nuls.core.basic.Result;
 import io.nuls.core.exception.NulsException;
 
+import java.util.List;
+
 /**
  * @author: PierreLuo
  * @date: 2018/11/19
@@ -55,6 +57,13 @@ public interface ContractService {
 
     Result invokeContractOneByOneV8(int chainId, ContractTempTransaction tx);
 
+    /**
+     * 批量执行区块中的合约交易, 调用合约交易先并行预执行, 再按区块顺序提交, 结果与逐笔执行一致
+     * Execute the contract transactions of a block in one call, call transactions are speculatively executed in
+     * parallel and then committed in block order, with the same results as one-by-one execution
+     */
+    Result invokeContractBatchV8(int chainId, List<ContractTempTransaction> txList);
+
     Result saveContractExecuteResult(int chainId, NulsHash hash, ContractResult contractResult);
 
     Result deleteContractExecuteResult(int chainId, NulsHash hash);
@@ -27,6 +27,7 @@ import io.nuls.base.basic.AddressTool;
 import io.nuls.base.data.BlockHeader;
 import io.nuls.contract.callable.ContractBatchEndCallable;
 import io.nuls.contract.callable.ContractTxCallable;
+import io.nuls.contract.callable.ContractTxPreCallable;
 import io.nuls.contract.helper.ContractConflictChecker;
 import io.nuls.contract.helper.ContractHelper;
 import io.nuls.contract.helper.ContractNewTxHandler;
@@ -138,6 +139,17 @@ public class ContractCallerImpl implements ContractCaller {
         }
     }
 
+    @Override
+    public List<Future<ContractResult>> preCallTx(int chainId, ProgramExecutor batchExecutor, List<ContractWrapperTransaction> txList, long number, String preStateRoot) {
+        Integer blockType = Chain.currentThreadBlockType();
+        List<Future<ContractResult>> futureList = new ArrayList<>(txList.size());
+        for (ContractWrapperTransaction tx : txList) {
+            ContractTxPreCallable txCallable = new ContractTxPreCallable(chainId, blockType, batchExecutor, tx, number, preStateRoot);
+            futureList.add(TX_EXECUTOR_SERVICE.submit(txCallable));
+        }
+        return futureList;
+    }
+
     @Override
     public List<ContractResult> reCallTx(ProgramExecutor batchExecutor, List<ContractWrapperTransaction> reCallTxList, int chainId, String preStateRoot) throws NulsException {
         BlockHeader currentBlockHeader = contractHelper.getBatchInfoCurrentBlockHeader(chainId);
@@ -47,6 +47,7 @@ import io.nuls.contract.storage.ContractExecuteResultStorageService;
 import io.nuls.contract.storage.ContractOfflineTxHashListStorageService;
 import io.nuls.contract.util.ContractUtil;
 import io.nuls.contract.util.Log;
+import io.nuls.contract.vm.program.ProgramAccessRecord;
 import io.nuls.contract.vm.program.ProgramExecutor;
 import io.nuls.contract.vm.program.ProgramInvokeRegisterCmd;
 import io.nuls.contract.vm.program.ProgramNewTx;
@@ -262,7 +263,129 @@ public class ContractServiceImpl implements ContractService {
         }
     }
 
+    @Override
+    public Result invokeContractBatchV8(int chainId, List<ContractTempTransaction> txList) {
+        Chain chain = contractHelper.getChain(chainId);
+        BatchInfoV8 batchInfo = chain.getBatchInfoV8();
+        String preStateRoot = batchInfo.getPreStateRoot();
+        ProgramExecutor batchExecutor = batchInfo.getBatchExecutor();
+        ContractTempBalanceManager tempBalanceManager = batchInfo.getTempBalanceManager();
+        long lastestHeight = batchInfo.getCurrentBlockHeader().getHeight() - 1;
+        int size = txList.size();
+        // 批次执行期间, 跟踪执行器记录状态读写
+        ProgramAccessRecord committedRecord = new ProgramAccessRecord();
+        batchExecutor.setRecordAccess(true);
+        batchExecutor.setSpeculative(true);
+        try {
+            Log.info("[Invoke Contract Batch] tx count is [{}]", size);
+            List<ContractWrapperTransaction> wrapperTxList = new ArrayList<>(size);
+            List<ContractWrapperTransaction> preCallTxList = new ArrayList<>();
+            for (ContractTempTransaction tx : txList) {
+                tx.setChainId(chainId);
+                ContractWrapperTransaction wrapperTx = ContractUtil.parseContractTransaction(tx, chainManager);
+                wrapperTxList.add(wrapperTx);
+                if (wrapperTx == null) {
+                    continue;
+                }
+                wrapperTx.setOrder(batchInfo.getAndIncreaseTxCounter());
+                if (wrapperTx.getType() == CALL_CONTRACT && ContractUtil.checkPrice(wrapperTx.getContractData().getPrice())) {
+                    preCallTxList.add(wrapperTx);
+                }
+            }
+            // 多线程预执行调用合约交易, 等待全部完成后再按顺序提交
+            List<Future<ContractResult>> futureList = contractCaller.preCallTx(chainId, batchExecutor, preCallTxList, lastestHeight, preStateRoot);
+            Map<String, ContractResult> preCallResultMap = new HashMap<>();
+            for (int i = 0, preCallSize = preCallTxList.size(); i < preCallSize; i++) {
+                String hash = preCallTxList.get(i).getHash().toString();
+                try {
+                    preCallResultMap.put(hash, futureList.get(i).get());
+                } catch (ExecutionException e) {
+                    Log.warn("Pre-call contract failed, tx hash is [{}], error is {}", hash, e.getMessage());
+                }
+            }
+            // 按顺序提交期间的执行不是预执行, 可以调用外部模块命令
+            batchExecutor.setSpeculative(false);
+            // 预执行全部完成后才记录临时余额的访问, 按顺序提交期间的访问记入已提交交易的写入, 预执行期间的余额读取不计入
+            tempBalanceManager.setAccessRecord(committedRecord);
+
+            List<Map<String, Object>> resultList = new ArrayList<>(size);
+            int reusedCount = 0;
+            for (int i = 0; i < size; i++) {
+                ContractWrapperTransaction wrapperTx = wrapperTxList.get(i);
+                if (wrapperTx == null) {
+                    Map<String, Object> _result = new HashMap<>();
+                    _result.put("success", true);
+                    _result.put("gasUsed", 0);
+                    _result.put("txList", List.of());
+                    resultList.add(_result);
+                    continue;
+                }
+                // 验证合约交易
+                Result validResult = this.validContractTx(chainId, txList.get(i));
+                if (validResult.isFailed()) {
+                    return validResult;
+                }
+                String hash = wrapperTx.getHash().toString();
+                ContractResult preCallResult = preCallResultMap.remove(hash);
+                if (preCallResult != null && !isPreCallResultValid(preCallResult, committedRecord)) {
+                    preCallResult = null;
+                }
+                if (preCallResult != null) {
+                    reusedCount++;
+                }
+                // 执行合约, 预执行结果有效时直接使用, 否则重新执行
+                Result result = callTx(chainId, batchExecutor, wrapperTx, preStateRoot, batchInfo, preCallResult);
+                if (result.isFailed()) {
+                    return result;
+                }
+                ContractResult contractResult = batchInfo.getContractResultMap().get(hash);
+                if (contractResult != null && contractResult.getTxTrack() instanceof ProgramExecutor) {
+                    ProgramAccessRecord accessRecord = ((ProgramExecutor) contractResult.getTxTrack()).getAccessRecord();
+                    if (accessRecord != null) {
+                        committedRecord.mergeWrites(accessRecord);
+                    }
+                }
+                Map<String, Object> map = (Map<String, Object>) result.getData();
+                Map<String, Object> _result = new HashMap<>();
+                _result.put("success", map.get("success"));
+                _result.put("gasUsed", map.get("gasUsed"));
+                _result.put("txList", map.get("txList"));
+                resultList.add(_result);
+            }
+            Log.info("[Invoke Contract Batch] pre-call count is [{}], reused count is [{}]", preCallTxList.size(), reusedCount);
+            return getSuccess().setData(resultList);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            Log.error(e);
+            return getFailed().setMsg(e.getMessage());
+        } catch (NulsException e) {
+            Log.error(e);
+            return Result.getFailed(e.getErrorCode() == null ? FAILED : e.getErrorCode());
+        } finally {
+            batchExecutor.setRecordAccess(false);
+            batchExecutor.setSpeculative(false);
+            tempBalanceManager.setAccessRecord(null);
+        }
+    }
+
+    /**
+     * 预执行结果的读取未被前序交易写入时才有效; 执行到外部模块命令而停止的预执行须按顺序重新执行
+     */
+    private boolean isPreCallResultValid(ContractResult preCallResult, ProgramAccessRecord committedRecord) {
+        Object txTrack = preCallResult.getTxTrack();
+        if (!(txTrack instanceof ProgramExecutor)) {
+            return false;
+        }
+        ProgramAccessRecord accessRecord = ((ProgramExecutor) txTrack).getAccessRecord();
+        return accessRecord != null && !accessRecord.isAborted() && preCallResult.getInvokeRegisterCmds().isEmpty()
+                && !accessRecord.conflictsWith(committedRecord);
+    }
+
     protected Result callTx(int chainId, ProgramExecutor batchExecutor, ContractWrapperTransaction tx, String preStateRoot, BatchInfoV8 batchInfo) {
+        return callTx(chainId, batchExecutor, tx, preStateRoot, batchInfo, null);
+    }
+
+    protected Result callTx(int chainId, ProgramExecutor batchExecutor, ContractWrapperTransaction tx, String preStateRoot, BatchInfoV8 batchInfo, ContractResult preCallResult) {
         try {
             ContractData contractData = tx.getContractData();
             Integer blockType = Chain.currentThreadBlockType();
@@ -271,7 +394,7 @@ public class ContractServiceImpl implements ContractService {
             BlockHeader currentBlockHeader = batchInfo.getCurrentBlockHeader();
             long blockTime = currentBlockHeader.getTime();
             long lastestHeight = currentBlockHeader.getHeight() - 1;
-            ContractTxCallableV8 txCallable = new ContractTxCallableV8(chainId, blockType, blockTime, batchExecutor, contract, tx, lastestHeight, preStateRoot);
+            ContractTxCallableV8 txCallable = new ContractTxCallableV8(chainId, blockType, blockTime, batchExecutor, contract, tx, lastestHeight, preStateRoot, preCallResult);
             ContractResult contractResult = txCallable.call();
             batchInfo.getContractResultMap().put(tx.getHash().toString(), contractResult);
             // 提取需要返回的结果数据
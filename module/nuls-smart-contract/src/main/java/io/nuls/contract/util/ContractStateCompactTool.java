@@ -0,0 +1,236 @@
+/**
+ * MIT License
+ * <p>
+ * Copyright (c) 2017-2019 nuls.io
+ * <p>
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ * <p>
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ * <p>
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package io.nuls.contract.util;
+
+import io.nuls.contract.constant.ContractConstant;
+import io.nuls.core.crypto.HexUtil;
+import io.nuls.core.rockdb.util.DBUtils;
+import org.ethereum.core.Block;
+import org.ethereum.crypto.HashUtil;
+import org.ethereum.datasource.Source;
+import org.ethereum.datasource.XorDataSource;
+import org.ethereum.db.ByteArrayWrapper;
+import org.ethereum.db.IndexedBlockStore;
+import org.ethereum.db.prune.StateCompactor;
+import org.rocksdb.*;
+
+import java.io.File;
+import java.io.IOException;
+import java.math.BigInteger;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Paths;
+import java.util.*;
+
+/**
+ * 合约状态数据库离线压缩工具
+ * 节点停止后运行, 只复制最近keepHeights个高度(及这些高度之前最近一个有记录的高度)的状态根可达的状态节点和状态根记录,
+ * 写入同级的rocksdb_compact目录; 修改日志与裁剪进度不复制, 节点启动后重新开始裁剪. 确认无误后用新目录替换原rocksdb目录
+ * Offline compaction tool of the contract state database.
+ * Run it with the node stopped, only the state reachable from the state roots of the last keepHeights heights is copied
+ * to the rocksdb_compact directory next to the database, replace the original directory with it afterwards.
+ * <p>
+ * 用法/usage: ContractStateCompactTool &lt;dataPath&gt; &lt;chainId&gt; [keepHeights] [rootsFile]
+ * rootsFile 为额外保留的状态根, 每行一个十六进制状态根/extra state roots to keep, one hex root per line
+ */
+public class ContractStateCompactTool {
+
+    private static final String SOURCE_DIR = "rocksdb";
+    private static final String COMPACT_DIR = "rocksdb_compact";
+
+    public static void main(String[] args) throws Exception {
+        if (args.length < 2) {
+            System.out.println("usage: ContractStateCompactTool <dataPath> <chainId> [keepHeights] [rootsFile]");
+            return;
+        }
+        File areaDir = new File(DBUtils.loadDataPath(args[0]), "smart-contract" + File.separator + "contract_" + Integer.parseInt(args[1]));
+        File srcDir = new File(areaDir, SOURCE_DIR);
+        File dstDir = new File(areaDir, COMPACT_DIR);
+        if (!srcDir.isDirectory()) {
+            throw new IllegalArgumentException("state database not found: " + srcDir);
+        }
+        if (dstDir.exists()) {
+            throw new IllegalArgumentException("target directory already exists: " + dstDir);
+        }
+        int keepHeights = args.length > 2 ? Integer.parseInt(args[2]) : ContractConstant.MIN_STATE_PRUNE_DEPTH;
+        List<byte[]> extraRoots = args.length > 3 ? readRoots(args[3]) : Collections.emptyList();
+
+        RocksDB.loadLibrary();
+        // 原数据库以读写方式打开, 节点未停止时会因数据库锁而失败
+        try (Options options = new Options().setCreateIfMissing(true);
+             RocksDB srcDb = RocksDB.open(options, srcDir.getPath());
+             RocksDB dstDb = RocksDB.open(options, dstDir.getPath())) {
+            RocksSource dst = new RocksSource(dstDb);
+            String summary = compact(new RocksSource(srcDb), dst, keepHeights, extraRoots);
+            dst.flush();
+            dstDb.compactRange();
+            System.out.println(summary);
+        }
+        System.out.println("compacted state database is written to " + dstDir + ", replace " + srcDir + " with it before starting the node");
+    }
+
+    /**
+     * 复制保留的状态根可达的状态及状态根记录
+     * Copy the kept state roots and the state reachable from them
+     *
+     * @param srcDb       原数据库/source database
+     * @param dstDb       新数据库/target database, must be empty
+     * @param keepHeights 保留的高度数, 不小于区块最大回滚高度/number of heights to keep
+     * @param extraRoots  额外保留的状态根/extra state roots to keep
+     * @return 压缩结果/summary
+     */
+    public static String compact(Source<byte[], byte[]> srcDb, Source<byte[], byte[]> dstDb, int keepHeights, List<byte[]> extraRoots) {
+        keepHeights = Math.max(keepHeights, ContractConstant.MIN_STATE_PRUNE_DEPTH);
+        IndexedBlockStore srcStore = blockStore(srcDb);
+        IndexedBlockStore dstStore = blockStore(dstDb);
+        StateCompactor compactor = new StateCompactor(stateSource(srcDb), stateSource(dstDb));
+
+        // 保留范围内每个有记录的高度及范围之前最近一个有记录的高度, 都必须至少有一个可用的状态根
+        long maxNumber = srcStore.getMaxNumber();
+        long fromNumber = maxNumber - keepHeights + 1;
+        List<Long> missingHeights = new ArrayList<>();
+        int rootCount = 0;
+        for (long num = maxNumber; num >= 0; num--) {
+            boolean recorded = false;
+            int copied = 0;
+            for (Block item : srcStore.getBlocksByNumber(num)) {
+                if (item == null || item.getNumber() != num) {
+                    continue;
+                }
+                recorded = true;
+                // 节点升级前记录的是区块hash, 状态中不存在
+                if (compactor.copy(item.getHash())) {
+                    dstStore.saveBlock(item, BigInteger.ONE, true);
+                    copied++;
+                }
+            }
+            rootCount += copied;
+            if (recorded && copied == 0) {
+                missingHeights.add(num);
+            }
+            if (num < fromNumber && recorded) {
+                break;
+            }
+        }
+        for (byte[] root : extraRoots) {
+            if (!compactor.copy(root)) {
+                throw new IllegalArgumentException("state root not found: " + HexUtil.encode(root));
+            }
+            rootCount++;
+        }
+        if (rootCount == 0) {
+            throw new IllegalStateException("no state root recorded");
+        }
+        if (!missingHeights.isEmpty() && extraRoots.isEmpty()) {
+            throw new IllegalStateException("state roots are not recorded at " + missingHeights.size() + " heights, the lowest is "
+                    + missingHeights.get(missingHeights.size() - 1) + ", run the node for " + keepHeights + " more blocks or pass the roots file");
+        }
+        dstStore.flush();
+        return String.format("kept %d state roots from height %d to %d, copied %d nodes and %d contract codes",
+                rootCount, Math.max(fromNumber, 0), maxNumber, compactor.getNodesCopied(), compactor.getCodesCopied());
+    }
+
+    private static IndexedBlockStore blockStore(Source<byte[], byte[]> db) {
+        IndexedBlockStore blockStore = new IndexedBlockStore();
+        blockStore.init(new XorDataSource<>(db, HashUtil.sha3("index".getBytes())), new XorDataSource<>(db, HashUtil.sha3("block".getBytes())));
+        return blockStore;
+    }
+
+    private static Source<byte[], byte[]> stateSource(Source<byte[], byte[]> db) {
+        return new XorDataSource<>(db, HashUtil.sha3("state".getBytes()));
+    }
+
+    private static List<byte[]> readRoots(String file) throws IOException {
+        List<byte[]> roots = new ArrayList<>();
+        for (String line : Files.readAllLines(Paths.get(file), StandardCharsets.UTF_8)) {
+            line = line.trim();
+            if (!line.isEmpty()) {
+                roots.add(HexUtil.decode(line));
+            }
+        }
+        return roots;
+    }
+
+    /**
+     * 批量写入的RocksDB数据源
+     */
+    private static class RocksSource implements Source<byte[], byte[]> {
+
+        private static final int BATCH_SIZE = 10000;
+
+        private final RocksDB db;
+        private final Map<ByteArrayWrapper, byte[]> batch = new HashMap<>();
+
+        private RocksSource(RocksDB db) {
+            this.db = db;
+        }
+
+        @Override
+        public void put(byte[] key, byte[] val) {
+            batch.put(new ByteArrayWrapper(key), val);
+            if (batch.size() >= BATCH_SIZE) {
+                flush();
+            }
+        }
+
+        @Override
+        public byte[] get(byte[] key) {
+            ByteArrayWrapper wrapper = new ByteArrayWrapper(key);
+            if (batch.containsKey(wrapper)) {
+                return batch.get(wrapper);
+            }
+            try {
+                return db.get(key);
+            } catch (RocksDBException e) {
+                throw new RuntimeException(e);
+            }
+        }
+
+        @Override
+        public void delete(byte[] key) {
+            put(key, null);
+        }
+
+        @Override
+        public boolean flush() {
+            if (batch.isEmpty()) {
+                return false;
+            }
+            try (WriteBatch writeBatch = new WriteBatch(); WriteOptions writeOptions = new WriteOptions()) {
+                for (Map.Entry<ByteArrayWrapper, byte[]> entry : batch.entrySet()) {
+                    if (entry.getValue() == null) {
+                        writeBatch.delete(entry.getKey().getData());
+                    } else {
+                        writeBatch.put(entry.getKey().getData(), entry.getValue());
+                    }
+                }
+                db.write(writeOptions, writeBatch);
+            } catch (RocksDBException e) {
+                throw new RuntimeException(e);
+            }
+            batch.clear();
+            return true;
+        }
+    }
+}
@@ -24,6 +24,7 @@
  */
 package io.nuls.contract.vm;
 
+import io.nuls.contract.vm.code.InsnStream;
 import io.nuls.contract.vm.code.MethodCode;
 import io.nuls.contract.vm.code.VariableType;
 import io.nuls.contract.vm.instructions.references.Athrow;
@@ -49,6 +50,13 @@ public class Frame {
 
     public final Result result;
 
+    private final InsnStream insnStream;
+
+    /**
+     * 当前指令在指令流中的下标
+     */
+    private int pc;
+
     private AbstractInsnNode currentInsnNode;
 
     private OpCode currentOpCode;
@@ -65,32 +73,47 @@ public class Frame {
         this.operandStack = new OperandStack(this.maxStack);
         this.localVariables = new LocalVariables(this.maxLocals, args);
         this.result = new Result(this.methodCode.returnVariableType);
-        this.currentInsnNode = this.methodCode.instructions.getFirst();
+        this.insnStream = this.methodCode.insnStream;
+        moveTo(0);
     }
 
     public void step() {
         if (this.currentInsnNode != null) {
-            this.currentInsnNode = this.currentInsnNode.getNext();
+            moveTo(this.pc + 1);
         }
     }
 
     public void jump() {
-        this.currentInsnNode = jumpInsnNode().label;
+        jump(jumpInsnNode().label);
     }
 
     public void jump(LabelNode label) {
-        this.currentInsnNode = label;
+        moveTo(this.insnStream.labelIndex(label));
+    }
+
+    private void moveTo(int pc) {
+        this.pc = pc;
+        this.currentInsnNode = pc < this.insnStream.size() ? this.insnStream.insnNode(pc) : null;
     }
 
     public OpCode currentOpCode() {
         if (this.currentInsnNode != null) {
-            this.currentOpCode = OpCode.valueOf(this.currentInsnNode.getOpcode());
+            this.currentOpCode = this.insnStream.opCode(this.pc);
         } else {
             this.currentOpCode = null;
         }
         return this.currentOpCode;
     }
 
+    /**
+     * 当前指令预先计算的gas消耗, 见{@link GasCost#of}
+     *
+     * @return gas消耗
+     */
+    public int currentGasCost() {
+        return this.insnStream.gasCost(this.pc);
+    }
+
     public int getLine(LabelNode labelNode) {
         AbstractInsnNode abstractInsnNode = labelNode;
         while (!(abstractInsnNode instanceof LineNumberNode)) {
@@ -202,6 +225,10 @@ public class Frame {
         return (MethodInsnNode) this.currentInsnNode;
     }
 
+    public InsnStream.MethodRef methodRef() {
+        return this.insnStream.methodRef(this.pc);
+    }
+
     public InvokeDynamicInsnNode invokeDynamicInsnNode() {
         return (InvokeDynamicInsnNode) this.currentInsnNode;
     }
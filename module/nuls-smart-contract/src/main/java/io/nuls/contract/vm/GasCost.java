@@ -24,6 +24,11 @@
  */
 package io.nuls.contract.vm;
 
+import org.objectweb.asm.tree.AbstractInsnNode;
+import org.objectweb.asm.tree.LdcInsnNode;
+import org.objectweb.asm.tree.LookupSwitchInsnNode;
+import org.objectweb.asm.tree.TableSwitchInsnNode;
+
 public class GasCost {
 
     public static final int COMPARISON = 1;//比较字节码
@@ -55,4 +60,227 @@ public class GasCost {
      */
     public static final int INVOKE_EXTERNAL_METHOD = 5000;
 
+    /**
+     * 消耗与运行时操作数栈有关, 不能预先计算
+     */
+    public static final int DYNAMIC = -1;
+
+    /**
+     * 指令的固定gas消耗, 只与指令本身有关, 在方法加载时预先计算
+     * 数组创建指令的消耗与操作数栈上的长度有关, 返回{@link #DYNAMIC}, 执行时再计算
+     *
+     * @param insnNode 指令节点
+     * @param opCode   指令OpCode
+     * @return gas消耗
+     */
+    public static int of(AbstractInsnNode insnNode, OpCode opCode) {
+        int gasCost = 1;
+        switch (opCode) {
+            case NOP:
+                break;
+            case ACONST_NULL:
+            case ICONST_M1:
+            case ICONST_0:
+            case ICONST_1:
+            case ICONST_2:
+            case ICONST_3:
+            case ICONST_4:
+            case ICONST_5:
+            case LCONST_0:
+            case LCONST_1:
+            case FCONST_0:
+            case FCONST_1:
+            case FCONST_2:
+            case DCONST_0:
+            case DCONST_1:
+            case BIPUSH:
+            case SIPUSH:
+                gasCost = CONSTANT;
+                break;
+            case LDC:
+                Object value = ((LdcInsnNode) insnNode).cst;
+                if (value instanceof Number) {
+                    gasCost = LDC;
+                } else {
+                    gasCost = Math.max(value.toString().length(), 1) * LDC;
+                }
+                break;
+            case ILOAD:
+            case LLOAD:
+            case FLOAD:
+            case DLOAD:
+            case ALOAD:
+                gasCost = LOAD;
+                break;
+            case IALOAD:
+            case LALOAD:
+            case FALOAD:
+            case DALOAD:
+            case AALOAD:
+            case BALOAD:
+            case CALOAD:
+            case SALOAD:
+                gasCost = ARRAYLOAD;
+                break;
+            case ISTORE:
+            case LSTORE:
+            case FSTORE:
+            case DSTORE:
+            case ASTORE:
+                gasCost = STORE;
+                break;
+            case IASTORE:
+            case LASTORE:
+            case FASTORE:
+            case DASTORE:
+            case AASTORE:
+            case BASTORE:
+            case CASTORE:
+            case SASTORE:
+                gasCost = ARRAYSTORE;
+                break;
+            case POP:
+            case POP2:
+            case DUP:
+            case DUP_X1:
+            case DUP_X2:
+            case DUP2:
+            case DUP2_X1:
+            case DUP2_X2:
+            case SWAP:
+                gasCost = STACK;
+                break;
+            case IADD:
+            case LADD:
+            case FADD:
+            case DADD:
+            case ISUB:
+            case LSUB:
+            case FSUB:
+            case DSUB:
+            case IMUL:
+            case LMUL:
+            case FMUL:
+            case DMUL:
+            case IDIV:
+            case LDIV:
+            case FDIV:
+            case DDIV:
+            case IREM:
+            case LREM:
+            case FREM:
+            case DREM:
+            case INEG:
+            case LNEG:
+            case FNEG:
+            case DNEG:
+            case ISHL:
+            case LSHL:
+            case ISHR:
+            case LSHR:
+            case IUSHR:
+            case LUSHR:
+            case IAND:
+            case LAND:
+            case IOR:
+            case LOR:
+            case IXOR:
+            case LXOR:
+            case IINC:
+                gasCost = MATH;
+                break;
+            case I2L:
+            case I2F:
+            case I2D:
+            case L2I:
+            case L2F:
+            case L2D:
+            case F2I:
+            case F2L:
+            case F2D:
+            case D2I:
+            case D2L:
+            case D2F:
+            case I2B:
+            case I2C:
+            case I2S:
+                gasCost = CONVERSION;
+                break;
+            case LCMP:
+            case FCMPL:
+            case FCMPG:
+            case DCMPL:
+            case DCMPG:
+            case IFEQ:
+            case IFNE:
+            case IFLT:
+            case IFGE:
+            case IFGT:
+            case IFLE:
+            case IF_ICMPEQ:
+            case IF_ICMPNE:
+            case IF_ICMPLT:
+            case IF_ICMPGE:
+            case IF_ICMPGT:
+            case IF_ICMPLE:
+            case IF_ACMPEQ:
+            case IF_ACMPNE:
+                gasCost = COMPARISON;
+                break;
+            case GOTO:
+            case JSR:
+            case RET:
+                gasCost = CONTROL;
+                break;
+            case TABLESWITCH:
+                TableSwitchInsnNode table = (TableSwitchInsnNode) insnNode;
+                gasCost = Math.max(table.max - table.min, 1) * TABLESWITCH;
+                break;
+            case LOOKUPSWITCH:
+                LookupSwitchInsnNode lookup = (LookupSwitchInsnNode) insnNode;
+                gasCost = Math.max(lookup.keys.size(), 1) * LOOKUPSWITCH;
+                break;
+            case IRETURN:
+            case LRETURN:
+            case FRETURN:
+            case DRETURN:
+            case ARETURN:
+            case RETURN:
+                gasCost = CONTROL;
+                break;
+            case GETSTATIC:
+            case PUTSTATIC:
+            case GETFIELD:
+            case PUTFIELD:
+            case INVOKEVIRTUAL:
+            case INVOKESPECIAL:
+            case INVOKESTATIC:
+            case INVOKEINTERFACE:
+            case INVOKEDYNAMIC:
+            case NEW:
+                gasCost = REFERENCE;
+                break;
+            case NEWARRAY:
+            case ANEWARRAY:
+            case MULTIANEWARRAY:
+                gasCost = DYNAMIC;
+                break;
+            case ARRAYLENGTH:
+            case ATHROW:
+            case CHECKCAST:
+            case INSTANCEOF:
+            case MONITORENTER:
+            case MONITOREXIT:
+                gasCost = REFERENCE;
+                break;
+            case IFNULL:
+            case IFNONNULL:
+                gasCost = EXTENDED;
+                break;
+            default:
+                break;
+        }
+        return gasCost;
+    }
+
 }
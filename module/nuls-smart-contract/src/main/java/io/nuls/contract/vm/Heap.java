@@ -38,6 +38,7 @@ import io.nuls.contract.vm.program.ProgramMultyAssetValue;
 import io.nuls.contract.vm.util.CloneUtils;
 import io.nuls.contract.vm.util.Constants;
 import io.nuls.contract.vm.util.JsonUtils;
+import io.nuls.contract.vm.util.StateCodec;
 import org.apache.commons.lang3.StringUtils;
 import org.ethereum.core.Repository;
 import org.ethereum.vm.DataWord;
@@ -185,7 +186,12 @@ public class Heap {
             return null;
         }
         byte[] value = dataWord.getNoLeadZeroesData();
-        Map<String, Object> map = (Map<String, Object>) JsonUtils.decode(new String(value), classNames);
+        Map<String, Object> map;
+        if (StateCodec.isEncoded(value)) {
+            map = (Map<String, Object>) StateCodec.decode(value, classNames);
+        } else {
+            map = (Map<String, Object>) JsonUtils.decode(new String(value), classNames);
+        }
         if (ProtocolGroupManager.getCurrentVersion(ContractContext.CHAIN_ID) < ContractContext.UPDATE_VERSION_CONTRACT_BALANCE ) {
             return map;
         }
@@ -319,7 +325,12 @@ public class Heap {
         if (!arrayRef.getVariableType().getComponentType().isPrimitive()) {
             clazz = ObjectRef.class;
         }
-        Object object = JsonUtils.decodeArray(new String(value), clazz, classNames);
+        Object object;
+        if (StateCodec.isEncoded(value)) {
+            object = StateCodec.decode(value, classNames);
+        } else {
+            object = JsonUtils.decodeArray(new String(value), clazz, classNames);
+        }
         return object;
     }
 
@@ -686,6 +697,9 @@ public class Heap {
         stateObjectRefs(stateObjectRefs, staticObjectRef);
         stateObjectRefs(stateObjectRefs, this.contract);
         List<ObjectRef> clearList = new ArrayList<>();
+        //新协议下对象状态使用二进制编码, 旧的JSON格式仍可读取
+        Short currentVersion = ProtocolGroupManager.getCurrentVersion(ContractContext.CHAIN_ID);
+        boolean binaryState = currentVersion != null && currentVersion >= ContractContext.UPDATE_VERSION_BINARY_STATE;
         //int j = 0;
         for (ObjectRef objectRef : stateObjectRefs) {
             //j++;
@@ -700,10 +714,14 @@ public class Heap {
                 continue;
             }
             String key = JsonUtils.encode(objectRef, classNames);
-            String value = JsonUtils.encode(fields, classNames);
             //Log.info("[{}]modified objectRef: {}, fields: {}", j, objectRef, fields);
-            //Log.info("[{}]modified key: {}, value: {}", j, key, value);
-            contractState.put(new DataWord(key), new DataWord(value));
+            if (binaryState) {
+                contractState.put(new DataWord(key), DataWord.of(StateCodec.encode(fields, classNames)));
+            } else {
+                String value = JsonUtils.encode(fields, classNames);
+                //Log.info("[{}]modified key: {}, value: {}", j, key, value);
+                contractState.put(new DataWord(key), new DataWord(value));
+            }
             if (objectRef.isArray()) {
                 for (String k : fields.keySet()) {
                     Integer i = Integer.valueOf(k);
@@ -717,9 +735,13 @@ public class Heap {
                         if (!objectRef.getVariableType().getComponentType().isPrimitive()) {
                             clazz = ObjectRef.class;
                         }
-                        String arrayValue = JsonUtils.encodeArray(object, clazz, classNames);
-                        //Log.info("[{}]modified arrayKey: {}, arrayValue: {}", j, arrayKey, arrayValue);
-                        contractState.put(new DataWord(arrayKey), new DataWord(arrayValue));
+                        if (binaryState) {
+                            contractState.put(new DataWord(arrayKey), DataWord.of(StateCodec.encodeArray(object, clazz, classNames)));
+                        } else {
+                            String arrayValue = JsonUtils.encodeArray(object, clazz, classNames);
+                            //Log.info("[{}]modified arrayKey: {}, arrayValue: {}", j, arrayKey, arrayValue);
+                            contractState.put(new DataWord(arrayKey), new DataWord(arrayValue));
+                        }
                     }
                 }
             }
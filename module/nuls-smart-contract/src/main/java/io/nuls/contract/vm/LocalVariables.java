@@ -24,22 +24,44 @@
  */
 package io.nuls.contract.vm;
 
+/**
+ * 局部变量表, 与操作数栈相同, 每个槽位由类型、基本类型值、引用三个并行数组表示, 基本类型不装箱
+ * Local variables, like the operand stack each slot is held in parallel arrays of type, primitive value and reference.
+ */
 public class LocalVariables {
 
     private int maxLocals;
 
-    private Object[] localVariables;
+    private final byte[] types;
+
+    private final long[] primitives;
+
+    private final Object[] refs;
 
     public LocalVariables(int maxLocals, Object[] args) {
         this.maxLocals = maxLocals;
-        this.localVariables = new Object[maxLocals];
+        this.types = new byte[maxLocals];
+        this.primitives = new long[maxLocals];
+        this.refs = new Object[maxLocals];
         if (args != null) {
-            System.arraycopy(args, 0, this.localVariables, 0, args.length);
+            for (int i = 0; i < args.length; i++) {
+                Object arg = args[i];
+                byte type = Slots.typeOf(arg);
+                this.types[i] = type;
+                if (type == Slots.REF) {
+                    this.refs[i] = arg;
+                } else {
+                    this.primitives[i] = Slots.bitsOf(type, arg);
+                }
+            }
         }
     }
 
     public int getInt(int index) {
-        Object object = this.localVariables[index];
+        if (this.types[index] == Slots.INT) {
+            return (int) this.primitives[index];
+        }
+        Object object = get(index);
         if (object instanceof Boolean) {
             return (boolean) object ? 1 : 0;
         } else if (object instanceof Byte) {
@@ -54,39 +76,59 @@ public class LocalVariables {
     }
 
     public void setInt(int index, int value) {
-        this.localVariables[index] = value;
+        set(index, Slots.INT, value);
     }
 
     public long getLong(int index) {
-        return (long) this.localVariables[index];
+        if (this.types[index] == Slots.LONG) {
+            return this.primitives[index];
+        }
+        return (long) get(index);
     }
 
     public void setLong(int index, long value) {
-        this.localVariables[index] = value;
+        set(index, Slots.LONG, value);
     }
 
     public float getFloat(int index) {
-        return (float) this.localVariables[index];
+        if (this.types[index] == Slots.FLOAT) {
+            return Float.intBitsToFloat((int) this.primitives[index]);
+        }
+        return (float) get(index);
     }
 
     public void setFloat(int index, float value) {
-        this.localVariables[index] = value;
+        set(index, Slots.FLOAT, Float.floatToRawIntBits(value));
     }
 
     public double getDouble(int index) {
-        return (double) this.localVariables[index];
+        if (this.types[index] == Slots.DOUBLE) {
+            return Double.longBitsToDouble(this.primitives[index]);
+        }
+        return (double) get(index);
     }
 
     public void setDouble(int index, double value) {
-        this.localVariables[index] = value;
+        set(index, Slots.DOUBLE, Double.doubleToRawLongBits(value));
     }
 
     public ObjectRef getRef(int index) {
-        return (ObjectRef) this.localVariables[index];
+        return (ObjectRef) get(index);
     }
 
     public void setRef(int index, ObjectRef value) {
-        this.localVariables[index] = value;
+        this.types[index] = Slots.REF;
+        this.refs[index] = value;
+    }
+
+    private Object get(int index) {
+        return Slots.box(this.types[index], this.primitives[index], this.refs[index]);
+    }
+
+    private void set(int index, byte type, long bits) {
+        this.types[index] = type;
+        this.primitives[index] = bits;
+        this.refs[index] = null;
     }
 
 }
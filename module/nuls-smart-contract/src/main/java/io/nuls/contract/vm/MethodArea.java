@@ -65,6 +65,15 @@ public class MethodArea {
         } else {
             fullName = className + "." + methodName;
         }
+        return loadMethod(className, methodName, methodDesc, fullName);
+    }
+
+    /**
+     * 使用预先拼接好的方法全名查找方法, 避免每次调用都拼接字符串
+     *
+     * @param fullName className.methodName+methodDesc
+     */
+    public MethodCode loadMethod(String className, String methodName, String methodDesc, String fullName) {
         MethodCode methodCode = INIT_METHOD_CODES.get(fullName);
         if (methodCode != null) {
             return methodCode;
@@ -27,20 +27,43 @@ package io.nuls.contract.vm;
 import io.nuls.contract.vm.code.Descriptors;
 import io.nuls.contract.vm.code.VariableType;
 
-import java.util.Stack;
+import java.util.Arrays;
+import java.util.EmptyStackException;
 
-public class OperandStack extends Stack {
+/**
+ * 操作数栈, 每个槽位由类型、基本类型值、引用三个并行数组表示, 基本类型不装箱;
+ * 虚拟机只在单个线程中执行, 不加锁
+ * Operand stack, each slot is held in parallel arrays of type, primitive value and reference so primitives are not boxed.
+ * A VM runs on a single thread, so there is no locking.
+ */
+public class OperandStack {
 
     private final int maxStack;
 
+    private byte[] types;
+
+    private long[] primitives;
+
+    private Object[] refs;
+
+    private int size;
+
     public OperandStack(int maxStack) {
-        super();
         this.maxStack = maxStack;
+        int capacity = Math.max(maxStack, 2);
+        this.types = new byte[capacity];
+        this.primitives = new long[capacity];
+        this.refs = new Object[capacity];
     }
 
-    @Override
     public Object push(Object value) {
-        return super.push(value);
+        byte type = Slots.typeOf(value);
+        if (type == Slots.REF) {
+            pushSlot(Slots.REF, 0, value);
+        } else {
+            pushSlot(type, Slots.bitsOf(type, value), null);
+        }
+        return value;
     }
 
     public Object push(Object value, VariableType variableType) {
@@ -80,48 +103,80 @@ public class OperandStack extends Stack {
         return value;
     }
 
-    @Override
-    public synchronized Object pop() {
-        return super.pop();
+    public Object pop() {
+        int index = popIndex();
+        Object ref = refs[index];
+        refs[index] = null;
+        return Slots.box(types[index], primitives[index], ref);
+    }
+
+    /**
+     * 弹出栈顶槽位, 不读取其值
+     * Pop the top slot without reading its value
+     */
+    public void discard() {
+        int index = popIndex();
+        refs[index] = null;
+    }
+
+    public void clear() {
+        Arrays.fill(refs, 0, size, null);
+        size = 0;
+    }
+
+    public int size() {
+        return size;
     }
 
     public int pushInt(int value) {
-        push(value);
+        pushSlot(Slots.INT, value, null);
         return value;
     }
 
     public int popInt() {
+        if (peekType() == Slots.INT) {
+            return (int) primitives[popIndex()];
+        }
         return (int) pop();
     }
 
     public long pushLong(long value) {
-        push(value);
-        push(null);
+        pushSlot(Slots.LONG, value, null);
+        pushSlot(Slots.REF, 0, null);
         return value;
     }
 
     public long popLong() {
-        pop();
+        discard();
+        if (peekType() == Slots.LONG) {
+            return primitives[popIndex()];
+        }
         return (long) pop();
     }
 
     public float pushFloat(float value) {
-        push(value);
+        pushSlot(Slots.FLOAT, Float.floatToRawIntBits(value), null);
         return value;
     }
 
     public float popFloat() {
+        if (peekType() == Slots.FLOAT) {
+            return Float.intBitsToFloat((int) primitives[popIndex()]);
+        }
         return (float) pop();
     }
 
     public double pushDouble(double value) {
-        push(value);
-        push(null);
+        pushSlot(Slots.DOUBLE, Double.doubleToRawLongBits(value), null);
+        pushSlot(Slots.REF, 0, null);
         return value;
     }
 
     public double popDouble() {
-        pop();
+        discard();
+        if (peekType() == Slots.DOUBLE) {
+            return Double.longBitsToDouble(primitives[popIndex()]);
+        }
         return (double) pop();
     }
 
@@ -130,13 +185,15 @@ public class OperandStack extends Stack {
     }
 
     public boolean popBoolean() {
+        if (peekType() == Slots.INT) {
+            return primitives[popIndex()] == 1;
+        }
         Object pop = pop();
-        if(pop instanceof Integer) {
+        if (pop instanceof Integer) {
             return (int) pop == 1 ? true : false;
         } else {
             return (boolean) pop;
         }
-        //return (int) popInt() == 1 ? true : false;
     }
 
     public int pushByte(byte value) {
@@ -164,7 +221,7 @@ public class OperandStack extends Stack {
     }
 
     public ObjectRef pushRef(ObjectRef ref) {
-        push(ref);
+        pushSlot(Slots.REF, 0, ref);
         return ref;
     }
 
@@ -172,4 +229,108 @@ public class OperandStack extends Stack {
         return (ObjectRef) pop();
     }
 
+    public void dup() {
+        copy(size - 1, size);
+        size++;
+    }
+
+    public void dupX1() {
+        // value2, value1 -> value1, value2, value1
+        copy(size - 1, size);
+        copy(size - 2, size - 1);
+        copy(size, size - 2);
+        size++;
+    }
+
+    public void dupX2() {
+        // value3, value2, value1 -> value1, value3, value2, value1
+        copy(size - 1, size);
+        copy(size - 2, size - 1);
+        copy(size - 3, size - 2);
+        copy(size, size - 3);
+        size++;
+    }
+
+    public void dup2() {
+        // value2, value1 -> value2, value1, value2, value1
+        copy(size - 2, size);
+        copy(size - 1, size + 1);
+        size += 2;
+    }
+
+    public void dup2X1() {
+        // value3, value2, value1 -> value2, value1, value3, value2, value1
+        copy(size - 1, size + 1);
+        copy(size - 2, size);
+        copy(size - 3, size - 1);
+        copy(size, size - 3);
+        copy(size + 1, size - 2);
+        size += 2;
+    }
+
+    public void dup2X2() {
+        // value4, value3, value2, value1 -> value2, value1, value4, value3, value2, value1
+        copy(size - 1, size + 1);
+        copy(size - 2, size);
+        copy(size - 3, size - 1);
+        copy(size - 4, size - 2);
+        copy(size, size - 4);
+        copy(size + 1, size - 3);
+        size += 2;
+    }
+
+    public void swap() {
+        // value2, value1 -> value1, value2
+        copy(size - 1, size);
+        copy(size - 2, size - 1);
+        copy(size, size - 2);
+        refs[size] = null;
+    }
+
+    private void pushSlot(byte type, long bits, Object ref) {
+        if (size == types.length) {
+            grow(size + 1);
+        }
+        types[size] = type;
+        primitives[size] = bits;
+        refs[size] = ref;
+        size++;
+    }
+
+    private int popIndex() {
+        if (size == 0) {
+            throw new EmptyStackException();
+        }
+        return --size;
+    }
+
+    private byte peekType() {
+        if (size == 0) {
+            throw new EmptyStackException();
+        }
+        return types[size - 1];
+    }
+
+    /**
+     * 复制槽位, 目标位置超出容量时扩容
+     */
+    private void copy(int from, int to) {
+        if (from < 0) {
+            throw new EmptyStackException();
+        }
+        if (to >= types.length) {
+            grow(to + 1);
+        }
+        types[to] = types[from];
+        primitives[to] = primitives[from];
+        refs[to] = refs[from];
+    }
+
+    private void grow(int minCapacity) {
+        int capacity = Math.max(minCapacity, types.length * 2);
+        types = Arrays.copyOf(types, capacity);
+        primitives = Arrays.copyOf(primitives, capacity);
+        refs = Arrays.copyOf(refs, capacity);
+    }
+
 }
@@ -0,0 +1,91 @@
+/*
+ * MIT License
+ *
+ * Copyright (c) 2017-2019 nuls.io
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ *
+ */
+package io.nuls.contract.vm;
+
+/**
+ * 栈帧槽位的存储方式: int/long/float/double保存在long数组中(float/double保存原始位), 其他值保存在Object数组中
+ * Storage of frame slots: int/long/float/double are kept in a long array (raw bits for float/double),
+ * everything else is kept in an Object array.
+ */
+final class Slots {
+
+    static final byte REF = 0;
+
+    static final byte INT = 1;
+
+    static final byte LONG = 2;
+
+    static final byte FLOAT = 3;
+
+    static final byte DOUBLE = 4;
+
+    private Slots() {
+    }
+
+    static byte typeOf(Object value) {
+        if (value instanceof Integer) {
+            return INT;
+        } else if (value instanceof Long) {
+            return LONG;
+        } else if (value instanceof Float) {
+            return FLOAT;
+        } else if (value instanceof Double) {
+            return DOUBLE;
+        } else {
+            return REF;
+        }
+    }
+
+    static long bitsOf(byte type, Object value) {
+        switch (type) {
+            case INT:
+                return (int) value;
+            case LONG:
+                return (long) value;
+            case FLOAT:
+                return Float.floatToRawIntBits((float) value);
+            case DOUBLE:
+                return Double.doubleToRawLongBits((double) value);
+            default:
+                return 0;
+        }
+    }
+
+    static Object box(byte type, long bits, Object ref) {
+        switch (type) {
+            case INT:
+                return (int) bits;
+            case LONG:
+                return bits;
+            case FLOAT:
+                return Float.intBitsToFloat((int) bits);
+            case DOUBLE:
+                return Double.longBitsToDouble(bits);
+            default:
+                return ref;
+        }
+    }
+
+}
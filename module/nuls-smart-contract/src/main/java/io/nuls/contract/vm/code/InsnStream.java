@@ -0,0 +1,154 @@
+/*
+ * MIT License
+ *
+ * Copyright (c) 2017-2019 nuls.io
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ *
+ */
+package io.nuls.contract.vm.code;
+
+import io.nuls.contract.vm.GasCost;
+import io.nuls.contract.vm.OpCode;
+import org.objectweb.asm.tree.AbstractInsnNode;
+import org.objectweb.asm.tree.InsnList;
+import org.objectweb.asm.tree.LabelNode;
+import org.objectweb.asm.tree.MethodInsnNode;
+
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * 预解码的方法指令流
+ * 方法加载时把ASM指令链表展开为数组, 并预先计算每条指令的OpCode和固定gas消耗, 预解析方法调用指令的参数类型和方法全名,
+ * 随MethodCode一起缓存; 执行时按下标访问, 不再逐条遍历链表、查找OpCode、计算gas和解析方法描述
+ * 指令流在多个虚拟机之间共享, 只保存与虚拟机无关的解析结果, 方法和类的加载仍由各虚拟机的MethodArea完成
+ * Pre-decoded instruction stream of a method.
+ * The ASM instruction list is flattened into arrays when the method is loaded, with the OpCode and the static gas
+ * cost of every node and the argument types and full name of every method reference precomputed and cached together
+ * with the MethodCode. The stream is shared by all VMs, so only VM independent data is resolved ahead of time.
+ */
+public class InsnStream {
+
+    /**
+     * 所有节点(包括标签、行号等伪指令), 下标与指令链表中的位置一致
+     */
+    private final AbstractInsnNode[] insnNodes;
+
+    /**
+     * 节点对应的OpCode, 伪指令及不支持的指令为null
+     */
+    private final OpCode[] opCodes;
+
+    /**
+     * 节点的固定gas消耗, 依赖操作数栈的指令为{@link GasCost#DYNAMIC}
+     */
+    private final int[] gasCosts;
+
+    /**
+     * 标签节点对应的下标, InsnList自带的下标缓存不是线程安全的, 这里单独保存
+     */
+    private final Map<LabelNode, Integer> labelIndexes;
+
+    /**
+     * 方法调用指令预解析的引用, 其他节点为null
+     */
+    private final MethodRef[] methodRefs;
+
+    public InsnStream(InsnList instructions) {
+        int size = instructions.size();
+        insnNodes = new AbstractInsnNode[size];
+        opCodes = new OpCode[size];
+        gasCosts = new int[size];
+        labelIndexes = new IdentityHashMap<>();
+        methodRefs = new MethodRef[size];
+        int index = 0;
+        for (AbstractInsnNode insnNode = instructions.getFirst(); insnNode != null; insnNode = insnNode.getNext()) {
+            OpCode opCode = OpCode.valueOf(insnNode.getOpcode());
+            insnNodes[index] = insnNode;
+            opCodes[index] = opCode;
+            if (opCode != null) {
+                gasCosts[index] = GasCost.of(insnNode, opCode);
+            }
+            if (insnNode instanceof LabelNode) {
+                labelIndexes.put((LabelNode) insnNode, index);
+            } else if (insnNode instanceof MethodInsnNode) {
+                methodRefs[index] = new MethodRef((MethodInsnNode) insnNode);
+            }
+            index++;
+        }
+    }
+
+    public int size() {
+        return insnNodes.length;
+    }
+
+    public AbstractInsnNode insnNode(int index) {
+        return insnNodes[index];
+    }
+
+    public OpCode opCode(int index) {
+        return opCodes[index];
+    }
+
+    public int gasCost(int index) {
+        return gasCosts[index];
+    }
+
+    public int labelIndex(LabelNode labelNode) {
+        Integer index = labelIndexes.get(labelNode);
+        if (index == null) {
+            throw new IllegalArgumentException("label not found in method instructions");
+        }
+        return index;
+    }
+
+    public MethodRef methodRef(int index) {
+        return methodRefs[index];
+    }
+
+    /**
+     * 预解析的方法引用
+     * Pre-resolved method reference
+     */
+    public static final class MethodRef {
+
+        /**
+         * 与MethodArea中方法缓存的key相同: owner.name+desc
+         */
+        private final String fullName;
+
+        private final List<VariableType> argTypes;
+
+        private MethodRef(MethodInsnNode methodInsnNode) {
+            this.fullName = methodInsnNode.owner + "." + methodInsnNode.name + methodInsnNode.desc;
+            this.argTypes = List.copyOf(VariableType.parseArgs(methodInsnNode.desc));
+        }
+
+        public String getFullName() {
+            return fullName;
+        }
+
+        public List<VariableType> getArgTypes() {
+            return argTypes;
+        }
+    }
+
+}
@@ -149,6 +149,11 @@ public class MethodCode {
      */
     public final InsnList instructions;
 
+    /**
+     * The pre-decoded instructions of this method.
+     */
+    public final InsnStream insnStream;
+
     /**
      * The try catch blocks of this method.
      */
@@ -235,6 +240,7 @@ public class MethodCode {
         invisibleAnnotableParameterCount = methodNode.invisibleAnnotableParameterCount;
         invisibleParameterAnnotations = methodNode.invisibleParameterAnnotations;
         instructions = methodNode.instructions;
+        insnStream = new InsnStream(instructions);
         tryCatchBlocks = ListUtils.emptyIfNull(methodNode.tryCatchBlocks);
         maxStack = methodNode.maxStack;
         maxLocals = methodNode.maxLocals;
@@ -39,7 +39,7 @@ public class Invokestatic {
         String methodName = methodInsnNode.name;
         String methodDesc = methodInsnNode.desc;
 
-        MethodCode methodCode = frame.methodArea.loadMethod(className, methodName, methodDesc);
+        MethodCode methodCode = frame.methodArea.loadMethod(className, methodName, methodDesc, frame.methodRef().getFullName());
 
         MethodArgs methodArgs = new MethodArgs(methodCode.argsVariableType, frame.operandStack, true);
 
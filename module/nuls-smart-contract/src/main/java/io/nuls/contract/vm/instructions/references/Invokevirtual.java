@@ -30,6 +30,7 @@ import io.nuls.contract.vm.Frame;
 import io.nuls.contract.vm.MethodArgs;
 import io.nuls.contract.vm.ObjectRef;
 import io.nuls.contract.vm.Result;
+import io.nuls.contract.vm.code.InsnStream;
 import io.nuls.contract.vm.code.MethodCode;
 import io.nuls.contract.vm.code.VariableType;
 import io.nuls.contract.vm.natives.NativeMethod;
@@ -46,8 +47,9 @@ public class Invokevirtual {
         String className = methodInsnNode.owner;
         String methodName = methodInsnNode.name;
         String methodDesc = methodInsnNode.desc;
+        InsnStream.MethodRef methodRef = frame.methodRef();
 
-        List<VariableType> variableTypes = VariableType.parseArgs(methodDesc);
+        List<VariableType> variableTypes = methodRef.getArgTypes();
         MethodArgs methodArgs = new MethodArgs(variableTypes, frame.operandStack, false);
         ObjectRef objectRef = methodArgs.objectRef;
         if (objectRef == null) {
@@ -69,7 +71,12 @@ public class Invokevirtual {
             className = Constants.OBJECT_CLASS_NAME;
         }
 
-        MethodCode methodCode = frame.methodArea.loadMethod(className, methodName, methodDesc);
+        MethodCode methodCode;
+        if (className.equals(methodInsnNode.owner)) {
+            methodCode = frame.methodArea.loadMethod(className, methodName, methodDesc, methodRef.getFullName());
+        } else {
+            methodCode = frame.methodArea.loadMethod(className, methodName, methodDesc);
+        }
 
         //Log.opcode(frame.getCurrentOpCode(), objectRef, methodName, methodDesc);
 
@@ -29,15 +29,15 @@ import io.nuls.contract.vm.Frame;
 public class Pop {
 
     public static void pop(final Frame frame) {
-        frame.operandStack.pop();
+        frame.operandStack.discard();
         //Object value = frame.operandStack.pop();
 
         //Log.opcode(frame.getCurrentOpCode(), value);
     }
 
     public static void pop2(final Frame frame) {
-        frame.operandStack.pop();
-        frame.operandStack.pop();
+        frame.operandStack.discard();
+        frame.operandStack.discard();
         //Object value1 = frame.operandStack.pop();
         //Object value2 = frame.operandStack.pop();
 
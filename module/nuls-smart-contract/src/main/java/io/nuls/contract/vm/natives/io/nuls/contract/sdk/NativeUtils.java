@@ -51,6 +51,7 @@ import io.nuls.contract.vm.code.VariableType;
 import io.nuls.contract.vm.exception.ErrorException;
 import io.nuls.contract.vm.natives.NativeMethod;
 import io.nuls.contract.vm.program.ProgramAccount;
+import io.nuls.contract.vm.program.ProgramAccessRecord;
 import io.nuls.contract.vm.program.ProgramInvokeRegisterCmd;
 import io.nuls.contract.vm.program.ProgramNewTx;
 import io.nuls.contract.vm.program.ProgramResult;
@@ -556,6 +557,13 @@ public class NativeUtils {
             return result;
         }
         String[] args = (String[]) frame.heap.getObject(argsRef);
+        // 预执行不调用外部模块命令, 停止执行, 由批次按顺序重新执行, 避免命令被调用两次
+        ProgramAccessRecord accessRecord = frame.vm.getProgramExecutor().getAccessRecord();
+        if (accessRecord != null && accessRecord.isSpeculative()) {
+            accessRecord.abort();
+            throw new ErrorException(
+                    String.format("Speculative execution stopped before invoking external cmd [%s]", cmdName), frame.vm.getGasUsed(), null);
+        }
 
         // 检查是否注册
         CmdRegisterManager cmdRegisterManager = SpringLiteContext.getBean(CmdRegisterManager.class);
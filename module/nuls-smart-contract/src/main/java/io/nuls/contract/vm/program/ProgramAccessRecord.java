@@ -0,0 +1,171 @@
+/*
+ * MIT License
+ *
+ * Copyright (c) 2017-2019 nuls.io
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ *
+ */
+package io.nuls.contract.vm.program;
+
+import org.ethereum.db.ByteArrayWrapper;
+import org.ethereum.vm.DataWord;
+
+import java.util.HashSet;
+import java.util.Set;
+
+/**
+ * 合约执行的状态读写记录
+ * 记录一次执行读取和写入的账户、存储项和余额地址, 读写账户的方法(创建账户、修改nonce等)同时视为读; 多笔已提交交易的写入
+ * 可合并到同一个记录中, 用于判断预执行的结果在前序交易提交后是否仍然有效
+ * Read/write record of a contract execution.
+ * Records the accounts, storage entries and balance addresses read and written by one execution, read-modify-write
+ * operations count as reads as well. Writes of committed transactions can be merged into one record, which is used to
+ * decide whether a speculative result is still valid after the preceding transactions are committed.
+ */
+public class ProgramAccessRecord {
+
+    private final Set<ByteArrayWrapper> readAccounts = new HashSet<>();
+
+    private final Set<ByteArrayWrapper> writtenAccounts = new HashSet<>();
+
+    private final Set<ByteArrayWrapper> readStorage = new HashSet<>();
+
+    private final Set<ByteArrayWrapper> writtenStorage = new HashSet<>();
+
+    /**
+     * 读取了整个合约存储的账户(存储大小、全部key等)
+     */
+    private final Set<ByteArrayWrapper> scannedStorageAccounts = new HashSet<>();
+
+    /**
+     * 有存储写入的账户
+     */
+    private final Set<ByteArrayWrapper> writtenStorageAccounts = new HashSet<>();
+
+    private final Set<ByteArrayWrapper> readBalances = new HashSet<>();
+
+    private final Set<ByteArrayWrapper> writtenBalances = new HashSet<>();
+
+    /**
+     * 预执行: 执行到调用外部模块命令时停止, 不发起调用
+     */
+    private boolean speculative;
+
+    /**
+     * 预执行因调用外部模块命令而停止, 结果不可使用
+     */
+    private boolean aborted;
+
+    public boolean isSpeculative() {
+        return speculative;
+    }
+
+    public void setSpeculative(boolean speculative) {
+        this.speculative = speculative;
+    }
+
+    public boolean isAborted() {
+        return aborted;
+    }
+
+    public void abort() {
+        this.aborted = true;
+    }
+
+    public void recordAccountRead(byte[] address) {
+        readAccounts.add(new ByteArrayWrapper(address));
+    }
+
+    public void recordAccountWrite(byte[] address) {
+        ByteArrayWrapper key = new ByteArrayWrapper(address);
+        readAccounts.add(key);
+        writtenAccounts.add(key);
+    }
+
+    public void recordStorageRead(byte[] address, DataWord key) {
+        readStorage.add(storageKey(address, key));
+    }
+
+    public void recordStorageWrite(byte[] address, DataWord key) {
+        writtenStorage.add(storageKey(address, key));
+        writtenStorageAccounts.add(new ByteArrayWrapper(address));
+    }
+
+    public void recordStorageScan(byte[] address) {
+        scannedStorageAccounts.add(new ByteArrayWrapper(address));
+    }
+
+    public void recordBalanceRead(byte[] address) {
+        readBalances.add(new ByteArrayWrapper(address));
+    }
+
+    public void recordBalanceWrite(byte[] address) {
+        ByteArrayWrapper key = new ByteArrayWrapper(address);
+        readBalances.add(key);
+        writtenBalances.add(key);
+    }
+
+    /**
+     * 合并另一个记录的写入
+     * Merge the writes of another record
+     *
+     * @param other 已提交执行的记录/record of a committed execution
+     */
+    public void mergeWrites(ProgramAccessRecord other) {
+        writtenAccounts.addAll(other.writtenAccounts);
+        writtenStorage.addAll(other.writtenStorage);
+        writtenStorageAccounts.addAll(other.writtenStorageAccounts);
+        writtenBalances.addAll(other.writtenBalances);
+    }
+
+    /**
+     * 本记录读取的状态是否被另一个记录写入过
+     * Whether any state read by this record was written by the other record
+     *
+     * @param written 已提交交易的写入记录/writes of committed transactions
+     * @return boolean
+     */
+    public boolean conflictsWith(ProgramAccessRecord written) {
+        return intersects(readAccounts, written.writtenAccounts)
+                || intersects(readStorage, written.writtenStorage)
+                || intersects(scannedStorageAccounts, written.writtenStorageAccounts)
+                || intersects(readBalances, written.writtenBalances);
+    }
+
+    private static ByteArrayWrapper storageKey(byte[] address, DataWord key) {
+        byte[] keyBytes = key.getData();
+        byte[] bytes = new byte[address.length + keyBytes.length];
+        System.arraycopy(address, 0, bytes, 0, address.length);
+        System.arraycopy(keyBytes, 0, bytes, address.length, keyBytes.length);
+        return new ByteArrayWrapper(bytes);
+    }
+
+    private static boolean intersects(Set<ByteArrayWrapper> a, Set<ByteArrayWrapper> b) {
+        Set<ByteArrayWrapper> small = a.size() <= b.size() ? a : b;
+        Set<ByteArrayWrapper> large = small == a ? b : a;
+        for (ByteArrayWrapper key : small) {
+            if (large.contains(key)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+}
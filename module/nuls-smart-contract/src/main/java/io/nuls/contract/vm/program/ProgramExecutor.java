@@ -50,4 +50,23 @@ public interface ProgramExecutor {
 
     int getCurrentChainId();
 
+    /**
+     * 开启后, 由当前执行器创建的跟踪执行器会记录状态读写
+     * When enabled, tracking executors created by this executor record their state reads and writes
+     */
+    void setRecordAccess(boolean recordAccess);
+
+    /**
+     * 开启后, 由当前执行器创建的跟踪执行器为预执行, 执行到调用外部模块命令时停止, 需开启读写记录
+     * When enabled, tracking executors created by this executor run speculatively and stop before invoking an external
+     * module command, requires access recording
+     */
+    void setSpeculative(boolean speculative);
+
+    /**
+     * 跟踪执行器的状态读写记录, 未开启记录时为null
+     * State access record of a tracking executor, null when recording is disabled
+     */
+    ProgramAccessRecord getAccessRecord();
+
 }
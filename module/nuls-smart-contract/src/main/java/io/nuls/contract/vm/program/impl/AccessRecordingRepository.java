@@ -0,0 +1,169 @@
+/*
+ * MIT License
+ *
+ * Copyright (c) 2017-2019 nuls.io
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ *
+ */
+package io.nuls.contract.vm.program.impl;
+
+import io.nuls.contract.vm.program.ProgramAccessRecord;
+import org.ethereum.core.AccountState;
+import org.ethereum.core.Repository;
+import org.ethereum.db.ContractDetails;
+import org.ethereum.db.RepositoryWrapper;
+import org.ethereum.vm.DataWord;
+
+import javax.annotation.Nullable;
+import java.math.BigInteger;
+import java.util.Collection;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * 记录状态读写的跟踪仓库, 所有调用转发给被包装的仓库
+ * Tracking repository that records state reads and writes, all calls are delegated to the wrapped repository
+ */
+public class AccessRecordingRepository extends RepositoryWrapper {
+
+    private final ProgramAccessRecord accessRecord;
+
+    public AccessRecordingRepository(Repository repository, ProgramAccessRecord accessRecord) {
+        super(repository);
+        this.accessRecord = accessRecord;
+    }
+
+    public ProgramAccessRecord getAccessRecord() {
+        return accessRecord;
+    }
+
+    @Override
+    public AccountState createAccount(byte[] addr, byte[] creater) {
+        accessRecord.recordAccountWrite(addr);
+        return super.createAccount(addr, creater);
+    }
+
+    @Override
+    public boolean isExist(byte[] addr) {
+        accessRecord.recordAccountRead(addr);
+        return super.isExist(addr);
+    }
+
+    @Override
+    public AccountState getAccountState(byte[] addr) {
+        accessRecord.recordAccountRead(addr);
+        return super.getAccountState(addr);
+    }
+
+    @Override
+    public void delete(byte[] addr) {
+        accessRecord.recordAccountWrite(addr);
+        accessRecord.recordStorageScan(addr);
+        super.delete(addr);
+    }
+
+    @Override
+    public BigInteger increaseNonce(byte[] addr) {
+        accessRecord.recordAccountWrite(addr);
+        return super.increaseNonce(addr);
+    }
+
+    @Override
+    public BigInteger setNonce(byte[] addr, BigInteger nonce) {
+        accessRecord.recordAccountWrite(addr);
+        return super.setNonce(addr, nonce);
+    }
+
+    @Override
+    public BigInteger getNonce(byte[] addr) {
+        accessRecord.recordAccountRead(addr);
+        return super.getNonce(addr);
+    }
+
+    @Override
+    public ContractDetails getContractDetails(byte[] addr) {
+        accessRecord.recordAccountRead(addr);
+        accessRecord.recordStorageScan(addr);
+        return super.getContractDetails(addr);
+    }
+
+    @Override
+    public void saveCode(byte[] addr, byte[] code) {
+        accessRecord.recordAccountWrite(addr);
+        super.saveCode(addr, code);
+    }
+
+    @Override
+    public byte[] getCode(byte[] addr) {
+        accessRecord.recordAccountRead(addr);
+        return super.getCode(addr);
+    }
+
+    @Override
+    public byte[] getCodeHash(byte[] addr) {
+        accessRecord.recordAccountRead(addr);
+        return super.getCodeHash(addr);
+    }
+
+    @Override
+    public void addStorageRow(byte[] addr, DataWord key, DataWord value) {
+        // 写入存储项前会读取账户, 账户不存在时创建
+        accessRecord.recordAccountRead(addr);
+        accessRecord.recordStorageWrite(addr, key);
+        super.addStorageRow(addr, key, value);
+    }
+
+    @Override
+    public DataWord getStorageValue(byte[] addr, DataWord key) {
+        accessRecord.recordAccountRead(addr);
+        accessRecord.recordStorageRead(addr, key);
+        return super.getStorageValue(addr, key);
+    }
+
+    @Override
+    public BigInteger getBalance(byte[] addr) {
+        accessRecord.recordAccountRead(addr);
+        return super.getBalance(addr);
+    }
+
+    @Override
+    public BigInteger addBalance(byte[] addr, BigInteger value) {
+        accessRecord.recordAccountWrite(addr);
+        return super.addBalance(addr, value);
+    }
+
+    @Override
+    public int getStorageSize(byte[] addr) {
+        accessRecord.recordStorageScan(addr);
+        return super.getStorageSize(addr);
+    }
+
+    @Override
+    public Set<DataWord> getStorageKeys(byte[] addr) {
+        accessRecord.recordStorageScan(addr);
+        return super.getStorageKeys(addr);
+    }
+
+    @Override
+    public Map<DataWord, DataWord> getStorage(byte[] addr, @Nullable Collection<DataWord> keys) {
+        accessRecord.recordStorageScan(addr);
+        return super.getStorage(addr, keys);
+    }
+}
@@ -28,7 +28,6 @@ import io.nuls.base.protocol.ProtocolGroupManager;
 import io.nuls.contract.config.ContractContext;
 import io.nuls.contract.model.bo.Chain;
 import io.nuls.contract.model.bo.ContractBalance;
-import io.nuls.contract.model.dto.BlockHeaderDto;
 import io.nuls.contract.util.Log;
 import io.nuls.contract.util.VMContext;
 import io.nuls.contract.vm.*;
@@ -50,6 +49,7 @@ import org.ethereum.core.AccountState;
 import org.ethereum.core.Block;
 import org.ethereum.core.Repository;
 import org.ethereum.datasource.Source;
+import org.ethereum.db.PruneManager;
 import org.ethereum.db.RepositoryRoot;
 import org.ethereum.db.StateSource;
 import org.ethereum.util.FastByteComparisons;
@@ -95,6 +95,12 @@ public class ProgramExecutorImpl implements ProgramExecutor {
 
     private final Thread thread;
 
+    private boolean recordAccess;
+
+    private boolean speculative;
+
+    private ProgramAccessRecord accessRecord;
+
     public ProgramExecutorImpl(VMContext vmContext, Chain chain) {
         this(null, vmContext, stateSource(chain), null, null, null, null);
         this.chain = chain;
@@ -120,6 +126,7 @@ public class ProgramExecutorImpl implements ProgramExecutor {
         programExecutor.contractArrays = this.contractArrays;
         programExecutor.contractObjectRefCount = this.contractObjectRefCount;
         // end code by pierre
+        programExecutor.accessRecord = this.accessRecord;
         return programExecutor;
     }
 
@@ -162,15 +169,37 @@ public class ProgramExecutorImpl implements ProgramExecutor {
             log.debug("startTracking");
         }
         Repository track = repository.startTracking();
-        return new ProgramExecutorImpl(this, vmContext, source, track, null, new HashMap<>(), thread);
+        if (!recordAccess) {
+            return new ProgramExecutorImpl(this, vmContext, source, track, null, new HashMap<>(), thread);
+        }
+        ProgramAccessRecord accessRecord = new ProgramAccessRecord();
+        accessRecord.setSpeculative(speculative);
+        ProgramExecutorImpl programExecutor = new ProgramExecutorImpl(this, vmContext, source, new AccessRecordingRepository(track, accessRecord), null, new HashMap<>(), thread);
+        programExecutor.accessRecord = accessRecord;
+        return programExecutor;
+    }
+
+    @Override
+    public void setRecordAccess(boolean recordAccess) {
+        this.recordAccess = recordAccess;
+    }
+
+    @Override
+    public void setSpeculative(boolean speculative) {
+        this.speculative = speculative;
+    }
+
+    @Override
+    public ProgramAccessRecord getAccessRecord() {
+        return accessRecord;
     }
 
     @Override
     public void commit() {
         checkThread();
         if (!revert) {
-            repository.commit();
             if (prevStateRoot == null) {
+                repository.commit();
                 if (parent.blockNumber == 0) {
                     parent.blockNumber = blockNumber;
                 }
@@ -178,20 +207,16 @@ public class ProgramExecutorImpl implements ProgramExecutor {
                     throw new RuntimeException(String.format("must use the same block number, parent blockNumber is [%s], this blockNumber is [%s]", parent.blockNumber, blockNumber));
                 }
             } else {
-                if (vmContext != null) {
-                    BlockHeaderDto blockHeaderDto;
-                    try {
-                        blockHeaderDto = vmContext.getBlockHeader(getCurrentChainId(), blockNumber);
-                    } catch (Exception e) {
-                        throw new RuntimeException(e);
-                    }
-                    byte[] parentHash = HexUtil.decode(blockHeaderDto.getPreHash());
-                    byte[] hash = HexUtil.decode(blockHeaderDto.getHash());
-                    Block block = new Block(parentHash, hash, blockNumber);
-                    getCurrentChain().getDefaultConfig().blockStore().saveBlock(block, BigInteger.ONE, true);
-                    getCurrentChain().getDefaultConfig().pruneManager().blockCommitted(block.getHeader());
+                Chain currentChain = getCurrentChain();
+                PruneManager pruneManager = currentChain.getDefaultConfig().pruneManager();
+                // 提交写入的状态节点记录在以新状态根为键的修改日志中, 根执行器的提交需串行, 避免节点被记录到其他状态根下
+                synchronized (pruneManager) {
+                    repository.commit();
+                    // 记录状态根的父子关系, 用于状态裁剪与离线压缩
+                    Block block = new Block(prevStateRoot, repository.getRoot(), blockNumber);
+                    pruneManager.blockCommitted(block.getHeader());
+                    currentChain.getCommonConfig().dbFlushManager().flush();
                 }
-                getCurrentChain().getCommonConfig().dbFlushManager().flush();
             }
             logTime("commit");
         }
@@ -668,6 +693,9 @@ public class ProgramExecutorImpl implements ProgramExecutor {
 
     private ContractBalance getBalance(byte[] address, int assetChainId, int assetId) {
         ContractBalance contractBalance = null;
+        if (accessRecord != null) {
+            accessRecord.recordBalanceRead(address);
+        }
         if (vmContext != null) {
             contractBalance = vmContext.getBalance(getCurrentChainId(), assetChainId, assetId, address);
         }
@@ -676,6 +704,9 @@ public class ProgramExecutorImpl implements ProgramExecutor {
 
     private BigInteger getTotalBalance(byte[] address, Long blockNumber, int assetChainId, int assetId) {
         BigInteger balance = BigInteger.ZERO;
+        if (accessRecord != null) {
+            accessRecord.recordBalanceRead(address);
+        }
         if (vmContext != null) {
             balance = vmContext.getTotalBalance(getCurrentChainId(), assetChainId, assetId, address);
         }
@@ -0,0 +1,484 @@
+/*
+ * MIT License
+ *
+ * Copyright (c) 2017-2019 nuls.io
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ *
+ */
+package io.nuls.contract.vm.util;
+
+import com.google.common.collect.BiMap;
+import io.nuls.contract.vm.ObjectRef;
+
+import java.lang.reflect.Array;
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+import static io.nuls.contract.vm.util.Utils.hashMapInitialCapacity;
+
+/**
+ * 合约对象状态的二进制编码
+ * 格式: MAGIC + VERSION + 带类型标记的值, 整数使用zigzag变长编码, 类名使用classNames中的短名称;
+ * MAGIC不会是JSON的首字符('{'或'['), 也不是0(DataWord会去掉前导0), 据此区分旧的JSON格式, 旧数据无需迁移
+ * Binary codec of contract object state.
+ * Values are tagged, integers are zigzag varints and class names use the short names of classNames. The leading
+ * MAGIC byte never starts a JSON value, so values written as JSON before can still be read without migration.
+ */
+public class StateCodec {
+
+    public static final byte MAGIC = 0x01;
+
+    public static final byte VERSION = 1;
+
+    private static final byte TAG_NULL = 0;
+    private static final byte TAG_INT = 1;
+    private static final byte TAG_LONG = 2;
+    private static final byte TAG_FLOAT = 3;
+    private static final byte TAG_DOUBLE = 4;
+    private static final byte TAG_BOOLEAN = 5;
+    private static final byte TAG_BYTE = 6;
+    private static final byte TAG_CHAR = 7;
+    private static final byte TAG_SHORT = 8;
+    private static final byte TAG_STRING = 9;
+    private static final byte TAG_REF = 10;
+    private static final byte TAG_MAP = 11;
+    private static final byte TAG_ARRAY = 12;
+
+    /**
+     * 是否为二进制编码的值
+     *
+     * @param value 存储的值(已去掉前导0)
+     * @return boolean
+     */
+    public static boolean isEncoded(byte[] value) {
+        return value != null && value.length > 1 && value[0] == MAGIC;
+    }
+
+    public static byte[] encode(Object value, BiMap<String, String> classNames) {
+        Writer writer = new Writer();
+        writer.writeByte(MAGIC);
+        writer.writeByte(VERSION);
+        writeValue(writer, value, classNames);
+        return writer.toByteArray();
+    }
+
+    /**
+     * 编码数组分块, 非基本类型的数组元素按ObjectRef编码, 与{@link JsonUtils#encodeArray}一致
+     *
+     * @param value       数组
+     * @param elementType 元素类型
+     * @param classNames  类名短名称
+     * @return byte[]
+     */
+    public static byte[] encodeArray(Object value, Class<?> elementType, BiMap<String, String> classNames) {
+        Writer writer = new Writer();
+        writer.writeByte(MAGIC);
+        writer.writeByte(VERSION);
+        writer.writeByte(TAG_ARRAY);
+        writeArray(writer, value, elementType, classNames);
+        return writer.toByteArray();
+    }
+
+    public static Object decode(byte[] value, BiMap<String, String> classNames) {
+        if (!isEncoded(value)) {
+            throw new IllegalArgumentException("unknown state format");
+        }
+        if (value[1] != VERSION) {
+            throw new IllegalArgumentException("unknown state version: " + value[1]);
+        }
+        Reader reader = new Reader(value, 2);
+        Object object = readValue(reader, classNames);
+        if (reader.position != value.length) {
+            throw new IllegalArgumentException("unexpected trailing bytes");
+        }
+        return object;
+    }
+
+    private static void writeValue(Writer writer, Object value, BiMap<String, String> classNames) {
+        if (value == null) {
+            writer.writeByte(TAG_NULL);
+        } else if (value.getClass().isArray()) {
+            writer.writeByte(TAG_ARRAY);
+            writeArray(writer, value, value.getClass().getComponentType(), classNames);
+        } else if (value instanceof Map) {
+            Map<?, ?> map = (Map<?, ?>) value;
+            writer.writeByte(TAG_MAP);
+            writer.writeVarLong(map.size());
+            for (Map.Entry<?, ?> entry : map.entrySet()) {
+                writer.writeString(String.valueOf(entry.getKey()));
+                writeValue(writer, entry.getValue(), classNames);
+            }
+        } else if (value instanceof Integer) {
+            writer.writeByte(TAG_INT);
+            writer.writeZigZag((Integer) value);
+        } else if (value instanceof Long) {
+            writer.writeByte(TAG_LONG);
+            writer.writeZigZag((Long) value);
+        } else if (value instanceof Float) {
+            writer.writeByte(TAG_FLOAT);
+            writer.writeFixed(Float.floatToRawIntBits((Float) value), 4);
+        } else if (value instanceof Double) {
+            writer.writeByte(TAG_DOUBLE);
+            writer.writeFixed(Double.doubleToRawLongBits((Double) value), 8);
+        } else if (value instanceof Boolean) {
+            writer.writeByte(TAG_BOOLEAN);
+            writer.writeByte((Boolean) value ? 1 : 0);
+        } else if (value instanceof Byte) {
+            writer.writeByte(TAG_BYTE);
+            writer.writeByte((Byte) value);
+        } else if (value instanceof Character) {
+            writer.writeByte(TAG_CHAR);
+            writer.writeVarLong((Character) value);
+        } else if (value instanceof Short) {
+            writer.writeByte(TAG_SHORT);
+            writer.writeZigZag((Short) value);
+        } else if (value instanceof String) {
+            writer.writeByte(TAG_STRING);
+            writer.writeString((String) value);
+        } else if (value instanceof ObjectRef) {
+            writer.writeByte(TAG_REF);
+            writeObjectRef(writer, (ObjectRef) value, classNames);
+        } else {
+            throw new IllegalArgumentException("unknown value");
+        }
+    }
+
+    private static Object readValue(Reader reader, BiMap<String, String> classNames) {
+        byte tag = reader.readByte();
+        switch (tag) {
+            case TAG_NULL:
+                return null;
+            case TAG_INT:
+                return (int) reader.readZigZag();
+            case TAG_LONG:
+                return reader.readZigZag();
+            case TAG_FLOAT:
+                return Float.intBitsToFloat((int) reader.readFixed(4));
+            case TAG_DOUBLE:
+                return Double.longBitsToDouble(reader.readFixed(8));
+            case TAG_BOOLEAN:
+                return reader.readByte() != 0;
+            case TAG_BYTE:
+                return reader.readByte();
+            case TAG_CHAR:
+                return (char) reader.readVarLong();
+            case TAG_SHORT:
+                return (short) reader.readZigZag();
+            case TAG_STRING:
+                return reader.readString();
+            case TAG_REF:
+                return readObjectRef(reader, classNames);
+            case TAG_MAP:
+                int size = reader.readLength();
+                Map<String, Object> map = new LinkedHashMap<>(hashMapInitialCapacity(size));
+                for (int i = 0; i < size; i++) {
+                    String key = reader.readString();
+                    map.put(key, readValue(reader, classNames));
+                }
+                return map;
+            case TAG_ARRAY:
+                return readArray(reader, classNames);
+            default:
+                throw new IllegalArgumentException("unknown tag: " + tag);
+        }
+    }
+
+    private static void writeArray(Writer writer, Object array, Class<?> elementType, BiMap<String, String> classNames) {
+        int length = Array.getLength(array);
+        if (elementType == Integer.TYPE) {
+            writer.writeByte(TAG_INT);
+            writer.writeVarLong(length);
+            for (int v : (int[]) array) {
+                writer.writeZigZag(v);
+            }
+        } else if (elementType == Long.TYPE) {
+            writer.writeByte(TAG_LONG);
+            writer.writeVarLong(length);
+            for (long v : (long[]) array) {
+                writer.writeZigZag(v);
+            }
+        } else if (elementType == Float.TYPE) {
+            writer.writeByte(TAG_FLOAT);
+            writer.writeVarLong(length);
+            for (float v : (float[]) array) {
+                writer.writeFixed(Float.floatToRawIntBits(v), 4);
+            }
+        } else if (elementType == Double.TYPE) {
+            writer.writeByte(TAG_DOUBLE);
+            writer.writeVarLong(length);
+            for (double v : (double[]) array) {
+                writer.writeFixed(Double.doubleToRawLongBits(v), 8);
+            }
+        } else if (elementType == Boolean.TYPE) {
+            writer.writeByte(TAG_BOOLEAN);
+            writer.writeVarLong(length);
+            for (boolean v : (boolean[]) array) {
+                writer.writeByte(v ? 1 : 0);
+            }
+        } else if (elementType == Byte.TYPE) {
+            writer.writeByte(TAG_BYTE);
+            writer.writeVarLong(length);
+            writer.writeBytes((byte[]) array);
+        } else if (elementType == Character.TYPE) {
+            writer.writeByte(TAG_CHAR);
+            writer.writeVarLong(length);
+            for (char v : (char[]) array) {
+                writer.writeVarLong(v);
+            }
+        } else if (elementType == Short.TYPE) {
+            writer.writeByte(TAG_SHORT);
+            writer.writeVarLong(length);
+            for (short v : (short[]) array) {
+                writer.writeZigZag(v);
+            }
+        } else {
+            writer.writeByte(TAG_REF);
+            writer.writeVarLong(length);
+            for (int i = 0; i < length; i++) {
+                ObjectRef objectRef = (ObjectRef) Array.get(array, i);
+                if (objectRef == null) {
+                    writer.writeByte(0);
+                } else {
+                    writer.writeByte(1);
+                    writeObjectRef(writer, objectRef, classNames);
+                }
+            }
+        }
+    }
+
+    private static Object readArray(Reader reader, BiMap<String, String> classNames) {
+        byte tag = reader.readByte();
+        int length = reader.readLength();
+        switch (tag) {
+            case TAG_INT:
+                int[] ints = new int[length];
+                for (int i = 0; i < length; i++) {
+                    ints[i] = (int) reader.readZigZag();
+                }
+                return ints;
+            case TAG_LONG:
+                long[] longs = new long[length];
+                for (int i = 0; i < length; i++) {
+                    longs[i] = reader.readZigZag();
+                }
+                return longs;
+            case TAG_FLOAT:
+                float[] floats = new float[length];
+                for (int i = 0; i < length; i++) {
+                    floats[i] = Float.intBitsToFloat((int) reader.readFixed(4));
+                }
+                return floats;
+            case TAG_DOUBLE:
+                double[] doubles = new double[length];
+                for (int i = 0; i < length; i++) {
+                    doubles[i] = Double.longBitsToDouble(reader.readFixed(8));
+                }
+                return doubles;
+            case TAG_BOOLEAN:
+                boolean[] booleans = new boolean[length];
+                for (int i = 0; i < length; i++) {
+                    booleans[i] = reader.readByte() != 0;
+                }
+                return booleans;
+            case TAG_BYTE:
+                return reader.readBytes(length);
+            case TAG_CHAR:
+                char[] chars = new char[length];
+                for (int i = 0; i < length; i++) {
+                    chars[i] = (char) reader.readVarLong();
+                }
+                return chars;
+            case TAG_SHORT:
+                short[] shorts = new short[length];
+                for (int i = 0; i < length; i++) {
+                    shorts[i] = (short) reader.readZigZag();
+                }
+                return shorts;
+            case TAG_REF:
+                ObjectRef[] objectRefs = new ObjectRef[length];
+                for (int i = 0; i < length; i++) {
+                    if (reader.readByte() != 0) {
+                        objectRefs[i] = readObjectRef(reader, classNames);
+                    }
+                }
+                return objectRefs;
+            default:
+                throw new IllegalArgumentException("unknown array tag: " + tag);
+        }
+    }
+
+    private static void writeObjectRef(Writer writer, ObjectRef objectRef, BiMap<String, String> classNames) {
+        String desc = objectRef.getDesc();
+        String shortName = classNames.inverse().get(desc);
+        writer.writeString(objectRef.getRef());
+        writer.writeString(shortName != null ? shortName : desc);
+        int[] dimensions = objectRef.getDimensions();
+        int count = dimensions == null ? 0 : dimensions.length;
+        writer.writeVarLong(count);
+        for (int i = 0; i < count; i++) {
+            writer.writeZigZag(dimensions[i]);
+        }
+    }
+
+    private static ObjectRef readObjectRef(Reader reader, BiMap<String, String> classNames) {
+        String ref = reader.readString();
+        String desc = reader.readString();
+        String fullName = classNames.get(desc);
+        if (fullName != null) {
+            desc = fullName;
+        }
+        int[] dimensions = new int[reader.readLength()];
+        for (int i = 0; i < dimensions.length; i++) {
+            dimensions[i] = (int) reader.readZigZag();
+        }
+        return new ObjectRef(ref, desc, dimensions);
+    }
+
+    private static class Writer {
+
+        private byte[] buf = new byte[64];
+
+        private int size;
+
+        private void ensure(int n) {
+            if (size + n > buf.length) {
+                buf = Arrays.copyOf(buf, Math.max(buf.length * 2, size + n));
+            }
+        }
+
+        void writeByte(int b) {
+            ensure(1);
+            buf[size++] = (byte) b;
+        }
+
+        void writeBytes(byte[] bytes) {
+            ensure(bytes.length);
+            System.arraycopy(bytes, 0, buf, size, bytes.length);
+            size += bytes.length;
+        }
+
+        void writeVarLong(long value) {
+            ensure(10);
+            while ((value & ~0x7FL) != 0) {
+                buf[size++] = (byte) ((value & 0x7F) | 0x80);
+                value >>>= 7;
+            }
+            buf[size++] = (byte) value;
+        }
+
+        void writeZigZag(long value) {
+            writeVarLong((value << 1) ^ (value >> 63));
+        }
+
+        void writeFixed(long value, int bytes) {
+            ensure(bytes);
+            for (int i = 0; i < bytes; i++) {
+                buf[size++] = (byte) (value >>> (8 * i));
+            }
+        }
+
+        /**
+         * 按char写入, 保留不成对的代理字符
+         */
+        void writeString(String value) {
+            int length = value.length();
+            writeVarLong(length);
+            for (int i = 0; i < length; i++) {
+                writeVarLong(value.charAt(i));
+            }
+        }
+
+        byte[] toByteArray() {
+            return Arrays.copyOf(buf, size);
+        }
+    }
+
+    private static class Reader {
+
+        private final byte[] buf;
+
+        private int position;
+
+        Reader(byte[] buf, int position) {
+            this.buf = buf;
+            this.position = position;
+        }
+
+        byte readByte() {
+            if (position >= buf.length) {
+                throw new IllegalArgumentException("unexpected end of state");
+            }
+            return buf[position++];
+        }
+
+        byte[] readBytes(int length) {
+            if (position + length > buf.length) {
+                throw new IllegalArgumentException("unexpected end of state");
+            }
+            byte[] bytes = Arrays.copyOfRange(buf, position, position + length);
+            position += length;
+            return bytes;
+        }
+
+        long readVarLong() {
+            long value = 0;
+            for (int shift = 0; shift < 64; shift += 7) {
+                byte b = readByte();
+                value |= (long) (b & 0x7F) << shift;
+                if ((b & 0x80) == 0) {
+                    return value;
+                }
+            }
+            throw new IllegalArgumentException("malformed varint");
+        }
+
+        long readZigZag() {
+            long value = readVarLong();
+            return (value >>> 1) ^ -(value & 1);
+        }
+
+        long readFixed(int bytes) {
+            long value = 0;
+            for (int i = 0; i < bytes; i++) {
+                value |= (readByte() & 0xFFL) << (8 * i);
+            }
+            return value;
+        }
+
+        int readLength() {
+            long length = readVarLong();
+            if (length < 0 || length > buf.length - position) {
+                throw new IllegalArgumentException("invalid length: " + length);
+            }
+            return (int) length;
+        }
+
+        String readString() {
+            int length = readLength();
+            char[] chars = new char[length];
+            for (int i = 0; i < length; i++) {
+                chars[i] = (char) readVarLong();
+            }
+            return new String(chars);
+        }
+    }
+
+}
@@ -74,9 +74,10 @@ public class DefaultConfig {
         if (pruneManager == null) {
             if (config.databasePruneDepth() >= 0) {
                 pruneManager = new PruneManager((IndexedBlockStore) blockStore(), commonConfig.stateSource().getJournalSource(),
-                        commonConfig.stateSource().getNoJournalSource(), config.databasePruneDepth());
+                        commonConfig.stateSource().getNoJournalSource(), commonConfig.cachedDbSource("prune"), config.databasePruneDepth());
             } else {
-                pruneManager = new PruneManager(null, null, null, -1); // dummy
+                // only records the state roots
+                pruneManager = new PruneManager((IndexedBlockStore) blockStore(), null, null, null, -1);
             }
         }
         return pruneManager;
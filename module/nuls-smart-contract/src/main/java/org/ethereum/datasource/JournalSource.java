@@ -155,8 +155,35 @@ public class JournalSource<V> extends AbstractChainedSource<byte[], V, byte[], V
      * or reverted from the backing Source (inserts only)
      */
     public synchronized Update commitUpdates(byte[] updateHash) {
+        return commitUpdates(updateHash, true);
+    }
+
+    /**
+     * Same as {@link #commitUpdates(byte[])}, but if an update with the same hash
+     * already exists the changes are appended to it instead of replacing it,
+     * so the keys recorded by an earlier commit are not lost.
+     * If keepDeletes is false the deleted keys of both updates are dropped,
+     * those nodes are then never removed from the backing Source
+     *
+     * @return the changes made since the previous commit only
+     */
+    public synchronized Update commitUpdates(byte[] updateHash, boolean keepDeletes) {
         currentUpdate.updateHash = updateHash;
-        journal.put(updateHash, currentUpdate);
+        if (!keepDeletes) {
+            currentUpdate.deletedKeys.clear();
+        }
+        Update stored = journal.get(updateHash);
+        if (stored == null) {
+            journal.put(updateHash, currentUpdate);
+        } else {
+            stored.insertedKeys.addAll(currentUpdate.insertedKeys);
+            if (keepDeletes) {
+                stored.deletedKeys.addAll(currentUpdate.deletedKeys);
+            } else {
+                stored.deletedKeys.clear();
+            }
+            journal.put(updateHash, stored);
+        }
         Update committed = currentUpdate;
         currentUpdate = new Update();
         return committed;
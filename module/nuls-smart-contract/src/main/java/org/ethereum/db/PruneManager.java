@@ -17,152 +17,225 @@
  */
 package org.ethereum.db;
 
-import org.ethereum.config.SystemProperties;
 import org.ethereum.core.Block;
 import org.ethereum.core.BlockHeader;
+import org.ethereum.datasource.CountingQuotientFilter;
 import org.ethereum.datasource.JournalSource;
+import org.ethereum.datasource.QuotientFilter;
 import org.ethereum.datasource.Source;
-import org.ethereum.db.prune.Pruner;
-import org.ethereum.db.prune.Segment;
+import org.ethereum.util.ByteUtil;
+import org.ethereum.util.FastByteComparisons;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
 
-import java.util.ArrayList;
-import java.util.List;
-import java.util.stream.Collectors;
+import java.math.BigInteger;
+import java.util.*;
 
 /**
  * Manages state pruning part of block processing.
  *
  * <p>
- * Constructs chain segments and prune them when they are complete
+ * Unlike Ethereum a NULS node commits contract state several times per block
+ * (batch end, consensus reward) and also for blocks which never get confirmed
+ * (packing attempts, verification of rejected blocks). All of those commits start
+ * from the same confirmed parent state, so they can't share one journal entry:
+ * a sibling commit would record deletes of nodes the confirmed commit still uses.
+ * <p>
+ * Therefore every root commit is tracked as a separate item: the item hash is the new
+ * state root, the parent hash is the state root the execution started from and the number
+ * is the block height. Items are kept in the {@link IndexedBlockStore} even if pruning is
+ * disabled, they are the source of state roots for offline compaction.
+ * <p>
+ * When an item gets older than the prune depth it is either on the chain of state roots
+ * the latest commit was built on (confirmed) or not. Deletes of confirmed items are
+ * persisted unless the key was inserted again by a newer item, other items are
+ * just forgotten: their nodes stay in the storage, which is always safe.
+ * The prune depth must be bigger than the maximum rollback height of the block module.
  * <p>
  * Created by Anton Nashatyrev on 10.11.2016.
- *
- * @see Segment
- * @see Pruner
  */
 public class PruneManager {
 
-    private static final int LONGEST_CHAIN = 192;
+    private static final Logger logger = LoggerFactory.getLogger("db");
 
-    private JournalSource<?> journalSource;
+    /**
+     * Heights handled in one step, the chain of confirmed items is walked once per step
+     */
+    private static final int PRUNE_STEP = 32;
+
+    private static final long FILTER_MAX_SIZE = Integer.MAX_VALUE >> 1;
+    private static final long FILTER_INITIAL_SIZE = 1 << 20;
+
+    private static final byte[] PRUNED_NUMBER_KEY = "prunedNumber".getBytes();
 
     private IndexedBlockStore blockStore;
 
+    private JournalSource<?> journalSource;
+
+    private Source<byte[], ?> pruneStorage;
+
+    private Source<byte[], byte[]> pruneStatus;
+
     private int pruneBlocksCnt;
 
-    private Segment segment;
-    private Pruner pruner;
+    /**
+     * Inserted keys of all items which are not pruned yet
+     */
+    private QuotientFilter filter;
 
-    private PruneManager(SystemProperties config) {
-        pruneBlocksCnt = config.databasePruneDepth();
-    }
+    private long prunedNumber = -1;
 
     public PruneManager(IndexedBlockStore blockStore, JournalSource<?> journalSource,
-                        Source<byte[], ?> pruneStorage, int pruneBlocksCnt) {
+                        Source<byte[], ?> pruneStorage, Source<byte[], byte[]> pruneStatus, int pruneBlocksCnt) {
         this.blockStore = blockStore;
         this.journalSource = journalSource;
+        this.pruneStorage = pruneStorage;
+        this.pruneStatus = pruneStatus;
         this.pruneBlocksCnt = pruneBlocksCnt;
+    }
 
-        if (journalSource != null && pruneStorage != null) {
-            this.pruner = new Pruner(journalSource.getJournal(), pruneStorage);
+    /**
+     * Is called after each root commit, the header holds the previous state root as parent hash,
+     * the new state root as hash and the block height as number
+     */
+    public synchronized void blockCommitted(BlockHeader header) {
+        byte[] root = header.getHash();
+        byte[] parentRoot = header.getParentHash();
+        if (FastByteComparisons.equal(root, parentRoot)) {
+            return; // state is not changed, pending changes go to the next commit
+        }
+        if (blockStore == null) {
+            return;
         }
-    }
 
-    public void setStateSource(StateSource stateSource) {
-        journalSource = stateSource.getJournalSource();
-        if (journalSource != null) {
-            pruner = new Pruner(journalSource.getJournal(), stateSource.getNoJournalSource());
+        Block stored = blockStore.getBlockByHash(root);
+        boolean sameItem = stored != null && stored.getNumber() == header.getNumber()
+                && FastByteComparisons.equal(stored.getParentHash(), parentRoot);
+        if (!sameItem) {
+            // the same state may be reached again from another parent, the item is moved to the latest height
+            blockStore.saveBlock(new Block(parentRoot, root, header.getNumber()), BigInteger.ONE, true);
         }
-    }
 
-    public void blockCommitted(BlockHeader block) {
         if (pruneBlocksCnt < 0) {
             return; // pruning disabled
         }
 
-        JournalSource.Update update = journalSource.commitUpdates(block.getHash());
-        pruner.feed(update);
+        // deletes recorded at another height can't be checked against the newer items any more
+        JournalSource.Update update = journalSource.commitUpdates(root, stored == null || sameItem);
+        if (filter == null) {
+            init(header.getNumber());
+        } else {
+            update.getInsertedKeys().forEach(filter::insert);
+        }
 
-        long forkBlockNum = block.getNumber() - getForkBlocksCnt();
-        if (forkBlockNum < 0) {
+        long pruneNumber = header.getNumber() - pruneBlocksCnt;
+        if (pruneNumber - prunedNumber < PRUNE_STEP) {
             return;
         }
+        prune(root, pruneNumber);
+    }
 
-        List<Block> pruneBlocks = blockStore.getBlocksByNumber(forkBlockNum);
-        Block chainBlock = blockStore.getChainBlockByNumber(forkBlockNum);
-
-        // reset segment and return
-        // if chainBlock is accidentally null
-        if (chainBlock == null) {
-            segment = null;
-            return;
+    private void init(long number) {
+        byte[] prunedBytes = pruneStatus.get(PRUNED_NUMBER_KEY);
+        prunedNumber = prunedBytes == null ? -1 : ByteUtil.byteArrayToLong(prunedBytes);
+        if (prunedNumber < number - 2L * pruneBlocksCnt) {
+            // pruning is just enabled (or was disabled for a while), older items are never pruned
+            prunedNumber = number - 1;
+            pruneStatus.put(PRUNED_NUMBER_KEY, ByteUtil.longToBytes(prunedNumber));
         }
 
-        if (segment == null) {
-            if (pruneBlocks.size() == 1)    // wait for a single chain
-            {
-                segment = new Segment(chainBlock);
+        QuotientFilter filter = CountingQuotientFilter.create(FILTER_MAX_SIZE, FILTER_INITIAL_SIZE);
+        int updates = 0;
+        for (long num = prunedNumber + 1; num <= blockStore.getMaxNumber(); num++) {
+            for (byte[] hash : getItemHashes(num)) {
+                JournalSource.Update update = journalSource.getJournal().get(hash);
+                if (update != null) {
+                    update.getInsertedKeys().forEach(filter::insert);
+                    updates++;
+                }
             }
-            return;
         }
+        this.filter = filter;
+        logger.info("state prune filter initialized with {} updates, pruned number {}", updates, prunedNumber);
+    }
 
-        Segment.Tracker tracker = segment.startTracking();
-        tracker.addMain(chainBlock);
-        tracker.addAll(pruneBlocks);
-        tracker.commit();
-
-        if (segment.isComplete()) {
-            if (!pruner.isReady()) {
-                List<byte[]> forkWindow = getAllChainsHashes(segment.getRootNumber() + 1, blockStore.getMaxNumber());
-                pruner.init(forkWindow, getForkBlocksCnt());
+    private void prune(byte[] root, long pruneNumber) {
+        long t = System.currentTimeMillis();
 
-                int mainChainWindowSize = pruneBlocksCnt - getForkBlocksCnt();
-                if (mainChainWindowSize > 0) {
-                    List<byte[]> mainChainWindow = getMainChainHashes(Math.max(1, segment.getRootNumber() - mainChainWindowSize + 1),
-                            segment.getRootNumber());
-                    pruner.withSecondStep(mainChainWindow, mainChainWindowSize);
-                }
+        // walk from the latest item back to the pruned height, the oldest confirmed item comes first
+        LinkedList<byte[]> confirmed = new LinkedList<>();
+        Set<ByteArrayWrapper> visited = new HashSet<>();
+        Block item = blockStore.getBlockByHash(root);
+        while (item != null && item.getNumber() > prunedNumber && visited.add(new ByteArrayWrapper(item.getHash()))) {
+            if (item.getNumber() <= pruneNumber) {
+                confirmed.addFirst(item.getHash());
+            }
+            Block parent = blockStore.getBlockByHash(item.getParentHash());
+            if (parent != null && parent.getNumber() > item.getNumber()) {
+                break; // the parent was moved to a newer height
             }
-            pruner.prune(segment);
-            segment = new Segment(chainBlock);
+            item = parent;
         }
 
-        long mainBlockNum = block.getNumber() - getMainBlocksCnt();
-        if (mainBlockNum < 0) {
-            return;
+        int nodesDeleted = 0;
+        for (byte[] hash : confirmed) {
+            nodesDeleted += persist(hash);
         }
 
-        byte[] hash = blockStore.getBlockHashByNumber(mainBlockNum);
-        pruner.persist(hash);
-    }
+        int itemsDropped = 0;
+        for (long num = prunedNumber + 1; num <= pruneNumber; num++) {
+            for (byte[] hash : getItemHashes(num)) {
+                if (!visited.contains(new ByteArrayWrapper(hash)) && drop(hash)) {
+                    ++itemsDropped;
+                }
+            }
+        }
+
+        prunedNumber = pruneNumber;
+        pruneStatus.put(PRUNED_NUMBER_KEY, ByteUtil.longToBytes(prunedNumber));
 
-    private int getForkBlocksCnt() {
-        return Math.min(pruneBlocksCnt, 2 * LONGEST_CHAIN);
+        if (logger.isDebugEnabled()) {
+            logger.debug("pruned to {}: {} confirmed, {} dropped, {} nodes deleted in {}ms", pruneNumber,
+                    confirmed.size(), itemsDropped, nodesDeleted, System.currentTimeMillis() - t);
+        }
     }
 
-    private int getMainBlocksCnt() {
-        if (pruneBlocksCnt <= 2 * LONGEST_CHAIN) {
-            return Integer.MAX_VALUE;
-        } else {
-            return pruneBlocksCnt;
+    private int persist(byte[] hash) {
+        JournalSource.Update update = journalSource.getJournal().get(hash);
+        if (update == null) {
+            return 0;
         }
+        int nodesDeleted = 0;
+        for (byte[] key : update.getDeletedKeys()) {
+            if (!filter.maybeContains(key)) {
+                ++nodesDeleted;
+                pruneStorage.delete(key);
+            }
+        }
+        update.getInsertedKeys().forEach(filter::remove);
+        journalSource.getJournal().delete(hash);
+        return nodesDeleted;
     }
 
-    private List<byte[]> getAllChainsHashes(long fromBlock, long toBlock) {
-        List<byte[]> ret = new ArrayList<>();
-        for (long num = fromBlock; num <= toBlock; num++) {
-            List<Block> blocks = blockStore.getBlocksByNumber(num);
-            List<byte[]> hashes = blocks.stream().map(Block::getHash).collect(Collectors.toList());
-            ret.addAll(hashes);
+    private boolean drop(byte[] hash) {
+        JournalSource.Update update = journalSource.getJournal().get(hash);
+        if (update == null) {
+            return false;
         }
-        return ret;
+        update.getInsertedKeys().forEach(filter::remove);
+        journalSource.getJournal().delete(hash);
+        return true;
     }
 
-    private List<byte[]> getMainChainHashes(long fromBlock, long toBlock) {
+    /**
+     * Hashes of the items stored at that height, an item moved to a newer height is skipped
+     */
+    private List<byte[]> getItemHashes(long number) {
         List<byte[]> ret = new ArrayList<>();
-        for (long num = fromBlock; num <= toBlock; num++) {
-            byte[] hash = blockStore.getBlockHashByNumber(num);
-            ret.add(hash);
+        for (Block block : blockStore.getBlocksByNumber(number)) {
+            if (block != null && block.getNumber() == number) {
+                ret.add(block.getHash());
+            }
         }
         return ret;
     }
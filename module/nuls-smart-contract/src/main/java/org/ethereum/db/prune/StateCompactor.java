@@ -0,0 +1,109 @@
+package org.ethereum.db.prune;
+
+import org.ethereum.core.AccountState;
+import org.ethereum.datasource.NodeKeyCompositor;
+import org.ethereum.datasource.Source;
+import org.ethereum.datasource.SourceCodec;
+import org.ethereum.trie.TrieImpl;
+import org.ethereum.util.FastByteComparisons;
+
+import static org.ethereum.crypto.HashUtil.EMPTY_DATA_HASH;
+import static org.ethereum.crypto.HashUtil.EMPTY_TRIE_HASH;
+
+/**
+ * Copies the state reachable from the given state roots to another Source,
+ * the nodes left behind are the ones no kept root refers to.
+ *
+ * <p>
+ * For each account found in the state trie its storage trie and its code are copied too,
+ * both are stored with keys composed by {@link NodeKeyCompositor}.
+ * A node which is already in the destination is not scanned again,
+ * so roots sharing most of their nodes cost little more than a single one.
+ * The destination must not contain any partially copied trie.
+ */
+public class StateCompactor {
+
+    private final Source<byte[], byte[]> src;
+    private final Source<byte[], byte[]> dst;
+
+    private long nodesCopied;
+    private long codesCopied;
+
+    public StateCompactor(Source<byte[], byte[]> src, Source<byte[], byte[]> dst) {
+        this.src = src;
+        this.dst = dst;
+    }
+
+    /**
+     * Copies the state of the root
+     *
+     * @return false if the root node is not found in the source
+     */
+    public boolean copy(byte[] root) {
+        if (FastByteComparisons.equal(root, EMPTY_TRIE_HASH)) {
+            return true;
+        }
+        if (src.get(root) == null) {
+            return false;
+        }
+        copyTrie(src, dst, root, true);
+        return true;
+    }
+
+    public long getNodesCopied() {
+        return nodesCopied;
+    }
+
+    public long getCodesCopied() {
+        return codesCopied;
+    }
+
+    private void copyTrie(Source<byte[], byte[]> from, Source<byte[], byte[]> to, byte[] root, boolean stateTrie) {
+        new TrieImpl(from, root).scanTree(new TrieImpl.ScanAction() {
+            @Override
+            public boolean skipNode(byte[] hash) {
+                return to.get(hash) != null;
+            }
+
+            @Override
+            public void doOnNode(byte[] hash, TrieImpl.Node node) {
+                to.put(hash, from.get(hash));
+                ++nodesCopied;
+            }
+
+            @Override
+            public void doOnValue(byte[] nodeHash, TrieImpl.Node node, byte[] key, byte[] value) {
+                if (stateTrie) {
+                    copyAccount(key, new AccountState(value));
+                }
+            }
+        });
+    }
+
+    /**
+     * @param addrHash key of the account in the state trie, i.e. the hash of the address,
+     *                 addresses are shorter than a hash so their storage keys are composed with the same hash
+     */
+    private void copyAccount(byte[] addrHash, AccountState account) {
+        byte[] storageRoot = account.getStateRoot();
+        if (isHash(storageRoot) && !FastByteComparisons.equal(storageRoot, EMPTY_TRIE_HASH)) {
+            NodeKeyCompositor compositor = new NodeKeyCompositor(addrHash);
+            copyTrie(new SourceCodec.KeyOnly<>(src, compositor), new SourceCodec.KeyOnly<>(dst, compositor), storageRoot, false);
+        }
+        byte[] codeHash = account.getCodeHash();
+        if (isHash(codeHash) && !FastByteComparisons.equal(codeHash, EMPTY_DATA_HASH)) {
+            byte[] codeKey = NodeKeyCompositor.compose(codeHash, addrHash);
+            if (dst.get(codeKey) == null) {
+                byte[] code = src.get(codeKey);
+                if (code != null) {
+                    dst.put(codeKey, code);
+                    ++codesCopied;
+                }
+            }
+        }
+    }
+
+    private static boolean isHash(byte[] bytes) {
+        return bytes != null && bytes.length == NodeKeyCompositor.HASH_LEN;
+    }
+}
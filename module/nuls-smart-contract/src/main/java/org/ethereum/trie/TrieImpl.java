@@ -445,6 +445,14 @@ public class TrieImpl implements Trie<byte[]> {
         void doOnNode(byte[] hash, Node node);
 
         void doOnValue(byte[] nodeHash, Node node, byte[] key, byte[] value);
+
+        /**
+         * Returns true if the node and its subtree should not be scanned,
+         * e.g. when the subtree is shared with an already scanned trie
+         */
+        default boolean skipNode(byte[] hash) {
+            return false;
+        }
     }
 
     private Source<byte[], byte[]> cache;
@@ -755,6 +763,9 @@ public class TrieImpl implements Trie<byte[]> {
             return;
         }
         if (node.hash != null) {
+            if (scanAction.skipNode(node.hash)) {
+                return;
+            }
             scanAction.doOnNode(node.hash, node);
         }
         if (node.getType() == NodeType.BranchNode) {
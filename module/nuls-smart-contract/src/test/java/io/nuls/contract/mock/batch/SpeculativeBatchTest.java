@@ -0,0 +1,305 @@
+/**
+ * MIT License
+ * <p>
+ * Copyright (c) 2017-2019 nuls.io
+ * <p>
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ * <p>
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ * <p>
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package io.nuls.contract.mock.batch;
+
+import io.nuls.base.protocol.ProtocolGroupManager;
+import io.nuls.contract.enums.CmdRegisterMode;
+import io.nuls.contract.enums.CmdRegisterReturnType;
+import io.nuls.contract.manager.ChainManager;
+import io.nuls.contract.manager.CmdRegisterManager;
+import io.nuls.contract.manager.interfaces.RequestAndResponseInterface;
+import io.nuls.contract.mock.basetest.MockBase;
+import io.nuls.contract.model.bo.Chain;
+import io.nuls.contract.model.bo.CmdRegister;
+import io.nuls.contract.model.bo.config.ConfigBean;
+import io.nuls.contract.util.BeanUtilTest;
+import io.nuls.contract.util.ContractUtil;
+import io.nuls.contract.vm.VMFactory;
+import io.nuls.contract.vm.natives.io.nuls.contract.sdk.NativeAddress;
+import io.nuls.contract.vm.program.ProgramAccessRecord;
+import io.nuls.contract.vm.program.ProgramCall;
+import io.nuls.contract.vm.program.ProgramExecutor;
+import io.nuls.contract.vm.program.ProgramResult;
+import io.nuls.core.core.ioc.SpringLiteContext;
+import io.nuls.core.crypto.HexUtil;
+import io.nuls.core.rpc.model.message.MessageUtil;
+import io.nuls.core.rpc.model.message.Response;
+import org.apache.commons.io.IOUtils;
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.io.FileInputStream;
+import java.io.InputStream;
+import java.math.BigInteger;
+import java.util.*;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static io.nuls.contract.constant.ContractConstant.RPC_RESULT_KEY;
+
+/**
+ * 批次预执行与逐笔执行的一致性测试
+ * 同一批调用合约交易, 先并行预执行再按顺序检查读写冲突提交, 结果与最终状态根须与逐笔执行相同
+ */
+public class SpeculativeBatchTest extends MockBase {
+
+    private static final String ADDRESS_2 = "tNULSeBaNCLwPhph7q4dj1acTgbyxGJd2FPYVT";
+    private static final String BUYER = "tNULSeBaMnrs6JKrCy6TQdzYJZkMZJDng7QAsD";
+    private static final String USER_A = "tNULSeBaMrbMRiFAUeeAt6swb4xVBNyi81YL24";
+    private static final String USER_B = "tNULSeBaN8Kz39Q7uvxwrWBfk8JPjJQTU9BDY4";
+    private static final String USER_C = "tNULSeBaN5xpQLvYBMJuybAzgzRkRXL4r3tqMx";
+    private static final byte[] EMPTY_ROOT = HexUtil.decode("56e81f171bcc55a6ff8345e692c0f86e5b48e01b996cadc001622fb5e363b421");
+
+    /**
+     * 合约状态库每个进程只能打开一次, 各测试共用同一个执行器
+     */
+    private static ProgramExecutor sharedExecutor;
+
+    @Before
+    @Override
+    public void setUp() {
+        if (sharedExecutor == null) {
+            super.setUp();
+            sharedExecutor = programExecutor;
+        } else {
+            programExecutor = sharedExecutor;
+            protocolUpdate();
+        }
+    }
+
+    @Override
+    protected void protocolUpdate() {
+        short version = 8;
+        ProtocolGroupManager.setLoadProtocol(false);
+        ProtocolGroupManager.updateProtocol(chainId, version);
+        VMFactory.reInitVM_v8();
+    }
+
+    @Test
+    public void conflictingBatchTest() throws Exception {
+        byte[] prevStateRoot = deployTokens();
+
+        List<ProgramCall> callList = new ArrayList<>();
+        callList.add(transfer(ADDRESS, SENDER, BUYER, "100"));
+        callList.add(transfer(ADDRESS_2, USER_A, USER_B, "50"));
+        // 读取第一笔交易写入的BUYER余额, 预执行时余额不足, 须按顺序重新执行
+        callList.add(transfer(ADDRESS, BUYER, USER_C, "30"));
+
+        Set<Integer> reCalled = assertBatchEqualsSerial(prevStateRoot, callList);
+        Assert.assertTrue(reCalled.contains(2));
+        Assert.assertFalse(reCalled.contains(0));
+        Assert.assertFalse(reCalled.contains(1));
+    }
+
+    @Test
+    public void nonConflictingBatchTest() throws Exception {
+        byte[] prevStateRoot = deployTokens();
+
+        List<ProgramCall> callList = new ArrayList<>();
+        callList.add(transfer(ADDRESS, SENDER, BUYER, "100"));
+        callList.add(transfer(ADDRESS_2, USER_A, USER_B, "50"));
+
+        Set<Integer> reCalled = assertBatchEqualsSerial(prevStateRoot, callList);
+        Assert.assertTrue(reCalled.isEmpty());
+    }
+
+    @Test
+    public void speculativeStopsBeforeExternalCmdTest() throws Exception {
+        AtomicInteger invoked = new AtomicInteger();
+        registerCmd("returnString", invoked);
+        InputStream in = new FileInputStream(SpeculativeBatchTest.class.getResource("/contract-invoke-external-cmd-test.jar").getFile());
+        byte[] contractCode = IOUtils.toByteArray(in);
+        byte[] prevStateRoot = super.create(EMPTY_ROOT, SENDER, contractCode);
+
+        ProgramCall programCall = newCall(ADDRESS, SENDER, "invokeReturnString");
+        programCall.setArgs(ContractUtil.twoDimensionalArray(new Object[]{"returnString", new String[]{"a", "b"}}));
+
+        ProgramExecutor batchExecutor = programExecutor.begin(prevStateRoot);
+        batchExecutor.setRecordAccess(true);
+        batchExecutor.setSpeculative(true);
+        ProgramExecutor track = batchExecutor.startTracking();
+        ProgramResult programResult = track.call(programCall);
+        // 预执行停止, 未调用外部命令
+        Assert.assertFalse(programResult.isSuccess());
+        Assert.assertTrue(track.getAccessRecord().isAborted());
+        Assert.assertEquals(0, invoked.get());
+
+        batchExecutor.setSpeculative(false);
+        track = batchExecutor.startTracking();
+        programResult = track.call(programCall);
+        batchExecutor.setRecordAccess(false);
+        Assert.assertTrue(programResult.getErrorMessage(), programResult.isSuccess());
+        Assert.assertFalse(track.getAccessRecord().isAborted());
+        Assert.assertEquals(1, invoked.get());
+        Assert.assertEquals(1, programResult.getInvokeRegisterCmds().size());
+    }
+
+    /**
+     * 部署两个相互独立的token合约, 并给USER_A转入两种token
+     */
+    private byte[] deployTokens() throws Exception {
+        InputStream in = new FileInputStream(SpeculativeBatchTest.class.getResource("/nrc20").getFile());
+        byte[] contractCode = IOUtils.toByteArray(in);
+        byte[] prevStateRoot = super.create(EMPTY_ROOT, ADDRESS, SENDER, contractCode, "batch", "BAT", "100000", "2");
+        prevStateRoot = super.create(prevStateRoot, ADDRESS_2, SENDER, contractCode, "batch2", "BAT2", "100000", "2");
+        prevStateRoot = (byte[]) super.call(ADDRESS, prevStateRoot, SENDER, "transfer", new String[]{USER_A, "1000"}, BigInteger.ZERO)[0];
+        prevStateRoot = (byte[]) super.call(ADDRESS_2, prevStateRoot, SENDER, "transfer", new String[]{USER_A, "1000"}, BigInteger.ZERO)[0];
+        return prevStateRoot;
+    }
+
+    /**
+     * 比较逐笔执行与批次预执行的结果和状态根
+     *
+     * @return 预执行结果失效、按顺序重新执行的交易序号
+     */
+    private Set<Integer> assertBatchEqualsSerial(byte[] prevStateRoot, List<ProgramCall> callList) throws Exception {
+        List<ProgramResult> serialResults = new ArrayList<>();
+        byte[] serialRoot = serial(prevStateRoot, callList, serialResults);
+
+        List<ProgramResult> batchResults = new ArrayList<>();
+        Set<Integer> reCalled = new HashSet<>();
+        byte[] batchRoot = speculative(prevStateRoot, callList, batchResults, reCalled);
+
+        Assert.assertEquals(HexUtil.encode(serialRoot), HexUtil.encode(batchRoot));
+        Assert.assertEquals(serialResults.size(), batchResults.size());
+        for (int i = 0; i < serialResults.size(); i++) {
+            ProgramResult serial = serialResults.get(i);
+            ProgramResult batch = batchResults.get(i);
+            Assert.assertTrue(serial.isSuccess());
+            Assert.assertEquals(serial.isSuccess(), batch.isSuccess());
+            Assert.assertEquals(serial.getGasUsed(), batch.getGasUsed());
+            Assert.assertEquals(serial.getResult(), batch.getResult());
+            Assert.assertEquals(serial.getEvents(), batch.getEvents());
+        }
+        return reCalled;
+    }
+
+    private byte[] serial(byte[] prevStateRoot, List<ProgramCall> callList, List<ProgramResult> results) {
+        ProgramExecutor batchExecutor = programExecutor.begin(prevStateRoot);
+        for (ProgramCall programCall : callList) {
+            ProgramExecutor track = batchExecutor.startTracking();
+            results.add(track.call(programCall));
+            track.commit();
+        }
+        batchExecutor.commit();
+        return batchExecutor.getRoot();
+    }
+
+    /**
+     * 与批量执行合约交易相同的流程: 基于批次开始状态并行预执行, 再按顺序提交, 读取被前序交易写入的结果重新执行
+     */
+    private byte[] speculative(byte[] prevStateRoot, List<ProgramCall> callList, List<ProgramResult> results, Set<Integer> reCalled) throws Exception {
+        ProgramExecutor batchExecutor = programExecutor.begin(prevStateRoot);
+        batchExecutor.setRecordAccess(true);
+        batchExecutor.setSpeculative(true);
+        ExecutorService executorService = Executors.newFixedThreadPool(callList.size());
+        try {
+            List<Future<Object[]>> futureList = new ArrayList<>();
+            for (ProgramCall programCall : callList) {
+                futureList.add(executorService.submit(() -> {
+                    ProgramExecutor track = batchExecutor.startTracking();
+                    return new Object[]{track, track.call(programCall)};
+                }));
+            }
+            List<Object[]> preCallList = new ArrayList<>();
+            for (Future<Object[]> future : futureList) {
+                preCallList.add(future.get());
+            }
+            batchExecutor.setSpeculative(false);
+            ProgramAccessRecord committedRecord = new ProgramAccessRecord();
+            for (int i = 0; i < callList.size(); i++) {
+                Object[] preCall = preCallList.get(i);
+                ProgramExecutor track = (ProgramExecutor) preCall[0];
+                ProgramResult programResult = (ProgramResult) preCall[1];
+                if (track.getAccessRecord().isAborted() || track.getAccessRecord().conflictsWith(committedRecord)) {
+                    reCalled.add(i);
+                    track = batchExecutor.startTracking();
+                    programResult = track.call(callList.get(i));
+                }
+                results.add(programResult);
+                track.commit();
+                committedRecord.mergeWrites(track.getAccessRecord());
+            }
+        } finally {
+            executorService.shutdown();
+            batchExecutor.setSpeculative(false);
+            batchExecutor.setRecordAccess(false);
+        }
+        batchExecutor.commit();
+        return batchExecutor.getRoot();
+    }
+
+    /**
+     * 注册一个查询数据的外部命令, 记录被调用的次数
+     */
+    private void registerCmd(String cmdName, AtomicInteger invoked) {
+        Chain chain = new Chain();
+        ConfigBean configBean = new ConfigBean();
+        configBean.setChainId(chainId);
+        configBean.setAssetId(assetId);
+        chain.setConfig(configBean);
+        chain.getCmdRegisterMap().put(cmdName, new CmdRegister("sc", cmdName, CmdRegisterMode.QUERY_DATA, List.of("name", "age"), CmdRegisterReturnType.STRING));
+        ChainManager chainManager = new ChainManager();
+        chainManager.getChainMap().put(chain.getChainId(), chain);
+
+        CmdRegisterManager cmdRegisterManager = new CmdRegisterManager();
+        BeanUtilTest.setBean(cmdRegisterManager, chainManager);
+        BeanUtilTest.setBean(cmdRegisterManager, "requestAndResponseInterface", new RequestAndResponseInterface() {
+            @Override
+            public Response requestAndResponse(String moduleCode, String cmdName, Map args) {
+                invoked.incrementAndGet();
+                Response response = MessageUtil.newSuccessResponse("888888");
+                Map cmd = new HashMap(2);
+                Map map = new HashMap(2);
+                map.put(RPC_RESULT_KEY, "this is the return value.");
+                cmd.put(cmdName, map);
+                response.setResponseData(cmd);
+                return response;
+            }
+        });
+        SpringLiteContext.putBean(CmdRegisterManager.class.getName(), cmdRegisterManager);
+    }
+
+    private ProgramCall transfer(String contractAddress, String from, String to, String value) {
+        ProgramCall programCall = newCall(contractAddress, from, "transfer");
+        programCall.setArgs(new String[]{to, value});
+        return programCall;
+    }
+
+    private ProgramCall newCall(String contractAddress, String sender, String methodName) {
+        ProgramCall programCall = new ProgramCall();
+        programCall.setContractAddress(NativeAddress.toBytes(contractAddress));
+        programCall.setSender(NativeAddress.toBytes(sender));
+        programCall.setPrice(1);
+        programCall.setGasLimit(10000000);
+        programCall.setNumber(1);
+        programCall.setValue(BigInteger.ZERO);
+        programCall.setMethodName(methodName);
+        return programCall;
+    }
+
+}
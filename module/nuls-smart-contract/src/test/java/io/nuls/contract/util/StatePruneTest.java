@@ -0,0 +1,118 @@
+package io.nuls.contract.util;
+
+import org.ethereum.core.Block;
+import org.ethereum.crypto.HashUtil;
+import org.ethereum.datasource.JournalSource;
+import org.ethereum.datasource.NoDeleteSource;
+import org.ethereum.datasource.Source;
+import org.ethereum.datasource.XorDataSource;
+import org.ethereum.datasource.inmem.HashMapDB;
+import org.ethereum.db.IndexedBlockStore;
+import org.ethereum.db.PruneManager;
+import org.ethereum.db.RepositoryRoot;
+import org.ethereum.vm.DataWord;
+import org.junit.Assert;
+import org.junit.Test;
+
+import java.math.BigInteger;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * 合约状态裁剪与离线压缩测试
+ */
+public class StatePruneTest {
+
+    private static final byte[] ADDRESS = Arrays.copyOf(HashUtil.sha3("contract".getBytes()), 23);
+    private static final byte[] CODE = "contract code".getBytes();
+    private static final DataWord CONSTANT_KEY = new DataWord("constant");
+
+    private static IndexedBlockStore blockStore(Source<byte[], byte[]> db) {
+        IndexedBlockStore blockStore = new IndexedBlockStore();
+        blockStore.init(new XorDataSource<>(db, HashUtil.sha3("index".getBytes())), new XorDataSource<>(db, HashUtil.sha3("block".getBytes())));
+        return blockStore;
+    }
+
+    private static byte[] commit(Source<byte[], byte[]> stateSource, byte[] root, int n, int value) {
+        RepositoryRoot repository = new RepositoryRoot(stateSource, root);
+        if (n == 0) {
+            repository.saveCode(ADDRESS, CODE);
+            repository.addStorageRow(ADDRESS, CONSTANT_KEY, new DataWord(BigInteger.TEN));
+        }
+        repository.addStorageRow(ADDRESS, new DataWord("k" + n % 5), new DataWord(BigInteger.valueOf(value)));
+        repository.commit();
+        return repository.getRoot();
+    }
+
+    private static void assertState(Source<byte[], byte[]> stateSource, byte[] root, int n) {
+        RepositoryRoot repository = new RepositoryRoot(stateSource, root);
+        Assert.assertEquals("10", repository.getStorageValue(ADDRESS, CONSTANT_KEY).asString());
+        Assert.assertEquals(String.valueOf(n + 1), repository.getStorageValue(ADDRESS, new DataWord("k" + n % 5)).asString());
+        Assert.assertArrayEquals(CODE, repository.getCode(ADDRESS));
+    }
+
+    @Test
+    public void pruneTest() {
+        HashMapDB<byte[]> stateDb = new HashMapDB<>();
+        JournalSource<byte[]> journalSource = new JournalSource<>(stateDb);
+        journalSource.setJournalStore(new HashMapDB<>());
+        int depth = 8;
+        PruneManager pruneManager = new PruneManager(blockStore(new HashMapDB<>()), journalSource, stateDb, new HashMapDB<>(), depth);
+
+        List<byte[]> roots = new ArrayList<>();
+        byte[] root = HashUtil.EMPTY_TRIE_HASH;
+        int heights = 72;
+        for (int n = 0; n < heights; n++) {
+            if (n % 10 == 5) {
+                // 未被确认的打包尝试
+                byte[] sibling = commit(journalSource, root, n, -n);
+                pruneManager.blockCommitted(new Block(root, sibling, n).getHeader());
+            }
+            byte[] newRoot = commit(journalSource, root, n, n + 1);
+            pruneManager.blockCommitted(new Block(root, newRoot, n).getHeader());
+            roots.add(newRoot);
+            root = newRoot;
+        }
+
+        // 裁剪高度之后的状态完整
+        for (int n = heights - depth - 1; n < heights; n++) {
+            assertState(journalSource, roots.get(n), n);
+        }
+        // 早期状态根节点已被删除
+        Assert.assertNull(stateDb.get(roots.get(0)));
+        Assert.assertNull(stateDb.get(roots.get(30)));
+    }
+
+    @Test
+    public void compactTest() {
+        HashMapDB<byte[]> srcDb = new HashMapDB<>();
+        Source<byte[], byte[]> stateSource = new NoDeleteSource<>(new XorDataSource<>(srcDb, HashUtil.sha3("state".getBytes())));
+        // 不裁剪时只记录状态根
+        PruneManager pruneManager = new PruneManager(blockStore(srcDb), null, null, null, -1);
+
+        List<byte[]> roots = new ArrayList<>();
+        byte[] root = HashUtil.EMPTY_TRIE_HASH;
+        int heights = 1100;
+        for (int n = 0; n < heights; n++) {
+            byte[] newRoot = commit(stateSource, root, n, n + 1);
+            pruneManager.blockCommitted(new Block(root, newRoot, n).getHeader());
+            roots.add(newRoot);
+            root = newRoot;
+        }
+
+        HashMapDB<byte[]> dstDb = new HashMapDB<>();
+        ContractStateCompactTool.compact(srcDb, dstDb, 0, Collections.emptyList());
+        Source<byte[], byte[]> dstState = new XorDataSource<>(dstDb, HashUtil.sha3("state".getBytes()));
+
+        // 保留最大回滚高度内的状态及其之前一个高度的状态
+        int keepFrom = heights - 1001 - 1;
+        for (int n = keepFrom; n < heights; n++) {
+            assertState(dstState, roots.get(n), n);
+        }
+        Assert.assertNull(dstState.get(roots.get(keepFrom - 1)));
+        Assert.assertEquals(heights - 1, blockStore(dstDb).getMaxNumber());
+        Assert.assertTrue(dstDb.getStorage().size() < srcDb.getStorage().size());
+    }
+}
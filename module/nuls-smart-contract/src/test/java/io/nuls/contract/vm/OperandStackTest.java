@@ -0,0 +1,126 @@
+package io.nuls.contract.vm;
+
+import org.junit.Assert;
+import org.junit.Test;
+
+/**
+ * 操作数栈与局部变量表测试
+ */
+public class OperandStackTest {
+
+    @Test
+    public void primitiveTest() {
+        OperandStack stack = new OperandStack(2);
+        stack.pushInt(-7);
+        stack.pushLong(Long.MIN_VALUE);
+        stack.pushFloat(-0.5f);
+        stack.pushDouble(Double.NaN);
+        stack.pushBoolean(true);
+        stack.pushChar('x');
+        //超出maxStack时自动扩容
+        Assert.assertEquals(8, stack.size());
+        Assert.assertEquals('x', stack.popChar());
+        Assert.assertTrue(stack.popBoolean());
+        Assert.assertTrue(Double.isNaN(stack.popDouble()));
+        Assert.assertEquals(-0.5f, stack.popFloat(), 0f);
+        Assert.assertEquals(Long.MIN_VALUE, stack.popLong());
+        Assert.assertEquals(-7, stack.popInt());
+        Assert.assertEquals(0, stack.size());
+    }
+
+    @Test
+    public void genericTest() {
+        OperandStack stack = new OperandStack(4);
+        //通用方式放入的值原样取出
+        stack.push(Boolean.TRUE);
+        stack.push((short) 3);
+        stack.push(5);
+        stack.pushLong(9L);
+        Assert.assertNull(stack.pop());
+        Assert.assertEquals(9L, stack.pop());
+        Assert.assertEquals(5, stack.pop());
+        Assert.assertEquals((short) 3, stack.pop());
+        Assert.assertTrue(stack.popBoolean());
+
+        //pop之后再push, 与装箱后搬运的结果一致
+        stack.pushDouble(1.5d);
+        Object top = stack.pop();
+        Object value = stack.pop();
+        stack.push(value);
+        stack.push(top);
+        Assert.assertEquals(1.5d, stack.popDouble(), 0d);
+    }
+
+    @Test(expected = ClassCastException.class)
+    public void typeMismatchTest() {
+        OperandStack stack = new OperandStack(1);
+        stack.push("a");
+        stack.popInt();
+    }
+
+    @Test
+    public void dupTest() {
+        OperandStack stack = new OperandStack(8);
+        stack.pushInt(3);
+        stack.pushInt(2);
+        stack.pushInt(1);
+        stack.dupX2();
+        assertStack(stack, 1, 3, 2, 1);
+
+        stack.pushInt(3);
+        stack.pushInt(2);
+        stack.pushInt(1);
+        stack.dup2X1();
+        assertStack(stack, 2, 1, 3, 2, 1);
+
+        stack.pushInt(4);
+        stack.pushInt(3);
+        stack.pushInt(2);
+        stack.pushInt(1);
+        stack.dup2X2();
+        assertStack(stack, 2, 1, 4, 3, 2, 1);
+
+        stack.pushInt(2);
+        stack.pushInt(1);
+        stack.dupX1();
+        assertStack(stack, 1, 2, 1);
+
+        stack.pushLong(7L);
+        stack.dup2();
+        Assert.assertEquals(7L, stack.popLong());
+        Assert.assertEquals(7L, stack.popLong());
+
+        stack.pushInt(2);
+        stack.pushRef(null);
+        stack.swap();
+        Assert.assertEquals(2, stack.popInt());
+        Assert.assertNull(stack.popRef());
+        stack.pushInt(1);
+        stack.dup();
+        stack.discard();
+        assertStack(stack, 1);
+    }
+
+    @Test
+    public void localVariablesTest() {
+        LocalVariables locals = new LocalVariables(6, new Object[]{null, true, (byte) 2, 'c', 8L});
+        Assert.assertNull(locals.getRef(0));
+        Assert.assertEquals(1, locals.getInt(1));
+        Assert.assertEquals(2, locals.getInt(2));
+        Assert.assertEquals('c', locals.getInt(3));
+        Assert.assertEquals(8L, locals.getLong(4));
+        locals.setDouble(5, -2.25d);
+        Assert.assertEquals(-2.25d, locals.getDouble(5), 0d);
+        locals.setFloat(5, 1.5f);
+        Assert.assertEquals(1.5f, locals.getFloat(5), 0f);
+        locals.setInt(0, 42);
+        Assert.assertEquals(42, locals.getInt(0));
+    }
+
+    private static void assertStack(OperandStack stack, int... values) {
+        Assert.assertEquals(values.length, stack.size());
+        for (int i = values.length - 1; i >= 0; i--) {
+            Assert.assertEquals(values[i], stack.popInt());
+        }
+    }
+}
@@ -0,0 +1,65 @@
+package io.nuls.contract.vm.code;
+
+import io.nuls.contract.vm.GasCost;
+import io.nuls.contract.vm.OpCode;
+import org.junit.Assert;
+import org.junit.Test;
+import org.objectweb.asm.Opcodes;
+import org.objectweb.asm.tree.*;
+
+/**
+ * 预解码指令流测试
+ */
+public class InsnStreamTest {
+
+    @Test
+    public void decodeTest() {
+        LabelNode start = new LabelNode();
+        LabelNode end = new LabelNode();
+        InsnList instructions = new InsnList();
+        instructions.add(start);
+        instructions.add(new LineNumberNode(10, start));
+        instructions.add(new LdcInsnNode("abc"));
+        instructions.add(new InsnNode(Opcodes.POP));
+        instructions.add(new InsnNode(Opcodes.ICONST_2));
+        instructions.add(new IntInsnNode(Opcodes.NEWARRAY, Opcodes.T_INT));
+        instructions.add(new TableSwitchInsnNode(0, 3, end, end, end, end, end));
+        instructions.add(end);
+        instructions.add(new JumpInsnNode(Opcodes.GOTO, start));
+
+        InsnStream insnStream = new InsnStream(instructions);
+        Assert.assertEquals(9, insnStream.size());
+        //伪指令没有OpCode
+        Assert.assertNull(insnStream.opCode(0));
+        Assert.assertNull(insnStream.opCode(1));
+        Assert.assertEquals(OpCode.LDC, insnStream.opCode(2));
+        //字符串常量按长度计费
+        Assert.assertEquals(3 * GasCost.LDC, insnStream.gasCost(2));
+        Assert.assertEquals(GasCost.STACK, insnStream.gasCost(3));
+        //数组创建的消耗依赖操作数栈
+        Assert.assertEquals(GasCost.DYNAMIC, insnStream.gasCost(5));
+        Assert.assertEquals(3 * GasCost.TABLESWITCH, insnStream.gasCost(6));
+        Assert.assertEquals(GasCost.CONTROL, insnStream.gasCost(8));
+        Assert.assertEquals(0, insnStream.labelIndex(start));
+        Assert.assertEquals(7, insnStream.labelIndex(end));
+        Assert.assertSame(instructions.get(8), insnStream.insnNode(8));
+    }
+
+    @Test
+    public void methodRefTest() {
+        InsnList instructions = new InsnList();
+        instructions.add(new InsnNode(Opcodes.ICONST_1));
+        instructions.add(new MethodInsnNode(Opcodes.INVOKESTATIC, "java/lang/Math", "max", "(JJ)J", false));
+        InsnStream insnStream = new InsnStream(instructions);
+        Assert.assertNull(insnStream.methodRef(0));
+        InsnStream.MethodRef methodRef = insnStream.methodRef(1);
+        //与MethodArea.loadMethod拼接的方法全名相同
+        Assert.assertEquals("java/lang/Math.max(JJ)J", methodRef.getFullName());
+        Assert.assertEquals(VariableType.parseArgs("(JJ)J"), methodRef.getArgTypes());
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void unknownLabelTest() {
+        new InsnStream(new InsnList()).labelIndex(new LabelNode());
+    }
+}
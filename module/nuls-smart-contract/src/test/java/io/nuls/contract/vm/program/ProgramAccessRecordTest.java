@@ -0,0 +1,74 @@
+package io.nuls.contract.vm.program;
+
+import io.nuls.contract.vm.program.impl.AccessRecordingRepository;
+import org.ethereum.core.Repository;
+import org.ethereum.datasource.inmem.HashMapDB;
+import org.ethereum.db.RepositoryRoot;
+import org.ethereum.vm.DataWord;
+import org.junit.Assert;
+import org.junit.Test;
+
+import java.math.BigInteger;
+import java.util.Arrays;
+
+/**
+ * 合约执行状态读写记录测试
+ */
+public class ProgramAccessRecordTest {
+
+    @Test
+    public void storageConflictTest() {
+        byte[] contract = address(1);
+        Repository repository = new RepositoryRoot(new HashMapDB<>());
+        repository.createAccount(contract, address(9));
+        repository.addStorageRow(contract, new DataWord("k1"), new DataWord("v1"));
+
+        ProgramAccessRecord committed = new ProgramAccessRecord();
+        ProgramAccessRecord write = new ProgramAccessRecord();
+        new AccessRecordingRepository(repository.startTracking(), write).addStorageRow(contract, new DataWord("k1"), new DataWord("v2"));
+        committed.mergeWrites(write);
+
+        //读取其他存储项不冲突, 读取被写入的存储项冲突
+        ProgramAccessRecord other = new ProgramAccessRecord();
+        Assert.assertNull(new AccessRecordingRepository(repository.startTracking(), other).getStorageValue(contract, new DataWord("k2")));
+        Assert.assertFalse(other.conflictsWith(committed));
+
+        ProgramAccessRecord same = new ProgramAccessRecord();
+        Assert.assertNotNull(new AccessRecordingRepository(repository.startTracking(), same).getStorageValue(contract, new DataWord("k1")));
+        Assert.assertTrue(same.conflictsWith(committed));
+
+        //读取整个存储与任意存储写入冲突
+        ProgramAccessRecord scan = new ProgramAccessRecord();
+        scan.recordStorageScan(contract);
+        Assert.assertTrue(scan.conflictsWith(committed));
+    }
+
+    @Test
+    public void accountAndBalanceConflictTest() {
+        byte[] contract = address(1);
+        Repository repository = new RepositoryRoot(new HashMapDB<>());
+        repository.createAccount(contract, address(9));
+
+        ProgramAccessRecord committed = new ProgramAccessRecord();
+        ProgramAccessRecord stop = new ProgramAccessRecord();
+        new AccessRecordingRepository(repository.startTracking(), stop).setNonce(contract, BigInteger.ZERO);
+        committed.mergeWrites(stop);
+
+        ProgramAccessRecord call = new ProgramAccessRecord();
+        Assert.assertNotNull(new AccessRecordingRepository(repository.startTracking(), call).getAccountState(contract));
+        Assert.assertTrue(call.conflictsWith(committed));
+
+        //余额读取只与余额写入冲突
+        ProgramAccessRecord balance = new ProgramAccessRecord();
+        balance.recordBalanceRead(address(2));
+        Assert.assertFalse(balance.conflictsWith(committed));
+        committed.recordBalanceWrite(address(2));
+        Assert.assertTrue(balance.conflictsWith(committed));
+    }
+
+    private static byte[] address(int i) {
+        byte[] address = new byte[23];
+        Arrays.fill(address, (byte) i);
+        return address;
+    }
+}
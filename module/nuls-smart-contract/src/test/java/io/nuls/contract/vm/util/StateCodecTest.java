@@ -0,0 +1,96 @@
+package io.nuls.contract.vm.util;
+
+import com.google.common.collect.BiMap;
+import com.google.common.collect.HashBiMap;
+import io.nuls.contract.vm.ObjectRef;
+import io.nuls.contract.vm.code.VariableType;
+import org.ethereum.vm.DataWord;
+import org.junit.Assert;
+import org.junit.Test;
+
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * 合约对象状态二进制编码测试
+ */
+public class StateCodecTest {
+
+    private static BiMap<String, String> classNames() {
+        BiMap<String, String> classNames = HashBiMap.create();
+        classNames.put("0", "Lio/nuls/contract/TokenContract;");
+        classNames.putAll(VariableType.DESCRIPTORS);
+        return classNames;
+    }
+
+    @Test
+    public void fieldsTest() {
+        BiMap<String, String> classNames = classNames();
+        Map<String, Object> fields = new LinkedHashMap<>();
+        fields.put("i", -123456);
+        fields.put("j", Long.MIN_VALUE);
+        fields.put("f", 1.5f);
+        fields.put("d", -0.25d);
+        fields.put("z", true);
+        fields.put("b", (byte) -1);
+        fields.put("c", '中');
+        fields.put("s", (short) 300);
+        fields.put("str", "token\ud800");
+        fields.put("ref", new ObjectRef("12", "Lio/nuls/contract/TokenContract;"));
+        fields.put("map", new ObjectRef("13", "Ljava/util/HashMap;"));
+        fields.put("none", null);
+
+        //写入存储后读取, 存储会去掉前导0
+        byte[] value = DataWord.of(StateCodec.encode(fields, classNames)).getNoLeadZeroesData();
+        Assert.assertTrue(StateCodec.isEncoded(value));
+        Map<String, Object> decoded = (Map<String, Object>) StateCodec.decode(value, classNames);
+        Assert.assertEquals(fields.keySet().toString(), decoded.keySet().toString());
+        Assert.assertEquals(fields.toString(), decoded.toString());
+        Assert.assertEquals(Integer.class, decoded.get("i").getClass());
+        Assert.assertEquals(Short.class, decoded.get("s").getClass());
+        Assert.assertEquals("token\ud800", decoded.get("str"));
+        ObjectRef ref = (ObjectRef) decoded.get("ref");
+        Assert.assertEquals("Lio/nuls/contract/TokenContract;", ref.getDesc());
+        Assert.assertEquals(0, ref.getDimensions().length);
+
+        //比JSON编码更短
+        Assert.assertTrue(value.length < JsonUtils.encode(fields, classNames).length());
+    }
+
+    @Test
+    public void arrayTest() {
+        BiMap<String, String> classNames = classNames();
+        int[] ints = {0, -1, Integer.MAX_VALUE};
+        Assert.assertArrayEquals(ints, (int[]) StateCodec.decode(StateCodec.encodeArray(ints, Integer.TYPE, classNames), classNames));
+        char[] chars = {'a', '￿'};
+        Assert.assertArrayEquals(chars, (char[]) StateCodec.decode(StateCodec.encodeArray(chars, Character.TYPE, classNames), classNames));
+
+        ObjectRef[] refs = {new ObjectRef("5", "[Ljava/lang/String;", 3), null};
+        ObjectRef[] decoded = (ObjectRef[]) StateCodec.decode(StateCodec.encodeArray(refs, ObjectRef.class, classNames), classNames);
+        Assert.assertEquals(2, decoded.length);
+        Assert.assertEquals(refs[0].getEncoded(classNames), decoded[0].getEncoded(classNames));
+        Assert.assertNull(decoded[1]);
+
+        Map<String, Object> fields = new LinkedHashMap<>();
+        fields.put("0", new long[]{7L, -7L});
+        Map<String, Object> decodedFields = (Map<String, Object>) StateCodec.decode(StateCodec.encode(fields, classNames), classNames);
+        Assert.assertArrayEquals(new long[]{7L, -7L}, (long[]) decodedFields.get("0"));
+    }
+
+    @Test
+    public void jsonCompatibleTest() {
+        //旧的JSON格式不会被识别为二进制编码
+        BiMap<String, String> classNames = classNames();
+        Map<String, Object> fields = new LinkedHashMap<>();
+        fields.put("i", 1);
+        Assert.assertFalse(StateCodec.isEncoded(JsonUtils.encode(fields, classNames).getBytes()));
+        Assert.assertFalse(StateCodec.isEncoded(JsonUtils.encodeArray(new int[]{1}, Integer.TYPE, classNames).getBytes()));
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void truncatedTest() {
+        byte[] value = StateCodec.encode(new LinkedHashMap<>(Map.of("k", "value")), classNames());
+        StateCodec.decode(Arrays.copyOf(value, value.length - 1), classNames());
+    }
+}
@@ -1,18 +1,29 @@
 package io.nuls.transaction.cache;
 
+import io.nuls.base.data.CoinFrom;
+import io.nuls.base.data.CompactBlock;
 import io.nuls.base.data.Transaction;
 import io.nuls.core.core.annotation.Autowired;
 import io.nuls.core.core.annotation.Component;
+import io.nuls.core.exception.NulsException;
 import io.nuls.core.model.ByteArrayWrapper;
+import io.nuls.transaction.constant.TxConstant;
 import io.nuls.transaction.model.bo.Chain;
 import io.nuls.transaction.storage.UnconfirmedTxStorageService;
+import io.nuls.transaction.utils.TxUtil;
 
+import java.util.ArrayList;
+import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.atomic.AtomicInteger;
 
 /**
  * 交易已完成交易管理模块的校验(打包的时候从这里取)
+ * 按手续费率排序, 同一账户的交易保持nonce顺序, 队列满时淘汰手续费率最低的交易
  * Waiting for a packaged transaction pool
+ * Ordered by fee rate, transactions of the same account keep nonce order, the lowest fee rate ones are evicted when full
  *
  * @author: Charlie
  * @date: 2018/11/13
@@ -34,8 +45,9 @@ public class PackablePool {
     public boolean offerFirst(Chain chain, Transaction tx) {
         ByteArrayWrapper hash = new ByteArrayWrapper(tx.getHash().getBytes());
         synchronized (hash) {
-            if (chain.getPackableHashQueue().offerFirst(hash)) {
-                chain.getPackableTxMap().put(hash, tx);
+            //先放入map再放入队列, 避免打包时取出hash却找不到交易
+            putTx(chain, hash, tx);
+            if (offer(chain, hash, tx, true)) {
                 return true;
             }
         }
@@ -52,7 +64,7 @@ public class PackablePool {
     public boolean offerFirstOnlyHash(Chain chain, Transaction tx) {
         ByteArrayWrapper hash = new ByteArrayWrapper(tx.getHash().getBytes());
         synchronized (hash) {
-            if (chain.getPackableHashQueue().offerFirst(hash)) {
+            if (offer(chain, hash, tx, true)) {
                 return true;
             }
         }
@@ -71,8 +83,9 @@ public class PackablePool {
     public boolean add(Chain chain, Transaction tx) {
         ByteArrayWrapper hash = new ByteArrayWrapper(tx.getHash().getBytes());
         synchronized (hash) {
-            if (chain.getPackableHashQueue().offer(hash)) {
-                chain.getPackableTxMap().put(hash, tx);
+            //先放入map再放入队列, 避免打包时取出hash却找不到交易
+            putTx(chain, hash, tx);
+            if (offer(chain, hash, tx, false)) {
                 return true;
             }
         }
@@ -100,16 +113,45 @@ public class PackablePool {
             if (null == hash) {
                 return null;
             }
-            synchronized (hash) {
-                Transaction tx = chain.getPackableTxMap().get(hash);
-                if (null != tx) {
-                    return tx;
-                } else {
-                    unconfirmedTxStorageService.removeTx(chain.getChainId(), hash.getBytes());
-                }
+            Transaction tx = getPolledTx(chain, hash);
+            if (null != tx) {
+                return tx;
             }
         }
+    }
 
+    /**
+     * 从待打包队列获取一笔交易, 队列为空时最多等待指定时间, 有新交易加入时立即返回
+     * Gets a transaction from the queue to be packaged, waits up to the given time if the queue is empty
+     *
+     * @param chain
+     * @param timeoutMillis 最长等待时间(毫秒) / max wait time in milliseconds
+     * @return
+     */
+    public Transaction poll(Chain chain, long timeoutMillis) throws InterruptedException {
+        ByteArrayWrapper hash = chain.getPackableHashQueue().poll(timeoutMillis);
+        if (null == hash) {
+            return null;
+        }
+        Transaction tx = getPolledTx(chain, hash);
+        if (null != tx) {
+            return tx;
+        }
+        return poll(chain);
+    }
+
+    /**
+     * 获取已从队列取出的hash对应的交易, 交易已不在map中时清理该hash
+     */
+    private Transaction getPolledTx(Chain chain, ByteArrayWrapper hash) {
+        synchronized (hash) {
+            Transaction tx = chain.getPackableTxMap().get(hash);
+            if (null == tx) {
+                chain.getPackableHashQueue().forget(hash);
+                unconfirmedTxStorageService.removeTx(chain.getChainId(), hash.getBytes());
+            }
+            return tx;
+        }
     }
 
     /**
@@ -128,29 +170,50 @@ public class PackablePool {
             if (null == hash) {
                 return null;
             }
-            synchronized (hash) {
-                Transaction tx = chain.getPackableTxMap().get(hash);
-                if (null != tx) {
-                    return tx;
-                } else {
-                    unconfirmedTxStorageService.removeTx(chain.getChainId(), hash.getBytes());
-                }
+            Transaction tx = getPolledTx(chain, hash);
+            if (null != tx) {
+                return tx;
             }
         }
     }
 
     public void clearConfirmedTxs(Chain chain, List<byte[]> txHashs) {
-        Map<ByteArrayWrapper, Transaction> map = chain.getPackableTxMap();
         for (byte[] hash : txHashs) {
             ByteArrayWrapper wrapper = new ByteArrayWrapper(hash);
-            map.remove(wrapper);
+            removeTx(chain, wrapper);
+            chain.getPackableHashQueue().forget(wrapper);
         }
     }
 
     public void removeInvalidTxFromMap(Chain chain, Transaction tx) {
-        Map<ByteArrayWrapper, Transaction> map = chain.getPackableTxMap();
         ByteArrayWrapper wrapper = new ByteArrayWrapper(tx.getHash().getBytes());
-        map.remove(wrapper);
+        removeTx(chain, wrapper);
+        chain.getPackableHashQueue().forget(wrapper);
+    }
+
+    /**
+     * 待打包队列数据超过上限时, 淘汰手续费率最低的交易, 直到释放出足够的空间
+     * When the packable pool exceeds the limit, evict the transactions with the lowest fee rate until enough space is freed
+     *
+     * @param chain
+     * @param overflowSize 需要释放的数据大小 / data size to be freed
+     * @return 被淘汰的交易, 需要由调用方清理未确认数据 / evicted transactions, unconfirmed data to be cleaned by the caller
+     */
+    public List<Transaction> evict(Chain chain, long overflowSize) {
+        List<Transaction> evictedList = new ArrayList<>();
+        long freedSize = 0;
+        while (freedSize < overflowSize) {
+            ByteArrayWrapper hash = chain.getPackableHashQueue().pollLowest();
+            if (null == hash) {
+                break;
+            }
+            Transaction tx = removeTx(chain, hash);
+            if (null != tx) {
+                freedSize += tx.size();
+                evictedList.add(tx);
+            }
+        }
+        return evictedList;
     }
 
     /**
@@ -168,6 +231,144 @@ public class PackablePool {
         return chain.getPackableHashQueue().contains(hash);
     }
 
+    /**
+     * 根据紧凑区块的短交易ID查找本地的交易, 先查待打包map, 再查未确认交易库
+     * 短ID索引按sipKey缓存, 同一区块的多次查找只计算一次; 多笔交易短ID相同时都不返回, 由区块广播方补发
+     * Find local transactions by compact block short ids, from the packable map first and then the unconfirmed storage.
+     * The short id index is cached by sipKey, ambiguous short ids are skipped
+     *
+     * @param chain
+     * @param sipKey      短交易ID的key
+     * @param shortTxIds  待查找的短交易ID
+     * @return 短交易ID对应的交易
+     */
+    public Map<Long, Transaction> getByShortTxIds(Chain chain, byte[] sipKey, Set<Long> shortTxIds) {
+        ShortTxIdIndex index = chain.getShortTxIdIndexCache().computeIfAbsent(new ByteArrayWrapper(sipKey), k -> buildShortTxIdIndex(chain, sipKey));
+        Map<Long, Transaction> result = new HashMap<>(shortTxIds.size());
+        List<byte[]> unconfirmedHashes = new ArrayList<>();
+        for (Long shortTxId : shortTxIds) {
+            ByteArrayWrapper hash = index.get(shortTxId);
+            if (hash == null) {
+                continue;
+            }
+            Transaction tx = chain.getPackableTxMap().get(hash);
+            if (tx != null) {
+                result.put(shortTxId, tx);
+            } else {
+                unconfirmedHashes.add(hash.getBytes());
+            }
+        }
+        if (!unconfirmedHashes.isEmpty()) {
+            List<Transaction> txList = unconfirmedTxStorageService.getTxList(chain.getChainId(), unconfirmedHashes);
+            if (txList != null) {
+                for (Transaction tx : txList) {
+                    result.put(CompactBlock.shortTxId(sipKey, tx.getHash().getBytes()), tx);
+                }
+            }
+        }
+        return result;
+    }
+
+    /**
+     * 计算待打包map和未确认交易库中所有交易的短交易ID
+     * Compute short ids of all transactions in the packable map and the unconfirmed storage
+     */
+    private ShortTxIdIndex buildShortTxIdIndex(Chain chain, byte[] sipKey) {
+        ShortTxIdIndex index = new ShortTxIdIndex(sipKey);
+        for (ByteArrayWrapper hash : chain.getPackableTxMap().keySet()) {
+            index.add(hash);
+        }
+        List<byte[]> keys = unconfirmedTxStorageService.getAllTxkeyList(chain.getChainId());
+        if (keys != null) {
+            for (byte[] key : keys) {
+                index.add(new ByteArrayWrapper(key));
+            }
+        }
+        return index;
+    }
+
+    /**
+     * 按手续费率将交易hash放入队列, 首次放入时解析coinData得到手续费率和nonce
+     * Put transaction hash into the queue by fee rate, parse coinData for fee rate and nonce on first put
+     */
+    private boolean offer(Chain chain, ByteArrayWrapper hash, Transaction tx, boolean first) {
+        PackableTxQueue queue = chain.getPackableHashQueue();
+        if (queue.isKnown(hash)) {
+            return queue.offer(hash, 0, null, first);
+        }
+        List<byte[]> nonces = new ArrayList<>();
+        try {
+            if (null != tx.getCoinData()) {
+                for (CoinFrom coinFrom : tx.getCoinDataInstance().getFrom()) {
+                    nonces.add(coinFrom.getNonce());
+                }
+            }
+        } catch (NulsException e) {
+            chain.getLogger().error(e);
+        }
+        return queue.offer(hash, TxUtil.getFeeRate(chain, tx), nonces, first);
+    }
+
+    /**
+     * 交易放入待打包map, 同时累加map的数据大小和交易类型计数
+     * Put the transaction into the packable map and account its size and type
+     */
+    private void putTx(Chain chain, ByteArrayWrapper hash, Transaction tx) {
+        Transaction old = chain.getPackableTxMap().put(hash, tx);
+        if (null != old) {
+            //同一笔交易重复放入, 只修正大小差异
+            chain.getPackableTxMapDataSize().addAndGet(tx.size() - old.size());
+            return;
+        }
+        chain.getPackableTxMapDataSize().addAndGet(tx.size());
+        chain.getPackableTxTypeCount().computeIfAbsent(tx.getType(), k -> new AtomicInteger()).incrementAndGet();
+    }
+
+    /**
+     * 从待打包map中移除交易, 同时扣减map的数据大小和交易类型计数
+     * Remove the transaction from the packable map and deduct its size and type
+     */
+    private Transaction removeTx(Chain chain, ByteArrayWrapper hash) {
+        Transaction tx = chain.getPackableTxMap().remove(hash);
+        if (null != tx) {
+            chain.getPackableTxMapDataSize().addAndGet(-tx.size());
+            AtomicInteger count = chain.getPackableTxTypeCount().get(tx.getType());
+            if (null != count) {
+                count.decrementAndGet();
+            }
+        }
+        return tx;
+    }
+
+    /**
+     * 待打包map中交易的总字节数
+     * Total data size of transactions in the packable map
+     *
+     * @param chain
+     * @return
+     */
+    public int packableTxMapDataSize(Chain chain) {
+        return chain.getPackableTxMapDataSize().get();
+    }
+
+    /**
+     * 待打包map中各交易类型的交易数量
+     * Transaction count of each type in the packable map
+     *
+     * @param chain
+     * @return
+     */
+    public Map<Integer, Integer> packableTxTypeCount(Chain chain) {
+        Map<Integer, Integer> typeCount = new HashMap<>(TxConstant.INIT_CAPACITY_16);
+        for (Map.Entry<Integer, AtomicInteger> entry : chain.getPackableTxTypeCount().entrySet()) {
+            int count = entry.getValue().get();
+            if (count > 0) {
+                typeCount.put(entry.getKey(), count);
+            }
+        }
+        return typeCount;
+    }
+
     public int packableHashQueueSize(Chain chain) {
         return chain.getPackableHashQueue().size();
     }
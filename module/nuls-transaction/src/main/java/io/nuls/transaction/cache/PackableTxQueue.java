@@ -0,0 +1,312 @@
+package io.nuls.transaction.cache;
+
+import io.nuls.core.model.ByteArrayWrapper;
+
+import java.util.*;
+
+/**
+ * 待打包交易hash队列, 按手续费率从高到低排序, 相同手续费率按进入队列的先后顺序
+ * 同一账户的交易通过nonce关联, 子交易的有效手续费率不高于父交易, 保证父交易先被取出
+ * Packable transaction hash queue, ordered by fee rate from high to low, and by arrival order for the same fee rate.
+ * Transactions of the same account are linked by nonce, the effective fee rate of a child never exceeds its parent,
+ * so the parent is always taken out first.
+ */
+public class PackableTxQueue {
+
+    /**
+     * 打包顺序: 未延后的交易在前, 有效手续费率高的在前, 序号小的在前
+     */
+    private static final Comparator<Entry> PACK_ORDER = Comparator.comparing((Entry e) -> e.deferred)
+            .thenComparing(Comparator.comparingLong((Entry e) -> e.effectiveFeeRate).reversed())
+            .thenComparingLong(e -> e.seq);
+
+    /**
+     * 淘汰顺序: 有效手续费率低的在前, 序号大的在前
+     */
+    private static final Comparator<Entry> EVICT_ORDER = Comparator.comparingLong((Entry e) -> e.effectiveFeeRate)
+            .thenComparing(Comparator.comparingLong((Entry e) -> e.seq).reversed());
+
+    private final TreeSet<Entry> packQueue = new TreeSet<>(PACK_ORDER);
+
+    private final TreeSet<Entry> evictQueue = new TreeSet<>(EVICT_ORDER);
+
+    /**
+     * 待打包队列已知的交易(包括已被取出尚未确认的交易), 重新放回队列时保持原有的顺序
+     */
+    private final Map<ByteArrayWrapper, Entry> entries = new HashMap<>();
+
+    /**
+     * 交易hash后8位(即后续交易的nonce)对应的交易
+     */
+    private final Map<ByteArrayWrapper, Entry> nonceIndex = new HashMap<>();
+
+    /**
+     * nonce对应的在队列中的子交易
+     */
+    private final Map<ByteArrayWrapper, List<Entry>> childIndex = new HashMap<>();
+
+    private long headSeq = 0;
+
+    private long tailSeq = 0;
+
+    /**
+     * 交易是否已登记到队列中
+     *
+     * @param hash 交易hash
+     * @return boolean
+     */
+    public synchronized boolean isKnown(ByteArrayWrapper hash) {
+        return entries.containsKey(hash);
+    }
+
+    /**
+     * 将交易hash放入队列
+     * Put transaction hash into queue
+     *
+     * @param hash    交易hash
+     * @param feeRate 手续费率(每KB), 已登记的交易可传任意值
+     * @param nonces  交易coinData中from的nonce, 已登记的交易可传null
+     * @param first   是否放入最前端(重新放回的交易保持原顺序, 新交易排在相同手续费率交易的最前面)
+     * @return boolean
+     */
+    public synchronized boolean offer(ByteArrayWrapper hash, long feeRate, List<byte[]> nonces, boolean first) {
+        Entry entry = entries.get(hash);
+        if (entry == null) {
+            entry = new Entry(hash, feeRate, first ? --headSeq : ++tailSeq);
+            if (nonces != null) {
+                for (byte[] nonce : nonces) {
+                    entry.nonces.add(new ByteArrayWrapper(nonce));
+                }
+            }
+            entries.put(hash, entry);
+            nonceIndex.put(nonceKey(hash.getBytes()), entry);
+        } else if (entry.queued) {
+            return true;
+        } else if (!first) {
+            //已取出的交易放回队尾
+            entry.deferred = true;
+            entry.seq = ++tailSeq;
+        } else {
+            entry.deferred = false;
+        }
+        entry.effectiveFeeRate = entry.feeRate;
+        for (ByteArrayWrapper nonce : entry.nonces) {
+            Entry parent = nonceIndex.get(nonce);
+            if (parent != null && parent.queued) {
+                follow(entry, parent);
+            }
+            childIndex.computeIfAbsent(nonce, k -> new ArrayList<>()).add(entry);
+        }
+        link(entry);
+        lowerChildren(entry);
+        return true;
+    }
+
+    /**
+     * 取出打包顺序最前的交易hash
+     * Poll the first transaction hash in packing order
+     *
+     * @return ByteArrayWrapper
+     */
+    public synchronized ByteArrayWrapper poll() {
+        Entry entry = packQueue.pollFirst();
+        if (entry == null) {
+            return null;
+        }
+        unlink(entry);
+        return entry.hash;
+    }
+
+    /**
+     * 取出打包顺序最前的交易hash, 队列为空时最多等待指定时间, 有交易放入队列时立即返回
+     * Poll the first transaction hash in packing order, wait up to the given time if the queue is empty,
+     * returns as soon as a transaction is offered
+     *
+     * @param timeoutMillis 最长等待时间(毫秒) / max wait time in milliseconds
+     * @return ByteArrayWrapper
+     */
+    public synchronized ByteArrayWrapper poll(long timeoutMillis) throws InterruptedException {
+        long deadline = System.currentTimeMillis() + timeoutMillis;
+        long remaining = timeoutMillis;
+        while (packQueue.isEmpty() && remaining > 0) {
+            wait(remaining);
+            remaining = deadline - System.currentTimeMillis();
+        }
+        return poll();
+    }
+
+    /**
+     * 取出打包顺序最后的交易hash
+     * Poll the last transaction hash in packing order
+     *
+     * @return ByteArrayWrapper
+     */
+    public synchronized ByteArrayWrapper pollLast() {
+        Entry entry = packQueue.pollLast();
+        if (entry == null) {
+            return null;
+        }
+        unlink(entry);
+        return entry.hash;
+    }
+
+    /**
+     * 取出手续费率最低的交易hash, 待打包队列满时用于淘汰交易
+     * Poll the transaction hash with the lowest fee rate, used to evict transactions when the queue is full
+     *
+     * @return ByteArrayWrapper
+     */
+    public synchronized ByteArrayWrapper pollLowest() {
+        if (evictQueue.isEmpty()) {
+            return null;
+        }
+        Entry entry = evictQueue.first();
+        packQueue.remove(entry);
+        unlink(entry);
+        forget(entry.hash);
+        return entry.hash;
+    }
+
+    /**
+     * 队列中最低的手续费率, 队列为空时返回-1
+     *
+     * @return long
+     */
+    public synchronized long lowestFeeRate() {
+        return evictQueue.isEmpty() ? -1 : evictQueue.first().effectiveFeeRate;
+    }
+
+    /**
+     * 交易hash是否在队列中
+     *
+     * @param hash 交易hash
+     * @return boolean
+     */
+    public synchronized boolean contains(ByteArrayWrapper hash) {
+        Entry entry = entries.get(hash);
+        return entry != null && entry.queued;
+    }
+
+    /**
+     * 交易已确认或已被清理, 移除该交易的登记信息
+     * Transaction is confirmed or cleaned, remove its registration
+     *
+     * @param hash 交易hash
+     */
+    public synchronized void forget(ByteArrayWrapper hash) {
+        Entry entry = entries.remove(hash);
+        if (entry == null) {
+            return;
+        }
+        if (entry.queued) {
+            packQueue.remove(entry);
+            unlink(entry);
+        }
+        nonceIndex.remove(nonceKey(hash.getBytes()), entry);
+    }
+
+    public synchronized int size() {
+        return packQueue.size();
+    }
+
+    public synchronized boolean isEmpty() {
+        return packQueue.isEmpty();
+    }
+
+    /**
+     * 清空队列, 保留已登记的交易信息, 重新放回时保持原顺序
+     */
+    public synchronized void clear() {
+        for (Entry entry : packQueue) {
+            unlinkChildren(entry);
+            entry.queued = false;
+        }
+        packQueue.clear();
+        evictQueue.clear();
+    }
+
+    private void link(Entry entry) {
+        entry.queued = true;
+        packQueue.add(entry);
+        evictQueue.add(entry);
+        notifyAll();
+    }
+
+    private void unlink(Entry entry) {
+        evictQueue.remove(entry);
+        unlinkChildren(entry);
+        entry.queued = false;
+    }
+
+    private void unlinkChildren(Entry entry) {
+        for (ByteArrayWrapper nonce : entry.nonces) {
+            List<Entry> children = childIndex.get(nonce);
+            if (children != null) {
+                children.remove(entry);
+                if (children.isEmpty()) {
+                    childIndex.remove(nonce);
+                }
+            }
+        }
+    }
+
+    /**
+     * 父交易进入队列后, 降低手续费率更高的子交易, 保证父交易在前
+     */
+    private void lowerChildren(Entry parent) {
+        Deque<Entry> parents = new ArrayDeque<>();
+        parents.push(parent);
+        while (!parents.isEmpty()) {
+            Entry current = parents.pop();
+            List<Entry> children = childIndex.get(nonceKey(current.hash.getBytes()));
+            if (children == null) {
+                continue;
+            }
+            for (Entry child : children) {
+                if (PACK_ORDER.compare(child, current) < 0) {
+                    packQueue.remove(child);
+                    evictQueue.remove(child);
+                    follow(child, current);
+                    packQueue.add(child);
+                    evictQueue.add(child);
+                    parents.push(child);
+                }
+            }
+        }
+    }
+
+    /**
+     * 调整子交易的排序字段, 使其排在父交易之后(调用时子交易不能在排序集合中)
+     */
+    private void follow(Entry child, Entry parent) {
+        if (PACK_ORDER.compare(child, parent) > 0) {
+            return;
+        }
+        child.effectiveFeeRate = Math.min(child.effectiveFeeRate, parent.effectiveFeeRate);
+        child.deferred = child.deferred || parent.deferred;
+        if (child.seq <= parent.seq) {
+            child.seq = ++tailSeq;
+        }
+    }
+
+    private static ByteArrayWrapper nonceKey(byte[] hash) {
+        return new ByteArrayWrapper(Arrays.copyOfRange(hash, hash.length - 8, hash.length));
+    }
+
+    private static class Entry {
+        private final ByteArrayWrapper hash;
+        private final long feeRate;
+        private final List<ByteArrayWrapper> nonces = new ArrayList<>(1);
+        private long effectiveFeeRate;
+        private long seq;
+        private boolean deferred;
+        private boolean queued;
+
+        private Entry(ByteArrayWrapper hash, long feeRate, long seq) {
+            this.hash = hash;
+            this.feeRate = feeRate;
+            this.effectiveFeeRate = feeRate;
+            this.seq = seq;
+        }
+    }
+}
@@ -0,0 +1,52 @@
+package io.nuls.transaction.cache;
+
+import io.nuls.base.data.CompactBlock;
+import io.nuls.core.model.ByteArrayWrapper;
+
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * 紧凑区块短交易ID索引, 同一个区块(相同sipKey)只计算一次本地交易的短ID
+ * 多笔交易短ID相同时该短ID不可用, 由区块广播方补发
+ * Short transaction id index of a compact block, short ids of local transactions are computed once per sipKey.
+ * A short id shared by several transactions is unusable and left to the block sender.
+ */
+public class ShortTxIdIndex {
+
+    private final byte[] sipKey;
+
+    private final Map<Long, ByteArrayWrapper> hashes = new HashMap<>();
+
+    private final Set<Long> collisions = new HashSet<>();
+
+    public ShortTxIdIndex(byte[] sipKey) {
+        this.sipKey = sipKey;
+    }
+
+    public void add(ByteArrayWrapper hash) {
+        long shortTxId = CompactBlock.shortTxId(sipKey, hash.getBytes());
+        if (collisions.contains(shortTxId)) {
+            return;
+        }
+        ByteArrayWrapper old = hashes.putIfAbsent(shortTxId, hash);
+        if (old != null && !old.equals(hash)) {
+            hashes.remove(shortTxId);
+            collisions.add(shortTxId);
+        }
+    }
+
+    /**
+     * 短交易ID对应的交易hash, 不存在或有冲突时返回null
+     * Transaction hash of the short id, null if absent or ambiguous
+     *
+     * @param shortTxId 短交易ID
+     * @return 交易hash
+     */
+    public ByteArrayWrapper get(long shortTxId) {
+        return hashes.get(shortTxId);
+    }
+
+}
@@ -33,6 +33,26 @@ public class TxConfig extends ConfigBean implements ModuleConfig {
     /** 未确认交易过期时间秒 */
     private long unconfirmedTxExpire;
     private String blackHolePublicKey;
+    /** 处理网络新交易时一批交易的最大数量 */
+    private int netTxBatchSize = TxConstant.NET_TX_PROCESS_NUMBER_ONCE;
+    /** 处理网络新交易时, 收到第一笔交易后凑满一批的最长等待时间(毫秒) */
+    private long netTxMaxLatency = TxConstant.NET_TX_PROCESS_MAX_LATENCY;
+
+    public int getNetTxBatchSize() {
+        return netTxBatchSize;
+    }
+
+    public void setNetTxBatchSize(int netTxBatchSize) {
+        this.netTxBatchSize = netTxBatchSize;
+    }
+
+    public long getNetTxMaxLatency() {
+        return netTxMaxLatency;
+    }
+
+    public void setNetTxMaxLatency(long netTxMaxLatency) {
+        this.netTxMaxLatency = netTxMaxLatency;
+    }
 
     public String getBlackHolePublicKey() {
         return blackHolePublicKey;
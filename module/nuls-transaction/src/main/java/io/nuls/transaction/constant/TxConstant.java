@@ -25,9 +25,7 @@ public interface TxConstant {
     /** 验证交易签名线程 */
     String VERIFY_TX_SIGN_THREAD = "verifyTxSignThread";
 
-    /** 孤儿交易处理task, 初始延迟值(秒) */
-    int TX_ORPHAN_TASK_INITIALDELAY = 1;
-    /** 孤儿交易处理task, 运行周期间隔(秒) */
+    /** 孤儿交易处理task, 没有新交易唤醒时的运行周期间隔(秒) */
     int TX_ORPHAN_TASK_PERIOD = 3;
 
     /** 未确认交易清理机制task,初始延迟值 */
@@ -38,8 +36,15 @@ public interface TxConstant {
     /** 打包时孤儿交易返回待打包队列重新处理的最大次数，超过该次数则不再处理该孤儿交易(丢弃) */
     int PACKAGE_ORPHAN_MAXCOUNT = 5;
     int PACKAGE_ORPHAN_MAP_MAXCOUNT = 10000;
+    /** 孤儿交易处理task, 两次运行之间的最小间隔(毫秒) */
+    long TX_ORPHAN_TASK_MIN_INTERVAL = 100L;
+
     /** 处理网络新交易时，一次从待处理集合中获取新交易的最大值 */
     int NET_TX_PROCESS_NUMBER_ONCE = 3000;
+    /** 处理网络新交易时，收到第一笔交易后凑满一批的最长等待时间(毫秒) */
+    long NET_TX_PROCESS_MAX_LATENCY = 50L;
+    /** 打包时待打包队列为空, 等待新交易加入的最长时间(毫秒) */
+    long PACKAGE_TX_WAIT_TIME = 10L;
 
     /** 打包时，一批次给账本进行验证的交易数 */
     int PACKAGE_TX_VERIFY_COINDATA_NUMBER_OF_TIMES_TO_PROCESS = 2000;
@@ -63,6 +68,9 @@ public interface TxConstant {
 
     int ORPHAN_LIST_MAX_DATA_SIZE = 50000 * 300;
 
+    /** 缓存的紧凑区块短交易ID索引数量*/
+    int SHORT_TX_ID_INDEX_CACHE_SIZE = 4;
+
     int PACKAGE_TX_MAX_COUNT = 10000;
     /** 一个区块中最大允许跨链模块交易的数量*/
     int PACKAGE_CROSS_TX_MAX_COUNT = 500;
@@ -47,9 +47,7 @@ public class SchedulerManager {
         //网络新交易
         ThreadUtils.createAndRunThread(TxConstant.TX_THREAD, new NetTxProcessTask(chain));
         //孤儿交易
-        ScheduledThreadPoolExecutor orphanTxExecutor = ThreadUtils.createScheduledThreadPool(1, new NulsThreadFactory(TxConstant.TX_ORPHAN_THREAD));
-        orphanTxExecutor.scheduleAtFixedRate(new OrphanTxProcessTask(chain),
-                TxConstant.TX_ORPHAN_TASK_INITIALDELAY, TxConstant.TX_ORPHAN_TASK_PERIOD, TimeUnit.SECONDS);
+        ThreadUtils.createAndRunThread(TxConstant.TX_ORPHAN_THREAD, new OrphanTxProcessTask(chain));
 
         //未确认交易清理机制Task
         ScheduledThreadPoolExecutor unconfirmedTxExecutor = ThreadUtils.createScheduledThreadPool(1, new NulsThreadFactory(TxConstant.TX_CLEAN_THREAD));
@@ -5,6 +5,9 @@ import io.nuls.base.data.NulsHash;
 import io.nuls.base.data.Transaction;
 import io.nuls.core.log.logback.NulsLogger;
 import io.nuls.core.model.ByteArrayWrapper;
+import io.nuls.core.model.CollectionUtils;
+import io.nuls.transaction.cache.PackableTxQueue;
+import io.nuls.transaction.cache.ShortTxIdIndex;
 import io.nuls.transaction.constant.TxConstant;
 import io.nuls.transaction.model.bo.config.ConfigBean;
 import io.nuls.transaction.model.po.TransactionNetPO;
@@ -12,8 +15,8 @@ import io.nuls.transaction.model.po.TransactionNetPO;
 import java.util.*;
 import java.util.concurrent.BlockingDeque;
 import java.util.concurrent.ConcurrentHashMap;
-import java.util.concurrent.LinkedBlockingDeque;
 import java.util.concurrent.ScheduledThreadPoolExecutor;
+import java.util.concurrent.Semaphore;
 import java.util.concurrent.atomic.AtomicBoolean;
 import java.util.concurrent.atomic.AtomicInteger;
 import java.util.concurrent.locks.Lock;
@@ -57,13 +60,28 @@ public class Chain {
     /**
      * 可打包交易hash集合, 交易已完成交易管理模块的校验(打包的时候从这里取)
      */
-    private BlockingDeque<ByteArrayWrapper> packableHashQueue;
+    private PackableTxQueue packableHashQueue;
 
     /**
      * 可打包交易hash对应的交易map
      */
     private Map<ByteArrayWrapper, Transaction> packableTxMap;
 
+    /**
+     * 可打包交易map中交易的总字节数, 在交易加入和移除时增量维护
+     */
+    private AtomicInteger packableTxMapDataSize;
+
+    /**
+     * 可打包交易map中各交易类型的交易数量
+     */
+    private Map<Integer, AtomicInteger> packableTxTypeCount;
+
+    /**
+     * 紧凑区块短交易ID索引, key为sipKey
+     */
+    private Map<ByteArrayWrapper, ShortTxIdIndex> shortTxIdIndexCache;
+
 
     /**
      * 未进行验证的交易队列
@@ -76,6 +94,12 @@ public class Chain {
     private Map<String, Orphans> orphanMap;
 
     private AtomicInteger orphanListDataSize;
+
+    /**
+     * 有新交易处理完成时唤醒孤儿交易处理
+     */
+    private final Semaphore orphanSignal = new Semaphore(0);
+
     /**
      * 当前最新高度
      */
@@ -124,8 +148,11 @@ public class Chain {
         this.packableState = new AtomicBoolean(true);
         this.processTxStatus = new AtomicBoolean(false);
         this.txRegisterMap = new ConcurrentHashMap<>(TxConstant.INIT_CAPACITY_32);
-        this.packableHashQueue = new LinkedBlockingDeque<>();
+        this.packableHashQueue = new PackableTxQueue();
         this.packableTxMap = new ConcurrentHashMap<>();
+        this.packableTxMapDataSize = new AtomicInteger(0);
+        this.packableTxTypeCount = new ConcurrentHashMap<>(TxConstant.INIT_CAPACITY_16);
+        this.shortTxIdIndexCache = CollectionUtils.getSynSizedMap(TxConstant.SHORT_TX_ID_INDEX_CACHE_SIZE);
         this.contractTxFail = false;
         this.txPackageOrphanMap = new HashMap<>();
         this.orphanList = new LinkedList<>();
@@ -172,11 +199,11 @@ public class Chain {
         this.txRegisterMap = txRegisterMap;
     }
 
-    public BlockingDeque<ByteArrayWrapper> getPackableHashQueue() {
+    public PackableTxQueue getPackableHashQueue() {
         return packableHashQueue;
     }
 
-    public void setPackableHashQueue(BlockingDeque<ByteArrayWrapper> packableHashQueue) {
+    public void setPackableHashQueue(PackableTxQueue packableHashQueue) {
         this.packableHashQueue = packableHashQueue;
     }
 
@@ -188,6 +215,18 @@ public class Chain {
         this.packableTxMap = packableTxMap;
     }
 
+    public AtomicInteger getPackableTxMapDataSize() {
+        return packableTxMapDataSize;
+    }
+
+    public Map<Integer, AtomicInteger> getPackableTxTypeCount() {
+        return packableTxTypeCount;
+    }
+
+    public Map<ByteArrayWrapper, ShortTxIdIndex> getShortTxIdIndexCache() {
+        return shortTxIdIndexCache;
+    }
+
     public long getBestBlockHeight() {
         return bestBlockHeight;
     }
@@ -264,6 +303,10 @@ public class Chain {
         return packableState;
     }
 
+    public Semaphore getOrphanSignal() {
+        return orphanSignal;
+    }
+
     public AtomicInteger getOrphanListDataSize() {
         return orphanListDataSize;
     }
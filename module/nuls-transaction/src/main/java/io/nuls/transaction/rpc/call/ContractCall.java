@@ -132,6 +132,33 @@ public class ContractCall {
         }
     }
 
+    /**
+     * 批量调用智能合约, 合约模块并行预执行后按顺序提交, 返回与交易列表顺序一致的执行结果
+     * @param chain
+     * @param txList 按区块顺序排列的合约交易
+     * @param blockType 该调用的处理模式, 打包:0, 验证区块:1
+     * @return
+     * @throws NulsException
+     */
+    public static List<Map<String, Object>> invokeContractBatchV8(Chain chain, List<String> txList, int blockType, Long timeOut) throws NulsException {
+        try {
+            Map<String, Object> params = new HashMap(TxConstant.INIT_CAPACITY_8);
+            params.put(Constants.CHAIN_ID, chain.getChainId());
+            params.put("txList", txList);
+            params.put("blockType", blockType);
+            HashMap result = (HashMap) TransactionCall.requestAndResponse(ModuleE.SC.abbr, "sc_invoke_contract_batch", params, timeOut);
+            if(null == result || null == result.get("list")){
+                chain.getLogger().error("call sc_invoke_contract_batch response result is null, error:{}",
+                        TxErrorCode.REMOTE_RESPONSE_DATA_NOT_FOUND.getCode());
+                throw new NulsException(TxErrorCode.REMOTE_RESPONSE_DATA_NOT_FOUND);
+            }
+            return (List<Map<String, Object>>) result.get("list");
+        } catch (RuntimeException e) {
+            chain.getLogger().error(e);
+            throw new NulsException(TxErrorCode.RPC_REQUEST_FAILD);
+        }
+    }
+
     /**
      * 调用智能合约
      * @param chain
@@ -277,7 +277,7 @@ public class LedgerCall {
      * @param chain
      * @param txList
      */
-    public static boolean commitTxsLedger(Chain chain, List<String> txList, Long blockHeight) throws NulsException {
+    public static boolean commitTxsLedger(Chain chain, List<byte[]> txList, Long blockHeight) throws NulsException {
         try {
             Map<String, Object> params = new HashMap<>(TxConstant.INIT_CAPACITY_8);
             params.put(Constants.VERSION_KEY_STR, TxConstant.RPC_VERSION);
@@ -341,7 +341,7 @@ public class LedgerCall {
      * @param chain
      * @param txList
      */
-    public static boolean rollbackTxsLedger(Chain chain, List<String> txList, Long blockHeight) throws NulsException {
+    public static boolean rollbackTxsLedger(Chain chain, List<byte[]> txList, Long blockHeight) throws NulsException {
         try {
             Map<String, Object> params = new HashMap<>(TxConstant.INIT_CAPACITY_8);
             params.put(Constants.VERSION_KEY_STR, TxConstant.RPC_VERSION);
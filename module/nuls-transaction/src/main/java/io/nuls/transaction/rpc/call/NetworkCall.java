@@ -19,7 +19,6 @@
  */
 package io.nuls.transaction.rpc.call;
 
-import io.nuls.base.RPCUtil;
 import io.nuls.base.data.BaseBusinessMessage;
 import io.nuls.base.data.NulsHash;
 import io.nuls.base.data.Transaction;
@@ -68,7 +67,7 @@ public class NetworkCall {
             params.put(Constants.VERSION_KEY_STR, TxConstant.RPC_VERSION);
             params.put(Constants.CHAIN_ID, chain.getChainId());
             params.put("excludeNodes", excludeNodes);
-            params.put("messageBody", RPCUtil.encode(message.serialize()));
+            params.put("messageBody", message.serialize());
             params.put("command", cmd);
             params.put("percent", percent);
             Request request = MessageUtil.newRequest("nw_broadcast", params, Constants.BOOLEAN_FALSE, Constants.ZERO, Constants.ZERO);
@@ -97,7 +96,7 @@ public class NetworkCall {
             params.put(Constants.VERSION_KEY_STR, TxConstant.RPC_VERSION);
             params.put(Constants.CHAIN_ID, chain.getChainId());
             params.put("nodes", nodeId);
-            params.put("messageBody", RPCUtil.encode(message.serialize()));
+            params.put("messageBody", message.serialize());
             params.put("command", cmd);
             Request request = MessageUtil.newRequest("nw_sendPeersMsg", params, Constants.BOOLEAN_FALSE, Constants.ZERO, Constants.ZERO);
             String messageId = ResponseMessageProcessor.requestOnly(ModuleE.NW.abbr, request);
@@ -65,10 +65,11 @@ public class TransactionCall {
      * @param chain
      * @param cmd
      * @param moduleCode
-     * @param txList
+     * @param txList 交易序列化字节, 二进制帧连接中直接传输, 文本帧连接中由RPC层转为hex
+     * @param blockHeader 区块头序列化字节
      * @return
      */
-    public static boolean txProcess(Chain chain, String cmd, String moduleCode,  List<String> txList, String blockHeader) {
+    public static boolean txProcess(Chain chain, String cmd, String moduleCode,  List<byte[]> txList, byte[] blockHeader) {
         try {
             //调用单个交易验证器
             Map<String, Object> params = new HashMap(TxConstant.INIT_CAPACITY_8);
@@ -293,12 +293,17 @@ public class TransactionCmd extends BaseCmd {
             if (null == chain) {
                 throw new NulsException(TxErrorCode.CHAIN_NOT_FOUND);
             }
-            List<String> txStrList = (List<String>) params.get("txList");
-            if (null == txStrList) {
+            List<Object> txDataList = (List<Object>) params.get("txList");
+            if (null == txDataList) {
                 throw new NulsException(TxErrorCode.PARAMETER_ERROR);
             }
+            //二进制帧连接中交易为byte[]，文本帧连接中为hex字符串
+            List<byte[]> txList = new ArrayList<>(txDataList.size());
+            for (Object txData : txDataList) {
+                txList.add(RPCUtil.decode(txData));
+            }
             List<String> contractList = (List<String>) params.get("contractList");
-            result = confirmedTxService.saveTxList(chain, txStrList, contractList, (String) params.get("blockHeader"));
+            result = confirmedTxService.saveTxList(chain, txList, contractList, RPCUtil.decode(params.get("blockHeader")));
         } catch (NulsException e) {
             errorLogProcess(chain, e);
             return failed(e.getErrorCode());
@@ -334,7 +339,7 @@ public class TransactionCmd extends BaseCmd {
                 throw new NulsException(TxErrorCode.CHAIN_NOT_FOUND);
             }
             List<String> txStrList = (List<String>) params.get("txList");
-            result = confirmedTxService.saveGengsisTxList(chain, txStrList, (String) params.get("blockHeader"));
+            result = confirmedTxService.saveGengsisTxList(chain, txStrList, RPCUtil.decode(params.get("blockHeader")));
         } catch (NulsException e) {
             errorLogProcess(chain, e);
             return failed(e.getErrorCode());
@@ -374,7 +379,7 @@ public class TransactionCmd extends BaseCmd {
                 txHashList.add(NulsHash.fromHex(hashStr));
             }
             //批量回滚已确认交易
-            result = confirmedTxService.rollbackTxList(chain, txHashList, (String) params.get("blockHeader"));
+            result = confirmedTxService.rollbackTxList(chain, txHashList, RPCUtil.decode(params.get("blockHeader")));
         } catch (NulsException e) {
             errorLogProcess(chain, e);
             return failed(e.getErrorCode());
@@ -603,6 +608,47 @@ public class TransactionCmd extends BaseCmd {
     }
 
 
+    @CmdAnnotation(cmd = TxCmd.TX_GET_TXS_BY_SHORT_IDS, version = 1.0, description = "根据紧凑区块的短交易ID列表，从待打包交易中获取交易/Get packable transactions by compact block short ids")
+    @Parameters(value = {
+            @Parameter(parameterName = "chainId", requestType = @TypeDescriptor(value = int.class), parameterDes = "链id"),
+            @Parameter(parameterName = "sipKey", parameterType = "String", parameterDes = "计算短交易ID的key"),
+            @Parameter(parameterName = "shortTxIdList", requestType = @TypeDescriptor(value = List.class, collectionElement = Long.class), parameterDes = "待查询短交易ID集合")
+    })
+    @ResponseData(name = "返回值", description = "返回一个Map", responseType = @TypeDescriptor(value = Map.class, mapKeys = {
+            @Key(name = "txList", valueType = List.class, valueElement = String.class, description = "返回交易序列化数据字符串集合, 短交易ID不唯一的交易不返回")
+    }))
+    public Response getTxsByShortIds(Map params) {
+        Chain chain = null;
+        try {
+            ObjectUtils.canNotEmpty(params.get("chainId"), TxErrorCode.PARAMETER_ERROR.getMsg());
+            ObjectUtils.canNotEmpty(params.get("sipKey"), TxErrorCode.PARAMETER_ERROR.getMsg());
+            ObjectUtils.canNotEmpty(params.get("shortTxIdList"), TxErrorCode.PARAMETER_ERROR.getMsg());
+            chain = chainManager.getChain((Integer) params.get("chainId"));
+            if (null == chain) {
+                throw new NulsException(TxErrorCode.CHAIN_NOT_FOUND);
+            }
+            byte[] sipKey = RPCUtil.decode((String) params.get("sipKey"));
+            List<Object> shortTxIdList = (List<Object>) params.get("shortTxIdList");
+            Set<Long> shortTxIds = new HashSet<>(shortTxIdList.size());
+            for (Object shortTxId : shortTxIdList) {
+                shortTxIds.add(Long.parseLong(shortTxId.toString()));
+            }
+            List<String> txList = new ArrayList<>();
+            for (Transaction tx : packablePool.getByShortTxIds(chain, sipKey, shortTxIds).values()) {
+                txList.add(RPCUtil.encode(tx.serialize()));
+            }
+            Map<String, List<String>> resultMap = new HashMap<>(TxConstant.INIT_CAPACITY_2);
+            resultMap.put("txList", txList);
+            return success(resultMap);
+        } catch (NulsException e) {
+            errorLogProcess(chain, e);
+            return failed(e.getErrorCode());
+        } catch (Exception e) {
+            errorLogProcess(chain, e);
+            return failed(TxErrorCode.SYS_UNKOWN_EXCEPTION);
+        }
+    }
+
     @CmdAnnotation(cmd = TxCmd.TX_GET_NONEXISTENT_UNCONFIRMED_HASHS, version = 1.0, description = "查询传入的交易hash中,不在未确认库中的交易hash/Get nonexistent unconfirmed transaction hashs")
     @Parameters(value = {
             @Parameter(parameterName = "chainId", requestType = @TypeDescriptor(value = int.class), parameterDes = "链id"),
@@ -660,8 +706,9 @@ public class TransactionCmd extends BaseCmd {
             }
             List<String> txList = (List<String>) params.get("txList");
 
-            String blockHeaderStr = (String) params.get("blockHeader");
-            BlockHeader blockHeader = TxUtil.getInstanceRpcStr(blockHeaderStr, BlockHeader.class);
+            byte[] blockHeaderBytes = RPCUtil.decode(params.get("blockHeader"));
+            BlockHeader blockHeader = TxUtil.getInstance(blockHeaderBytes, BlockHeader.class);
+            String blockHeaderStr = RPCUtil.encode(blockHeaderBytes);
 
             String preStateRoot = (String) params.get("preStateRoot");
 
@@ -818,6 +865,40 @@ public class TransactionCmd extends BaseCmd {
     }
 
 
+    @CmdAnnotation(cmd = TxCmd.TX_PACKABLE_POOL_INFO, version = 1.0, description = "获取待打包队列的统计信息/Get packable pool metrics")
+    @Parameters(value = {
+            @Parameter(parameterName = "chainId", requestType = @TypeDescriptor(value = int.class), parameterDes = "链id")
+    })
+    @ResponseData(name = "返回值", description = "返回一个Map", responseType = @TypeDescriptor(value = Map.class, mapKeys = {
+            @Key(name = "hashQueueSize", valueType = int.class, description = "待打包hash队列中的交易数"),
+            @Key(name = "txCount", valueType = int.class, description = "待打包map中的交易数"),
+            @Key(name = "dataSize", valueType = int.class, description = "待打包map中交易的总字节数"),
+            @Key(name = "typeCount", valueType = Map.class, description = "待打包map中各交易类型的交易数")
+    }))
+    public Response packablePoolInfo(Map params) {
+        Chain chain = null;
+        try {
+            ObjectUtils.canNotEmpty(params.get("chainId"), TxErrorCode.PARAMETER_ERROR.getMsg());
+            chain = chainManager.getChain((Integer) params.get("chainId"));
+            if (null == chain) {
+                throw new NulsException(TxErrorCode.CHAIN_NOT_FOUND);
+            }
+            Map<String, Object> resultMap = new HashMap<>(TxConstant.INIT_CAPACITY_8);
+            resultMap.put("hashQueueSize", packablePool.packableHashQueueSize(chain));
+            resultMap.put("txCount", packablePool.packableTxMapSize(chain));
+            resultMap.put("dataSize", packablePool.packableTxMapDataSize(chain));
+            resultMap.put("typeCount", packablePool.packableTxTypeCount(chain));
+            return success(resultMap);
+        } catch (NulsException e) {
+            errorLogProcess(chain, e);
+            return failed(e.getErrorCode());
+        } catch (Exception e) {
+            errorLogProcess(chain, e);
+            return failed(TxErrorCode.SYS_UNKOWN_EXCEPTION);
+        }
+    }
+
+
     @CmdAnnotation(cmd = "tx_getTxSigners", version = 1.0, description = "获取交易合法签名的签名者列表/Gets the list of signers of the transaction's legal signature")
     @Parameters(value = {
             @Parameter(parameterName = "chainId", requestType = @TypeDescriptor(value = int.class), parameterDes = "链id"),
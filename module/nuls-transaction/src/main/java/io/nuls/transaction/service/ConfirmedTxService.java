@@ -32,16 +32,16 @@ public interface ConfirmedTxService {
      * @return
      * @throws NulsException
      */
-    boolean saveGengsisTxList(Chain chain, List<String> txStrList, String blockHeader) throws NulsException;
+    boolean saveGengsisTxList(Chain chain, List<String> txStrList, byte[] blockHeader) throws NulsException;
 
     /**
      * 保存区块中已确认交易
      * @param chain
-     * @param txStrList
-     * @param blockHeader
+     * @param txList 交易序列化字节
+     * @param blockHeader 区块头序列化字节
      * @return
      */
-    boolean saveTxList(Chain chain, List<String> txStrList, List<String> contractList, String blockHeader) throws NulsException;
+    boolean saveTxList(Chain chain, List<byte[]> txList, List<String> contractList, byte[] blockHeader) throws NulsException;
 
 
 
@@ -52,7 +52,7 @@ public interface ConfirmedTxService {
      * @param blockHeader
      * @return
      */
-    boolean rollbackTxList(Chain chain, List<NulsHash> txHashList, String blockHeader) throws NulsException;
+    boolean rollbackTxList(Chain chain, List<NulsHash> txHashList, byte[] blockHeader) throws NulsException;
 
 
     /**
@@ -136,4 +136,12 @@ public interface TxService {
      */
     void clearInvalidTx(Chain chain, Transaction tx, boolean changeStatus);
 
+    /**
+     * 待打包队列超过最大值时淘汰手续费率最低的交易, 并清理其未确认数据
+     * Evict the lowest fee rate transactions and clear their unconfirmed data when the packable pool is full
+     *
+     * @param chain
+     */
+    void evictPackablePool(Chain chain);
+
 }
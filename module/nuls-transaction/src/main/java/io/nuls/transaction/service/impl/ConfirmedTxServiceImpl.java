@@ -69,11 +69,15 @@ public class ConfirmedTxServiceImpl implements ConfirmedTxService {
     }
 
     @Override
-    public boolean saveGengsisTxList(Chain chain, List<String> txStrList, String blockHeader) throws NulsException {
+    public boolean saveGengsisTxList(Chain chain, List<String> txStrList, byte[] blockHeader) throws NulsException {
         if (null == chain || txStrList == null || txStrList.size() == 0) {
             throw new NulsException(TxErrorCode.PARAMETER_ERROR);
         }
-        if (!saveBlockTxList(chain, txStrList, blockHeader, true)) {
+        List<byte[]> txList = new ArrayList<>(txStrList.size());
+        for (String txStr : txStrList) {
+            txList.add(RPCUtil.decode(txStr));
+        }
+        if (!saveBlockTxList(chain, txList, blockHeader, true)) {
             chain.getLogger().debug("Save gengsis txs fail");
             return false;
         }
@@ -82,46 +86,50 @@ public class ConfirmedTxServiceImpl implements ConfirmedTxService {
     }
 
     @Override
-    public boolean saveTxList(Chain chain, List<String> txStrList, List<String> contractList, String blockHeader) throws NulsException {
-        if (null == chain || txStrList == null || txStrList.size() == 0) {
+    public boolean saveTxList(Chain chain, List<byte[]> txList, List<String> contractList, byte[] blockHeader) throws NulsException {
+        if (null == chain || txList == null || txList.size() == 0) {
             throw new NulsException(TxErrorCode.PARAMETER_ERROR);
         }
         //将智能合约交易(如果有)，从区块交易倒数第二个交易后插入
         if(contractList.size() > 0){
-            int ide = txStrList.size() - 1;
-            String lastTxStr = txStrList.get(ide);
+            List<byte[]> contractTxList = new ArrayList<>(contractList.size());
+            for (String contractTxStr : contractList) {
+                contractTxList.add(RPCUtil.decode(contractTxStr));
+            }
+            int ide = txList.size() - 1;
+            byte[] lastTx = txList.get(ide);
             //如果区块最后一笔交易是智能合约返还GAS的交易, 则将contractList交易, 加入该交易之前,否则直接加入队尾
-            if (TxUtil.extractTxTypeFromTx(lastTxStr) == TxType.CONTRACT_RETURN_GAS) {
-                txStrList.remove(ide);
-                txStrList.addAll(contractList);
-                txStrList.add(lastTxStr);
+            if (TxUtil.extractTxTypeFromTx(lastTx) == TxType.CONTRACT_RETURN_GAS) {
+                txList.remove(ide);
+                txList.addAll(contractTxList);
+                txList.add(lastTx);
             }else{
-                txStrList.addAll(contractList);
+                txList.addAll(contractTxList);
             }
         }
         try {
-            return saveBlockTxList(chain, txStrList, blockHeader, false);
+            return saveBlockTxList(chain, txList, blockHeader, false);
         } catch (Exception e) {
             chain.getLogger().error(e);
             return false;
         }
     }
 
-    private boolean saveBlockTxList(Chain chain, List<String> txStrList, String blockHeaderStr, boolean gengsis) {
+    private boolean saveBlockTxList(Chain chain, List<byte[]> txDataList, byte[] blockHeaderBytes, boolean gengsis) {
         long start = NulsDateUtils.getCurrentTimeMillis();
         List<Transaction> txList = new ArrayList<>();
         int chainId = chain.getChainId();
         List<byte[]> txHashs = new ArrayList<>();
         //组装统一验证参数数据,key为各模块统一验证器cmd
-        Map<String, List<String>> moduleVerifyMap = new HashMap<>(TxConstant.INIT_CAPACITY_8);
+        Map<String, List<byte[]>> moduleVerifyMap = new HashMap<>(TxConstant.INIT_CAPACITY_8);
         BlockHeader blockHeader;
         NulsLogger logger = chain.getLogger();
-        List<String> crossChainTxList = new ArrayList<>();
+        List<byte[]> crossChainTxList = new ArrayList<>();
         try {
-            blockHeader = TxUtil.getInstanceRpcStr(blockHeaderStr, BlockHeader.class);
-            logger.debug("[保存区块] 开始 -----高度:{} -----数量:{}", blockHeader.getHeight(), txStrList.size());
-            for (String txStr : txStrList) {
-                Transaction tx =TxUtil.getInstanceRpcStr(txStr, Transaction.class);
+            blockHeader = TxUtil.getInstance(blockHeaderBytes, BlockHeader.class);
+            logger.debug("[保存区块] 开始 -----高度:{} -----数量:{}", blockHeader.getHeight(), txDataList.size());
+            for (byte[] txData : txDataList) {
+                Transaction tx = TxUtil.getInstance(txData, Transaction.class);
                 txList.add(tx);
                 tx.setBlockHeight(blockHeader.getHeight());
                 txHashs.add(tx.getHash().getBytes());
@@ -130,10 +138,10 @@ public class ConfirmedTxServiceImpl implements ConfirmedTxService {
                 }
                 // add by pierre at 2019-12-01 把type10交易发送到合约模块筛选处理
                 if(TxType.CROSS_CHAIN == tx.getType()) {
-                    crossChainTxList.add(txStr);
+                    crossChainTxList.add(txData);
                 }
                 // end code by pierre
-                TxUtil.moduleGroups(chain, moduleVerifyMap, tx.getType(), txStr);
+                TxUtil.moduleGroups(chain, moduleVerifyMap, tx.getType(), txData);
             }
         } catch (Exception e) {
             logger.error(e);
@@ -150,21 +158,21 @@ public class ConfirmedTxServiceImpl implements ConfirmedTxService {
         // add by pierre at 2019-12-01 把type10交易发送到合约模块筛选处理，需要协议升级 done
         if (ProtocolGroupManager.getCurrentVersion(chain.getChainId()) >= TxContext.UPDATE_VERSION_V250
                 && !crossChainTxList.isEmpty() && txConfig.isCollectedSmartContractModule()) {
-            List<String> contractList = moduleVerifyMap.computeIfAbsent(ModuleE.SC.abbr, code -> new ArrayList<>());
+            List<byte[]> contractList = moduleVerifyMap.computeIfAbsent(ModuleE.SC.abbr, code -> new ArrayList<>());
             contractList.addAll(crossChainTxList);
         }
         // end code by pierre
         long commitStart = NulsDateUtils.getCurrentTimeMillis();
-        if (!commitTxs(chain, moduleVerifyMap, blockHeaderStr, true)) {
+        if (!commitTxs(chain, moduleVerifyMap, blockHeaderBytes, true)) {
             removeTxs(chain, txList, blockHeader.getHeight(), false);
             return false;
         }
         logger.debug("[保存区块] 交易业务提交 执行时间:{}", NulsDateUtils.getCurrentTimeMillis() - commitStart);
 
         long ledgerStart = NulsDateUtils.getCurrentTimeMillis();
-        if (!commitLedger(chain, txStrList, blockHeader.getHeight())) {
+        if (!commitLedger(chain, txDataList, blockHeader.getHeight())) {
             if (!gengsis) {
-                rollbackTxs(chain, moduleVerifyMap, blockHeaderStr, false);
+                rollbackTxs(chain, moduleVerifyMap, blockHeaderBytes, false);
             }
             removeTxs(chain, txList, blockHeader.getHeight(), false);
             return false;
@@ -198,11 +206,11 @@ public class ConfirmedTxServiceImpl implements ConfirmedTxService {
         return rs;
     }
 
-    private boolean commitTxs(Chain chain, Map<String, List<String>> moduleVerifyMap, String blockHeader, boolean atomicity) {
+    private boolean commitTxs(Chain chain, Map<String, List<byte[]>> moduleVerifyMap, byte[] blockHeader, boolean atomicity) {
         //调用交易模块统一commit接口 批量
-        Map<String, List<String>> successed = new HashMap<>(TxConstant.INIT_CAPACITY_8);
+        Map<String, List<byte[]>> successed = new HashMap<>(TxConstant.INIT_CAPACITY_8);
         boolean result = true;
-        for (Map.Entry<String, List<String>> entry : moduleVerifyMap.entrySet()) {
+        for (Map.Entry<String, List<byte[]>> entry : moduleVerifyMap.entrySet()) {
             boolean rs = TransactionCall.txProcess(chain, BaseConstant.TX_COMMIT,
                     entry.getKey(), entry.getValue(), blockHeader);
             if (!rs) {
@@ -219,7 +227,7 @@ public class ConfirmedTxServiceImpl implements ConfirmedTxService {
         return true;
     }
 
-    private boolean commitLedger(Chain chain, List<String> txList, long blockHeight) {
+    private boolean commitLedger(Chain chain, List<byte[]> txList, long blockHeight) {
         try {
             chain.getPackableState().set(false);
             boolean rs = LedgerCall.commitTxsLedger(chain, txList, blockHeight);
@@ -246,10 +254,10 @@ public class ConfirmedTxServiceImpl implements ConfirmedTxService {
         return rs;
     }
 
-    private boolean rollbackTxs(Chain chain, Map<String, List<String>> moduleVerifyMap, String blockHeader, boolean atomicity) {
-        Map<String, List<String>> successed = new HashMap<>(TxConstant.INIT_CAPACITY_8);
+    private boolean rollbackTxs(Chain chain, Map<String, List<byte[]>> moduleVerifyMap, byte[] blockHeader, boolean atomicity) {
+        Map<String, List<byte[]>> successed = new HashMap<>(TxConstant.INIT_CAPACITY_8);
         boolean result = true;
-        for (Map.Entry<String, List<String>> entry : moduleVerifyMap.entrySet()) {
+        for (Map.Entry<String, List<byte[]>> entry : moduleVerifyMap.entrySet()) {
             boolean rs = TransactionCall.txProcess(chain, BaseConstant.TX_ROLLBACK,
                     entry.getKey(), entry.getValue(), blockHeader);
             if (!rs) {
@@ -266,7 +274,7 @@ public class ConfirmedTxServiceImpl implements ConfirmedTxService {
         return true;
     }
 
-    private boolean rollbackLedger(Chain chain, List<String> txList, Long blockHeight) {
+    private boolean rollbackLedger(Chain chain, List<byte[]> txList, Long blockHeight) {
         if (txList.isEmpty()) {
             return true;
         }
@@ -286,21 +294,21 @@ public class ConfirmedTxServiceImpl implements ConfirmedTxService {
     }
 
     @Override
-    public boolean rollbackTxList(Chain chain, List<NulsHash> txHashList, String blockHeaderStr) throws NulsException {
+    public boolean rollbackTxList(Chain chain, List<NulsHash> txHashList, byte[] blockHeaderBytes) throws NulsException {
         NulsLogger logger =  chain.getLogger();
         if (txHashList == null || txHashList.isEmpty()) {
             throw new NulsException(TxErrorCode.PARAMETER_ERROR);
         }
         int chainId = chain.getChainId();
-        BlockHeader blockHeader = TxUtil.getInstanceRpcStr(blockHeaderStr, BlockHeader.class);
+        BlockHeader blockHeader = TxUtil.getInstance(blockHeaderBytes, BlockHeader.class);
         long blockHeight = blockHeader.getHeight();
         logger.info("start rollbackTxList block height:{}", blockHeight);
         long start = NulsDateUtils.getCurrentTimeMillis();
         List<Transaction> txList = new ArrayList<>();
-        List<String> txStrList = new ArrayList<>();
-        List<String> crossChainTxList = new ArrayList<>();
+        List<byte[]> txDataList = new ArrayList<>();
+        List<byte[]> crossChainTxList = new ArrayList<>();
         //组装统一验证参数数据,key为各模块统一验证器cmd
-        Map<String, List<String>> moduleVerifyMap = new HashMap<>(TxConstant.INIT_CAPACITY_8);
+        Map<String, List<byte[]>> moduleVerifyMap = new HashMap<>(TxConstant.INIT_CAPACITY_8);
         try {
             for (NulsHash hash : txHashList) {
                 TransactionConfirmedPO txPO = confirmedTxStorageService.getTx(chainId, hash);
@@ -310,14 +318,14 @@ public class ConfirmedTxServiceImpl implements ConfirmedTxService {
                 }
                 Transaction tx = txPO.getTx();
                 txList.add(tx);
-                String txStr = RPCUtil.encode(tx.serialize());
-                txStrList.add(txStr);
+                byte[] txData = tx.serialize();
+                txDataList.add(txData);
                 // add by pierre at 2019-12-01 把type10交易发送到合约模块筛选处理
                 if(TxType.CROSS_CHAIN == tx.getType()) {
-                    crossChainTxList.add(txStr);
+                    crossChainTxList.add(txData);
                 }
                 // end code by pierre
-                TxUtil.moduleGroups(chain, moduleVerifyMap, tx);
+                TxUtil.moduleGroups(chain, moduleVerifyMap, tx.getType(), txData);
             }
         } catch (Exception e) {
             logger.error(e);
@@ -330,7 +338,7 @@ public class ConfirmedTxServiceImpl implements ConfirmedTxService {
         logger.debug("[回滚区块] 组装数据 执行时间:{}", NulsDateUtils.getCurrentTimeMillis() - start);
 
         long ledgerStart = NulsDateUtils.getCurrentTimeMillis();
-        if (!rollbackLedger(chain, txStrList, blockHeight)) {
+        if (!rollbackLedger(chain, txDataList, blockHeight)) {
             return false;
         }
         logger.debug("[回滚区块] 回滚账本 执行时间:{}", NulsDateUtils.getCurrentTimeMillis() - ledgerStart);
@@ -338,13 +346,13 @@ public class ConfirmedTxServiceImpl implements ConfirmedTxService {
         // add by pierre at 2019-12-01 把type10交易发送到合约模块筛选处理，需要协议升级 done
         if (ProtocolGroupManager.getCurrentVersion(chain.getChainId()) >= TxContext.UPDATE_VERSION_V250
                 && !crossChainTxList.isEmpty() && txConfig.isCollectedSmartContractModule()) {
-            List<String> contractList = moduleVerifyMap.computeIfAbsent(ModuleE.SC.abbr, code -> new ArrayList<>());
+            List<byte[]> contractList = moduleVerifyMap.computeIfAbsent(ModuleE.SC.abbr, code -> new ArrayList<>());
             contractList.addAll(crossChainTxList);
         }
         // end code by pierre
         long moduleStart = NulsDateUtils.getCurrentTimeMillis();
-        if (!rollbackTxs(chain, moduleVerifyMap, blockHeaderStr, true)) {
-            commitLedger(chain, txStrList, blockHeight);
+        if (!rollbackTxs(chain, moduleVerifyMap, blockHeaderBytes, true)) {
+            commitLedger(chain, txDataList, blockHeight);
             return false;
         }
         logger.debug("[回滚区块] 回滚交易业务数据 执行时间:{}", NulsDateUtils.getCurrentTimeMillis() - moduleStart);
@@ -352,19 +360,13 @@ public class ConfirmedTxServiceImpl implements ConfirmedTxService {
 
         long dbStart = NulsDateUtils.getCurrentTimeMillis();
         if (!removeTxs(chain, txList, blockHeight, true)) {
-            commitTxs(chain, moduleVerifyMap, blockHeaderStr, false);
+            commitTxs(chain, moduleVerifyMap, blockHeaderBytes, false);
             saveTxs(chain, txList, blockHeight, false);
             return false;
         }
         //计算待打包队列大小倒序放入未确认库, 和待打包队列
 
-        int packableTxMapDataSize = 0;
-        if(chain.getPackaging().get()) {
-            //是打包节点才计算待打包队列的当前容量
-            for (Transaction tx : chain.getPackableTxMap().values()) {
-                packableTxMapDataSize += tx.size();
-            }
-        }
+        int packableTxMapDataSize = packablePool.packableTxMapDataSize(chain);
         for (int i = txList.size() - 1; i >= 0; i--) {
             Transaction tx = txList.get(i);
             if(!TxManager.isSystemTx(chain, tx)) {
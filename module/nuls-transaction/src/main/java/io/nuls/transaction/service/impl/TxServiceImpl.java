@@ -200,7 +200,7 @@ public class TxServiceImpl implements TxService {
                 throw new NulsException(TxErrorCode.TX_BROADCAST_FAIL);
             }
             //加入去重过滤集合,防止其他节点转发回来再次处理该交易
-            TxDuplicateRemoval.insertAndCheck(hash.toHex());
+            TxDuplicateRemoval.insertAndCheck(hash);
 
         } catch (IOException e) {
             throw new NulsException(TxErrorCode.DESERIALIZE_ERROR);
@@ -621,7 +621,7 @@ public class TxServiceImpl implements TxService {
 
             long packingTime = endtimestamp - startTime;
             //统计总等待时间
-            int allSleepTime = 0;
+            long allSleepTime = 0;
             //循环获取交易使用时间
             long whileTime;
             //验证账本总时间
@@ -723,8 +723,12 @@ public class TxServiceImpl implements TxService {
                 try {
                     tx = packablePool.poll(chain);
                     if (tx == null && batchProcessListSize == 0) {
-                        Thread.sleep(10L);
-                        allSleepTime += 10;
+                        //待打包队列为空时等待新交易, 有交易加入时立即唤醒
+                        long waitStart = NulsDateUtils.getCurrentTimeMillis();
+                        tx = packablePool.poll(chain, Math.min(TxConstant.PACKAGE_TX_WAIT_TIME, currentReserve - batchValidReserve));
+                        allSleepTime += NulsDateUtils.getCurrentTimeMillis() - waitStart;
+                    }
+                    if (tx == null && batchProcessListSize == 0) {
                         continue;
                     } else if (tx == null && batchProcessListSize > 0) {
                         //达到处理该批次的条件
@@ -1832,9 +1836,6 @@ public class TxServiceImpl implements TxService {
     @Override
     public void clearInvalidTx(Chain chain, Transaction tx, boolean changeStatus) {
         unconfirmedTxStorageService.removeTx(chain.getChainId(), tx.getHash());
-        //从待打包队里存交易的map中移除
-        ByteArrayWrapper wrapper = new ByteArrayWrapper(tx.getHash().getBytes());
-        chain.getPackableTxMap().remove(wrapper);
         //从待打包队列中存实际交易的的map中移除该笔交易
         packablePool.removeInvalidTxFromMap(chain, tx);
         //判断如果交易已被确认就不用调用账本清理了!!
@@ -1855,6 +1856,17 @@ public class TxServiceImpl implements TxService {
         }
     }
 
+    @Override
+    public void evictPackablePool(Chain chain) {
+        int packableTxMapDataSize = packablePool.packableTxMapDataSize(chain);
+        if (packableTxMapDataSize > TxConstant.PACKABLE_TX_MAP_MAX_DATA_SIZE) {
+            for (Transaction evicted : packablePool.evict(chain, packableTxMapDataSize - TxConstant.PACKABLE_TX_MAP_MAX_DATA_SIZE)) {
+                chain.getLogger().debug("Packable pool is full, evict the lowest fee rate transaction, hash:{}", evicted.getHash().toHex());
+                clearInvalidTx(chain, evicted);
+            }
+        }
+    }
+
     long MAX_GAS_COST_IN_BLOCK = 13000000L;
 
     @Override
@@ -1884,7 +1896,7 @@ public class TxServiceImpl implements TxService {
 
             long packingTime = endtimestamp - startTime;
             //统计总等待时间
-            int allSleepTime = 0;
+            long allSleepTime = 0;
             //循环获取交易使用时间
             long whileTime;
             //验证账本总时间
@@ -1990,8 +2002,12 @@ public class TxServiceImpl implements TxService {
                 try {
                     tx = packablePool.poll(chain);
                     if (tx == null && batchProcessListSize == 0) {
-                        Thread.sleep(10L);
-                        allSleepTime += 10;
+                        //待打包队列为空时等待新交易, 有交易加入时立即唤醒
+                        long waitStart = NulsDateUtils.getCurrentTimeMillis();
+                        tx = packablePool.poll(chain, Math.min(TxConstant.PACKAGE_TX_WAIT_TIME, currentReserve - batchValidReserve));
+                        allSleepTime += NulsDateUtils.getCurrentTimeMillis() - waitStart;
+                    }
+                    if (tx == null && batchProcessListSize == 0) {
                         continue;
                     } else if (tx == null && batchProcessListSize > 0) {
                         //达到处理该批次的条件
@@ -2319,6 +2335,8 @@ public class TxServiceImpl implements TxService {
         long f1 = System.currentTimeMillis();
         long totalGasInBlock = 0;
         List<String> contractGenerateTxs = new ArrayList<>();
+        List<String> contractTxStrList = new ArrayList<>();
+        List<Integer> contractTxTypeList = new ArrayList<>();
 
         for (String txStr : txStrList) {
             Transaction tx = TxUtil.getInstanceRpcStr(txStr, Transaction.class);
@@ -2344,32 +2362,15 @@ public class TxServiceImpl implements TxService {
             // end code by pierre
             /** 智能合约*/
             if (isSmartContractTx) {
-                // 检查区块中已使用的GAS
-                if (totalGasInBlock >= MAX_GAS_COST_IN_BLOCK) {
-                    if (TxManager.isGasCostContractTransaction(type)) {
-                        Log.error("verify block failed: Excess block gas limit of contract transaction detected.");
-                        throw new NulsException(TxErrorCode.CONTRACT_VERIFY_FAIL);
-                    }
-                }
                 /** 出现智能合约,且通知标识为false,则先调用通知 */
                 if (!contractNotify) {
                     String packingAddress = AddressTool.getStringAddressByBytes(blockHeader.getPackingAddress(chain.getChainId()));
                     ContractCall.contractBatchBegin(chain, blockHeight, blockTime, packingAddress, preStateRoot, 1);
                     contractNotify = true;
                 }
-                try {
-                    // 调用执行智能合约
-                    Map<String, Object> invokeContractRs = ContractCall.invokeContractV8(chain, RPCUtil.encode(tx.serialize()), 1, Constants.TIMEOUT_TIMEMILLIS * 20);
-                    //boolean success = (boolean) invokeContractRs.get("success");
-                    long gasUsed = Long.valueOf(invokeContractRs.get("gasUsed").toString());
-                    List<String> contractTxList = (List<String>) invokeContractRs.get("txList");
-                    totalGasInBlock += gasUsed;
-                    if (contractTxList != null && !contractTxList.isEmpty()) {
-                        contractGenerateTxs.addAll(contractTxList);
-                    }
-                } catch (IOException e) {
-                    throw new NulsException(TxErrorCode.SERIALIZE_ERROR);
-                }
+                // 收集合约交易, 遍历结束后批量执行
+                contractTxStrList.add(txStr);
+                contractTxTypeList.add(type);
             }
             if (chain.getContractGenerateTxTypes().contains(tx.getType())) {
                 //包含了合约模块生成的并且不应该放在区块交易列表中的交易
@@ -2379,6 +2380,28 @@ public class TxServiceImpl implements TxService {
             //根据模块的统一验证器名，对所有交易进行分组，准备进行各模块的统一验证
             TxUtil.moduleGroups(moduleVerifyMap, txRegister, txStr);
         }
+        if (!contractTxStrList.isEmpty()) {
+            // 批量执行智能合约, 按区块顺序检查区块中已使用的GAS
+            List<Map<String, Object>> invokeContractRsList = ContractCall.invokeContractBatchV8(chain, contractTxStrList, 1, Constants.TIMEOUT_TIMEMILLIS * 20);
+            if (invokeContractRsList.size() != contractTxStrList.size()) {
+                throw new NulsException(TxErrorCode.CONTRACT_VERIFY_FAIL);
+            }
+            for (int i = 0; i < invokeContractRsList.size(); i++) {
+                if (totalGasInBlock >= MAX_GAS_COST_IN_BLOCK) {
+                    if (TxManager.isGasCostContractTransaction(contractTxTypeList.get(i))) {
+                        Log.error("verify block failed: Excess block gas limit of contract transaction detected.");
+                        throw new NulsException(TxErrorCode.CONTRACT_VERIFY_FAIL);
+                    }
+                }
+                Map<String, Object> invokeContractRs = invokeContractRsList.get(i);
+                long gasUsed = Long.valueOf(invokeContractRs.get("gasUsed").toString());
+                List<String> contractTxList = (List<String>) invokeContractRs.get("txList");
+                totalGasInBlock += gasUsed;
+                if (contractTxList != null && !contractTxList.isEmpty()) {
+                    contractGenerateTxs.addAll(contractTxList);
+                }
+            }
+        }
         if (!contractNotify && null != scReturnGas) {
             throw new NulsException(TxErrorCode.EXIST_GAS_RETURN_WITHOUT_SC_RETURN);
         }
@@ -6,6 +6,7 @@ import io.nuls.transaction.model.po.TransactionNetPO;
 import io.nuls.transaction.model.po.TransactionUnconfirmedPO;
 
 import java.util.List;
+import java.util.function.Predicate;
 
 /**
  * 验证通过但未打包的交易(未确认交易)
@@ -97,6 +98,16 @@ public interface UnconfirmedTxStorageService {
      */
     List<byte[]> getAllTxkeyList(int chainId);
 
+    /**
+     * 分批遍历所有未确认交易, 不会一次性加载整张表, handler返回false时终止遍历
+     * Scan the unconfirmed transactions in batches, stop when the handler returns false
+     *
+     * @param chainId
+     * @param batchSize 每批交易数
+     * @param handler
+     */
+    void scanTxList(int chainId, int batchSize, Predicate<List<TransactionUnconfirmedPO>> handler);
+
     /**
      * 查询未确认交易数据，包含保存时间
      *
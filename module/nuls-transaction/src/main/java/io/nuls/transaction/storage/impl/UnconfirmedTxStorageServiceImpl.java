@@ -8,6 +8,7 @@ import io.nuls.core.crypto.HexUtil;
 import io.nuls.core.exception.NulsException;
 import io.nuls.core.exception.NulsRuntimeException;
 import io.nuls.core.model.StringUtils;
+import io.nuls.core.rockdb.model.Entry;
 import io.nuls.core.rockdb.service.RocksDBService;
 import io.nuls.core.rpc.util.NulsDateUtils;
 import io.nuls.transaction.constant.TxDBConstant;
@@ -20,6 +21,7 @@ import java.util.ArrayList;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
+import java.util.function.Predicate;
 
 import static io.nuls.transaction.utils.LoggerUtil.LOG;
 
@@ -177,6 +179,28 @@ public class UnconfirmedTxStorageServiceImpl implements UnconfirmedTxStorageServ
         return RocksDBService.keyList(TxDBConstant.DB_TRANSACTION_UNCONFIRMED_PREFIX + chainId);
     }
 
+    @Override
+    public void scanTxList(int chainId, int batchSize, Predicate<List<TransactionUnconfirmedPO>> handler) {
+        try {
+            RocksDBService.scan(TxDBConstant.DB_TRANSACTION_UNCONFIRMED_PREFIX + chainId, null, batchSize, entries -> {
+                List<TransactionUnconfirmedPO> txPOList = new ArrayList<>(entries.size());
+                for (Entry<byte[], byte[]> entry : entries) {
+                    TransactionUnconfirmedPO txPO = new TransactionUnconfirmedPO();
+                    try {
+                        txPO.parse(entry.getValue(), 0);
+                    } catch (NulsException e) {
+                        LOG.error(e);
+                        continue;
+                    }
+                    txPOList.add(txPO);
+                }
+                return handler.test(txPOList);
+            });
+        } catch (Exception e) {
+            LOG.error(e);
+        }
+    }
+
     @Override
     public List<TransactionUnconfirmedPO> getTransactionUnconfirmedPOList(int chainId, List<byte[]> hashList) {
         //check params
@@ -36,6 +36,7 @@ import io.nuls.transaction.storage.UnconfirmedTxStorageService;
 
 import java.util.ArrayList;
 import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
 import java.util.stream.Collectors;
 
 /**
@@ -43,6 +44,11 @@ import java.util.stream.Collectors;
  */
 public class ClearUnconfirmedTxProcessTask implements Runnable {
 
+    /**
+     * 每批从数据库中读取的未确认交易数
+     */
+    private static final int SCAN_BATCH_SIZE = 10000;
+
     private PackablePool packablePool = SpringLiteContext.getBean(PackablePool.class);
     private TxService txService = SpringLiteContext.getBean(TxService.class);
     private UnconfirmedTxStorageService unconfirmedTxStorageService = SpringLiteContext.getBean(UnconfirmedTxStorageService.class);
@@ -63,12 +69,12 @@ public class ClearUnconfirmedTxProcessTask implements Runnable {
     }
 
     private void doTask(Chain chain) {
-        List<byte[]> txKeyList = unconfirmedTxStorageService.getAllTxkeyList(chain.getChainId());
-        if (txKeyList == null || txKeyList.size() == 0) {
-            return;
-        }
-        int count = processUnconfirmedTxs(txKeyList);
-        chain.getLogger().info("[UnconfirmedTxProcessTask] Clean expire count: {}", count);
+        AtomicInteger count = new AtomicInteger();
+        unconfirmedTxStorageService.scanTxList(chain.getChainId(), SCAN_BATCH_SIZE, txPOList -> {
+            count.addAndGet(processExpireTxs(txPOList));
+            return true;
+        });
+        chain.getLogger().info("[UnconfirmedTxProcessTask] Clean expire count: {}", count.get());
     }
 
     private boolean processTx(Chain chain, Transaction tx) {
@@ -80,31 +86,7 @@ public class ClearUnconfirmedTxProcessTask implements Runnable {
         return false;
     }
 
-    /**
-     * 过滤指定时间内过期的交易
-     *
-     * @param txKeyList
-     * @return expireTxList
-     */
-    private int processUnconfirmedTxs(List<byte[]> txKeyList) {
-        int unconfirmedTxsCount = 0;
-        List<byte[]> queryList = new ArrayList<>();
-        for (int i = 0; i < txKeyList.size(); i++) {
-            queryList.add(txKeyList.get(i));
-            if (queryList.size() == 10000) {
-                unconfirmedTxsCount += processExpireTxs(queryList);
-                queryList.clear();
-            }
-        }
-        if(!queryList.isEmpty()){
-            unconfirmedTxsCount += processExpireTxs(queryList);
-        }
-        return unconfirmedTxsCount;
-    }
-
-    public int processExpireTxs(List<byte[]> queryList){
-        //获取未确认的交易
-        List<TransactionUnconfirmedPO> list = unconfirmedTxStorageService.getTransactionUnconfirmedPOList(chain.getChainId(), queryList);
+    public int processExpireTxs(List<TransactionUnconfirmedPO> list){
         //计算出超时的未确认交易
         List<Transaction> expireTxList = getExpireTxList(list);
         int count = 0;
@@ -29,6 +29,7 @@ import io.nuls.core.constant.BaseConstant;
 import io.nuls.core.core.ioc.SpringLiteContext;
 import io.nuls.core.exception.NulsException;
 import io.nuls.transaction.cache.PackablePool;
+import io.nuls.transaction.constant.TxConfig;
 import io.nuls.transaction.constant.TxConstant;
 import io.nuls.transaction.constant.TxErrorCode;
 import io.nuls.transaction.manager.TxManager;
@@ -55,6 +56,7 @@ public class NetTxProcessTask implements Runnable {
     private PackablePool packablePool = SpringLiteContext.getBean(PackablePool.class);
     private UnconfirmedTxStorageService unconfirmedTxStorageService = SpringLiteContext.getBean(UnconfirmedTxStorageService.class);
     private TxService txService = SpringLiteContext.getBean(TxService.class);
+    private TxConfig txConfig = SpringLiteContext.getBean(TxConfig.class);
     private Chain chain;
 
     public NetTxProcessTask(Chain chain) {
@@ -74,32 +76,32 @@ public class NetTxProcessTask implements Runnable {
     private void process() {
         while (true) {
             try {
-                if (chain.getUnverifiedQueue().isEmpty()) {
-                    Thread.sleep(3000L);
-                    continue;
-                }
                 if (chain.getProtocolUpgrade().get()) {
                     chain.getLogger().info("Protocol upgrade pause process new tx..");
                     Thread.sleep(10000L);
                     continue;
                 }
-                List<TransactionNetPO> txNetList = new ArrayList<>(TxConstant.NET_TX_PROCESS_NUMBER_ONCE);
-                chain.getUnverifiedQueue().drainTo(txNetList, TxConstant.NET_TX_PROCESS_NUMBER_ONCE);
+                //阻塞等待新交易, 收到第一笔后在最长等待时间内凑满一批
+                List<TransactionNetPO> txNetList = new ArrayList<>(txConfig.getNetTxBatchSize());
+                TxUtil.drainBatch(chain.getUnverifiedQueue(), txNetList, txConfig.getNetTxBatchSize(), txConfig.getNetTxMaxLatency());
+                if (chain.getProtocolUpgrade().get()) {
+                    //等待期间开始协议升级, 按原顺序放回未处理队列
+                    for (int i = txNetList.size() - 1; i >= 0; i--) {
+                        chain.getUnverifiedQueue().offerFirst(txNetList.get(i));
+                    }
+                    continue;
+                }
                 //分组 调验证器
                 Map<String, List<String>> moduleVerifyMap = new HashMap<>(TxConstant.INIT_CAPACITY_8);
                 Iterator<TransactionNetPO> it = txNetList.iterator();
-                int packableTxMapDataSize = 0;
-                for(Transaction tx : chain.getPackableTxMap().values()){
-                    packableTxMapDataSize += tx.size();
-                }
+                int packableTxMapDataSize = packablePool.packableTxMapDataSize(chain);
                 while (it.hasNext()) {
                     TransactionNetPO txNetPO = it.next();
                     Transaction tx = txNetPO.getTx();
                     //待打包队列map超过预定值,则不再接受处理交易,直接转发交易完整交易
                     if (TxUtil.discardTx(chain, packableTxMapDataSize, tx)) {
                         //待打包队列map超过预定值, 不处理转发失败的情况
-                        String hash = tx.getHash().toHex();
-                        NetworkCall.broadcastTx(chain, tx, TxDuplicateRemoval.getExcludeNode(hash));
+                        NetworkCall.broadcastTx(chain, tx, TxDuplicateRemoval.getExcludeNode(tx.getHash()));
                         it.remove();
                         continue;
                     }
@@ -117,11 +119,19 @@ public class NetTxProcessTask implements Runnable {
                     if (chain.getPackaging().get()) {
                         //当节点是出块节点时, 才将交易放入待打包队列
                         packablePool.add(chain, tx);
+                        txService.evictPackablePool(chain);
                     }
                     //网络交易不处理转发失败的情况
-                    String hash = tx.getHash().toHex();
-                    NetworkCall.forwardTxHash(chain, tx.getHash(), TxDuplicateRemoval.getExcludeNode(hash));
+                    NetworkCall.forwardTxHash(chain, tx.getHash(), TxDuplicateRemoval.getExcludeNode(tx.getHash()));
+                }
+                //新交易可能是孤儿交易的前置交易, 唤醒孤儿交易处理
+                if (!chain.getOrphanList().isEmpty()) {
+                    chain.getOrphanSignal().release();
                 }
+            } catch (InterruptedException e) {
+                chain.getLogger().error(e);
+                Thread.currentThread().interrupt();
+                return;
             } catch (Exception e) {
                 chain.getLogger().error(e);
             }
@@ -30,6 +30,7 @@ import io.nuls.core.core.ioc.SpringLiteContext;
 import io.nuls.core.exception.NulsException;
 import io.nuls.core.rpc.util.NulsDateUtils;
 import io.nuls.transaction.cache.PackablePool;
+import io.nuls.transaction.constant.TxConstant;
 import io.nuls.transaction.constant.TxErrorCode;
 import io.nuls.transaction.model.bo.Chain;
 import io.nuls.transaction.model.bo.Orphans;
@@ -47,6 +48,7 @@ import java.util.Iterator;
 import java.util.LinkedList;
 import java.util.List;
 import java.util.Map;
+import java.util.concurrent.TimeUnit;
 
 /**
  * @author: Charlie
@@ -70,11 +72,22 @@ public class OrphanTxProcessTask implements Runnable {
 
     @Override
     public void run() {
-        try {
-            doOrphanTxTask(chain);
-        } catch (Exception e) {
-            chain.getLogger().error("OrphanTxProcessTask Exception");
-            chain.getLogger().error(e);
+        while (true) {
+            try {
+                //有新交易处理完成时立即唤醒, 否则按周期运行
+                chain.getOrphanSignal().tryAcquire(TxConstant.TX_ORPHAN_TASK_PERIOD, TimeUnit.SECONDS);
+                chain.getOrphanSignal().drainPermits();
+                doOrphanTxTask(chain);
+                //限制两次处理的最小间隔, 避免新交易频繁时反复验证整个孤儿池
+                Thread.sleep(TxConstant.TX_ORPHAN_TASK_MIN_INTERVAL);
+            } catch (InterruptedException e) {
+                chain.getLogger().error(e);
+                Thread.currentThread().interrupt();
+                return;
+            } catch (Exception e) {
+                chain.getLogger().error("OrphanTxProcessTask Exception");
+                chain.getLogger().error(e);
+            }
         }
     }
 
@@ -152,14 +165,10 @@ public class OrphanTxProcessTask implements Runnable {
                 return true;
             }
             //待打包队列map超过预定值,则不再接受处理交易,直接转发交易完整交易
-            int packableTxMapDataSize = 0;
-            for(Transaction transaction : chain.getPackableTxMap().values()){
-                packableTxMapDataSize += transaction.size();
-            }
+            int packableTxMapDataSize = packablePool.packableTxMapDataSize(chain);
             if(TxUtil.discardTx(chain, packableTxMapDataSize, tx)){
                 //待打包队列map超过预定值, 不处理转发失败的情况
-                String hash = tx.getHash().toHex();
-                NetworkCall.broadcastTx(chain, tx, TxDuplicateRemoval.getExcludeNode(hash));
+                NetworkCall.broadcastTx(chain, tx, TxDuplicateRemoval.getExcludeNode(tx.getHash()));
                 return true;
             }
             VerifyLedgerResult verifyLedgerResult = LedgerCall.commitUnconfirmedTx(chain, RPCUtil.encode(tx.serialize()));
@@ -167,11 +176,12 @@ public class OrphanTxProcessTask implements Runnable {
                 if (chain.getPackaging().get()) {
                     //当节点是出块节点时, 才将交易放入待打包队列
                     packablePool.add(chain, tx);
+                    //待打包队列超过最大值时淘汰手续费率最低的交易
+                    txService.evictPackablePool(chain);
                 }
                 unconfirmedTxStorageService.putTx(chainId, tx);
                 //转发交易hash,网络交易不处理转发失败的情况
-                String hash = tx.getHash().toHex();
-                NetworkCall.forwardTxHash(chain, tx.getHash(), TxDuplicateRemoval.getExcludeNode(hash));
+                NetworkCall.forwardTxHash(chain, tx.getHash(), TxDuplicateRemoval.getExcludeNode(tx.getHash()));
                 return true;
             }
             if (!verifyLedgerResult.getSuccess()) {
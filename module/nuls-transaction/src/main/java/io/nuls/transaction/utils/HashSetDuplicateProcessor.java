@@ -25,48 +25,69 @@
 
 package io.nuls.transaction.utils;
 
-import java.util.HashSet;
 import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicReference;
 
 /**
+ * 去重过滤器, 数据分为新旧两代, 新一代写满后旧一代被整体丢弃, 新一代成为旧一代
+ * 查询和写入都不加锁, 元素直接使用交易hash对象, 不需要转换为hex字符串
+ * Duplicate filter split into two generations, when the current generation is full the previous one is dropped
+ * and the current one becomes the previous. Lookups and inserts are lock free.
+ *
  * @author: Niels Wang
  * @date: 2018/7/9
  */
-public class HashSetDuplicateProcessor {
+public class HashSetDuplicateProcessor<T> {
+
+    /**
+     * 每一代的最大数量, 两代合计不超过maxSize
+     */
+    private final int generationSize;
 
-    private final int maxSize;
-    private final int percent90;
-    private Set<String> set1 = new HashSet<>();
-    private Set<String> set2 = new HashSet<>();
+    private final AtomicReference<Generations<T>> generations;
 
     public HashSetDuplicateProcessor(int maxSize) {
-        this.maxSize = maxSize;
-        this.percent90 = maxSize * 9 / 10;
+        this.generationSize = Math.max(1, maxSize / 2);
+        this.generations = new AtomicReference<>(new Generations<>(ConcurrentHashMap.newKeySet(), ConcurrentHashMap.newKeySet()));
     }
 
-    public synchronized boolean insertAndCheck(String hash) {
-        boolean result = set1.add(hash);
-        if (!result) {
-            return result;
+    /**
+     * 加入, 返回false则表示已存在
+     *
+     * @param hash
+     * @return
+     */
+    public boolean insertAndCheck(T hash) {
+        Generations<T> current = generations.get();
+        if (current.previous.contains(hash) || !current.current.add(hash)) {
+            return false;
         }
-        int size = set1.size();
-        if (size >= maxSize) {
-            set2.add(hash);
-            set1.clear();
-            set1.addAll(set2);
-            set2.clear();
-        } else if (size >= percent90) {
-            set2.add(hash);
+        if (current.current.size() >= generationSize) {
+            //只有一个线程能完成换代, 其他线程继续写入新的一代
+            generations.compareAndSet(current, new Generations<>(current.current, ConcurrentHashMap.newKeySet()));
         }
-        return result;
+        return true;
+    }
+
+    public boolean contains(T hash) {
+        Generations<T> current = generations.get();
+        return current.current.contains(hash) || current.previous.contains(hash);
     }
 
-    public boolean contains(String hash) {
-        return set1.contains(hash);
+    public void remove(T hash) {
+        Generations<T> current = generations.get();
+        current.current.remove(hash);
+        current.previous.remove(hash);
     }
 
-    public void remove(String hash) {
-        set1.remove(hash);
-        set2.remove(hash);
+    private static class Generations<T> {
+        private final Set<T> previous;
+        private final Set<T> current;
+
+        private Generations(Set<T> previous, Set<T> current) {
+            this.previous = previous;
+            this.current = current;
+        }
     }
 }
@@ -24,11 +24,13 @@
 
 package io.nuls.transaction.utils;
 
-import io.nuls.core.crypto.HexUtil;
+import io.nuls.base.data.NulsHash;
 
 import java.util.List;
 import java.util.Map;
 import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicReference;
 
 /**
  * @author: Charlie
@@ -36,9 +38,9 @@ import java.util.concurrent.ConcurrentHashMap;
  */
 public class TxDuplicateRemoval {
 
-    private static HashSetDuplicateProcessor processorOfTx = new HashSetDuplicateProcessor(1000000);
+    private static HashSetDuplicateProcessor<NulsHash> processorOfTx = new HashSetDuplicateProcessor<>(1000000);
 
-    public static boolean exist(String hash) {
+    public static boolean exist(NulsHash hash) {
         return processorOfTx.contains(hash);
     }
 
@@ -47,50 +49,137 @@ public class TxDuplicateRemoval {
      * @param hash
      * @return
      */
-    public static boolean insertAndCheck(String hash) {
+    public static boolean insertAndCheck(NulsHash hash) {
         return processorOfTx.insertAndCheck(hash);
     }
 
     /**
-     * 记录向本节点发送完整交易的其他网络节点，转发hash时排除掉
+     * 超过指定数量则换代, 丢弃旧的一代
      */
-    private static Map<String, StringBuffer> forwardHashExcludeNodesMap = new ConcurrentHashMap<>();
+    private static int maxSize = 20000;
 
     /**
-     * 超过指定数量则清理
+     * 节点超过指定数量则重置节点序号和所有记录
      */
-    private static int maxSize = 20000;
+    private static int maxNodeIndex = 4096;
+
+    /**
+     * 节点id对应的序号, 每笔交易只记录节点序号组成的位图
+     */
+    private static Map<String, Integer> nodeIndexMap = new ConcurrentHashMap<>();
+
+    private static Map<Integer, String> indexNodeMap = new ConcurrentHashMap<>();
+
+    private static AtomicInteger nodeIndexGenerator = new AtomicInteger();
+
+    /**
+     * 记录向本节点发送完整交易的其他网络节点，转发hash时排除掉
+     * 分为新旧两代, 新一代写满后旧一代被丢弃
+     */
+    private static AtomicReference<ExcludeNodes> forwardHashExcludeNodes = new AtomicReference<>(new ExcludeNodes(new ConcurrentHashMap<>()));
+
+    public static void putExcludeNode(NulsHash hash, String newExcludeNode) {
+        int index = nodeIndex(newExcludeNode);
+        ExcludeNodes excludeNodes = forwardHashExcludeNodes.get();
+        excludeNodes.current.compute(hash, (k, bits) -> setBit(null == bits ? excludeNodes.previous.get(k) : bits, index));
+        if (excludeNodes.current.size() >= maxSize) {
+            forwardHashExcludeNodes.compareAndSet(excludeNodes, new ExcludeNodes(excludeNodes.current));
+        }
+    }
 
-    public static void putExcludeNode(String hash, String newExcludeNode){
-        if(forwardHashExcludeNodesMap.size() >= maxSize){
-            forwardHashExcludeNodesMap.clear();
+    public static String getExcludeNode(NulsHash hash) {
+        ExcludeNodes excludeNodes = forwardHashExcludeNodes.get();
+        long[] bits = excludeNodes.current.get(hash);
+        if (null == bits) {
+            bits = excludeNodes.previous.get(hash);
         }
-        StringBuffer excludeNodes = forwardHashExcludeNodesMap.putIfAbsent(hash, new StringBuffer(newExcludeNode));
-        if(null != excludeNodes){
-            excludeNodes.append(",").append(newExcludeNode);
-            forwardHashExcludeNodesMap.put(hash, excludeNodes);
+        if (null == bits) {
+            return null;
         }
+        StringBuilder nodes = new StringBuilder();
+        for (int word = 0; word < bits.length; word++) {
+            long value = bits[word];
+            while (value != 0) {
+                int index = word * Long.SIZE + Long.numberOfTrailingZeros(value);
+                value &= value - 1;
+                String nodeId = indexNodeMap.get(index);
+                if (null != nodeId) {
+                    if (nodes.length() > 0) {
+                        nodes.append(",");
+                    }
+                    nodes.append(nodeId);
+                }
+            }
+        }
+        return nodes.length() > 0 ? nodes.toString() : null;
+    }
+
+    public static void removeExcludeNode(NulsHash hash) {
+        ExcludeNodes excludeNodes = forwardHashExcludeNodes.get();
+        excludeNodes.current.remove(hash);
+        excludeNodes.previous.remove(hash);
     }
 
-    public static String getExcludeNode(String hash){
-        StringBuffer excludeNodes = forwardHashExcludeNodesMap.get(hash);
-        if(null != excludeNodes){
-            return excludeNodes.toString();
+    public static void removeExcludeNode(List<byte[]> hashs) {
+        for (byte[] hash : hashs) {
+            removeExcludeNode(new NulsHash(hash));
         }
-        return null;
     }
 
-    public static void removeExcludeNode(String hash){
-        forwardHashExcludeNodesMap.remove(hash);
+    public static int sizeExcludeNode() {
+        ExcludeNodes excludeNodes = forwardHashExcludeNodes.get();
+        return excludeNodes.current.size() + excludeNodes.previous.size();
+    }
+
+    /**
+     * 获取节点序号, 新节点分配新的序号
+     */
+    private static int nodeIndex(String nodeId) {
+        Integer index = nodeIndexMap.get(nodeId);
+        if (null != index) {
+            return index;
+        }
+        if (nodeIndexGenerator.get() >= maxNodeIndex) {
+            //节点变动过多, 重置序号, 已记录的排除节点一并丢弃
+            synchronized (TxDuplicateRemoval.class) {
+                if (nodeIndexGenerator.get() >= maxNodeIndex) {
+                    forwardHashExcludeNodes.set(new ExcludeNodes(new ConcurrentHashMap<>()));
+                    nodeIndexMap.clear();
+                    indexNodeMap.clear();
+                    nodeIndexGenerator.set(0);
+                }
+            }
+        }
+        return nodeIndexMap.computeIfAbsent(nodeId, k -> {
+            int newIndex = nodeIndexGenerator.getAndIncrement();
+            indexNodeMap.put(newIndex, k);
+            return newIndex;
+        });
     }
 
-    public static void removeExcludeNode(List<byte[]> hashs){
-        for(byte[] hash : hashs){
-            forwardHashExcludeNodesMap.remove(HexUtil.encode(hash));
+    /**
+     * 在位图中加入节点序号, 位图不可变, 每次返回新的位图
+     */
+    private static long[] setBit(long[] bits, int index) {
+        int word = index / Long.SIZE;
+        long mask = 1L << (index % Long.SIZE);
+        if (null != bits && word < bits.length && (bits[word] & mask) != 0) {
+            return bits;
         }
+        long[] newBits = new long[Math.max(word + 1, null == bits ? 0 : bits.length)];
+        if (null != bits) {
+            System.arraycopy(bits, 0, newBits, 0, bits.length);
+        }
+        newBits[word] |= mask;
+        return newBits;
     }
 
-    public static int sizeExcludeNode(){
-        return forwardHashExcludeNodesMap.size();
+    private static class ExcludeNodes {
+        private final Map<NulsHash, long[]> previous;
+        private final Map<NulsHash, long[]> current = new ConcurrentHashMap<>();
+
+        private ExcludeNodes(Map<NulsHash, long[]> previous) {
+            this.previous = previous;
+        }
     }
 }
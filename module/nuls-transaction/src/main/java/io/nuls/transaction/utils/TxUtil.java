@@ -42,7 +42,10 @@ import io.nuls.transaction.model.bo.Chain;
 import io.nuls.transaction.model.bo.TxRegister;
 
 import java.io.UnsupportedEncodingException;
+import java.math.BigInteger;
 import java.util.*;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.TimeUnit;
 
 import static io.nuls.transaction.utils.LoggerUtil.LOG;
 
@@ -295,28 +298,52 @@ public class TxUtil {
      * @param chain
      * @param moduleVerifyMap
      * @param txType
-     * @param txStr
+     * @param txData 交易hex字符串或交易序列化字节
      * @throws NulsException
      */
-    public static void moduleGroups(Chain chain, Map<String, List<String>> moduleVerifyMap, int txType, String txStr) {
+    public static <T> void moduleGroups(Chain chain, Map<String, List<T>> moduleVerifyMap, int txType, T txData) {
         //根据模块的统一验证器名，对所有交易进行分组，准备进行各模块的统一验证
         TxRegister txRegister = TxManager.getTxRegister(chain, txType);
-        moduleGroups(moduleVerifyMap, txRegister, txStr);
+        moduleGroups(moduleVerifyMap, txRegister, txData);
     }
 
-    public static void moduleGroups(Map<String, List<String>> moduleVerifyMap, TxRegister txRegister, String txStr) {
+    public static <T> void moduleGroups(Map<String, List<T>> moduleVerifyMap, TxRegister txRegister, T txData) {
         //根据模块的统一验证器名，对所有交易进行分组，准备进行各模块的统一验证
         String moduleCode = txRegister.getModuleCode();
         if (moduleVerifyMap.containsKey(moduleCode)) {
-            moduleVerifyMap.get(moduleCode).add(txStr);
+            moduleVerifyMap.get(moduleCode).add(txData);
         } else {
-            List<String> txStrList = new ArrayList<>();
-            txStrList.add(txStr);
-            moduleVerifyMap.put(moduleCode, txStrList);
+            List<T> txDataList = new ArrayList<>();
+            txDataList.add(txData);
+            moduleVerifyMap.put(moduleCode, txDataList);
         }
     }
 
 
+    /**
+     * 计算交易每KB支付的手续费(链主资产), 用于待打包队列排序
+     * Calculate the fee per KB paid by the transaction (chain main asset), used for ordering the packable queue
+     *
+     * @param chain
+     * @param tx
+     * @return
+     */
+    public static long getFeeRate(Chain chain, Transaction tx) {
+        if (null == tx.getCoinData() || tx.size() == 0) {
+            return 0;
+        }
+        try {
+            BigInteger fee = tx.getCoinDataInstance().getFeeByAsset(chain.getConfig().getChainId(), chain.getConfig().getAssetId());
+            if (fee.signum() <= 0) {
+                return 0;
+            }
+            BigInteger feeRate = fee.multiply(BigInteger.valueOf(1024)).divide(BigInteger.valueOf(tx.size()));
+            return feeRate.bitLength() < Long.SIZE ? feeRate.longValue() : Long.MAX_VALUE;
+        } catch (NulsException e) {
+            return 0;
+        }
+    }
+
     public static byte[] getNonce(byte[] preHash) {
         byte[] nonce = new byte[8];
         int copyEnd = preHash.length;
@@ -338,6 +365,44 @@ public class TxUtil {
         return byteBuffer.readUint16();
     }
 
+    /**
+     * 通过交易序列化字节解析交易类型
+     *
+     * @param txBytes
+     * @return
+     * @throws NulsException
+     */
+    public static int extractTxTypeFromTx(byte[] txBytes) throws NulsException {
+        return new NulsByteBuffer(txBytes).readUint16();
+    }
+
+
+    /**
+     * 从队列中取出一批数据: 阻塞等待第一个元素, 之后在最长等待时间内继续收集, 达到批次数量或超时即返回
+     * Drain a batch from the queue: block for the first element, then keep collecting until the batch is full
+     * or the max latency has elapsed
+     *
+     * @param queue            队列 / queue
+     * @param buffer           存放取出元素的集合 / collection to drain into
+     * @param batchSize        批次最大数量 / max batch size
+     * @param maxLatencyMillis 收到第一个元素后的最长等待时间(毫秒) / max wait after the first element
+     * @return 取出的元素数量 / number of drained elements
+     */
+    public static <E> int drainBatch(BlockingQueue<E> queue, Collection<? super E> buffer, int batchSize, long maxLatencyMillis) throws InterruptedException {
+        buffer.add(queue.take());
+        int count = 1 + queue.drainTo(buffer, batchSize - 1);
+        long deadline = System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(maxLatencyMillis);
+        while (count < batchSize) {
+            E e = queue.poll(deadline - System.nanoTime(), TimeUnit.NANOSECONDS);
+            if (null == e) {
+                break;
+            }
+            buffer.add(e);
+            count++;
+            count += queue.drainTo(buffer, batchSize - count);
+        }
+        return count;
+    }
 
     /**
      * 根据待打包队列存交易的map交易的数据总和, 来计算是放弃当前交易
@@ -345,6 +410,14 @@ public class TxUtil {
      * @return
      */
     public static boolean discardTx(Chain chain, int packableTxMapDataSize, Transaction tx) {
+        if (packableTxMapDataSize < TxConstant.PACKABLE_TX_MAP_STRESS_DATA_SIZE) {
+            return false;
+        }
+        //手续费率高于待打包队列中最低手续费率的交易不丢弃, 加入后由待打包队列淘汰手续费率最低的交易
+        long lowestFeeRate = chain.getPackableHashQueue().lowestFeeRate();
+        if (lowestFeeRate >= 0 && getFeeRate(chain, tx) > lowestFeeRate) {
+            return false;
+        }
         Random random = new Random();
         //随机0~9
         int number = random.nextInt(10);
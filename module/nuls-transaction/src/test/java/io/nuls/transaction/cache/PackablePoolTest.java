@@ -0,0 +1,52 @@
+package io.nuls.transaction.cache;
+
+import io.nuls.base.data.Transaction;
+import io.nuls.transaction.model.bo.Chain;
+import org.junit.Assert;
+import org.junit.Test;
+
+import java.util.List;
+import java.util.Map;
+
+/**
+ * 待打包队列数据大小和交易类型计数测试
+ */
+public class PackablePoolTest {
+
+    @Test
+    public void accountingTest() {
+        Chain chain = new Chain();
+        PackablePool packablePool = new PackablePool();
+        Transaction tx1 = newTx(2, 1);
+        Transaction tx2 = newTx(2, 2);
+        Transaction tx3 = newTx(3, 3);
+        packablePool.add(chain, tx1);
+        packablePool.add(chain, tx2);
+        packablePool.offerFirst(chain, tx3);
+        //重复放入不重复计数
+        packablePool.add(chain, tx1);
+        Assert.assertEquals(tx1.size() + tx2.size() + tx3.size(), packablePool.packableTxMapDataSize(chain));
+        Map<Integer, Integer> typeCount = packablePool.packableTxTypeCount(chain);
+        Assert.assertEquals(Integer.valueOf(2), typeCount.get(2));
+        Assert.assertEquals(Integer.valueOf(1), typeCount.get(3));
+
+        packablePool.removeInvalidTxFromMap(chain, tx3);
+        packablePool.removeInvalidTxFromMap(chain, tx3);
+        Assert.assertEquals(tx1.size() + tx2.size(), packablePool.packableTxMapDataSize(chain));
+        Assert.assertNull(packablePool.packableTxTypeCount(chain).get(3));
+
+        packablePool.clearConfirmedTxs(chain, List.of(tx1.getHash().getBytes()));
+        List<Transaction> evicted = packablePool.evict(chain, 1);
+        Assert.assertEquals(1, evicted.size());
+        Assert.assertEquals(0, packablePool.packableTxMapDataSize(chain));
+        Assert.assertTrue(packablePool.packableTxTypeCount(chain).isEmpty());
+        Assert.assertEquals(0, packablePool.packableTxMapSize(chain));
+    }
+
+    private static Transaction newTx(int type, int data) {
+        Transaction tx = new Transaction(type);
+        tx.setTime(data);
+        tx.setTxData(new byte[]{(byte) data});
+        return tx;
+    }
+}
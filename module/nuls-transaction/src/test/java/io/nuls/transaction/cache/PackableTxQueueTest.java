@@ -0,0 +1,101 @@
+package io.nuls.transaction.cache;
+
+import io.nuls.core.model.ByteArrayWrapper;
+import org.junit.Assert;
+import org.junit.Test;
+
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * 待打包交易队列排序测试
+ */
+public class PackableTxQueueTest {
+
+    @Test
+    public void feeRateOrderTest() {
+        PackableTxQueue queue = new PackableTxQueue();
+        queue.offer(hash(1), 10, null, false);
+        queue.offer(hash(2), 30, null, false);
+        queue.offer(hash(3), 20, null, false);
+        queue.offer(hash(4), 30, null, false);
+        Assert.assertTrue(queue.contains(hash(3)));
+        Assert.assertEquals(10, queue.lowestFeeRate());
+        Assert.assertEquals(hash(2), queue.poll());
+        Assert.assertEquals(hash(4), queue.poll());
+        Assert.assertEquals(hash(3), queue.poll());
+        Assert.assertEquals(hash(1), queue.poll());
+        Assert.assertNull(queue.poll());
+    }
+
+    @Test
+    public void nonceOrderTest() {
+        PackableTxQueue queue = new PackableTxQueue();
+        //子交易先于父交易进入队列, 且手续费率更高
+        queue.offer(hash(2), 50, nonces(1), false);
+        queue.offer(hash(3), 20, null, false);
+        queue.offer(hash(1), 10, null, false);
+        Assert.assertEquals(hash(3), queue.poll());
+        Assert.assertEquals(hash(1), queue.poll());
+        Assert.assertEquals(hash(2), queue.poll());
+
+        //放回队列保持原有顺序
+        queue.offer(hash(2), 0, null, true);
+        queue.offer(hash(1), 0, null, true);
+        Assert.assertEquals(hash(1), queue.poll());
+        Assert.assertEquals(hash(2), queue.poll());
+    }
+
+    @Test
+    public void evictTest() {
+        PackableTxQueue queue = new PackableTxQueue();
+        queue.offer(hash(1), 10, null, false);
+        queue.offer(hash(2), 40, nonces(1), false);
+        queue.offer(hash(3), 5, null, false);
+        //手续费率最低的交易先被淘汰, 子交易先于父交易被淘汰
+        Assert.assertEquals(hash(3), queue.pollLowest());
+        Assert.assertEquals(hash(2), queue.pollLowest());
+        Assert.assertFalse(queue.isKnown(hash(2)));
+        Assert.assertEquals(1, queue.size());
+
+        //已取出的交易加入队尾
+        queue.offer(hash(4), 1, null, false);
+        Assert.assertEquals(hash(1), queue.poll());
+        queue.offer(hash(1), 0, null, false);
+        Assert.assertEquals(hash(4), queue.poll());
+        Assert.assertEquals(hash(1), queue.poll());
+        queue.forget(hash(1));
+        Assert.assertTrue(queue.isEmpty());
+        Assert.assertEquals(-1, queue.lowestFeeRate());
+    }
+
+    @Test
+    public void pollWaitTest() throws Exception {
+        PackableTxQueue queue = new PackableTxQueue();
+        Assert.assertNull(queue.poll(10L));
+        new Thread(() -> {
+            try {
+                Thread.sleep(50L);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+            queue.offer(hash(1), 10, null, false);
+        }).start();
+        //有交易放入时立即唤醒, 不会等到超时
+        long start = System.currentTimeMillis();
+        Assert.assertEquals(hash(1), queue.poll(5000L));
+        Assert.assertTrue(System.currentTimeMillis() - start < 5000L);
+    }
+
+    private static ByteArrayWrapper hash(int i) {
+        byte[] hash = new byte[32];
+        Arrays.fill(hash, (byte) i);
+        return new ByteArrayWrapper(hash);
+    }
+
+    private static List<byte[]> nonces(int parent) {
+        byte[] nonce = new byte[8];
+        Arrays.fill(nonce, (byte) parent);
+        return List.of(nonce);
+    }
+}
@@ -0,0 +1,31 @@
+package io.nuls.transaction.cache;
+
+import io.nuls.base.data.CompactBlock;
+import io.nuls.core.crypto.Sha256Hash;
+import io.nuls.core.model.ByteArrayWrapper;
+import org.junit.Assert;
+import org.junit.Test;
+
+import java.util.Arrays;
+
+/**
+ * 紧凑区块短交易ID索引测试
+ */
+public class ShortTxIdIndexTest {
+
+    @Test
+    public void indexTest() {
+        byte[] sipKey = Arrays.copyOf(Sha256Hash.hash(new byte[]{1}), 16);
+        ShortTxIdIndex index = new ShortTxIdIndex(sipKey);
+        ByteArrayWrapper hash1 = new ByteArrayWrapper(Sha256Hash.hash(new byte[]{2}));
+        ByteArrayWrapper hash2 = new ByteArrayWrapper(Sha256Hash.hash(new byte[]{3}));
+        index.add(hash1);
+        index.add(hash2);
+        //同一笔交易同时在待打包map和未确认交易库中, 不视为冲突
+        index.add(hash1);
+        Assert.assertEquals(hash1, index.get(CompactBlock.shortTxId(sipKey, hash1.getBytes())));
+        Assert.assertEquals(hash2, index.get(CompactBlock.shortTxId(sipKey, hash2.getBytes())));
+        long missing = CompactBlock.shortTxId(sipKey, Sha256Hash.hash(new byte[]{4}));
+        Assert.assertNull(index.get(missing));
+    }
+}
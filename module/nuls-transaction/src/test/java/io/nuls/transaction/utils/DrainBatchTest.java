@@ -0,0 +1,48 @@
+package io.nuls.transaction.utils;
+
+import org.junit.Assert;
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.LinkedBlockingQueue;
+
+/**
+ * 网络新交易批量取出测试
+ */
+public class DrainBatchTest {
+
+    @Test
+    public void batchSizeTest() throws Exception {
+        BlockingQueue<Integer> queue = new LinkedBlockingQueue<>();
+        for (int i = 0; i < 5; i++) {
+            queue.add(i);
+        }
+        List<Integer> batch = new ArrayList<>();
+        Assert.assertEquals(3, TxUtil.drainBatch(queue, batch, 3, 1000L));
+        Assert.assertEquals(List.of(0, 1, 2), batch);
+        Assert.assertEquals(2, queue.size());
+    }
+
+    @Test
+    public void maxLatencyTest() throws Exception {
+        BlockingQueue<Integer> queue = new LinkedBlockingQueue<>();
+        new Thread(() -> {
+            try {
+                Thread.sleep(50L);
+                queue.add(1);
+                queue.add(2);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        }).start();
+        List<Integer> batch = new ArrayList<>();
+        long start = System.currentTimeMillis();
+        //阻塞等待第一笔, 批次未满时在最长等待时间后返回
+        Assert.assertEquals(2, TxUtil.drainBatch(queue, batch, 100, 100L));
+        long cost = System.currentTimeMillis() - start;
+        Assert.assertTrue(cost >= 100L && cost < 1000L);
+        Assert.assertEquals(List.of(1, 2), batch);
+    }
+}
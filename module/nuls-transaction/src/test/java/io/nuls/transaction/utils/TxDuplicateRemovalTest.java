@@ -0,0 +1,57 @@
+package io.nuls.transaction.utils;
+
+import io.nuls.base.data.NulsHash;
+import org.junit.Assert;
+import org.junit.Test;
+
+import java.util.Arrays;
+
+/**
+ * 交易去重和转发排除节点测试
+ */
+public class TxDuplicateRemovalTest {
+
+    @Test
+    public void duplicateTest() {
+        HashSetDuplicateProcessor<NulsHash> processor = new HashSetDuplicateProcessor<>(4);
+        Assert.assertTrue(processor.insertAndCheck(hash(1)));
+        Assert.assertFalse(processor.insertAndCheck(hash(1)));
+        Assert.assertTrue(processor.insertAndCheck(hash(2)));
+        //换代后旧一代的数据仍然可以查到
+        Assert.assertTrue(processor.insertAndCheck(hash(3)));
+        Assert.assertFalse(processor.insertAndCheck(hash(1)));
+        Assert.assertTrue(processor.contains(hash(2)));
+        //再次换代后最早的数据被丢弃
+        Assert.assertTrue(processor.insertAndCheck(hash(4)));
+        Assert.assertTrue(processor.insertAndCheck(hash(5)));
+        Assert.assertFalse(processor.contains(hash(1)));
+        processor.remove(hash(5));
+        Assert.assertFalse(processor.contains(hash(5)));
+    }
+
+    @Test
+    public void excludeNodeTest() {
+        NulsHash hash = hash(10);
+        Assert.assertNull(TxDuplicateRemoval.getExcludeNode(hash));
+        TxDuplicateRemoval.putExcludeNode(hash, "192.168.1.1:8001");
+        TxDuplicateRemoval.putExcludeNode(hash, "192.168.1.2:8001");
+        TxDuplicateRemoval.putExcludeNode(hash, "192.168.1.1:8001");
+        String excludeNodes = TxDuplicateRemoval.getExcludeNode(hash);
+        Assert.assertEquals(2, excludeNodes.split(",").length);
+        Assert.assertTrue(excludeNodes.contains("192.168.1.1:8001"));
+        Assert.assertTrue(excludeNodes.contains("192.168.1.2:8001"));
+        //超过64个节点时位图扩容
+        for (int i = 0; i < 100; i++) {
+            TxDuplicateRemoval.putExcludeNode(hash(11), "10.0.0." + i + ":8001");
+        }
+        Assert.assertEquals(100, TxDuplicateRemoval.getExcludeNode(hash(11)).split(",").length);
+        TxDuplicateRemoval.removeExcludeNode(hash);
+        Assert.assertNull(TxDuplicateRemoval.getExcludeNode(hash));
+    }
+
+    private static NulsHash hash(int i) {
+        byte[] hash = new byte[NulsHash.HASH_LENGTH];
+        Arrays.fill(hash, (byte) i);
+        return new NulsHash(hash);
+    }
+}